@@ -1,16 +1,30 @@
 package me.tamkungz.codecmedia;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.model.AudioScanResult;
+import me.tamkungz.codecmedia.model.ConcatResult;
 import me.tamkungz.codecmedia.model.ConversionResult;
 import me.tamkungz.codecmedia.model.ExtractionResult;
+import me.tamkungz.codecmedia.model.LoudnessResult;
 import me.tamkungz.codecmedia.model.Metadata;
 import me.tamkungz.codecmedia.model.PlaybackResult;
 import me.tamkungz.codecmedia.model.ProbeResult;
+import me.tamkungz.codecmedia.model.SplitResult;
+import me.tamkungz.codecmedia.model.TrimResult;
 import me.tamkungz.codecmedia.model.ValidationResult;
+import me.tamkungz.codecmedia.model.WaveformResult;
 import me.tamkungz.codecmedia.options.AudioExtractOptions;
+import me.tamkungz.codecmedia.options.AudioScanOptions;
+import me.tamkungz.codecmedia.options.ConcatOptions;
 import me.tamkungz.codecmedia.options.ConversionOptions;
+import me.tamkungz.codecmedia.options.LoudnessOptions;
 import me.tamkungz.codecmedia.options.PlaybackOptions;
+import me.tamkungz.codecmedia.options.SplitOptions;
 import me.tamkungz.codecmedia.options.ValidationOptions;
+import me.tamkungz.codecmedia.options.WaveformOptions;
 
 /**
  * Core media engine contract used by {@link CodecMedia}.
@@ -18,6 +32,10 @@ import me.tamkungz.codecmedia.options.ValidationOptions;
  * The current default implementation focuses on practical probing/validation workflows and
  * light-weight conversion routing. For richer embedded metadata (for example MP3 album cover/APIC),
  * callers should treat {@link #probe(Path)} output as technical media info rather than full tag extraction.
+ * <p>
+ * Operations added after the first release have default implementations that throw
+ * {@link CodecMediaException} (the batch loudness call analyzes inputs one by one), so existing
+ * implementations keep compiling and linking.
  */
 public interface CodecMediaEngine {
 
@@ -86,9 +104,13 @@ public interface CodecMediaEngine {
 
     /**
      * Starts playback/viewing for supported media.
+     * <p>
+     * WAV and AIFF audio is streamed to a {@code SourceDataLine} through a
+     * {@link PlaybackOptions#bufferBytes()} ring buffer, so playback starts without loading the file;
+     * the returned {@link PlaybackResult#session()} reports buffer underruns while it plays.
      *
      * @param input source media file
-     * @param options playback options controlling dry-run and external app behavior
+     * @param options playback options controlling dry-run, external app behavior and buffer size
      * @return playback result including backend and started status
      * @throws CodecMediaException when playback cannot be started
      */
@@ -102,4 +124,143 @@ public interface CodecMediaEngine {
      * @return validation result with warnings/errors
      */
     ValidationResult validate(Path input, ValidationOptions options) throws CodecMediaException;
+
+    /**
+     * Generates a multi-resolution min/max/RMS waveform peak file next to the input
+     * ({@code <file>.codecmedia.peaks}) in a single streaming pass.
+     * <p>
+     * WAV and AIFF payloads are read in place and scanned in parallel, FLAC is decoded in pure Java,
+     * and other audio formats are decoded through Java Sound when a decoder is available.
+     *
+     * @param input source audio file
+     * @param options waveform options; implementation defaults may be used when {@code null}
+     * @return waveform result describing the peak file and its zoom levels
+     * @throws CodecMediaException when the input cannot be decoded to PCM or the peak file cannot be written
+     */
+    default WaveformResult generateWaveform(Path input, WaveformOptions options) throws CodecMediaException {
+        throw new CodecMediaException("Waveform generation is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Measures EBU R128 / ITU-R BS.1770 loudness (integrated loudness, loudness range, true peak)
+     * and the ReplayGain 2.0 track gain in a single streaming pass.
+     * <p>
+     * When {@link LoudnessOptions#writeMetadata()} is set, {@code replaygain_track_gain} and
+     * {@code replaygain_track_peak} are merged into the existing entries and persisted through
+     * {@link #writeMetadata(Path, Metadata)}.
+     *
+     * @param input source audio file
+     * @param options loudness options; implementation defaults may be used when {@code null}
+     * @return loudness result for the input
+     * @throws CodecMediaException when the input cannot be decoded to PCM or metadata writing fails
+     */
+    default LoudnessResult analyzeLoudness(Path input, LoudnessOptions options) throws CodecMediaException {
+        throw new CodecMediaException("Loudness analysis is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Batch variant of {@link #analyzeLoudness(Path, LoudnessOptions)}; the default analyzes files one
+     * by one, the built-in engine in parallel.
+     *
+     * @param inputs source audio files
+     * @param options loudness options; implementation defaults may be used when {@code null}
+     * @return loudness results in input order
+     * @throws CodecMediaException when any input cannot be analyzed
+     */
+    default List<LoudnessResult> analyzeLoudness(List<Path> inputs, LoudnessOptions options) throws CodecMediaException {
+        List<LoudnessResult> results = new ArrayList<>(inputs.size());
+        for (Path input : inputs) {
+            results.add(analyzeLoudness(input, options));
+        }
+        return results;
+    }
+
+    /**
+     * Scans WAV/AIFF PCM for silent stretches and clipped-sample runs in a single streaming pass.
+     * <p>
+     * The result is flagged as rejected when the silence ratio or clipped-run count exceeds the
+     * limits in {@link AudioScanOptions}; with {@link AudioScanOptions#stopEarly()} the scan ends as
+     * soon as that happens.
+     *
+     * @param input source WAV or AIFF file
+     * @param options scan options; implementation defaults may be used when {@code null}
+     * @return silence and clipping report
+     * @throws CodecMediaException when the input is missing or is not WAV/AIFF PCM
+     */
+    default AudioScanResult scanSilenceAndClipping(Path input, AudioScanOptions options) throws CodecMediaException {
+        throw new CodecMediaException("Silence and clipping scans is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Opens a sequential reader over the compressed packets of an MP4/MOV/M4A, WebM/Matroska or
+     * Ogg file.
+     * <p>
+     * Packet positions and timestamps come from the container's sample tables, block headers or
+     * page lacing; payloads are only read through {@link PacketReader#readPayload(java.nio.ByteBuffer)}.
+     * The caller must close the returned reader.
+     *
+     * @param input source container file
+     * @return packet reader positioned before the first packet
+     * @throws CodecMediaException when the input is missing, not a supported container or cannot be parsed
+     */
+    default PacketReader openPacketReader(Path input) throws CodecMediaException {
+        throw new CodecMediaException("Packet reading is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Cuts {@code [startMillis, endMillis)} of a WAV, MP3, FLAC or Ogg Vorbis/Opus file into
+     * {@code output} without decoding.
+     * <p>
+     * Only the kept range is read in full: WAV is cut on sample frames, MP3 and FLAC on codec frames
+     * (with the Xing/Info frame or STREAMINFO rewritten for the kept range), and Ogg on pages with
+     * rebased granule positions. An existing {@code output} is overwritten.
+     *
+     * @param input source audio file
+     * @param output target file, which must differ from {@code input}
+     * @param startMillis start of the kept range in milliseconds
+     * @param endMillis end of the kept range in milliseconds; clamped to the input duration
+     * @return output file and the range actually cut
+     * @throws CodecMediaException when the input is missing or unsupported, the range is invalid or the cut fails
+     */
+    default TrimResult trim(Path input, Path output, long startMillis, long endMillis) throws CodecMediaException {
+        throw new CodecMediaException("Trim is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Joins WAV, AIFF, MP3 or FLAC files of one format and stream layout into {@code output} without
+     * decoding.
+     * <p>
+     * Inputs are checked for the same format, sample rate and channel count from their headers alone
+     * (the WAV/AIFF format chunk, FLAC STREAMINFO or the first MP3 frame header), so inputs of any
+     * size are accepted; payloads are then moved with {@code transferTo} (FLAC frames after the first
+     * input are renumbered). WAV output switches to RF64 past 4 GiB. An existing {@code output} is
+     * overwritten.
+     *
+     * @param inputs source files, in playback order
+     * @param output target file, which must differ from every input
+     * @param options concatenation options; implementation defaults may be used when {@code null}
+     * @return output file and total duration
+     * @throws CodecMediaException when an input is missing, unsupported or incompatible, or the join fails
+     */
+    default ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options) throws CodecMediaException {
+        throw new CodecMediaException("Concat is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Splits a WAV (or RF64) file into consecutive WAV segments of {@code segmentMillis} each in
+     * {@code outputDir}, named {@code <input name>_0001.wav} onwards.
+     * <p>
+     * Boundaries fall on whole sample frames and do not drift; the last segment holds the remainder.
+     * Segment bodies are copied with {@code transferTo} and segments are written in parallel, so
+     * heap use does not grow with the input size. Existing segment files are overwritten.
+     *
+     * @param input source WAV file
+     * @param outputDir target directory, created when missing
+     * @param options split options; implementation defaults may be used when {@code null}
+     * @return the segment files in order
+     * @throws CodecMediaException when the input is missing or not WAV, or a segment cannot be written
+     */
+    default SplitResult split(Path input, Path outputDir, SplitOptions options) throws CodecMediaException {
+        throw new CodecMediaException("Split is not supported by " + getClass().getName());
+    }
 }
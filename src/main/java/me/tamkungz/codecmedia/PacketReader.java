@@ -0,0 +1,48 @@
+package me.tamkungz.codecmedia;
+
+import java.nio.ByteBuffer;
+
+import me.tamkungz.codecmedia.model.Packet;
+
+/**
+ * Sequential reader over the compressed packets of a media container, in file order.
+ * <p>
+ * Packets come from the container's own index or headers (MP4/MOV sample tables, WebM block
+ * headers, Ogg page lacing), so iterating does not read payload bytes. Payloads are read on request
+ * into a caller-provided buffer that can be reused across packets.
+ */
+public interface PacketReader extends AutoCloseable {
+
+    /**
+     * Advances to the next packet.
+     *
+     * @return the next packet, or {@code null} after the last one
+     * @throws CodecMediaException when the container structure cannot be read
+     */
+    Packet next() throws CodecMediaException;
+
+    /**
+     * Reads the payload of the packet last returned by {@link #next()} into {@code target},
+     * advancing its position by the packet size.
+     *
+     * @param target buffer with at least {@link Packet#size()} bytes remaining
+     * @throws CodecMediaException when there is no current packet, the buffer is too small or reading fails
+     */
+    void readPayload(ByteBuffer target) throws CodecMediaException;
+
+    /**
+     * Repositions the reader at the container's random-access point at or before {@code millis}, so
+     * the following {@link #next()} calls continue from there. Packets between that point and
+     * {@code millis} are still returned; callers that need an exact start skip them by timestamp.
+     * Times before the start map to the first packet.
+     *
+     * @param millis target presentation time in milliseconds
+     * @throws CodecMediaException when the container has no usable index or seeking is not supported
+     */
+    default void seek(long millis) throws CodecMediaException {
+        throw new CodecMediaException("Seeking is not supported by " + getClass().getName());
+    }
+
+    @Override
+    void close() throws CodecMediaException;
+}
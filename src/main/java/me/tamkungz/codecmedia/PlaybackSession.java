@@ -0,0 +1,34 @@
+package me.tamkungz.codecmedia;
+
+/**
+ * Handle to audio playback started by {@link CodecMediaEngine#play}.
+ * <p>
+ * Playback runs on background threads; the counters are live and may be read from any thread while
+ * audio is playing and after it ends.
+ */
+public interface PlaybackSession extends AutoCloseable {
+
+    /** True until the stream has played out, been stopped or failed. */
+    boolean isActive();
+
+    /** Size in bytes of the buffer between the reader and the audio line. */
+    int bufferBytes();
+
+    /** PCM bytes handed to the audio line so far. */
+    long bytesPlayed();
+
+    /**
+     * Number of times the audio line was starved: the buffer ran empty after playback began while
+     * the reader had not reached the end of the stream.
+     */
+    long underruns();
+
+    /**
+     * @return the error that ended playback early, or {@code null} when there was none
+     */
+    CodecMediaException failure();
+
+    /** Stops playback and releases the audio line; does nothing once playback has ended. */
+    @Override
+    void close();
+}
@@ -4,41 +4,59 @@ import java.awt.Desktop;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeMap;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineEvent;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-
 import me.tamkungz.codecmedia.CodecMediaEngine;
 import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.PacketReader;
+import me.tamkungz.codecmedia.PlaybackSession;
+import me.tamkungz.codecmedia.internal.analysis.LoudnessAnalyzer;
+import me.tamkungz.codecmedia.internal.analysis.SilenceClipScanner;
+import me.tamkungz.codecmedia.internal.analysis.WaveformPeakGenerator;
 import me.tamkungz.codecmedia.internal.audio.aiff.AiffCodec;
+import me.tamkungz.codecmedia.internal.audio.aiff.AiffConcatenator;
 import me.tamkungz.codecmedia.internal.audio.aiff.AiffParser;
 import me.tamkungz.codecmedia.internal.audio.aiff.AiffProbeInfo;
 import me.tamkungz.codecmedia.internal.audio.flac.FlacCodec;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacConcatenator;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacFrameVerifier;
 import me.tamkungz.codecmedia.internal.audio.flac.FlacParser;
 import me.tamkungz.codecmedia.internal.audio.flac.FlacProbeInfo;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacTagWriter;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacTrimmer;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacVerification;
 import me.tamkungz.codecmedia.internal.audio.mp3.Mp3Codec;
+import me.tamkungz.codecmedia.internal.audio.mp3.Mp3Concatenator;
 import me.tamkungz.codecmedia.internal.audio.mp3.Mp3Id3v1Tag;
 import me.tamkungz.codecmedia.internal.audio.mp3.Mp3Parser;
 import me.tamkungz.codecmedia.internal.audio.mp3.Mp3ProbeInfo;
+import me.tamkungz.codecmedia.internal.audio.mp3.Mp3Trimmer;
 import me.tamkungz.codecmedia.internal.audio.ogg.OggCodec;
+import me.tamkungz.codecmedia.internal.audio.ogg.OggPacketReader;
 import me.tamkungz.codecmedia.internal.audio.ogg.OggParser;
 import me.tamkungz.codecmedia.internal.audio.ogg.OggProbeInfo;
+import me.tamkungz.codecmedia.internal.audio.ogg.OggTrimmer;
 import me.tamkungz.codecmedia.internal.audio.wav.WavCodec;
+import me.tamkungz.codecmedia.internal.audio.wav.WavConcatenator;
 import me.tamkungz.codecmedia.internal.audio.wav.WavParser;
 import me.tamkungz.codecmedia.internal.audio.wav.WavProbeInfo;
+import me.tamkungz.codecmedia.internal.audio.wav.WavSplitter;
+import me.tamkungz.codecmedia.internal.audio.wav.WavTrimmer;
+import me.tamkungz.codecmedia.internal.bmff.BmffPacketReader;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
 import me.tamkungz.codecmedia.internal.convert.ConversionHub;
 import me.tamkungz.codecmedia.internal.convert.ConversionRequest;
 import me.tamkungz.codecmedia.internal.convert.DefaultConversionHub;
@@ -54,6 +72,7 @@ import me.tamkungz.codecmedia.internal.image.tiff.TiffParser;
 import me.tamkungz.codecmedia.internal.image.tiff.TiffProbeInfo;
 import me.tamkungz.codecmedia.internal.image.webp.WebpParser;
 import me.tamkungz.codecmedia.internal.image.webp.WebpProbeInfo;
+import me.tamkungz.codecmedia.internal.playback.StreamingPlayback;
 import me.tamkungz.codecmedia.internal.video.mov.MovCodec;
 import me.tamkungz.codecmedia.internal.video.mov.MovParser;
 import me.tamkungz.codecmedia.internal.video.mov.MovProbeInfo;
@@ -61,21 +80,33 @@ import me.tamkungz.codecmedia.internal.video.mp4.Mp4Codec;
 import me.tamkungz.codecmedia.internal.video.mp4.Mp4Parser;
 import me.tamkungz.codecmedia.internal.video.mp4.Mp4ProbeInfo;
 import me.tamkungz.codecmedia.internal.video.webm.WebmCodec;
+import me.tamkungz.codecmedia.internal.video.webm.WebmPacketReader;
 import me.tamkungz.codecmedia.internal.video.webm.WebmParser;
 import me.tamkungz.codecmedia.internal.video.webm.WebmProbeInfo;
+import me.tamkungz.codecmedia.model.AudioScanResult;
+import me.tamkungz.codecmedia.model.ConcatResult;
 import me.tamkungz.codecmedia.model.ConversionResult;
 import me.tamkungz.codecmedia.model.ExtractionResult;
+import me.tamkungz.codecmedia.model.LoudnessResult;
 import me.tamkungz.codecmedia.model.MediaType;
 import me.tamkungz.codecmedia.model.Metadata;
 import me.tamkungz.codecmedia.model.PlaybackResult;
 import me.tamkungz.codecmedia.model.ProbeResult;
+import me.tamkungz.codecmedia.model.SplitResult;
 import me.tamkungz.codecmedia.model.StreamInfo;
 import me.tamkungz.codecmedia.model.StreamKind;
+import me.tamkungz.codecmedia.model.TrimResult;
 import me.tamkungz.codecmedia.model.ValidationResult;
+import me.tamkungz.codecmedia.model.WaveformResult;
 import me.tamkungz.codecmedia.options.AudioExtractOptions;
+import me.tamkungz.codecmedia.options.AudioScanOptions;
+import me.tamkungz.codecmedia.options.ConcatOptions;
 import me.tamkungz.codecmedia.options.ConversionOptions;
+import me.tamkungz.codecmedia.options.LoudnessOptions;
 import me.tamkungz.codecmedia.options.PlaybackOptions;
+import me.tamkungz.codecmedia.options.SplitOptions;
 import me.tamkungz.codecmedia.options.ValidationOptions;
+import me.tamkungz.codecmedia.options.WaveformOptions;
 
 /**
  * Temporary stub implementation to bootstrap API integration.
@@ -84,6 +115,8 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
 
     private static final long STRICT_VALIDATION_MAX_BYTES = 32L * 1024L * 1024L;
     private static final int PROBE_PREFIX_BYTES = 128 * 1024;
+    private static final int MIN_PLAYBACK_BUFFER_BYTES = 4 * 1024;
+    private static final String REPLAYGAIN_KEY_PREFIX = "replaygain_";
     private final ConversionHub conversionHub;
     private final JavaSampledPlaybackBackend javaSampledPlaybackBackend;
     private final DesktopPlaybackBackend desktopPlaybackBackend;
@@ -134,7 +167,10 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                 return new ProbeResult(input, mimeTypeByExtension(extension), extension, mediaTypeByExtension(extension), null, List.of(), Map.of("sizeBytes", String.valueOf(size)));
             }
 
-            byte[] bytes = size <= prefix.length ? prefix : Files.readAllBytes(input);
+            // ISO-BMFF and EBML containers are parsed over a channel from their element headers, so skip the full read
+            boolean boxBased = (likelyHeif || likelyMov || likelyMp4 || likelyWebm)
+                    && !(likelyMp3 || likelyOgg || likelyWav || likelyAiff || likelyFlac || likelyPng || likelyJpeg || likelyWebp || likelyBmp || likelyTiff);
+            byte[] bytes = boxBased || size <= prefix.length ? prefix : Files.readAllBytes(input);
 
             if (likelyMp3) {
                 if (bytes.length >= 4) {
@@ -354,8 +390,8 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                     outputExt = "avif";
                 }
                 String mimeType = "image/" + outputExt;
-                try {
-                    HeifProbeInfo info = HeifParser.parse(bytes);
+                try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    HeifProbeInfo info = HeifParser.parse(channel);
                     String majorBrand = info.majorBrand();
                     if ("avif".equals(majorBrand) || "avis".equals(majorBrand)) {
                         outputExt = "avif";
@@ -388,7 +424,7 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
 
             if (likelyMov) {
                 try {
-                    MovProbeInfo info = MovCodec.decode(bytes, input);
+                    MovProbeInfo info = MovCodec.decode(input);
                     java.util.LinkedHashMap<String, String> tags = new java.util.LinkedHashMap<>();
                     tags.put("sizeBytes", String.valueOf(size));
                     if (info.majorBrand() != null && !info.majorBrand().isBlank()) {
@@ -451,7 +487,7 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                 String mimeType = "m4a".equals(outputExt) ? "audio/mp4" : "video/mp4";
                 MediaType mediaType = "m4a".equals(outputExt) ? MediaType.AUDIO : MediaType.VIDEO;
                 try {
-                    Mp4ProbeInfo info = Mp4Codec.decode(bytes, input);
+                    Mp4ProbeInfo info = Mp4Codec.decode(input);
                     java.util.LinkedHashMap<String, String> tags = new java.util.LinkedHashMap<>();
                     tags.put("sizeBytes", String.valueOf(size));
                     if (info.majorBrand() != null && !info.majorBrand().isBlank()) {
@@ -521,7 +557,7 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
 
             if (likelyWebm) {
                 try {
-                    WebmProbeInfo info = WebmCodec.decode(bytes, input);
+                    WebmProbeInfo info = WebmCodec.decode(input);
                     java.util.LinkedHashMap<String, String> tags = new java.util.LinkedHashMap<>();
                     tags.put("sizeBytes", String.valueOf(size));
                     if (info.videoCodec() != null && !info.videoCodec().isBlank()) {
@@ -639,7 +675,7 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                 byte[] wavBytes = Files.readAllBytes(input);
                 byte[] withMetadata = WavParser.writeInfoMetadata(wavBytes, metadata.entries());
                 Files.write(input, withMetadata);
-                deleteSidecarIfExists(input);
+                writeUnembeddedEntriesToSidecar(input, metadata.entries(), extension);
                 return;
             } catch (IOException e) {
                 throw new CodecMediaException("Failed to write WAV metadata: " + input, e);
@@ -651,28 +687,77 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                 byte[] aiffBytes = Files.readAllBytes(input);
                 byte[] withMetadata = AiffParser.writeTextMetadata(aiffBytes, metadata.entries());
                 Files.write(input, withMetadata);
-                deleteSidecarIfExists(input);
+                writeUnembeddedEntriesToSidecar(input, metadata.entries(), extension);
                 return;
             } catch (IOException e) {
                 throw new CodecMediaException("Failed to write AIFF metadata: " + input, e);
             }
         }
 
+        if ("flac".equals(extension)) {
+            Map<String, String> embeddable = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : metadata.entries().entrySet()) {
+                if (!isCoreMetadataKey(entry.getKey())) {
+                    embeddable.put(entry.getKey(), entry.getValue());
+                }
+            }
+            FlacTagWriter.write(input, embeddable);
+            writeUnembeddedEntriesToSidecar(input, metadata.entries(), extension);
+            return;
+        }
+
         if ("mp3".equals(extension)) {
             try {
                 byte[] mp3Bytes = Files.readAllBytes(input);
                 byte[] withTag = Mp3Id3v1Tag.write(mp3Bytes, metadata.entries());
                 Files.write(input, withTag);
-                deleteSidecarIfExists(input);
+                writeUnembeddedEntriesToSidecar(input, metadata.entries(), extension);
                 return;
             } catch (IOException e) {
                 throw new CodecMediaException("Failed to write MP3 metadata: " + input, e);
             }
         }
 
+        writeSidecar(input, metadata.entries());
+    }
+
+    /**
+     * Keeps the {@code replaygain_*} entries the embedded tag format cannot carry (WAV INFO, AIFF text
+     * chunks, ID3v1) in the sidecar so loudness write-back survives; any other unembedded key is
+     * dropped as before, and the sidecar is removed when no ReplayGain key is left over. Keys are
+     * matched case-insensitively since tag formats normalize field-name case.
+     */
+    private static void writeUnembeddedEntriesToSidecar(Path input, Map<String, String> entries, String extension)
+            throws CodecMediaException {
+        Set<String> embeddedKeys = new HashSet<>();
+        for (String key : readEmbeddedMetadata(input, extension).keySet()) {
+            embeddedKeys.add(key.toLowerCase(Locale.ROOT));
+        }
+        Map<String, String> remaining = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String key = entry.getKey().toLowerCase(Locale.ROOT);
+            if (!key.startsWith(REPLAYGAIN_KEY_PREFIX) || entry.getValue().isEmpty()) {
+                continue;
+            }
+            if (!embeddedKeys.contains(key)) {
+                remaining.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (remaining.isEmpty()) {
+            try {
+                deleteSidecarIfExists(input);
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to delete metadata sidecar: " + metadataSidecarPath(input), e);
+            }
+            return;
+        }
+        writeSidecar(input, remaining);
+    }
+
+    private static void writeSidecar(Path input, Map<String, String> entries) throws CodecMediaException {
         Path sidecar = metadataSidecarPath(input);
         Properties properties = new Properties();
-        Map<String, String> sorted = new TreeMap<>(metadata.entries());
+        Map<String, String> sorted = new TreeMap<>(entries);
         for (Map.Entry<String, String> entry : sorted.entrySet()) {
             properties.setProperty(entry.getKey(), entry.getValue());
         }
@@ -769,9 +854,15 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
 
         CodecMediaException javaSampledFailure = null;
         if (probe.mediaType() == MediaType.AUDIO && supportsJavaSampledExtension(probe.extension())) {
+            // Only the streaming backend uses the buffer; other routes accept any size
+            if (effective.bufferBytes() < MIN_PLAYBACK_BUFFER_BYTES) {
+                throw new CodecMediaException("Playback buffer must be at least " + MIN_PLAYBACK_BUFFER_BYTES + " bytes: "
+                        + effective.bufferBytes());
+            }
             try {
-                javaSampledPlaybackBackend.play(input);
-                return new PlaybackResult(true, "java-sampled", probe.mediaType(), "Started playback using javax.sound.sampled");
+                PlaybackSession session = javaSampledPlaybackBackend.play(input, effective.bufferBytes());
+                return new PlaybackResult(true, "java-sampled", probe.mediaType(),
+                        "Started streaming playback using javax.sound.sampled", session);
             } catch (CodecMediaException e) {
                 javaSampledFailure = e;
             }
@@ -822,6 +913,16 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
 
             if (effective.strict()) {
                 String extension = extractExtension(input);
+                if ("flac".equals(extension)) {
+                    return validateFlacFrames(input);
+                }
+                if ("mov".equals(extension) || "mp4".equals(extension) || "m4a".equals(extension)
+                        || "heic".equals(extension) || "heif".equals(extension) || "avif".equals(extension)) {
+                    return validateBmffBoxes(input, extension);
+                }
+                if ("webm".equals(extension)) {
+                    return validateWebmElements(input);
+                }
                 if (size > STRICT_VALIDATION_MAX_BYTES) {
                     return new ValidationResult(
                             false,
@@ -855,12 +956,6 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                     } catch (CodecMediaException e) {
                         return new ValidationResult(false, List.of(), List.of("Strict validation failed for aiff: " + e.getMessage()));
                     }
-                } else if ("flac".equals(extension)) {
-                    try {
-                        FlacParser.parse(bytes);
-                    } catch (CodecMediaException e) {
-                        return new ValidationResult(false, List.of(), List.of("Strict validation failed for flac: " + e.getMessage()));
-                    }
                 } else if ("png".equals(extension)) {
                     try {
                         PngParser.parse(bytes);
@@ -873,24 +968,6 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                     } catch (CodecMediaException e) {
                         return new ValidationResult(false, List.of(), List.of("Strict validation failed for jpg/jpeg: " + e.getMessage()));
                     }
-                } else if ("mov".equals(extension)) {
-                    try {
-                        MovParser.parse(bytes);
-                    } catch (CodecMediaException e) {
-                        return new ValidationResult(false, List.of(), List.of("Strict validation failed for mov: " + e.getMessage()));
-                    }
-                } else if ("mp4".equals(extension) || "m4a".equals(extension)) {
-                    try {
-                        Mp4Parser.parse(bytes);
-                    } catch (CodecMediaException e) {
-                        return new ValidationResult(false, List.of(), List.of("Strict validation failed for " + extension + ": " + e.getMessage()));
-                    }
-                } else if ("webm".equals(extension)) {
-                    try {
-                        WebmParser.parse(bytes);
-                    } catch (CodecMediaException e) {
-                        return new ValidationResult(false, List.of(), List.of("Strict validation failed for webm: " + e.getMessage()));
-                    }
                 } else if ("webp".equals(extension)) {
                     try {
                         WebpParser.parse(bytes);
@@ -909,12 +986,6 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                     } catch (CodecMediaException e) {
                         return new ValidationResult(false, List.of(), List.of("Strict validation failed for tif/tiff: " + e.getMessage()));
                     }
-                } else if ("heic".equals(extension) || "heif".equals(extension) || "avif".equals(extension)) {
-                    try {
-                        HeifParser.parse(bytes);
-                    } catch (CodecMediaException e) {
-                        return new ValidationResult(false, List.of(), List.of("Strict validation failed for heic/heif/avif: " + e.getMessage()));
-                    }
                 }
             }
 
@@ -924,6 +995,268 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
         }
     }
 
+    private static ValidationResult validateBmffBoxes(Path input, String extension) {
+        String label = "mov".equals(extension) ? "mov"
+                : ("mp4".equals(extension) || "m4a".equals(extension)) ? extension : "heic/heif/avif";
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            if ("mov".equals(extension)) {
+                MovParser.parse(channel);
+            } else if ("mp4".equals(extension) || "m4a".equals(extension)) {
+                Mp4Parser.parse(channel);
+            } else {
+                HeifParser.parse(channel);
+            }
+            return new ValidationResult(true, List.of(), List.of());
+        } catch (CodecMediaException e) {
+            return new ValidationResult(false, List.of(), List.of("Strict validation failed for " + label + ": " + e.getMessage()));
+        } catch (IOException e) {
+            return new ValidationResult(false, List.of(), List.of("Failed to validate file: " + e.getMessage()));
+        }
+    }
+
+    private static ValidationResult validateWebmElements(Path input) {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            WebmParser.parse(channel);
+            return new ValidationResult(true, List.of(), List.of());
+        } catch (CodecMediaException e) {
+            return new ValidationResult(false, List.of(), List.of("Strict validation failed for webm: " + e.getMessage()));
+        } catch (IOException e) {
+            return new ValidationResult(false, List.of(), List.of("Failed to validate file: " + e.getMessage()));
+        }
+    }
+
+    private static ValidationResult validateFlacFrames(Path input) {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            FlacVerification verification = FlacFrameVerifier.verify(channel, 0);
+            List<String> errors = new ArrayList<>();
+            for (String error : verification.errors()) {
+                errors.add("Strict validation failed for flac: " + error);
+            }
+            return new ValidationResult(errors.isEmpty(), verification.warnings(), errors);
+        } catch (CodecMediaException e) {
+            return new ValidationResult(false, List.of(), List.of("Strict validation failed for flac: " + e.getMessage()));
+        } catch (IOException e) {
+            return new ValidationResult(false, List.of(), List.of("Failed to validate file: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public WaveformResult generateWaveform(Path input, WaveformOptions options) throws CodecMediaException {
+        ensureExists(input);
+        if (mediaTypeByExtension(normalizeExtension(extractExtension(input))) != MediaType.AUDIO) {
+            throw new CodecMediaException("Waveform generation requires an audio file: " + input);
+        }
+        WaveformOptions effective = options != null ? options : WaveformOptions.defaults();
+        return WaveformPeakGenerator.generate(
+                input,
+                WaveformPeakGenerator.peakFileFor(input),
+                effective.samplesPerBucket(),
+                effective.parallelism()
+        );
+    }
+
+    @Override
+    public LoudnessResult analyzeLoudness(Path input, LoudnessOptions options) throws CodecMediaException {
+        ensureExists(input);
+        LoudnessOptions effective = options != null ? options : LoudnessOptions.defaults();
+        LoudnessResult result = LoudnessAnalyzer.analyze(input);
+        if (effective.writeMetadata()) {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : readMetadata(input).entries().entrySet()) {
+                if (!isCoreMetadataKey(entry.getKey())) {
+                    entries.put(entry.getKey(), entry.getValue());
+                }
+            }
+            entries.put("replaygain_track_gain", String.format(Locale.ROOT, "%.2f dB", result.replayGainTrackGainDb()));
+            entries.put("replaygain_track_peak", String.format(Locale.ROOT, "%.6f", result.samplePeak()));
+            writeMetadata(input, new Metadata(entries));
+        }
+        return result;
+    }
+
+    @Override
+    public List<LoudnessResult> analyzeLoudness(List<Path> inputs, LoudnessOptions options) throws CodecMediaException {
+        if (inputs == null) {
+            throw new CodecMediaException("Inputs are required");
+        }
+        for (Path input : inputs) {
+            ensureExists(input);
+        }
+        LoudnessOptions effective = options != null ? options : LoudnessOptions.defaults();
+        LoudnessResult[] results = new LoudnessResult[inputs.size()];
+        ParallelTasks.runAll(inputs.size(), effective.parallelism(),
+                index -> results[index] = analyzeLoudness(inputs.get(index), effective));
+        return List.of(results);
+    }
+
+    @Override
+    public AudioScanResult scanSilenceAndClipping(Path input, AudioScanOptions options) throws CodecMediaException {
+        ensureExists(input);
+        return SilenceClipScanner.scan(input, options != null ? options : AudioScanOptions.defaults());
+    }
+
+    @Override
+    public PacketReader openPacketReader(Path input) throws CodecMediaException {
+        ensureExists(input);
+        String extension = extractExtension(input);
+        FileChannel channel = null;
+        try {
+            byte[] prefix = readProbePrefix(input);
+            channel = FileChannel.open(input, StandardOpenOption.READ);
+            PacketReader reader;
+            if (Mp4Parser.isLikelyMp4(prefix) || MovParser.isLikelyMov(prefix)) {
+                reader = new BmffPacketReader(channel);
+            } else if (WebmParser.isLikelyWebm(prefix)) {
+                reader = new WebmPacketReader(channel);
+            } else if (isLikelyOgg(prefix)) {
+                reader = new OggPacketReader(channel);
+            } else if ("mp4".equals(extension) || "m4a".equals(extension) || "mov".equals(extension)) {
+                reader = new BmffPacketReader(channel);
+            } else if ("webm".equals(extension) || "mkv".equals(extension)) {
+                reader = new WebmPacketReader(channel);
+            } else if ("ogg".equals(extension) || "opus".equals(extension)) {
+                reader = new OggPacketReader(channel);
+            } else {
+                throw new CodecMediaException("Packet reading is not supported for: " + input);
+            }
+            channel = null;
+            return reader;
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to open packet reader: " + input, e);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Keep the original failure
+                }
+            }
+        }
+    }
+
+    @Override
+    public TrimResult trim(Path input, Path output, long startMillis, long endMillis) throws CodecMediaException {
+        ensureExists(input);
+        if (output == null) {
+            throw new CodecMediaException("Output file is required");
+        }
+        if (startMillis < 0 || endMillis <= startMillis) {
+            throw new CodecMediaException("Invalid trim range: " + startMillis + "-" + endMillis + " ms");
+        }
+        String extension = extractExtension(input);
+        byte[] prefix;
+        try {
+            if (Files.exists(output) && Files.isSameFile(input, output)) {
+                throw new CodecMediaException("Trim output must differ from the input: " + output);
+            }
+            Path parent = output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            prefix = readProbePrefix(input);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to prepare trim output: " + output, e);
+        }
+        if (WavParser.isLikelyWav(prefix)) {
+            return WavTrimmer.trim(input, output, startMillis, endMillis);
+        }
+        if (FlacParser.isLikelyFlac(prefix)) {
+            return FlacTrimmer.trim(input, output, startMillis, endMillis);
+        }
+        if (isLikelyOgg(prefix)) {
+            return OggTrimmer.trim(input, output, startMillis, endMillis);
+        }
+        if ("mp3".equals(extension) || isLikelyMp3(prefix)) {
+            return Mp3Trimmer.trim(input, output, startMillis, endMillis);
+        }
+        throw new CodecMediaException("Trim is not supported for: " + input);
+    }
+
+    @Override
+    public ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options) throws CodecMediaException {
+        if (inputs == null || inputs.isEmpty()) {
+            throw new CodecMediaException("At least one input is required");
+        }
+        if (output == null) {
+            throw new CodecMediaException("Output file is required");
+        }
+        ConcatOptions effective = options != null ? options : ConcatOptions.defaults();
+        // Only the format is sniffed here; each concatenator checks the stream layout from the headers
+        String reference = null;
+        for (Path input : inputs) {
+            ensureExists(input);
+            String format;
+            try {
+                if (Files.exists(output) && Files.isSameFile(input, output)) {
+                    throw new CodecMediaException("Concat output must differ from the inputs: " + output);
+                }
+                format = concatFormat(input, readProbePrefix(input));
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to prepare concat output: " + output, e);
+            }
+            if (format == null) {
+                throw new CodecMediaException("Concat is not supported for: " + input);
+            }
+            if (reference == null) {
+                reference = format;
+            } else if (!reference.equals(format)) {
+                throw new CodecMediaException("Concat inputs are not compatible: " + inputs.get(0) + " and " + input);
+            }
+        }
+        try {
+            Path parent = output.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to prepare concat output: " + output, e);
+        }
+        return switch (reference) {
+            case "wav" -> WavConcatenator.concat(inputs, output, effective);
+            case "aiff" -> AiffConcatenator.concat(inputs, output, effective);
+            case "flac" -> FlacConcatenator.concat(inputs, output, effective);
+            case "mp3" -> Mp3Concatenator.concat(inputs, output, effective);
+            default -> throw new CodecMediaException("Concat is not supported for: " + inputs.get(0));
+        };
+    }
+
+    @Override
+    public SplitResult split(Path input, Path outputDir, SplitOptions options) throws CodecMediaException {
+        ensureExists(input);
+        if (outputDir == null) {
+            throw new CodecMediaException("Output directory is required");
+        }
+        SplitOptions effective = options != null ? options : SplitOptions.defaults();
+        if (effective.segmentMillis() <= 0) {
+            throw new CodecMediaException("Invalid segment length: " + effective.segmentMillis() + " ms");
+        }
+        try {
+            if (!WavParser.isLikelyWav(readProbePrefix(input))) {
+                throw new CodecMediaException("Split is only supported for WAV input: " + input);
+            }
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to prepare split output: " + outputDir, e);
+        }
+        return WavSplitter.split(input, outputDir, baseName(input.getFileName().toString()), effective);
+    }
+
+    private static String concatFormat(Path input, byte[] prefix) {
+        if (WavParser.isLikelyWav(prefix)) {
+            return "wav";
+        }
+        if (AiffParser.isLikelyAiff(prefix)) {
+            return "aiff";
+        }
+        if (FlacParser.isLikelyFlac(prefix)) {
+            return "flac";
+        }
+        if ("mp3".equals(extractExtension(input)) || isLikelyMp3(prefix)) {
+            return "mp3";
+        }
+        return null;
+    }
+
     private static void ensureExists(Path input) throws CodecMediaException {
         if (!Files.exists(input)) {
             throw new CodecMediaException("File does not exist: " + input);
@@ -1006,6 +1339,13 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
     }
 
     private static Map<String, String> readEmbeddedMetadata(Path input, String normalizedExtension) throws CodecMediaException {
+        if ("flac".equals(normalizedExtension)) {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                return FlacParser.readVorbisCommentMetadata(channel);
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to read embedded metadata: " + input, e);
+            }
+        }
         try {
             byte[] bytes = Files.readAllBytes(input);
             return switch (normalizedExtension) {
@@ -1013,7 +1353,6 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
                 case "aif", "aiff", "aifc" -> AiffParser.readTextMetadata(bytes);
                 case "mp3" -> Mp3Id3v1Tag.read(bytes);
                 case "ogg" -> OggParser.readCommentMetadata(bytes);
-                case "flac" -> FlacParser.readVorbisCommentMetadata(bytes);
                 default -> Map.of();
             };
         } catch (IOException e) {
@@ -1049,7 +1388,7 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
     }
 
     interface JavaSampledPlaybackBackend {
-        void play(Path input) throws CodecMediaException;
+        PlaybackSession play(Path input, int bufferBytes) throws CodecMediaException;
     }
 
     interface DesktopPlaybackBackend {
@@ -1060,19 +1399,8 @@ public final class StubCodecMediaEngine implements CodecMediaEngine {
 
     private static final class JdkJavaSampledPlaybackBackend implements JavaSampledPlaybackBackend {
         @Override
-        public void play(Path input) throws CodecMediaException {
-            try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(input.toFile())) {
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioInputStream);
-                clip.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP || event.getType() == LineEvent.Type.CLOSE) {
-                        clip.close();
-                    }
-                });
-                clip.start();
-            } catch (UnsupportedAudioFileException | LineUnavailableException | IOException | RuntimeException e) {
-                throw new CodecMediaException("Java sampled playback failed for " + input + ": " + e.getMessage(), e);
-            }
+        public PlaybackSession play(Path input, int bufferBytes) throws CodecMediaException {
+            return StreamingPlayback.start(input, bufferBytes);
         }
     }
 
@@ -0,0 +1,296 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.model.LoudnessResult;
+
+/**
+ * Single-pass ITU-R BS.1770-4 / EBU R128 loudness meter.
+ *
+ * <p>Samples run through the two K-weighting biquads and are summed into 100 ms sub-blocks.
+ * Momentary (400 ms) and short-term (3 s) block energies are derived from sliding sums of those
+ * sub-blocks, so only one energy value per 100 ms is retained. True peak uses 4x polyphase
+ * oversampling below 96 kHz and 2x below 192 kHz.
+ */
+public final class LoudnessAnalyzer {
+
+    /** ReplayGain 2.0 reference level. */
+    public static final double REPLAY_GAIN_REFERENCE_LUFS = -18.0;
+
+    private static final double ABSOLUTE_GATE_LUFS = -70.0;
+    private static final double INTEGRATED_RELATIVE_GATE_LU = -10.0;
+    private static final double RANGE_RELATIVE_GATE_LU = -20.0;
+    private static final int MOMENTARY_SUB_BLOCKS = 4;
+    private static final int SHORT_TERM_SUB_BLOCKS = 30;
+    private static final int TRUE_PEAK_TAPS = 12;
+    private static final int READ_BLOCK_FRAMES = 4096;
+
+    private LoudnessAnalyzer() {
+    }
+
+    public static LoudnessResult analyze(Path input) throws CodecMediaException {
+        try (PcmSource source = PcmSources.open(input)) {
+            return analyze(input, source);
+        }
+    }
+
+    static LoudnessResult analyze(Path input, PcmSource source) throws CodecMediaException {
+        Meter meter = new Meter(source.sampleRate(), source.channels());
+        float[] block = new float[READ_BLOCK_FRAMES * source.channels()];
+        int frames;
+        while ((frames = source.read(block, READ_BLOCK_FRAMES)) > 0) {
+            meter.accept(block, frames);
+        }
+        return meter.result(input);
+    }
+
+    static double loudness(double energy) {
+        return -0.691 + 10.0 * Math.log10(energy);
+    }
+
+    private static final class Meter {
+
+        private final int channels;
+        private final double[] weights;
+        private final int subBlockFrames;
+        private final double[] shelfB;
+        private final double[] shelfA;
+        private final double[] passB;
+        private final double[] passA;
+        private final double[][] state;
+        private final TruePeak truePeak;
+
+        private final double[] recentSubBlocks = new double[SHORT_TERM_SUB_BLOCKS];
+        private long subBlockCount;
+        private double subBlockEnergy;
+        private int subBlockFill;
+        private double samplePeak;
+        private final EnergyList momentary = new EnergyList();
+        private final EnergyList shortTerm = new EnergyList();
+
+        Meter(int sampleRate, int channels) {
+            this.channels = channels;
+            this.weights = channelWeights(channels);
+            this.subBlockFrames = Math.max(1, Math.round(sampleRate / 10.0f));
+
+            double k = Math.tan(Math.PI * 1681.974450955533 / sampleRate);
+            double vh = Math.pow(10.0, 3.999843853973347 / 20.0);
+            double vb = Math.pow(vh, 0.4996667741545416);
+            double q = 0.7071752369554196;
+            double a0 = 1.0 + k / q + k * k;
+            shelfB = new double[] {(vh + vb * k / q + k * k) / a0, 2.0 * (k * k - vh) / a0, (vh - vb * k / q + k * k) / a0};
+            shelfA = new double[] {2.0 * (k * k - 1.0) / a0, (1.0 - k / q + k * k) / a0};
+
+            k = Math.tan(Math.PI * 38.13547087602444 / sampleRate);
+            q = 0.5003270373238773;
+            a0 = 1.0 + k / q + k * k;
+            passB = new double[] {1.0, -2.0, 1.0};
+            passA = new double[] {2.0 * (k * k - 1.0) / a0, (1.0 - k / q + k * k) / a0};
+
+            state = new double[channels][4];
+            int oversampling = sampleRate < 96_000 ? 4 : sampleRate < 192_000 ? 2 : 1;
+            truePeak = new TruePeak(channels, oversampling);
+        }
+
+        void accept(float[] samples, int frames) {
+            for (int f = 0; f < frames; f++) {
+                int base = f * channels;
+                double frameEnergy = 0.0;
+                for (int c = 0; c < channels; c++) {
+                    double x = samples[base + c];
+                    samplePeak = Math.max(samplePeak, Math.abs(x));
+                    double[] s = state[c];
+                    double y1 = shelfB[0] * x + s[0];
+                    s[0] = shelfB[1] * x - shelfA[0] * y1 + s[1];
+                    s[1] = shelfB[2] * x - shelfA[1] * y1;
+                    double y2 = passB[0] * y1 + s[2];
+                    s[2] = passB[1] * y1 - passA[0] * y2 + s[3];
+                    s[3] = passB[2] * y1 - passA[1] * y2;
+                    frameEnergy += weights[c] * y2 * y2;
+                }
+                truePeak.accept(samples, base);
+                subBlockEnergy += frameEnergy;
+                if (++subBlockFill == subBlockFrames) {
+                    closeSubBlock();
+                }
+            }
+        }
+
+        private void closeSubBlock() {
+            recentSubBlocks[(int) (subBlockCount % SHORT_TERM_SUB_BLOCKS)] = subBlockEnergy / subBlockFrames;
+            subBlockCount++;
+            subBlockEnergy = 0.0;
+            subBlockFill = 0;
+            if (subBlockCount >= MOMENTARY_SUB_BLOCKS) {
+                momentary.add(meanOfRecent(MOMENTARY_SUB_BLOCKS));
+            }
+            if (subBlockCount >= SHORT_TERM_SUB_BLOCKS) {
+                shortTerm.add(meanOfRecent(SHORT_TERM_SUB_BLOCKS));
+            }
+        }
+
+        private double meanOfRecent(int count) {
+            double sum = 0.0;
+            for (int i = 1; i <= count; i++) {
+                sum += recentSubBlocks[(int) ((subBlockCount - i) % SHORT_TERM_SUB_BLOCKS)];
+            }
+            return sum / count;
+        }
+
+        LoudnessResult result(Path input) {
+            double integrated = gatedLoudness(momentary, INTEGRATED_RELATIVE_GATE_LU);
+            double range = loudnessRange(shortTerm);
+            double peak = Math.max(samplePeak, truePeak.peak());
+            double truePeakDb = peak > 0.0 ? 20.0 * Math.log10(peak) : Double.NEGATIVE_INFINITY;
+            double gain = Double.isInfinite(integrated) ? 0.0 : REPLAY_GAIN_REFERENCE_LUFS - integrated;
+            return new LoudnessResult(input, integrated, range, truePeakDb, samplePeak, gain);
+        }
+
+        private static double gatedLoudness(EnergyList blocks, double relativeGate) {
+            double absoluteEnergy = energyOf(ABSOLUTE_GATE_LUFS);
+            double sum = 0.0;
+            int count = 0;
+            for (int i = 0; i < blocks.size; i++) {
+                if (blocks.values[i] > absoluteEnergy) {
+                    sum += blocks.values[i];
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            double relativeEnergy = Math.max(absoluteEnergy, energyOf(loudness(sum / count) + relativeGate));
+            sum = 0.0;
+            count = 0;
+            for (int i = 0; i < blocks.size; i++) {
+                if (blocks.values[i] > relativeEnergy) {
+                    sum += blocks.values[i];
+                    count++;
+                }
+            }
+            return count == 0 ? Double.NEGATIVE_INFINITY : loudness(sum / count);
+        }
+
+        private static double loudnessRange(EnergyList blocks) {
+            double absoluteEnergy = energyOf(ABSOLUTE_GATE_LUFS);
+            double sum = 0.0;
+            int count = 0;
+            for (int i = 0; i < blocks.size; i++) {
+                if (blocks.values[i] > absoluteEnergy) {
+                    sum += blocks.values[i];
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return 0.0;
+            }
+            double relativeEnergy = Math.max(absoluteEnergy, energyOf(loudness(sum / count) + RANGE_RELATIVE_GATE_LU));
+            double[] gated = new double[count];
+            int n = 0;
+            for (int i = 0; i < blocks.size; i++) {
+                if (blocks.values[i] > relativeEnergy) {
+                    gated[n++] = blocks.values[i];
+                }
+            }
+            if (n == 0) {
+                return 0.0;
+            }
+            Arrays.sort(gated, 0, n);
+            double low = loudness(gated[(int) Math.round((n - 1) * 0.10)]);
+            double high = loudness(gated[(int) Math.round((n - 1) * 0.95)]);
+            return high - low;
+        }
+
+        private static double energyOf(double lufs) {
+            return Math.pow(10.0, (lufs + 0.691) / 10.0);
+        }
+
+        /**
+         * BS.1770 channel weights: surround channels get +1.5 dB, LFE is excluded.
+         */
+        private static double[] channelWeights(int channels) {
+            double[] weights = new double[channels];
+            Arrays.fill(weights, 1.0);
+            if (channels == 5) {
+                weights[3] = 1.41;
+                weights[4] = 1.41;
+            } else if (channels == 6) {
+                weights[3] = 0.0;
+                weights[4] = 1.41;
+                weights[5] = 1.41;
+            }
+            return weights;
+        }
+    }
+
+    /**
+     * Polyphase windowed-sinc interpolator; each channel keeps a doubled history so taps are read contiguously.
+     */
+    private static final class TruePeak {
+
+        private final int channels;
+        private final int factor;
+        private final double[][] phases;
+        private final double[][] history;
+        private int position;
+        private double peak;
+
+        TruePeak(int channels, int factor) {
+            this.channels = channels;
+            this.factor = factor;
+            this.phases = new double[factor][TRUE_PEAK_TAPS];
+            this.history = new double[channels][TRUE_PEAK_TAPS * 2];
+            int length = factor * TRUE_PEAK_TAPS;
+            double center = (length - 1) / 2.0;
+            for (int n = 0; n < length; n++) {
+                double t = (n - center) / factor;
+                double sinc = t == 0.0 ? 1.0 : Math.sin(Math.PI * t) / (Math.PI * t);
+                double window = 0.5 - 0.5 * Math.cos(2.0 * Math.PI * (n + 0.5) / length);
+                phases[n % factor][n / factor] = sinc * window;
+            }
+        }
+
+        void accept(float[] samples, int base) {
+            position = position == 0 ? TRUE_PEAK_TAPS - 1 : position - 1;
+            for (int c = 0; c < channels; c++) {
+                double[] h = history[c];
+                double x = samples[base + c];
+                h[position] = x;
+                h[position + TRUE_PEAK_TAPS] = x;
+                if (factor == 1) {
+                    peak = Math.max(peak, Math.abs(x));
+                    continue;
+                }
+                for (int p = 0; p < factor; p++) {
+                    double[] taps = phases[p];
+                    double y = 0.0;
+                    for (int k = 0; k < TRUE_PEAK_TAPS; k++) {
+                        y += taps[k] * h[position + k];
+                    }
+                    peak = Math.max(peak, Math.abs(y));
+                }
+            }
+        }
+
+        double peak() {
+            return peak;
+        }
+    }
+
+    private static final class EnergyList {
+
+        private double[] values = new double[256];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
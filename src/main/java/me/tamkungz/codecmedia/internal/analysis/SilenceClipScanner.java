@@ -0,0 +1,228 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.ChannelPcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmEncoding;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.internal.io.IoCleanup;
+import me.tamkungz.codecmedia.model.AudioScanResult;
+import me.tamkungz.codecmedia.model.ClipRun;
+import me.tamkungz.codecmedia.model.SilenceSegment;
+import me.tamkungz.codecmedia.options.AudioScanOptions;
+
+/**
+ * Streaming silence and clipping detector for WAV/AIFF PCM.
+ *
+ * <p>Each block is first reduced to its absolute peak. Blocks entirely below the silence threshold,
+ * or entirely below full scale, skip the per-frame silence or clipping bookkeeping respectively, so
+ * typical programme material costs one max-reduction per block.
+ */
+public final class SilenceClipScanner {
+
+    static final int MAX_REPORTED = 1000;
+    private static final int READ_BLOCK_FRAMES = 4096;
+
+    private SilenceClipScanner() {
+    }
+
+    public static AudioScanResult scan(Path input, AudioScanOptions options) throws CodecMediaException {
+        FileChannel channel = PcmSources.openChannel(input);
+        PcmLayout layout;
+        try {
+            layout = PcmSources.readLayout(channel);
+        } catch (CodecMediaException e) {
+            IoCleanup.closeQuietly(channel);
+            throw e;
+        }
+        if (layout == null) {
+            IoCleanup.closeQuietly(channel);
+            throw new CodecMediaException("Silence/clipping scan requires WAV or AIFF PCM input: " + input);
+        }
+        try (PcmSource source = new ChannelPcmSource(channel, layout, 0L, layout.totalFrames(), true)) {
+            return scan(source, clipLevel(layout), options);
+        }
+    }
+
+    static AudioScanResult scan(PcmSource source, float clipLevel, AudioScanOptions options) throws CodecMediaException {
+        Detector detector = new Detector(source.sampleRate(), source.channels(), source.totalFrames(), clipLevel, options);
+        float[] block = new float[READ_BLOCK_FRAMES * source.channels()];
+        int frames;
+        while ((frames = source.read(block, READ_BLOCK_FRAMES)) > 0) {
+            detector.accept(block, frames);
+            if (options.stopEarly() && detector.rejected()) {
+                return detector.result(true);
+            }
+        }
+        return detector.result(false);
+    }
+
+    /**
+     * Largest normalized magnitude a sample of this layout can hold; integer formats clip one step
+     * below 1.0 on the positive side, so that value is the threshold for both polarities. Past 24
+     * bits that step is finer than a float near 1.0, so the threshold is capped at the largest float
+     * below 1.0.
+     */
+    static float clipLevel(PcmLayout layout) {
+        if (layout.encoding() == PcmEncoding.FLOAT) {
+            return 1.0f;
+        }
+        int bits = Math.min(32, Math.max(2, layout.bitsPerSample()));
+        return Math.min((float) (1.0 - 1.0 / (1L << (bits - 1))), Math.nextDown(1.0f));
+    }
+
+    private static final class Detector {
+
+        private final int sampleRate;
+        private final int channels;
+        private final long totalFrames;
+        private final float clipLevel;
+        private final float silenceLevel;
+        private final long minSilenceFrames;
+        private final int minClipRun;
+        private final double maxSilenceRatio;
+        private final int maxClipRuns;
+
+        private long position;
+        private long silenceStart = -1L;
+        private long silentFrames;
+        private final long[] clipStart;
+        private final int[] clipLength;
+        private int clipRunCount;
+        private long clippedSamples;
+        private final List<SilenceSegment> silences = new ArrayList<>();
+        private final List<ClipRun> clipRuns = new ArrayList<>();
+
+        Detector(int sampleRate, int channels, long totalFrames, float clipLevel, AudioScanOptions options) {
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+            this.totalFrames = totalFrames;
+            this.clipLevel = clipLevel;
+            this.silenceLevel = (float) Math.pow(10.0, options.silenceThresholdDbfs() / 20.0);
+            this.minSilenceFrames = Math.max(1L, options.minSilenceMillis() * sampleRate / 1000L);
+            this.minClipRun = Math.max(1, options.minClipRunSamples());
+            this.maxSilenceRatio = options.maxSilenceRatio();
+            this.maxClipRuns = options.maxClipRuns();
+            this.clipStart = new long[channels];
+            this.clipLength = new int[channels];
+        }
+
+        void accept(float[] block, int frames) {
+            int samples = frames * channels;
+            float peak = 0.0f;
+            for (int i = 0; i < samples; i++) {
+                peak = Math.max(peak, Math.abs(block[i]));
+            }
+
+            if (peak < silenceLevel) {
+                if (silenceStart < 0) {
+                    silenceStart = position;
+                }
+            } else {
+                scanSilence(block, frames);
+            }
+
+            if (peak >= clipLevel) {
+                scanClipping(block, frames);
+            } else {
+                for (int c = 0; c < channels; c++) {
+                    closeClipRun(c);
+                }
+            }
+            position += frames;
+        }
+
+        private void scanSilence(float[] block, int frames) {
+            for (int f = 0, base = 0; f < frames; f++, base += channels) {
+                float framePeak = 0.0f;
+                for (int c = 0; c < channels; c++) {
+                    framePeak = Math.max(framePeak, Math.abs(block[base + c]));
+                }
+                long frame = position + f;
+                if (framePeak < silenceLevel) {
+                    if (silenceStart < 0) {
+                        silenceStart = frame;
+                    }
+                } else if (silenceStart >= 0) {
+                    closeSilence(frame);
+                }
+            }
+        }
+
+        private void scanClipping(float[] block, int frames) {
+            for (int c = 0; c < channels; c++) {
+                for (int f = 0, i = c; f < frames; f++, i += channels) {
+                    if (Math.abs(block[i]) >= clipLevel) {
+                        if (clipLength[c]++ == 0) {
+                            clipStart[c] = position + f;
+                        }
+                    } else if (clipLength[c] > 0) {
+                        closeClipRun(c);
+                    }
+                }
+            }
+        }
+
+        private void closeSilence(long end) {
+            long length = end - silenceStart;
+            if (length >= minSilenceFrames) {
+                silentFrames += length;
+                if (silences.size() < MAX_REPORTED) {
+                    silences.add(new SilenceSegment(toMillis(silenceStart), toMillis(length)));
+                }
+            }
+            silenceStart = -1L;
+        }
+
+        private void closeClipRun(int channel) {
+            int length = clipLength[channel];
+            if (length >= minClipRun) {
+                clipRunCount++;
+                clippedSamples += length;
+                if (clipRuns.size() < MAX_REPORTED) {
+                    clipRuns.add(new ClipRun(toMillis(clipStart[channel]), channel, length));
+                }
+            }
+            clipLength[channel] = 0;
+        }
+
+        boolean rejected() {
+            if (clipRunCount > maxClipRuns) {
+                return true;
+            }
+            long pending = silenceStart >= 0 && position - silenceStart >= minSilenceFrames ? position - silenceStart : 0L;
+            long reference = totalFrames > 0 ? totalFrames : position;
+            return reference > 0 && (silentFrames + pending) > maxSilenceRatio * reference;
+        }
+
+        AudioScanResult result(boolean stoppedEarly) {
+            if (silenceStart >= 0) {
+                closeSilence(position);
+            }
+            for (int c = 0; c < channels; c++) {
+                closeClipRun(c);
+            }
+            return new AudioScanResult(
+                    totalFrames > 0 ? totalFrames : position,
+                    position,
+                    silentFrames,
+                    clipRunCount,
+                    clippedSamples,
+                    List.copyOf(silences),
+                    List.copyOf(clipRuns),
+                    rejected(),
+                    stoppedEarly
+            );
+        }
+
+        private long toMillis(long frames) {
+            return frames * 1000L / sampleRate;
+        }
+    }
+}
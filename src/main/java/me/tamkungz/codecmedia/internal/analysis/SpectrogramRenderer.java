@@ -0,0 +1,227 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.ChannelPcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
+
+/**
+ * Renders a linear-frequency, dB-scaled STFT spectrogram.
+ *
+ * <p>Each image column is one Hann-windowed FFT frame taken at an evenly spaced position across the
+ * file, so only {@code width * fftSize} frames are read regardless of duration. WAV and AIFF inputs
+ * split the columns into contiguous ranges rendered in parallel; each worker owns its buffers and
+ * writes straight into the image raster.
+ */
+public final class SpectrogramRenderer {
+
+    private static final float FLOOR_DB = -100.0f;
+    private static final int[] PALETTE = buildPalette();
+
+    private SpectrogramRenderer() {
+    }
+
+    public static BufferedImage render(Path input, int width, int height, int fftSize, int parallelism)
+            throws CodecMediaException {
+        Fft fft = new Fft(fftSize);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        float[] window = hannWindow(fftSize);
+        int[][] rowBins = rowBinRanges(height, fftSize / 2);
+
+        FileChannel in = PcmSources.openChannel(input);
+        try {
+            PcmLayout layout = PcmSources.readLayout(in);
+            if (layout != null) {
+                long totalFrames = layout.totalFrames();
+                int tasks = Math.min(width, ParallelTasks.resolveParallelism(parallelism));
+                ParallelTasks.runAll(tasks, tasks, index -> {
+                    int firstColumn = (int) ((long) width * index / tasks);
+                    int endColumn = (int) ((long) width * (index + 1) / tasks);
+                    try (ChannelPcmSource source = new ChannelPcmSource(in, layout, 0L, totalFrames, false)) {
+                        renderColumns(source, totalFrames, fft, window, rowBins, pixels, width, firstColumn, endColumn);
+                    }
+                });
+                return image;
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+
+        try (PcmSource source = PcmSources.open(input)) {
+            if (source.totalFrames() < 0) {
+                throw new CodecMediaException("Spectrogram rendering requires audio with a known length: " + input);
+            }
+            renderColumns(source, source.totalFrames(), fft, window, rowBins, pixels, width, 0, width);
+        }
+        return image;
+    }
+
+    private static void renderColumns(
+            PcmSource source,
+            long totalFrames,
+            Fft fft,
+            float[] window,
+            int[][] rowBins,
+            int[] pixels,
+            int width,
+            int firstColumn,
+            int endColumn
+    ) throws CodecMediaException {
+        int n = fft.size();
+        int bins = n / 2;
+        float[] re = new float[n];
+        float[] im = new float[n];
+        float[] magnitude = new float[bins];
+        MonoWindow frames = new MonoWindow(source, n);
+        float scale = 2.0f / sum(window);
+        int height = rowBins[0].length;
+
+        for (int column = firstColumn; column < endColumn; column++) {
+            long start = (long) ((double) column * totalFrames / width);
+            float[] mono = frames.load(start);
+            for (int i = 0; i < n; i++) {
+                re[i] = mono[i] * window[i];
+                im[i] = 0.0f;
+            }
+            fft.transform(re, im);
+            for (int k = 0; k < bins; k++) {
+                magnitude[k] = (float) Math.sqrt(re[k] * re[k] + im[k] * im[k]) * scale;
+            }
+
+            for (int y = 0; y < height; y++) {
+                float peak = 0.0f;
+                for (int k = rowBins[0][y]; k < rowBins[1][y]; k++) {
+                    peak = Math.max(peak, magnitude[k]);
+                }
+                float db = peak > 0.0f ? (float) (20.0 * Math.log10(peak)) : FLOOR_DB;
+                float level = Math.max(0.0f, Math.min(1.0f, (db - FLOOR_DB) / -FLOOR_DB));
+                pixels[y * width + column] = PALETTE[(int) (level * (PALETTE.length - 1))];
+            }
+        }
+    }
+
+    private static float[] hannWindow(int size) {
+        float[] window = new float[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = (float) (0.5 - 0.5 * Math.cos(2.0 * Math.PI * i / (size - 1)));
+        }
+        return window;
+    }
+
+    private static float sum(float[] values) {
+        float total = 0.0f;
+        for (float value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Row 0 is the top of the image (highest frequency). Each row covers at least one bin.
+     */
+    private static int[][] rowBinRanges(int height, int bins) {
+        int[] from = new int[height];
+        int[] to = new int[height];
+        for (int y = 0; y < height; y++) {
+            int row = height - 1 - y;
+            from[y] = Math.min(bins - 1, (int) ((long) row * bins / height));
+            to[y] = Math.max(from[y] + 1, (int) ((long) (row + 1) * bins / height));
+        }
+        return new int[][] {from, to};
+    }
+
+    private static int[] buildPalette() {
+        int[][] stops = {
+                {0x00, 0x00, 0x04},
+                {0x3B, 0x0F, 0x70},
+                {0x8C, 0x29, 0x81},
+                {0xDE, 0x49, 0x68},
+                {0xFE, 0x9F, 0x6D},
+                {0xFC, 0xFD, 0xBF}
+        };
+        int[] palette = new int[256];
+        for (int i = 0; i < palette.length; i++) {
+            double position = i / 255.0 * (stops.length - 1);
+            int index = Math.min(stops.length - 2, (int) position);
+            double t = position - index;
+            int r = (int) Math.round(stops[index][0] + t * (stops[index + 1][0] - stops[index][0]));
+            int g = (int) Math.round(stops[index][1] + t * (stops[index + 1][1] - stops[index][1]));
+            int b = (int) Math.round(stops[index][2] + t * (stops[index + 1][2] - stops[index][2]));
+            palette[i] = (r << 16) | (g << 8) | b;
+        }
+        return palette;
+    }
+
+    /**
+     * Sliding mono downmix of the source. Overlapping columns reuse already-read frames and gaps
+     * between columns are skipped, so the source is only ever read forward.
+     */
+    private static final class MonoWindow {
+
+        private final PcmSource source;
+        private final int channels;
+        private final float[] mono;
+        private final float[] block;
+        private long windowStart = -1L;
+        private int valid;
+
+        MonoWindow(PcmSource source, int size) {
+            this.source = source;
+            this.channels = source.channels();
+            this.mono = new float[size];
+            this.block = new float[Math.min(size, 4096) * channels];
+        }
+
+        float[] load(long start) throws CodecMediaException {
+            long sourcePosition = windowStart + valid;
+            if (windowStart >= 0 && start >= windowStart && start < sourcePosition) {
+                int shift = (int) (start - windowStart);
+                System.arraycopy(mono, shift, mono, 0, valid - shift);
+                valid -= shift;
+            } else {
+                if (windowStart < 0) {
+                    sourcePosition = 0L;
+                }
+                if (start > sourcePosition) {
+                    source.skip(start - sourcePosition);
+                }
+                valid = 0;
+            }
+            windowStart = start;
+
+            float gain = 1.0f / channels;
+            while (valid < mono.length) {
+                int read = source.read(block, Math.min(mono.length - valid, block.length / channels));
+                if (read <= 0) {
+                    break;
+                }
+                for (int f = 0; f < read; f++) {
+                    float acc = 0.0f;
+                    int base = f * channels;
+                    for (int c = 0; c < channels; c++) {
+                        acc += block[base + c];
+                    }
+                    mono[valid + f] = acc * gain;
+                }
+                valid += read;
+            }
+            for (int i = valid; i < mono.length; i++) {
+                mono[i] = 0.0f;
+            }
+            return mono;
+        }
+    }
+}
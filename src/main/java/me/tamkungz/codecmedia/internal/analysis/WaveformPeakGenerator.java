@@ -0,0 +1,348 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.ChannelPcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.internal.io.IoCleanup;
+import me.tamkungz.codecmedia.model.WaveformLevel;
+import me.tamkungz.codecmedia.model.WaveformResult;
+
+/**
+ * Builds a multi-resolution min/max/RMS peak file in a single streaming pass over the PCM samples.
+ *
+ * <p>Peak file layout (little-endian):
+ * <pre>
+ * 0   "CMPK"
+ * 4   u16 version (1)
+ * 6   u16 channels
+ * 8   u32 sample rate
+ * 12  u64 total frames
+ * 20  u16 level count
+ * 22  u16 reserved
+ * 24  per level: u32 frames per bucket, u64 bucket count, u64 data offset
+ * ... per level, per bucket, per channel: s16 min, s16 max, s16 rms (full scale = 32767)
+ * </pre>
+ *
+ * <p>WAV and AIFF payloads are split into ranges aligned to the coarsest bucket and scanned in
+ * parallel; every worker writes its buckets straight into the file with positioned writes.
+ */
+public final class WaveformPeakGenerator {
+
+    public static final String PEAK_FILE_SUFFIX = ".codecmedia.peaks";
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int LEVEL_ENTRY_SIZE = 20;
+    static final int BYTES_PER_CHANNEL_ENTRY = 6;
+    static final long DEFAULT_MIN_FRAMES_PER_TASK = 1L << 20;
+
+    private static final int READ_BLOCK_FRAMES = 4096;
+    private static final int PENDING_ENTRIES = 512;
+
+    private WaveformPeakGenerator() {
+    }
+
+    public static Path peakFileFor(Path input) {
+        return input.resolveSibling(input.getFileName().toString() + PEAK_FILE_SUFFIX);
+    }
+
+    public static WaveformResult generate(Path input, Path peakFile, List<Integer> samplesPerBucket, int parallelism)
+            throws CodecMediaException {
+        return generate(input, peakFile, samplesPerBucket, parallelism, DEFAULT_MIN_FRAMES_PER_TASK);
+    }
+
+    static WaveformResult generate(
+            Path input,
+            Path peakFile,
+            List<Integer> samplesPerBucket,
+            int parallelism,
+            long minFramesPerTask
+    ) throws CodecMediaException {
+        int[] sizes = validateBucketSizes(samplesPerBucket);
+
+        FileChannel in = PcmSources.openChannel(input);
+        try {
+            PcmLayout layout = PcmSources.readLayout(in);
+            if (layout != null) {
+                return generateFromLayout(in, layout, peakFile, sizes, parallelism, minFramesPerTask);
+            }
+        } finally {
+            IoCleanup.closeQuietly(in);
+        }
+
+        try (PcmSource source = PcmSources.open(input)) {
+            if (source.totalFrames() < 0) {
+                throw new CodecMediaException("Waveform generation requires audio with a known length: " + input);
+            }
+            return writePeakFile(peakFile, source.sampleRate(), source.channels(), source.totalFrames(), sizes,
+                    (out, offsets) -> scan(source, out, sizes, offsets, 0L));
+        }
+    }
+
+    private static WaveformResult generateFromLayout(
+            FileChannel in,
+            PcmLayout layout,
+            Path peakFile,
+            int[] sizes,
+            int parallelism,
+            long minFramesPerTask
+    ) throws CodecMediaException {
+        long totalFrames = layout.totalFrames();
+        int coarsest = sizes[sizes.length - 1];
+        int workers = ParallelTasks.resolveParallelism(parallelism);
+        long perTask = Math.max(minFramesPerTask, (totalFrames + workers - 1) / workers);
+        long framesPerTask = ((perTask + coarsest - 1) / coarsest) * coarsest;
+        int taskCount = (int) ((totalFrames + framesPerTask - 1) / framesPerTask);
+
+        return writePeakFile(peakFile, layout.sampleRate(), layout.channels(), totalFrames, sizes, (out, offsets) ->
+                ParallelTasks.runAll(taskCount, workers, index -> {
+                    long start = index * framesPerTask;
+                    long end = Math.min(totalFrames, start + framesPerTask);
+                    try (ChannelPcmSource source = new ChannelPcmSource(in, layout, start, end, false)) {
+                        scan(source, out, sizes, offsets, start);
+                    }
+                }));
+    }
+
+    @FunctionalInterface
+    private interface PeakWriter {
+        void write(FileChannel out, long[] levelOffsets) throws CodecMediaException;
+    }
+
+    private static WaveformResult writePeakFile(
+            Path peakFile,
+            int sampleRate,
+            int channels,
+            long totalFrames,
+            int[] sizes,
+            PeakWriter writer
+    ) throws CodecMediaException {
+        if (channels <= 0 || channels > 0xFFFF) {
+            throw new CodecMediaException("Unsupported channel count for waveform: " + channels);
+        }
+        long entrySize = (long) channels * BYTES_PER_CHANNEL_ENTRY;
+        long[] offsets = new long[sizes.length];
+        List<WaveformLevel> levels = new ArrayList<>(sizes.length);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + LEVEL_ENTRY_SIZE * sizes.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.put((byte) 'C').put((byte) 'M').put((byte) 'P').put((byte) 'K');
+        header.putShort((short) VERSION);
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putLong(totalFrames);
+        header.putShort((short) sizes.length);
+        header.putShort((short) 0);
+
+        long cursor = header.capacity();
+        for (int i = 0; i < sizes.length; i++) {
+            long buckets = (totalFrames + sizes[i] - 1) / sizes[i];
+            offsets[i] = cursor;
+            header.putInt(sizes[i]);
+            header.putLong(buckets);
+            header.putLong(cursor);
+            levels.add(new WaveformLevel(sizes[i], buckets));
+            cursor += buckets * entrySize;
+        }
+        header.flip();
+
+        try {
+            Path parent = peakFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel out = FileChannel.open(peakFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ChannelWrites.writeFully(out, header, 0L);
+                writer.write(out, offsets);
+            }
+        } catch (IOException e) {
+            IoCleanup.deleteQuietly(peakFile);
+            throw new CodecMediaException("Failed to write waveform peaks: " + peakFile, e);
+        } catch (CodecMediaException | RuntimeException e) {
+            IoCleanup.deleteQuietly(peakFile);
+            throw e;
+        }
+        return new WaveformResult(peakFile, sampleRate, channels, totalFrames, List.copyOf(levels));
+    }
+
+    private static void scan(PcmSource source, FileChannel out, int[] sizes, long[] offsets, long firstFrame)
+            throws CodecMediaException {
+        PeakAccumulator accumulator = new PeakAccumulator(source.channels(), sizes, offsets, out, firstFrame);
+        float[] block = new float[READ_BLOCK_FRAMES * source.channels()];
+        int frames;
+        while ((frames = source.read(block, READ_BLOCK_FRAMES)) > 0) {
+            accumulator.accept(block, frames);
+        }
+        accumulator.finish();
+    }
+
+    private static int[] validateBucketSizes(List<Integer> samplesPerBucket) throws CodecMediaException {
+        if (samplesPerBucket == null || samplesPerBucket.isEmpty()) {
+            throw new CodecMediaException("Waveform requires at least one bucket size");
+        }
+        if (samplesPerBucket.size() > 0xFFFF) {
+            throw new CodecMediaException("Too many waveform levels: " + samplesPerBucket.size());
+        }
+        int[] sizes = new int[samplesPerBucket.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            Integer size = samplesPerBucket.get(i);
+            if (size == null || size <= 0) {
+                throw new CodecMediaException("Waveform bucket size must be positive: " + size);
+            }
+            if (i > 0 && (size <= sizes[i - 1] || size % sizes[i - 1] != 0)) {
+                throw new CodecMediaException(
+                        "Waveform bucket sizes must increase and each must be a multiple of the previous: " + samplesPerBucket);
+            }
+            sizes[i] = size;
+        }
+        return sizes;
+    }
+
+    /**
+     * Per-worker running state for every level. Only the finest level touches samples; coarser
+     * levels are folded from finished buckets of the level below.
+     */
+    private static final class PeakAccumulator {
+
+        private final int channels;
+        private final int[] sizes;
+        private final FileChannel out;
+        private final float[][] min;
+        private final float[][] max;
+        private final double[][] sumSquares;
+        private final long[] frames;
+        private final int[] children;
+        private final long[] writePosition;
+        private final ByteBuffer[] pending;
+
+        PeakAccumulator(int channels, int[] sizes, long[] offsets, FileChannel out, long firstFrame) {
+            this.channels = channels;
+            this.sizes = sizes;
+            this.out = out;
+            int levels = sizes.length;
+            int entrySize = channels * BYTES_PER_CHANNEL_ENTRY;
+            min = new float[levels][channels];
+            max = new float[levels][channels];
+            sumSquares = new double[levels][channels];
+            frames = new long[levels];
+            children = new int[levels];
+            writePosition = new long[levels];
+            pending = new ByteBuffer[levels];
+            for (int level = 0; level < levels; level++) {
+                reset(level);
+                writePosition[level] = offsets[level] + (firstFrame / sizes[level]) * entrySize;
+                pending[level] = ByteBuffer.allocate(PENDING_ENTRIES * entrySize).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        void accept(float[] samples, int frameCount) throws CodecMediaException {
+            float[] mn = min[0];
+            float[] mx = max[0];
+            double[] sq = sumSquares[0];
+            int bucketFrames = sizes[0];
+            int frame = 0;
+            while (frame < frameCount) {
+                int take = (int) Math.min(frameCount - frame, bucketFrames - frames[0]);
+                int end = (frame + take) * channels;
+                for (int c = 0; c < channels; c++) {
+                    float lo = mn[c];
+                    float hi = mx[c];
+                    double acc = sq[c];
+                    for (int i = frame * channels + c; i < end; i += channels) {
+                        float v = samples[i];
+                        lo = Math.min(lo, v);
+                        hi = Math.max(hi, v);
+                        acc += v * v;
+                    }
+                    mn[c] = lo;
+                    mx[c] = hi;
+                    sq[c] = acc;
+                }
+                frames[0] += take;
+                frame += take;
+                if (frames[0] == bucketFrames) {
+                    emit(0);
+                }
+            }
+        }
+
+        void finish() throws CodecMediaException {
+            for (int level = 0; level < sizes.length; level++) {
+                if (frames[level] > 0) {
+                    emit(level);
+                }
+            }
+            for (int level = 0; level < sizes.length; level++) {
+                flush(level);
+            }
+        }
+
+        private void emit(int level) throws CodecMediaException {
+            ByteBuffer buffer = pending[level];
+            if (buffer.remaining() < channels * BYTES_PER_CHANNEL_ENTRY) {
+                flush(level);
+            }
+            long count = frames[level];
+            for (int c = 0; c < channels; c++) {
+                buffer.putShort(toShort(min[level][c]));
+                buffer.putShort(toShort(max[level][c]));
+                buffer.putShort(toShort((float) Math.sqrt(sumSquares[level][c] / count)));
+            }
+
+            int parent = level + 1;
+            if (parent < sizes.length) {
+                for (int c = 0; c < channels; c++) {
+                    min[parent][c] = Math.min(min[parent][c], min[level][c]);
+                    max[parent][c] = Math.max(max[parent][c], max[level][c]);
+                    sumSquares[parent][c] += sumSquares[level][c];
+                }
+                frames[parent] += count;
+                children[parent]++;
+            }
+            reset(level);
+            if (parent < sizes.length && children[parent] == sizes[parent] / sizes[level]) {
+                emit(parent);
+            }
+        }
+
+        private void flush(int level) throws CodecMediaException {
+            ByteBuffer buffer = pending[level];
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    writePosition[level] += out.write(buffer, writePosition[level]);
+                }
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to write waveform peaks: " + e.getMessage(), e);
+            }
+            buffer.clear();
+        }
+
+        private void reset(int level) {
+            for (int c = 0; c < channels; c++) {
+                min[level][c] = Float.POSITIVE_INFINITY;
+                max[level][c] = Float.NEGATIVE_INFINITY;
+                sumSquares[level][c] = 0.0;
+            }
+            frames[level] = 0;
+            children[level] = 0;
+        }
+
+        private static short toShort(float value) {
+            float clamped = Math.max(-1.0f, Math.min(1.0f, value));
+            return (short) Math.round(clamped * 32767.0f);
+        }
+    }
+}
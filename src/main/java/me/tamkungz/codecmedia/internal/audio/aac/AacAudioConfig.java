@@ -0,0 +1,199 @@
+package me.tamkungz.codecmedia.internal.audio.aac;
+
+import java.nio.ByteBuffer;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * The fields of an MPEG-4 AudioSpecificConfig that an ADTS header can carry.
+ * <p>
+ * {@code objectType} is the core audio object type (1 = Main, 2 = LC, 3 = SSR, 4 = LTP); for
+ * explicitly signalled HE-AAC (SBR/PS) the underlying core type and base sampling rate are used, as
+ * ADTS has no field for the extension.
+ */
+public record AacAudioConfig(
+        int objectType,
+        int samplingFrequencyIndex,
+        int channelConfiguration
+) {
+
+    public static final int ADTS_HEADER_BYTES = 7;
+    public static final int MAX_ADTS_FRAME_BYTES = 0x1FFF;
+
+    private static final int[] SAMPLE_RATES = {
+            96000, 88200, 64000, 48000, 44100, 32000, 24000, 22050, 16000, 12000, 11025, 8000, 7350
+    };
+
+    private static final int TAG_ES_DESCRIPTOR = 0x03;
+    private static final int TAG_DECODER_CONFIG = 0x04;
+    private static final int TAG_DECODER_SPECIFIC_INFO = 0x05;
+
+    public int sampleRate() {
+        return SAMPLE_RATES[samplingFrequencyIndex];
+    }
+
+    /**
+     * Reads the AudioSpecificConfig nested in an {@code esds} payload (version/flags first):
+     * ES_Descriptor -> DecoderConfigDescriptor -> DecoderSpecificInfo.
+     */
+    public static AacAudioConfig fromEsds(byte[] esds) throws CodecMediaException {
+        ByteBuffer buffer = ByteBuffer.wrap(esds);
+        if (buffer.remaining() < 4) {
+            throw new CodecMediaException("esds box is too short");
+        }
+        buffer.position(4);
+        int esLength = expectDescriptor(buffer, TAG_ES_DESCRIPTOR);
+        int esEnd = buffer.position() + esLength;
+        require(buffer, 3);
+        buffer.getShort();
+        int flags = buffer.get() & 0xFF;
+        if ((flags & 0x80) != 0) {
+            require(buffer, 2);
+            buffer.getShort();
+        }
+        if ((flags & 0x40) != 0) {
+            require(buffer, 1);
+            int urlLength = buffer.get() & 0xFF;
+            require(buffer, urlLength);
+            buffer.position(buffer.position() + urlLength);
+        }
+        if ((flags & 0x20) != 0) {
+            require(buffer, 2);
+            buffer.getShort();
+        }
+        int configLength = expectDescriptor(buffer, TAG_DECODER_CONFIG);
+        int configEnd = Math.min(buffer.position() + configLength, esEnd);
+        require(buffer, 13);
+        int objectTypeIndication = buffer.get() & 0xFF;
+        if (objectTypeIndication != 0x40 && objectTypeIndication != 0x66 && objectTypeIndication != 0x67
+                && objectTypeIndication != 0x68) {
+            throw new CodecMediaException("esds does not describe AAC audio (objectTypeIndication 0x"
+                    + Integer.toHexString(objectTypeIndication) + ")");
+        }
+        buffer.position(buffer.position() + 12);
+        while (buffer.position() < configEnd) {
+            int tag = buffer.get() & 0xFF;
+            int length = readDescriptorLength(buffer);
+            require(buffer, length);
+            if (tag == TAG_DECODER_SPECIFIC_INFO) {
+                byte[] asc = new byte[length];
+                buffer.get(asc);
+                if (objectTypeIndication != 0x40) {
+                    // MPEG-2 AAC: the profile is given by the indication (0x66 Main, 0x67 LC, 0x68 SSR)
+                    AacAudioConfig config = parse(asc);
+                    return new AacAudioConfig(objectTypeIndication - 0x65, config.samplingFrequencyIndex, config.channelConfiguration);
+                }
+                return parse(asc);
+            }
+            buffer.position(buffer.position() + length);
+        }
+        throw new CodecMediaException("esds has no AudioSpecificConfig");
+    }
+
+    /**
+     * Parses an AudioSpecificConfig into the fields an ADTS header needs.
+     */
+    public static AacAudioConfig parse(byte[] asc) throws CodecMediaException {
+        if (asc.length < 2) {
+            throw new CodecMediaException("AudioSpecificConfig is too short");
+        }
+        BitCursor bits = new BitCursor(asc);
+        int objectType = readObjectType(bits);
+        int frequencyIndex = readFrequencyIndex(bits);
+        int channelConfiguration = bits.read(4);
+        if (objectType == 5 || objectType == 29) {
+            // Explicit SBR/PS signalling: extension rate, then the core object type
+            readFrequencyIndex(bits);
+            objectType = readObjectType(bits);
+        }
+        if (objectType < 1 || objectType > 4) {
+            throw new CodecMediaException("AAC object type " + objectType + " cannot be carried in ADTS");
+        }
+        if (channelConfiguration == 0) {
+            throw new CodecMediaException("AAC channel layouts from a program config element are not supported in ADTS output");
+        }
+        return new AacAudioConfig(objectType, frequencyIndex, channelConfiguration);
+    }
+
+    /**
+     * Writes a 7-byte ADTS header (MPEG-4, no CRC) for a raw AAC frame of {@code payloadLength} bytes.
+     */
+    public void writeAdtsHeader(ByteBuffer out, int payloadLength) throws CodecMediaException {
+        int frameLength = payloadLength + ADTS_HEADER_BYTES;
+        if (frameLength > MAX_ADTS_FRAME_BYTES) {
+            throw new CodecMediaException("AAC frame too large for ADTS: " + payloadLength + " bytes");
+        }
+        int profile = objectType - 1;
+        out.put((byte) 0xFF);
+        out.put((byte) 0xF1);
+        out.put((byte) ((profile << 6) | (samplingFrequencyIndex << 2) | (channelConfiguration >> 2)));
+        out.put((byte) (((channelConfiguration & 3) << 6) | (frameLength >> 11)));
+        out.put((byte) ((frameLength >> 3) & 0xFF));
+        out.put((byte) (((frameLength & 7) << 5) | 0x1F));
+        out.put((byte) 0xFC);
+    }
+
+    private static int readObjectType(BitCursor bits) throws CodecMediaException {
+        int objectType = bits.read(5);
+        return objectType == 31 ? 32 + bits.read(6) : objectType;
+    }
+
+    private static int readFrequencyIndex(BitCursor bits) throws CodecMediaException {
+        int index = bits.read(4);
+        if (index >= SAMPLE_RATES.length) {
+            throw new CodecMediaException("AAC sampling frequency index " + index + " cannot be carried in ADTS");
+        }
+        return index;
+    }
+
+    private static int expectDescriptor(ByteBuffer buffer, int tag) throws CodecMediaException {
+        require(buffer, 1);
+        int found = buffer.get() & 0xFF;
+        if (found != tag) {
+            throw new CodecMediaException("Unexpected esds descriptor tag 0x" + Integer.toHexString(found)
+                    + " (expected 0x" + Integer.toHexString(tag) + ")");
+        }
+        return readDescriptorLength(buffer);
+    }
+
+    private static int readDescriptorLength(ByteBuffer buffer) throws CodecMediaException {
+        int length = 0;
+        for (int i = 0; i < 4; i++) {
+            require(buffer, 1);
+            int b = buffer.get() & 0xFF;
+            length = (length << 7) | (b & 0x7F);
+            if ((b & 0x80) == 0) {
+                return length;
+            }
+        }
+        return length;
+    }
+
+    private static void require(ByteBuffer buffer, int count) throws CodecMediaException {
+        if (buffer.remaining() < count) {
+            throw new CodecMediaException("Unexpected end of esds data");
+        }
+    }
+
+    private static final class BitCursor {
+        private final byte[] data;
+        private int bitPosition;
+
+        private BitCursor(byte[] data) {
+            this.data = data;
+        }
+
+        private int read(int count) throws CodecMediaException {
+            if (bitPosition + count > data.length * 8) {
+                throw new CodecMediaException("Unexpected end of AudioSpecificConfig");
+            }
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                int bit = (data[bitPosition >> 3] >> (7 - (bitPosition & 7))) & 1;
+                value = (value << 1) | bit;
+                bitPosition++;
+            }
+            return value;
+        }
+    }
+}
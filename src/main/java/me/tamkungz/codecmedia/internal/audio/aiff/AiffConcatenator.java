@@ -0,0 +1,128 @@
+package me.tamkungz.codecmedia.internal.audio.aiff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.ConcatResult;
+import me.tamkungz.codecmedia.options.ConcatOptions;
+
+/**
+ * Joins AIFF/AIFC files with identical sample formats into one {@code SSND} chunk.
+ *
+ * <p>The chunks before {@code SSND} of the first input are copied ({@code COMM} and {@code FVER}
+ * only when tags are not kept) with the {@code COMM} frame count patched, then the sample frames of
+ * every input are moved with {@code transferTo}. AIFF has no 64-bit size extension, so outputs past
+ * the 32-bit {@code FORM} size are rejected.
+ */
+public final class AiffConcatenator {
+
+    private static final long FORM_SIZE_LIMIT = 0xFFFFFFFFL;
+
+    private AiffConcatenator() {
+    }
+
+    public static ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options) throws CodecMediaException {
+        List<PcmLayout> layouts = new ArrayList<>(inputs.size());
+        long dataBytes = 0;
+        for (Path input : inputs) {
+            PcmLayout layout = readLayout(input);
+            if (!layouts.isEmpty() && !sameFormat(layouts.get(0), layout)) {
+                throw new CodecMediaException("AIFF inputs have different sample formats: " + input);
+            }
+            layouts.add(layout);
+            dataBytes += layout.totalFrames() * layout.frameSize();
+        }
+        PcmLayout first = layouts.get(0);
+        long frames = dataBytes / first.frameSize();
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(inputs.get(0), out, options, dataBytes, frames);
+            for (int i = 0; i < inputs.size(); i++) {
+                PcmLayout layout = layouts.get(i);
+                try (FileChannel in = FileChannel.open(inputs.get(i), StandardOpenOption.READ)) {
+                    ChannelWrites.transferFully(in, layout.dataOffset(), layout.totalFrames() * layout.frameSize(), out);
+                } catch (IOException e) {
+                    throw new CodecMediaException("Failed to concatenate AIFF: " + inputs.get(i), e);
+                }
+            }
+            if ((dataBytes & 1) != 0) {
+                ChannelWrites.writeFully(out, ByteBuffer.allocate(1));
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to concatenate AIFF: " + output, e);
+        }
+        return new ConcatResult(output, "aiff", inputs.size(), frames * 1000L / first.sampleRate());
+    }
+
+    /** Writes the {@code FORM} header, the copied chunks and the {@code SSND} chunk header. */
+    private static void writeHeader(Path firstInput, FileChannel out, ConcatOptions options, long dataBytes, long frames)
+            throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(firstInput, StandardOpenOption.READ)) {
+            byte[] form = ChannelReads.readBytes(in, 0, 12);
+            List<long[]> chunks = new ArrayList<>();
+            long commOffset = -1;
+            long headerBytes = 12 + 16;
+            long offset = 12;
+            long fileSize = in.size();
+            while (offset + 8 <= fileSize) {
+                byte[] chunkHeader = ChannelReads.readBytes(in, offset, 8);
+                String id = new String(chunkHeader, 0, 4, StandardCharsets.US_ASCII);
+                long size = ByteBuffer.wrap(chunkHeader).getInt(4) & 0xFFFFFFFFL;
+                if ("SSND".equals(id)) {
+                    break;
+                }
+                long length = Math.min(8 + size + (size & 1), fileSize - offset);
+                if ("COMM".equals(id) || "FVER".equals(id) || options.keepTags()) {
+                    if ("COMM".equals(id)) {
+                        commOffset = headerBytes - 16;
+                    }
+                    chunks.add(new long[] {offset, length});
+                    headerBytes += length;
+                }
+                offset += length;
+            }
+            long outputSize = headerBytes + dataBytes + (dataBytes & 1);
+            if (outputSize - 8 > FORM_SIZE_LIMIT || frames > FORM_SIZE_LIMIT) {
+                throw new CodecMediaException("Concatenated AIFF exceeds the 4 GiB FORM size limit");
+            }
+
+            ByteBuffer formHeader = ByteBuffer.wrap(form);
+            formHeader.putInt(4, (int) (outputSize - 8));
+            ChannelWrites.writeFully(out, formHeader);
+            for (long[] chunk : chunks) {
+                ChannelWrites.transferFully(in, chunk[0], chunk[1], out);
+            }
+            ByteBuffer frameCount = ByteBuffer.allocate(4).putInt((int) frames).flip();
+            out.write(frameCount, commOffset + 8 + 2);
+            ByteBuffer ssnd = ByteBuffer.allocate(16);
+            ssnd.put("SSND".getBytes(StandardCharsets.US_ASCII)).putInt((int) (8 + dataBytes)).putInt(0).putInt(0).flip();
+            ChannelWrites.writeFully(out, ssnd);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to concatenate AIFF: " + firstInput, e);
+        }
+    }
+
+    private static PcmLayout readLayout(Path input) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            return AiffParser.readPcmLayout(in);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read AIFF: " + input, e);
+        }
+    }
+
+    private static boolean sameFormat(PcmLayout a, PcmLayout b) {
+        return a.sampleRate() == b.sampleRate() && a.channels() == b.channels() && a.bitsPerSample() == b.bitsPerSample()
+                && a.bytesPerSample() == b.bytesPerSample() && a.encoding() == b.encoding() && a.bigEndian() == b.bigEndian();
+    }
+}
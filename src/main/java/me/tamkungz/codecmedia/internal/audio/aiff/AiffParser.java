@@ -1,6 +1,8 @@
 package me.tamkungz.codecmedia.internal.audio.aiff;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -9,6 +11,9 @@ import java.util.Map;
 
 import me.tamkungz.codecmedia.CodecMediaException;
 import me.tamkungz.codecmedia.internal.audio.BitrateMode;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmEncoding;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
 
 public final class AiffParser {
 
@@ -86,12 +91,106 @@ public final class AiffParser {
     }
 
     private static void validateAifcCompressionType(String compressionType) throws CodecMediaException {
-        if (AIFC_COMPRESSION_NONE.equals(compressionType) || AIFC_COMPRESSION_SOWT.equals(compressionType)) {
-            return;
+        switch (compressionType) {
+            case AIFC_COMPRESSION_NONE, AIFC_COMPRESSION_SOWT, "twos", "fl32", "FL32", "fl64", "FL64" -> {
+                return;
+            }
+            default -> {
+            }
         }
         throw new CodecMediaException("Unsupported AIFC compression type: " + compressionType);
     }
 
+    /**
+     * Walks chunk headers only and stops at the {@code SSND} chunk, so the payload is never loaded.
+     * AIFF and AIFC {@code NONE}/{@code twos} are big-endian integers, {@code sowt} is little-endian,
+     * and {@code fl32}/{@code fl64} are big-endian IEEE floats.
+     */
+    public static PcmLayout readPcmLayout(SeekableByteChannel channel) throws CodecMediaException {
+        try {
+            long fileSize = channel.size();
+            if (fileSize < 12) {
+                throw new CodecMediaException("Not an AIFF file");
+            }
+            byte[] header = ChannelReads.readBytes(channel, 0, 12);
+            if (!isLikelyAiff(header)) {
+                throw new CodecMediaException("Not an AIFF file");
+            }
+            boolean aifc = header[11] == 'C';
+
+            long offset = 12;
+            byte[] comm = null;
+            while (offset + 8 <= fileSize) {
+                byte[] chunkHeader = ChannelReads.readBytes(channel, offset, 8);
+                String chunkId = readAscii(chunkHeader, 0, 4);
+                long chunkSize = readBeUInt32(chunkHeader, 4);
+                long chunkDataStart = offset + 8;
+
+                if ("COMM".equals(chunkId)) {
+                    int needed = aifc ? 22 : 18;
+                    if (chunkSize < needed || chunkDataStart + needed > fileSize) {
+                        throw new CodecMediaException(aifc ? "AIFC COMM chunk missing compression type" : "AIFF COMM chunk too small");
+                    }
+                    comm = ChannelReads.readBytes(channel, chunkDataStart, needed);
+                } else if ("SSND".equals(chunkId)) {
+                    if (comm == null) {
+                        throw new CodecMediaException("AIFF SSND chunk precedes COMM chunk");
+                    }
+                    if (chunkSize < 8 || chunkDataStart + 8 > fileSize) {
+                        throw new CodecMediaException("AIFF SSND chunk too small");
+                    }
+                    long soundOffset = readBeUInt32(ChannelReads.readBytes(channel, chunkDataStart, 4), 0);
+                    long dataOffset = chunkDataStart + 8 + soundOffset;
+                    long dataSize = Math.min(chunkSize - 8 - soundOffset, fileSize - dataOffset);
+                    if (dataSize < 0) {
+                        throw new CodecMediaException("AIFF SSND offset exceeds chunk bounds");
+                    }
+                    return toPcmLayout(comm, aifc, dataOffset, dataSize);
+                }
+
+                offset = chunkDataStart + chunkSize + (chunkSize & 1);
+            }
+            throw new CodecMediaException("AIFF is missing required COMM/SSND chunks");
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read AIFF header: " + e.getMessage(), e);
+        }
+    }
+
+    private static PcmLayout toPcmLayout(byte[] comm, boolean aifc, long dataOffset, long dataSize) throws CodecMediaException {
+        int channels = readBeShort(comm, 0);
+        long frameCount = readBeUInt32(comm, 2);
+        int bitsPerSample = readBeShort(comm, 6);
+        int sampleRate = decodeExtended80ToIntHz(comm, 8);
+        if (channels <= 0 || bitsPerSample <= 0 || sampleRate <= 0) {
+            throw new CodecMediaException("Invalid AIFF format values");
+        }
+
+        PcmEncoding encoding = PcmEncoding.SIGNED_INT;
+        boolean bigEndian = true;
+        int bytesPerSample = (bitsPerSample + 7) / 8;
+        if (aifc) {
+            String compressionType = readAscii(comm, 18, 4);
+            switch (compressionType) {
+                case AIFC_COMPRESSION_NONE, "twos" -> {
+                }
+                case AIFC_COMPRESSION_SOWT -> bigEndian = false;
+                case "fl32", "FL32" -> {
+                    encoding = PcmEncoding.FLOAT;
+                    bytesPerSample = 4;
+                }
+                case "fl64", "FL64" -> {
+                    encoding = PcmEncoding.FLOAT;
+                    bytesPerSample = 8;
+                }
+                default -> throw new CodecMediaException("Unsupported AIFC compression type: " + compressionType);
+            }
+        }
+
+        long declaredBytes = frameCount * bytesPerSample * channels;
+        return new PcmLayout(sampleRate, channels, bitsPerSample, bytesPerSample, encoding, bigEndian,
+                dataOffset, Math.min(dataSize, declaredBytes));
+    }
+
     public static boolean isLikelyAiff(byte[] bytes) {
         return bytes != null
                 && bytes.length >= 12
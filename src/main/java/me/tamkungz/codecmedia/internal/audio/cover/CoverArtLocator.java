@@ -0,0 +1,279 @@
+package me.tamkungz.codecmedia.internal.audio.cover;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Finds embedded cover art (ID3v2 {@code APIC}/{@code PIC}, FLAC {@code PICTURE}, MP4 {@code covr})
+ * by walking tag and metadata headers only. Picture payloads and audio data are never read.
+ */
+public final class CoverArtLocator {
+
+    private static final int FRONT_COVER = 3;
+    private static final int MAX_PICTURE_HEADER_BYTES = 64 * 1024;
+
+    private CoverArtLocator() {
+    }
+
+    /**
+     * @return the front cover when present, otherwise the first picture, or {@code null} when none is embedded
+     */
+    public static EmbeddedPicture locate(FileChannel channel) throws CodecMediaException {
+        try {
+            long size = channel.size();
+            if (size < 12) {
+                return null;
+            }
+            byte[] head = ChannelReads.readBytes(channel, 0, 12);
+            if (head[0] == 'I' && head[1] == 'D' && head[2] == '3') {
+                return locateId3v2(channel, head);
+            }
+            if (head[0] == 'f' && head[1] == 'L' && head[2] == 'a' && head[3] == 'C') {
+                return locateFlacPicture(channel, size);
+            }
+            if (head[4] == 'f' && head[5] == 't' && head[6] == 'y' && head[7] == 'p') {
+                return locateMp4Cover(channel);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read embedded picture: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Detects the image format from the payload magic bytes, falling back to the declared mime type.
+     *
+     * @return a lowercase file extension such as {@code png} or {@code jpg}, or an empty string when unknown
+     */
+    public static String imageExtension(FileChannel channel, EmbeddedPicture picture) throws CodecMediaException {
+        if (picture.length() >= 12) {
+            try {
+                byte[] magic = ChannelReads.readBytes(channel, picture.offset(), 12);
+                if ((magic[0] & 0xFF) == 0xFF && (magic[1] & 0xFF) == 0xD8 && (magic[2] & 0xFF) == 0xFF) {
+                    return "jpg";
+                }
+                if ((magic[0] & 0xFF) == 0x89 && magic[1] == 'P' && magic[2] == 'N' && magic[3] == 'G') {
+                    return "png";
+                }
+                if (magic[0] == 'B' && magic[1] == 'M') {
+                    return "bmp";
+                }
+                if (magic[0] == 'R' && magic[1] == 'I' && magic[2] == 'F' && magic[3] == 'F'
+                        && magic[8] == 'W' && magic[9] == 'E' && magic[10] == 'B' && magic[11] == 'P') {
+                    return "webp";
+                }
+                if ((magic[0] == 'I' && magic[1] == 'I' && magic[2] == 42) || (magic[0] == 'M' && magic[1] == 'M' && magic[3] == 42)) {
+                    return "tiff";
+                }
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to read embedded picture: " + e.getMessage(), e);
+            }
+        }
+        String mime = picture.mimeType() == null ? "" : picture.mimeType().trim().toLowerCase(Locale.ROOT);
+        return switch (mime) {
+            case "image/jpeg", "image/jpg", "jpg", "jpeg" -> "jpg";
+            case "image/png", "png" -> "png";
+            case "image/bmp", "bmp" -> "bmp";
+            case "image/webp" -> "webp";
+            case "image/tiff" -> "tiff";
+            default -> "";
+        };
+    }
+
+    private static EmbeddedPicture locateId3v2(FileChannel channel, byte[] head) throws IOException {
+        int version = head[3] & 0xFF;
+        int flags = head[5] & 0xFF;
+        long tagEnd = 10L + synchsafe(head, 6);
+        if (version < 2 || version > 4 || ((flags & 0x80) != 0 && version < 4)) {
+            // Whole-tag unsynchronisation scatters the payload, so it cannot be streamed in place.
+            return null;
+        }
+
+        long offset = 10;
+        if ((flags & 0x40) != 0 && version >= 3) {
+            byte[] ext = ChannelReads.readBytes(channel, offset, 4);
+            offset += version == 4 ? synchsafe(ext, 0) : 4L + readBeInt(ext, 0);
+        }
+
+        int headerSize = version == 2 ? 6 : 10;
+        EmbeddedPicture first = null;
+        while (offset + headerSize <= tagEnd) {
+            byte[] frameHeader = ChannelReads.readBytes(channel, offset, headerSize);
+            if (frameHeader[0] == 0) {
+                break;
+            }
+            String id = new String(frameHeader, 0, version == 2 ? 3 : 4, StandardCharsets.ISO_8859_1);
+            long frameSize = switch (version) {
+                case 2 -> ((frameHeader[3] & 0xFFL) << 16) | ((frameHeader[4] & 0xFFL) << 8) | (frameHeader[5] & 0xFFL);
+                case 3 -> readBeInt(frameHeader, 4) & 0xFFFFFFFFL;
+                default -> synchsafe(frameHeader, 4);
+            };
+            long dataStart = offset + headerSize;
+            if (frameSize <= 0 || dataStart + frameSize > tagEnd) {
+                break;
+            }
+
+            boolean picture = version == 2 ? "PIC".equals(id) : "APIC".equals(id);
+            if (picture) {
+                int formatFlags = version == 2 ? 0 : frameHeader[9] & 0xFF;
+                EmbeddedPicture found = parseId3Picture(channel, version, formatFlags, dataStart, frameSize);
+                if (found != null && found.pictureType() == FRONT_COVER) {
+                    return found;
+                }
+                if (first == null) {
+                    first = found;
+                }
+            }
+            offset = dataStart + frameSize;
+        }
+        return first;
+    }
+
+    private static EmbeddedPicture parseId3Picture(FileChannel channel, int version, int formatFlags, long dataStart, long frameSize)
+            throws IOException {
+        boolean compressedOrEncrypted = version == 3
+                ? (formatFlags & 0xC0) != 0
+                : version == 4 && (formatFlags & 0x0E) != 0;
+        if (compressedOrEncrypted) {
+            return null;
+        }
+        long start = dataStart;
+        long size = frameSize;
+        if ((version == 3 && (formatFlags & 0x20) != 0) || (version == 4 && (formatFlags & 0x40) != 0)) {
+            start++;
+            size--;
+        }
+        if (version == 4 && (formatFlags & 0x01) != 0) {
+            start += 4;
+            size -= 4;
+        }
+
+        byte[] header = ChannelReads.readBytes(channel, start, (int) Math.min(size, MAX_PICTURE_HEADER_BYTES));
+        int encoding = header[0] & 0xFF;
+        int cursor = 1;
+        String mime;
+        if (version == 2) {
+            if (header.length < 5) {
+                return null;
+            }
+            mime = new String(header, 1, 3, StandardCharsets.ISO_8859_1);
+            cursor = 4;
+        } else {
+            int end = indexOfZero(header, cursor, 1);
+            if (end < 0) {
+                return null;
+            }
+            mime = new String(header, cursor, end - cursor, StandardCharsets.ISO_8859_1);
+            cursor = end + 1;
+        }
+        if (cursor >= header.length) {
+            return null;
+        }
+        int pictureType = header[cursor++] & 0xFF;
+        int terminatorWidth = (encoding == 1 || encoding == 2) ? 2 : 1;
+        int descriptionEnd = indexOfZero(header, cursor, terminatorWidth);
+        if (descriptionEnd < 0) {
+            return null;
+        }
+        long imageOffset = start + descriptionEnd + terminatorWidth;
+        long imageLength = start + size - imageOffset;
+        return imageLength > 0 ? new EmbeddedPicture(imageOffset, imageLength, mime, pictureType) : null;
+    }
+
+    private static EmbeddedPicture locateFlacPicture(FileChannel channel, long fileSize) throws IOException {
+        long offset = 4;
+        EmbeddedPicture first = null;
+        while (offset + 4 <= fileSize) {
+            byte[] blockHeader = ChannelReads.readBytes(channel, offset, 4);
+            boolean last = (blockHeader[0] & 0x80) != 0;
+            int type = blockHeader[0] & 0x7F;
+            long length = ((blockHeader[1] & 0xFFL) << 16) | ((blockHeader[2] & 0xFFL) << 8) | (blockHeader[3] & 0xFFL);
+            long blockStart = offset + 4;
+            if (blockStart + length > fileSize) {
+                break;
+            }
+            if (type == 6 && length >= 32) {
+                EmbeddedPicture found = parseFlacPicture(channel, blockStart, length);
+                if (found != null && found.pictureType() == FRONT_COVER) {
+                    return found;
+                }
+                if (first == null) {
+                    first = found;
+                }
+            }
+            if (last) {
+                break;
+            }
+            offset = blockStart + length;
+        }
+        return first;
+    }
+
+    private static EmbeddedPicture parseFlacPicture(FileChannel channel, long blockStart, long length) throws IOException {
+        byte[] header = ChannelReads.readBytes(channel, blockStart, (int) Math.min(length, MAX_PICTURE_HEADER_BYTES));
+        int pictureType = readBeInt(header, 0);
+        long mimeLength = readBeInt(header, 4) & 0xFFFFFFFFL;
+        if (8 + mimeLength + 4 > header.length) {
+            return null;
+        }
+        String mime = new String(header, 8, (int) mimeLength, StandardCharsets.US_ASCII);
+        int cursor = 8 + (int) mimeLength;
+        long descriptionLength = readBeInt(header, cursor) & 0xFFFFFFFFL;
+        long dataLengthOffset = cursor + 4 + descriptionLength + 16;
+        if (dataLengthOffset + 4 > header.length) {
+            return null;
+        }
+        long dataLength = readBeInt(header, (int) dataLengthOffset) & 0xFFFFFFFFL;
+        long dataOffset = blockStart + dataLengthOffset + 4;
+        if (dataLength == 0 || dataOffset + dataLength > blockStart + length) {
+            return null;
+        }
+        return new EmbeddedPicture(dataOffset, dataLength, mime, pictureType);
+    }
+
+    private static EmbeddedPicture locateMp4Cover(FileChannel channel) throws CodecMediaException {
+        BmffReader reader = new BmffReader(channel);
+        BmffBox data = reader.find("moov/udta/meta/ilst/covr/data");
+        if (data == null || data.payloadSize() <= 8) {
+            return null;
+        }
+        int typeIndicator = readBeInt(reader.read(data.payloadOffset(), 4), 0) & 0x00FFFFFF;
+        String mime = switch (typeIndicator) {
+            case 13 -> "image/jpeg";
+            case 14 -> "image/png";
+            case 27 -> "image/bmp";
+            default -> "";
+        };
+        return new EmbeddedPicture(data.payloadOffset() + 8, data.payloadSize() - 8, mime, FRONT_COVER);
+    }
+
+    private static int indexOfZero(byte[] bytes, int from, int width) {
+        for (int i = from; i + width <= bytes.length; i += width) {
+            if (bytes[i] == 0 && (width == 1 || bytes[i + 1] == 0)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long synchsafe(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0x7FL) << 21)
+                | ((bytes[offset + 1] & 0x7FL) << 14)
+                | ((bytes[offset + 2] & 0x7FL) << 7)
+                | (bytes[offset + 3] & 0x7FL);
+    }
+
+    private static int readBeInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+                | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,17 @@
+package me.tamkungz.codecmedia.internal.audio.cover;
+
+/**
+ * Location of an embedded picture payload inside its container file.
+ *
+ * @param offset absolute file offset of the first image byte
+ * @param length image payload length in bytes
+ * @param mimeType declared mime type (may be empty when the container does not carry one)
+ * @param pictureType ID3v2/FLAC picture type ({@code 3} = front cover), or {@code -1} when unknown
+ */
+public record EmbeddedPicture(
+        long offset,
+        long length,
+        String mimeType,
+        int pictureType
+) {
+}
@@ -0,0 +1,109 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+/**
+ * MSB-first bit reader over a byte array with a 64-bit cache.
+ *
+ * <p>Running past the limit does not throw: missing bits read as zero and {@link #overrun()} is set,
+ * so the caller can fetch more data and retry the frame.
+ */
+final class FlacBitReader {
+
+    private byte[] data;
+    private int position;
+    private int limit;
+    private long cache;
+    private int cacheBits;
+    private boolean overrun;
+
+    void reset(byte[] data, int offset, int limit) {
+        this.data = data;
+        this.position = offset;
+        this.limit = limit;
+        this.cache = 0L;
+        this.cacheBits = 0;
+        this.overrun = false;
+    }
+
+    boolean overrun() {
+        return overrun;
+    }
+
+    /**
+     * @return offset of the next unread byte; only meaningful at a byte boundary
+     */
+    int bytePosition() {
+        return position - (cacheBits >>> 3);
+    }
+
+    void alignToByte() {
+        int drop = cacheBits & 7;
+        cache <<= drop;
+        cacheBits -= drop;
+    }
+
+    int readUInt(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        if (cacheBits < bits) {
+            refill();
+            if (cacheBits < bits) {
+                overrun = true;
+                cacheBits = bits;
+            }
+        }
+        int value = (int) (cache >>> (64 - bits));
+        cache <<= bits;
+        cacheBits -= bits;
+        return value;
+    }
+
+    int readSInt(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        int shift = 32 - bits;
+        return (readUInt(bits) << shift) >> shift;
+    }
+
+    /**
+     * @return number of zero bits before the next one bit, which is consumed
+     */
+    int readUnary() {
+        int count = 0;
+        while (true) {
+            if (cacheBits == 0) {
+                refill();
+                if (cacheBits == 0) {
+                    overrun = true;
+                    return count;
+                }
+            }
+            int zeros = Long.numberOfLeadingZeros(cache);
+            if (zeros < cacheBits) {
+                // a 64-bit shift is a no-op in Java, so a terminator in the last cache bit clears explicitly
+                cache = zeros == 63 ? 0L : cache << (zeros + 1);
+                cacheBits -= zeros + 1;
+                return count + zeros;
+            }
+            count += cacheBits;
+            cache = 0L;
+            cacheBits = 0;
+        }
+    }
+
+    void readRice(int[] dst, int offset, int count, int parameter) {
+        for (int i = offset, end = offset + count; i < end; i++) {
+            int quotient = readUnary();
+            int value = (quotient << parameter) | readUInt(parameter);
+            dst[i] = (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private void refill() {
+        while (cacheBits <= 56 && position < limit) {
+            cache |= (long) (data[position++] & 0xFF) << (56 - cacheBits);
+            cacheBits += 8;
+        }
+    }
+}
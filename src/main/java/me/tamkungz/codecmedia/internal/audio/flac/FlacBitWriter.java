@@ -0,0 +1,100 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.util.Arrays;
+
+/**
+ * MSB-first bit writer into a growable byte array, the counterpart of {@link FlacBitReader}.
+ */
+final class FlacBitWriter {
+
+    private byte[] bytes;
+    private int length;
+    private long cache;
+    private int cacheBits;
+
+    FlacBitWriter(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void reset() {
+        length = 0;
+        cache = 0L;
+        cacheBits = 0;
+    }
+
+    /**
+     * Writes the low {@code count} bits of {@code value}, {@code count <= 32}.
+     */
+    void writeBits(int value, int count) {
+        if (count == 0) {
+            return;
+        }
+        cache = (cache << count) | (value & (0xFFFFFFFFL >>> (32 - count)));
+        cacheBits += count;
+        while (cacheBits >= 8) {
+            cacheBits -= 8;
+            put((int) (cache >>> cacheBits));
+        }
+    }
+
+    void writeUnary(int zeros) {
+        while (zeros >= 32) {
+            writeBits(0, 32);
+            zeros -= 32;
+        }
+        writeBits(1, zeros + 1);
+    }
+
+    void writeRice(int[] values, int offset, int count, int parameter) {
+        int mask = (1 << parameter) - 1;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            int value = values[i];
+            int folded = (value << 1) ^ (value >> 31);
+            int quotient = folded >>> parameter;
+            if (quotient + 1 + parameter <= 32) {
+                writeBits((1 << parameter) | (folded & mask), quotient + 1 + parameter);
+            } else {
+                writeUnary(quotient);
+                writeBits(folded & mask, parameter);
+            }
+        }
+    }
+
+    void writeUtf8(long value) {
+        if (value < 0x80) {
+            writeBits((int) value, 8);
+            return;
+        }
+        int continuation = value < 0x800 ? 1 : value < 0x10000 ? 2 : value < 0x200000 ? 3
+                : value < 0x4000000 ? 4 : value < 0x80000000L ? 5 : 6;
+        int lead = (0xFF00 >>> (continuation + 1)) & 0xFF;
+        writeBits(lead | (int) (value >>> (6 * continuation)), 8);
+        for (int i = continuation - 1; i >= 0; i--) {
+            writeBits(0x80 | (int) ((value >>> (6 * i)) & 0x3F), 8);
+        }
+    }
+
+    void alignToByte() {
+        if (cacheBits > 0) {
+            writeBits(0, 8 - cacheBits);
+        }
+    }
+
+    /**
+     * @return bytes written so far; only meaningful when byte-aligned
+     */
+    int length() {
+        return length;
+    }
+
+    byte[] buffer() {
+        return bytes;
+    }
+
+    private void put(int value) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[length++] = (byte) value;
+    }
+}
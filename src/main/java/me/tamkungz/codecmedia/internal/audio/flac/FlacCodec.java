@@ -26,8 +26,7 @@ public final class FlacCodec {
         return info;
     }
 
-    // Intentional: FLAC codec is currently decode/probe only in this library.
-    // No encode API is exposed until a deterministic FLAC encoder path is introduced.
+    // Probe-level entry point only; streaming encode/decode lives in FlacEncoder and FlacDecoder.
 
     private static void validateDecodedProbe(FlacProbeInfo info, Path input) throws CodecMediaException {
         if (info.sampleRate() <= 0 || info.channels() <= 0 || info.bitsPerSample() <= 0) {
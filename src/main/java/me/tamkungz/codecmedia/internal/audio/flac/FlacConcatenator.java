@@ -0,0 +1,220 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.ConcatResult;
+import me.tamkungz.codecmedia.options.ConcatOptions;
+
+/**
+ * Joins FLAC files with the same sample rate, channel count and bit depth by appending their frames.
+ *
+ * <p>Frame headers carry the frame or sample number, covered by the header CRC-8 and frame CRC-16,
+ * so only the first input's frames can be moved unchanged with {@code transferTo} (when its
+ * blocking strategy matches the output's); the frames of later inputs are renumbered and
+ * re-checksummed on the way through. Fixed-blocksize numbering is kept when every input uses the
+ * same block size and all but the last end on a whole block; otherwise every frame is switched to
+ * variable-blocksize sample numbering, and the short last block of every input but the last becomes
+ * a block inside the stream, so it must hold at least {@value #MIN_BLOCK_SIZE} samples. The
+ * metadata of the first input is kept (STREAMINFO only when tags are not kept; never SEEKTABLE or
+ * CUESHEET), with STREAMINFO totals and bounds updated and its MD5 cleared to "unknown".
+ */
+public final class FlacConcatenator {
+
+    private static final int STREAMINFO_LENGTH = 34;
+    private static final int MIN_BLOCK_SIZE = 16;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 20;
+
+    private FlacConcatenator() {
+    }
+
+    public static ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options) throws CodecMediaException {
+        List<FlacStreamInfo> infos = new ArrayList<>(inputs.size());
+        boolean firstVariable = false;
+        for (Path input : inputs) {
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                FlacStreamInfo info = FlacParser.readStreamInfo(in);
+                if (info.totalSamples() <= 0) {
+                    throw new CodecMediaException("FLAC input has no total sample count in STREAMINFO: " + input);
+                }
+                if (!infos.isEmpty() && !compatible(infos.get(0), info)) {
+                    throw new CodecMediaException("FLAC inputs have different stream parameters: " + input);
+                }
+                if (infos.isEmpty()) {
+                    int length = (int) Math.min(FlacFrameHeader.MAX_HEADER_LENGTH, in.size() - info.audioStartOffset());
+                    FlacFrameHeader header = FlacFrameHeader.parse(ChannelReads.readBytes(in, info.audioStartOffset(), length),
+                            0, length, info.sampleRate(), info.bitsPerSample());
+                    if (header == null) {
+                        throw new CodecMediaException("Invalid FLAC frame header at offset " + info.audioStartOffset() + ": " + input);
+                    }
+                    firstVariable = header.variableBlockSize();
+                }
+                infos.add(info);
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to read FLAC: " + input, e);
+            }
+        }
+        boolean fixed = fixedFraming(infos);
+        for (int i = 0; i < infos.size() - 1; i++) {
+            int tail = tailBlockSize(infos.get(i));
+            if (tail > 0 && tail < MIN_BLOCK_SIZE) {
+                throw new CodecMediaException("FLAC input ends on a " + tail + "-sample block, below the "
+                        + MIN_BLOCK_SIZE + "-sample minimum inside a joined stream: " + inputs.get(i));
+            }
+        }
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] streamInfo;
+            try (FileChannel in = FileChannel.open(inputs.get(0), StandardOpenOption.READ)) {
+                List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(in);
+                writeMetadata(in, out, blocks, options.keepTags());
+                streamInfo = ChannelReads.readBytes(in, blocks.get(0).bodyOffset(), STREAMINFO_LENGTH);
+            }
+
+            long samplesBefore = 0;
+            long framesBefore = 0;
+            int minFrame = Integer.MAX_VALUE;
+            int maxFrame = 0;
+            boolean frameSizesKnown = true;
+            ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_BYTES);
+            for (int i = 0; i < inputs.size(); i++) {
+                FlacStreamInfo info = infos.get(i);
+                try (FileChannel in = FileChannel.open(inputs.get(i), StandardOpenOption.READ)) {
+                    long audioEnd = FlacDecoder.audioEnd(in, in.size());
+                    if (i == 0 && firstVariable == !fixed) {
+                        // The first input's numbering already fits the chosen framing
+                        ChannelWrites.transferFully(in, info.audioStartOffset(), audioEnd - info.audioStartOffset(), out);
+                        frameSizesKnown = info.minFrameSize() > 0 && info.maxFrameSize() > 0;
+                        minFrame = info.minFrameSize();
+                        maxFrame = info.maxFrameSize();
+                    } else {
+                        FlacFrameCursor cursor = new FlacFrameCursor(in, info, audioEnd);
+                        cursor.reset(info.audioStartOffset());
+                        while (cursor.next()) {
+                            long number = fixed ? framesBefore + cursor.firstSample() / info.maxBlockSize() : samplesBefore + cursor.firstSample();
+                            int length = cursor.rewrite(number, !fixed);
+                            if (buffer.remaining() < length) {
+                                buffer.flip();
+                                ChannelWrites.writeFully(out, buffer);
+                                buffer.clear();
+                                if (buffer.capacity() < length) {
+                                    buffer = ByteBuffer.allocate(length);
+                                }
+                            }
+                            buffer.put(cursor.rewritten(), 0, length);
+                            minFrame = Math.min(minFrame, length);
+                            maxFrame = Math.max(maxFrame, length);
+                        }
+                        buffer.flip();
+                        ChannelWrites.writeFully(out, buffer);
+                        buffer.clear();
+                    }
+                } catch (IOException e) {
+                    throw new CodecMediaException("Failed to concatenate FLAC: " + inputs.get(i), e);
+                }
+                samplesBefore += info.totalSamples();
+                framesBefore += (info.totalSamples() + info.maxBlockSize() - 1) / info.maxBlockSize();
+            }
+
+            patchStreamInfo(streamInfo, infos, frameSizesKnown ? minFrame : 0, frameSizesKnown ? maxFrame : 0, samplesBefore);
+            ByteBuffer patch = ByteBuffer.wrap(streamInfo);
+            long position = 8;
+            while (patch.hasRemaining()) {
+                position += out.write(patch, position);
+            }
+            return new ConcatResult(output, "flac", inputs.size(), samplesBefore * 1000L / infos.get(0).sampleRate());
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to concatenate FLAC: " + output, e);
+        }
+    }
+
+    /**
+     * True when frame numbers can keep counting across inputs: one block size everywhere, and every
+     * input but the last ending on a whole block.
+     */
+    private static boolean fixedFraming(List<FlacStreamInfo> infos) {
+        int blockSize = infos.get(0).maxBlockSize();
+        for (int i = 0; i < infos.size(); i++) {
+            FlacStreamInfo info = infos.get(i);
+            if (info.minBlockSize() != blockSize || info.maxBlockSize() != blockSize) {
+                return false;
+            }
+            if (i < infos.size() - 1 && info.totalSamples() % blockSize != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Samples in the input's short last block, or {@code 0} when it ends on a whole block. */
+    private static int tailBlockSize(FlacStreamInfo info) {
+        return (int) (info.totalSamples() % info.maxBlockSize());
+    }
+
+    private static boolean compatible(FlacStreamInfo a, FlacStreamInfo b) {
+        return a.sampleRate() == b.sampleRate() && a.channels() == b.channels() && a.bitsPerSample() == b.bitsPerSample();
+    }
+
+    private static void writeMetadata(FileChannel in, FileChannel out, List<FlacMetadataBlock> blocks, boolean keepTags)
+            throws IOException {
+        List<FlacMetadataBlock> kept = new ArrayList<>();
+        for (FlacMetadataBlock block : blocks) {
+            boolean index = block.type() == FlacMetadataBlock.SEEKTABLE || block.type() == FlacMetadataBlock.CUESHEET;
+            if (block.type() == FlacMetadataBlock.STREAMINFO || (keepTags && !index)) {
+                kept.add(block);
+            }
+        }
+        ChannelWrites.transferFully(in, 0, 4, out);
+        for (int i = 0; i < kept.size(); i++) {
+            FlacMetadataBlock block = kept.get(i);
+            ByteBuffer header = ByteBuffer.allocate(4);
+            header.put((byte) (block.type() | (i == kept.size() - 1 ? 0x80 : 0)));
+            header.put((byte) (block.length() >>> 16)).put((byte) (block.length() >>> 8)).put((byte) block.length());
+            header.flip();
+            ChannelWrites.writeFully(out, header);
+            ChannelWrites.transferFully(in, block.bodyOffset(), block.length(), out);
+        }
+    }
+
+    private static void patchStreamInfo(byte[] body, List<FlacStreamInfo> infos, int minFrame, int maxFrame, long samples) {
+        int minBlock = Integer.MAX_VALUE;
+        int maxBlock = 0;
+        for (int i = 0; i < infos.size(); i++) {
+            FlacStreamInfo info = infos.get(i);
+            minBlock = Math.min(minBlock, info.minBlockSize());
+            maxBlock = Math.max(maxBlock, info.maxBlockSize());
+            // STREAMINFO's minimum excludes only the last block of the whole stream
+            int tail = i < infos.size() - 1 ? tailBlockSize(info) : 0;
+            if (tail > 0) {
+                minBlock = Math.min(minBlock, tail);
+            }
+        }
+        body[0] = (byte) (minBlock >>> 8);
+        body[1] = (byte) minBlock;
+        body[2] = (byte) (maxBlock >>> 8);
+        body[3] = (byte) maxBlock;
+        body[4] = (byte) (minFrame >>> 16);
+        body[5] = (byte) (minFrame >>> 8);
+        body[6] = (byte) minFrame;
+        body[7] = (byte) (maxFrame >>> 16);
+        body[8] = (byte) (maxFrame >>> 8);
+        body[9] = (byte) maxFrame;
+        // Total samples: the low 4 bits of byte 13 and bytes 14-17
+        body[13] = (byte) ((body[13] & 0xF0) | ((samples >>> 32) & 0x0F));
+        body[14] = (byte) (samples >>> 24);
+        body[15] = (byte) (samples >>> 16);
+        body[16] = (byte) (samples >>> 8);
+        body[17] = (byte) samples;
+        Arrays.fill(body, 18, STREAMINFO_LENGTH, (byte) 0);
+    }
+}
@@ -0,0 +1,42 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+/**
+ * Table-driven CRCs used by FLAC frames: CRC-8 (poly 0x07) over the frame header and CRC-16
+ * (poly 0x8005) over the whole frame, both MSB-first with a zero initial value.
+ */
+public final class FlacCrc {
+
+    private static final int[] CRC8_TABLE = new int[256];
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc8 = i;
+            int crc16 = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc8 = (crc8 & 0x80) != 0 ? ((crc8 << 1) ^ 0x07) : (crc8 << 1);
+                crc16 = (crc16 & 0x8000) != 0 ? ((crc16 << 1) ^ 0x8005) : (crc16 << 1);
+            }
+            CRC8_TABLE[i] = crc8 & 0xFF;
+            CRC16_TABLE[i] = crc16 & 0xFFFF;
+        }
+    }
+
+    private FlacCrc() {
+    }
+
+    public static int crc8(byte[] bytes, int offset, int length) {
+        int crc = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            crc = CRC8_TABLE[crc ^ (bytes[i] & 0xFF)];
+        }
+        return crc;
+    }
+
+    public static int crc16(int crc, byte[] bytes, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            crc = ((crc << 8) & 0xFFFF) ^ CRC16_TABLE[(crc >>> 8) ^ (bytes[i] & 0xFF)];
+        }
+        return crc;
+    }
+}
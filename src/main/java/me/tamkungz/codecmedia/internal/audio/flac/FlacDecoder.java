@@ -0,0 +1,181 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Streaming FLAC decoder over a byte range of a file.
+ *
+ * <p>Compressed bytes are read with positioned reads into a buffer sized for the largest frame
+ * STREAMINFO allows, so several decoders can share one channel. Decoded samples stay in per-channel
+ * {@code int} buffers that are reused from frame to frame.
+ */
+public final class FlacDecoder {
+
+    private static final int MIN_BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final FlacStreamInfo info;
+    private final FlacFrameDecoder frameDecoder;
+    private final long endOffset;
+    private byte[] buffer;
+    private long bufferFileOffset;
+    private int bufferStart;
+    private int bufferLimit;
+    private int blockSize;
+
+    public FlacDecoder(FileChannel channel, FlacStreamInfo info, long startOffset, long endOffset) {
+        this.channel = channel;
+        this.info = info;
+        this.frameDecoder = new FlacFrameDecoder(info);
+        this.endOffset = endOffset;
+        this.buffer = new byte[Math.max(MIN_BUFFER_BYTES, 2 * frameBound(info))];
+        this.bufferFileOffset = startOffset;
+    }
+
+    /**
+     * Opens a decoder over all audio frames of the stream.
+     */
+    public static FlacDecoder open(FileChannel channel, FlacStreamInfo info) throws CodecMediaException {
+        try {
+            return new FlacDecoder(channel, info, info.audioStartOffset(), audioEnd(channel, channel.size()));
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to open FLAC stream: " + e.getMessage(), e);
+        }
+    }
+
+    public FlacStreamInfo info() {
+        return info;
+    }
+
+    /**
+     * @return block size of the decoded frame, or -1 at the end of the range
+     */
+    public int decodeFrame() throws CodecMediaException {
+        while (true) {
+            long frameOffset = bufferFileOffset + bufferStart;
+            if (frameOffset >= endOffset) {
+                return -1;
+            }
+            fill(frameBound(info));
+            int length = frameDecoder.decode(buffer, bufferStart, bufferLimit, frameOffset);
+            if (length >= 0) {
+                bufferStart += length;
+                blockSize = frameDecoder.header().blockSize();
+                return blockSize;
+            }
+            if (bufferFileOffset + bufferLimit >= endOffset) {
+                throw new CodecMediaException("Truncated FLAC frame at offset " + frameOffset);
+            }
+            int available = bufferLimit - bufferStart;
+            if (available == buffer.length) {
+                byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, bufferLimit);
+                buffer = grown;
+            }
+            fill(available + 1);
+        }
+    }
+
+    public int[] channel(int index) {
+        return frameDecoder.channel(index);
+    }
+
+    /**
+     * @return header of the frame returned by the last {@link #decodeFrame()} call
+     */
+    public FlacFrameHeader header() {
+        return frameDecoder.header();
+    }
+
+    public long firstSample() {
+        return frameDecoder.header().firstSample(info.maxBlockSize() > 0 ? info.maxBlockSize() : blockSize);
+    }
+
+    /**
+     * Feeds the current frame to {@code md5} as signed little-endian samples of {@code ceil(bps / 8)}
+     * bytes, interleaved, which is how STREAMINFO signatures are defined.
+     */
+    public void digest(MessageDigest md5, byte[] scratch) {
+        int channels = info.channels();
+        int width = (info.bitsPerSample() + 7) >>> 3;
+        int frameBytes = channels * width;
+        int framesPerChunk = Math.max(1, scratch.length / frameBytes);
+        for (int start = 0; start < blockSize; start += framesPerChunk) {
+            int frames = Math.min(framesPerChunk, blockSize - start);
+            int p = 0;
+            for (int i = start; i < start + frames; i++) {
+                for (int c = 0; c < channels; c++) {
+                    int value = frameDecoder.channel(c)[i];
+                    for (int b = 0; b < width; b++) {
+                        scratch[p++] = (byte) (value >>> (8 * b));
+                    }
+                }
+            }
+            md5.update(scratch, 0, p);
+        }
+    }
+
+    /**
+     * @return {@code true} when STREAMINFO carries a signature; all-zero means the encoder left it unset
+     */
+    public static boolean hasMd5(FlacStreamInfo info) {
+        for (byte b : info.md5()) {
+            if (b != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Excludes a trailing ID3v1 tag, which some taggers append after the last frame.
+     */
+    public static long audioEnd(FileChannel channel, long fileSize) throws IOException {
+        if (fileSize >= 128) {
+            byte[] tail = ChannelReads.readBytes(channel, fileSize - 128, 3);
+            if (tail[0] == 'T' && tail[1] == 'A' && tail[2] == 'G') {
+                return fileSize - 128;
+            }
+        }
+        return fileSize;
+    }
+
+    /**
+     * Upper bound for one frame: the verbatim size of the largest block plus header, subframe headers
+     * and CRC. Frames that exceed it are still decoded by growing the buffer.
+     */
+    private static int frameBound(FlacStreamInfo info) {
+        if (info.maxFrameSize() > 0) {
+            return info.maxFrameSize();
+        }
+        int blockSize = info.maxBlockSize() > 0 ? info.maxBlockSize() : 65_535;
+        long bound = FlacFrameHeader.MAX_HEADER_LENGTH + 2L
+                + (long) info.channels() * (((long) blockSize * (info.bitsPerSample() + 1) + 7) / 8 + 8);
+        return (int) Math.min(bound, 1 << 24);
+    }
+
+    private void fill(int wanted) throws CodecMediaException {
+        if (bufferLimit - bufferStart >= wanted || bufferFileOffset + bufferLimit >= endOffset) {
+            return;
+        }
+        if (bufferStart > 0) {
+            System.arraycopy(buffer, bufferStart, buffer, 0, bufferLimit - bufferStart);
+            bufferFileOffset += bufferStart;
+            bufferLimit -= bufferStart;
+            bufferStart = 0;
+        }
+        int length = (int) Math.min(buffer.length - bufferLimit, endOffset - (bufferFileOffset + bufferLimit));
+        try {
+            ChannelReads.readFully(channel, bufferFileOffset + bufferLimit, ByteBuffer.wrap(buffer, bufferLimit, length));
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read FLAC data: " + e.getMessage(), e);
+        }
+        bufferLimit += length;
+    }
+}
@@ -0,0 +1,292 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
+
+/**
+ * Streaming FLAC encoder with fixed-size blocks.
+ *
+ * <p>Blocks are independent, so with more than one thread each block is encoded on a worker pool
+ * while the caller keeps reading input. Finished frames are written strictly in block order from a
+ * bounded queue of pending results, which caps memory at a few blocks per worker. The stream starts
+ * with a placeholder STREAMINFO, a vendor-only VORBIS_COMMENT and {@value #PADDING_BYTES} bytes of
+ * PADDING for later tag edits; frame sizes, the sample count and the MD5 signature are written back
+ * into STREAMINFO once the last frame is out.
+ */
+public final class FlacEncoder {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    public static final int DEFAULT_MAX_LPC_ORDER = 8;
+    public static final int PADDING_BYTES = 8192;
+
+    private static final String VENDOR = "CodecMedia";
+    private static final int STREAMINFO_OFFSET = 8;
+    private static final int STREAMINFO_LENGTH = 34;
+    private static final int IN_FLIGHT_PER_WORKER = 2;
+    private static final long MAX_TOTAL_SAMPLES = (1L << 36) - 1;
+
+    /**
+     * Supplies de-interleaved integer samples.
+     */
+    @FunctionalInterface
+    public interface BlockSource {
+        /**
+         * Reads up to {@code count} samples per channel into {@code channels[c][offset..]}.
+         *
+         * @return samples read per channel, or 0 at the end of the input
+         */
+        int read(int[][] channels, int offset, int count) throws CodecMediaException;
+    }
+
+    private final int sampleRate;
+    private final int channels;
+    private final int bitsPerSample;
+    private final int blockSize;
+    private final int maxLpcOrder;
+    private final int threads;
+
+    /**
+     * @param maxLpcOrder highest LPC order to try, 0 for fixed predictors only
+     * @param threads worker count, 0 for the number of available processors
+     */
+    public FlacEncoder(int sampleRate, int channels, int bitsPerSample, int blockSize, int maxLpcOrder, int threads)
+            throws CodecMediaException {
+        if (sampleRate <= 0 || sampleRate > 655_350) {
+            throw new CodecMediaException("FLAC cannot store sample rate " + sampleRate);
+        }
+        if (channels < 1 || channels > 8) {
+            throw new CodecMediaException("FLAC supports 1-8 channels, got " + channels);
+        }
+        if (bitsPerSample < 4 || bitsPerSample > 24) {
+            throw new CodecMediaException("FLAC encoding supports 4-24 bits per sample, got " + bitsPerSample);
+        }
+        if (blockSize < 16 || blockSize > 65_535) {
+            throw new CodecMediaException("FLAC block size out of range: " + blockSize + " (16-65535)");
+        }
+        if (maxLpcOrder < 0 || maxLpcOrder > FlacFrameEncoder.MAX_LPC_ORDER) {
+            throw new CodecMediaException("FLAC LPC order out of range: " + maxLpcOrder + " (0-32)");
+        }
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+        this.blockSize = blockSize;
+        this.maxLpcOrder = maxLpcOrder;
+        this.threads = threads;
+    }
+
+    /**
+     * Encodes everything {@code source} yields into {@code out}, starting at position 0.
+     *
+     * @return the STREAMINFO written back into the header
+     */
+    public FlacStreamInfo encode(BlockSource source, FileChannel out) throws CodecMediaException {
+        try {
+            long audioStart = writeHeader(out);
+            FrameSink sink = new FrameSink(out, audioStart);
+            int workers = ParallelTasks.resolveParallelism(threads);
+            if (workers == 1) {
+                encodeSequential(source, sink);
+            } else {
+                encodeParallel(source, sink, workers);
+            }
+            out.truncate(sink.position);
+            FlacStreamInfo info = sink.streamInfo(audioStart);
+            writeStreamInfo(out, info);
+            return info;
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to write FLAC stream: " + e.getMessage(), e);
+        }
+    }
+
+    private void encodeSequential(BlockSource source, FrameSink sink) throws CodecMediaException, IOException {
+        FlacFrameEncoder encoder = newFrameEncoder();
+        int[][] block = new int[channels][blockSize];
+        int length;
+        while ((length = sink.fill(source, block)) > 0) {
+            sink.write(encoder.encode(block, length, sink.frames++), length);
+        }
+    }
+
+    private void encodeParallel(BlockSource source, FrameSink sink, int workers) throws CodecMediaException, IOException {
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        ThreadLocal<FlacFrameEncoder> encoders = ThreadLocal.withInitial(this::newFrameEncoder);
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        ArrayDeque<Integer> lengths = new ArrayDeque<>();
+        int maxInFlight = workers * IN_FLIGHT_PER_WORKER;
+        try {
+            while (true) {
+                int[][] block = new int[channels][blockSize];
+                int length = sink.fill(source, block);
+                if (length == 0) {
+                    break;
+                }
+                long frameNumber = sink.frames++;
+                pending.addLast(pool.submit(() -> encoders.get().encode(block, length, frameNumber)));
+                lengths.addLast(length);
+                while (pending.size() >= maxInFlight) {
+                    sink.write(await(pending.removeFirst()), lengths.removeFirst());
+                }
+            }
+            while (!pending.isEmpty()) {
+                sink.write(await(pending.removeFirst()), lengths.removeFirst());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws CodecMediaException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CodecMediaException("FLAC frame encoding failed: " + cause, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodecMediaException("Interrupted while encoding FLAC frames", e);
+        }
+    }
+
+    private FlacFrameEncoder newFrameEncoder() {
+        return new FlacFrameEncoder(channels, bitsPerSample, sampleRate, blockSize, maxLpcOrder);
+    }
+
+    private static long writeHeader(FileChannel out) throws IOException {
+        byte[] vendor = VENDOR.getBytes(StandardCharsets.UTF_8);
+        int commentLength = 4 + vendor.length + 4;
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 + STREAMINFO_LENGTH + 4 + commentLength + 4 + PADDING_BYTES);
+        header.put(new byte[] {'f', 'L', 'a', 'C'});
+        putBlockHeader(header, FlacMetadataBlock.STREAMINFO, false, STREAMINFO_LENGTH);
+        header.position(header.position() + STREAMINFO_LENGTH);
+        putBlockHeader(header, FlacMetadataBlock.VORBIS_COMMENT, false, commentLength);
+        header.put((byte) vendor.length).put((byte) (vendor.length >>> 8)).put((byte) 0).put((byte) 0);
+        header.put(vendor);
+        header.putInt(0);
+        putBlockHeader(header, FlacMetadataBlock.PADDING, true, PADDING_BYTES);
+        header.position(header.limit());
+        header.flip();
+        long position = 0L;
+        while (header.hasRemaining()) {
+            position += out.write(header, position);
+        }
+        return position;
+    }
+
+    private static void putBlockHeader(ByteBuffer buffer, int type, boolean last, int length) {
+        buffer.put((byte) ((last ? 0x80 : 0) | type));
+        buffer.put((byte) (length >>> 16)).put((byte) (length >>> 8)).put((byte) length);
+    }
+
+    private static void writeStreamInfo(FileChannel out, FlacStreamInfo info) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(STREAMINFO_LENGTH);
+        body.putShort((short) info.minBlockSize());
+        body.putShort((short) info.maxBlockSize());
+        body.put((byte) (info.minFrameSize() >>> 16)).put((byte) (info.minFrameSize() >>> 8)).put((byte) info.minFrameSize());
+        body.put((byte) (info.maxFrameSize() >>> 16)).put((byte) (info.maxFrameSize() >>> 8)).put((byte) info.maxFrameSize());
+        long packed = ((long) info.sampleRate() << 44)
+                | ((long) (info.channels() - 1) << 41)
+                | ((long) (info.bitsPerSample() - 1) << 36)
+                | info.totalSamples();
+        body.putLong(packed);
+        body.put(info.md5());
+        body.flip();
+        long position = STREAMINFO_OFFSET;
+        while (body.hasRemaining()) {
+            position += out.write(body, position);
+        }
+    }
+
+    /**
+     * Sequential side of the pipeline: reads blocks, hashes input samples and appends finished frames.
+     */
+    private final class FrameSink {
+
+        private final FileChannel out;
+        private final MessageDigest md5;
+        private final byte[] digestScratch;
+        private long position;
+        private long frames;
+        private long totalSamples;
+        private int minFrameSize = Integer.MAX_VALUE;
+        private int maxFrameSize;
+        private int largestBlock;
+
+        FrameSink(FileChannel out, long position) throws CodecMediaException {
+            this.out = out;
+            this.position = position;
+            try {
+                this.md5 = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new CodecMediaException("MD5 is not available in this runtime", e);
+            }
+            this.digestScratch = new byte[blockSize * channels * ((bitsPerSample + 7) >>> 3)];
+        }
+
+        /**
+         * Reads a full block (short only at the end of input) and feeds it to the MD5 signature.
+         */
+        int fill(BlockSource source, int[][] block) throws CodecMediaException {
+            int length = 0;
+            while (length < blockSize) {
+                int read = source.read(block, length, blockSize - length);
+                if (read <= 0) {
+                    break;
+                }
+                length += read;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            totalSamples += length;
+            if (totalSamples > MAX_TOTAL_SAMPLES) {
+                throw new CodecMediaException("Input is too long for a FLAC stream");
+            }
+            digest(block, length);
+            return length;
+        }
+
+        void write(byte[] frame, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                position += out.write(buffer, position);
+            }
+            minFrameSize = Math.min(minFrameSize, frame.length);
+            maxFrameSize = Math.max(maxFrameSize, frame.length);
+            largestBlock = Math.max(largestBlock, length);
+        }
+
+        FlacStreamInfo streamInfo(long audioStart) {
+            int nominal = frames > 1 ? blockSize : Math.max(16, largestBlock);
+            return new FlacStreamInfo(nominal, nominal, frames == 0 ? 0 : minFrameSize, maxFrameSize,
+                    sampleRate, channels, bitsPerSample, totalSamples, md5.digest(), audioStart);
+        }
+
+        private void digest(int[][] block, int length) {
+            int width = (bitsPerSample + 7) >>> 3;
+            int p = 0;
+            for (int i = 0; i < length; i++) {
+                for (int c = 0; c < channels; c++) {
+                    int value = block[c][i];
+                    for (int b = 0; b < width; b++) {
+                        digestScratch[p++] = (byte) (value >>> (8 * b));
+                    }
+                }
+            }
+            md5.update(digestScratch, 0, p);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Walks consecutive frames through a read-ahead window; a frame ends where its CRC-16 checks out
+ * and the next frame header continues the sample sequence, or at the end of the audio.
+ */
+final class FlacFrameCursor {
+
+    private final FileChannel in;
+    private final FlacStreamInfo info;
+    private final long audioEnd;
+    private byte[] window;
+    private long windowStart;
+    private int windowLength;
+    private byte[] rewritten = new byte[0];
+    private long position;
+    private int length;
+    private FlacFrameHeader header;
+
+    FlacFrameCursor(FileChannel in, FlacStreamInfo info, long audioEnd) {
+        this.in = in;
+        this.info = info;
+        this.audioEnd = audioEnd;
+        int bound = info.maxFrameSize() > 0 ? info.maxFrameSize() : 1 << 16;
+        this.window = new byte[Math.max(1 << 20, bound * 2 + FlacFrameHeader.MAX_HEADER_LENGTH)];
+    }
+
+    void reset(long offset) {
+        position = offset;
+        length = 0;
+        header = null;
+    }
+
+    /** Length in bytes of the current frame. */
+    int length() {
+        return length;
+    }
+
+    FlacFrameHeader header() {
+        return header;
+    }
+
+    long firstSample() {
+        return header.firstSample(nominalBlockSize(header));
+    }
+
+    /** Advances to the next frame; false at the end of the audio. */
+    boolean next() throws IOException, CodecMediaException {
+        position += length;
+        if (position >= audioEnd) {
+            header = null;
+            return false;
+        }
+        while (true) {
+            load(position);
+            int start = (int) (position - windowStart);
+            int available = windowLength - start;
+            FlacFrameHeader parsed = FlacFrameHeader.parse(window, start, available, info.sampleRate(), info.bitsPerSample());
+            if (parsed == null) {
+                throw new CodecMediaException("Invalid FLAC frame header at offset " + position);
+            }
+            long expected = parsed.firstSample(nominalBlockSize(parsed)) + parsed.blockSize();
+            int crc = FlacCrc.crc16(0, window, start, parsed.headerLength());
+            boolean windowAtEnd = windowStart + windowLength >= audioEnd;
+            for (int j = start + parsed.headerLength(); j < windowLength; j++) {
+                if (crc == 0 && window[j] == (byte) 0xFF && j + 1 < windowLength && (window[j + 1] & 0xFE) == 0xF8) {
+                    FlacFrameHeader following = FlacFrameHeader.parse(window, j, windowLength - j,
+                            info.sampleRate(), info.bitsPerSample());
+                    if (following != null && following.firstSample(nominalBlockSize(following)) == expected) {
+                        header = parsed;
+                        length = j - start;
+                        return true;
+                    }
+                }
+                crc = FlacCrc.crc16(crc, window, j, 1);
+            }
+            if (windowAtEnd) {
+                if (crc != 0) {
+                    throw new CodecMediaException("FLAC frame at offset " + position + " fails its CRC-16");
+                }
+                header = parsed;
+                length = windowLength - start;
+                return true;
+            }
+            if (start == 0) {
+                // The frame does not fit the window: grow it and search again
+                window = new byte[window.length * 2];
+                windowLength = 0;
+            }
+            windowStart = -1;
+        }
+    }
+
+    /**
+     * Re-encodes the current frame with {@code number} as its coded number into {@link #rewritten()}:
+     * a frame number for fixed-blocksize framing, a sample number for variable-blocksize framing.
+     *
+     * @return the new frame length
+     */
+    int rewrite(long number, boolean variableBlockSize) {
+        int start = (int) (position - windowStart);
+        int lead = window[start + 4] & 0xFF;
+        int oldNumberLength = lead < 0x80 ? 1 : Integer.numberOfLeadingZeros(~lead << 24);
+        int tailStart = start + 4 + oldNumberLength;
+        int tailLength = header.headerLength() - 1 - (4 + oldNumberLength);
+        int bodyLength = length - header.headerLength() - 2;
+        if (rewritten.length < length + 8) {
+            rewritten = new byte[length + 8];
+        }
+        System.arraycopy(window, start, rewritten, 0, 4);
+        rewritten[1] = (byte) ((rewritten[1] & 0xFE) | (variableBlockSize ? 1 : 0));
+        int pos = writeUtf8(rewritten, 4, number);
+        System.arraycopy(window, tailStart, rewritten, pos, tailLength);
+        pos += tailLength;
+        rewritten[pos] = (byte) FlacCrc.crc8(rewritten, 0, pos);
+        pos++;
+        System.arraycopy(window, start + header.headerLength(), rewritten, pos, bodyLength);
+        pos += bodyLength;
+        int crc = FlacCrc.crc16(0, rewritten, 0, pos);
+        rewritten[pos++] = (byte) (crc >>> 8);
+        rewritten[pos++] = (byte) crc;
+        return pos;
+    }
+
+    byte[] rewritten() {
+        return rewritten;
+    }
+
+    private int nominalBlockSize(FlacFrameHeader frame) {
+        return info.maxBlockSize() > 0 ? info.maxBlockSize() : frame.blockSize();
+    }
+
+    /** Makes the window start at {@code offset} unless it already covers a whole frame bound from there. */
+    private void load(long offset) throws IOException {
+        long covered = windowStart + windowLength;
+        boolean enough = windowStart >= 0 && offset >= windowStart
+                && (covered >= audioEnd || covered - offset >= window.length / 2);
+        if (enough) {
+            return;
+        }
+        windowStart = offset;
+        windowLength = (int) Math.min(window.length, audioEnd - offset);
+        ChannelReads.readFully(in, offset, ByteBuffer.wrap(window, 0, windowLength));
+    }
+
+    private static int writeUtf8(byte[] out, int pos, long value) {
+        if (value < 0x80) {
+            out[pos] = (byte) value;
+            return pos + 1;
+        }
+        int continuation = value < 0x800 ? 1 : value < 0x10000 ? 2 : value < 0x200000 ? 3
+                : value < 0x4000000 ? 4 : value < 0x80000000L ? 5 : 6;
+        int lead = (0xFF00 >>> (continuation + 1)) & 0xFF;
+        out[pos++] = (byte) (lead | (int) (value >>> (6 * continuation)));
+        for (int i = continuation - 1; i >= 0; i--) {
+            out[pos++] = (byte) (0x80 | (int) ((value >>> (6 * i)) & 0x3F));
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,235 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Decodes one FLAC frame at a time into reusable per-channel {@code int} buffers.
+ */
+final class FlacFrameDecoder {
+
+    private final FlacStreamInfo info;
+    private final FlacBitReader reader = new FlacBitReader();
+    private final int[] coefficients = new int[32];
+    private int[][] samples;
+    private FlacFrameHeader header;
+
+    FlacFrameDecoder(FlacStreamInfo info) {
+        this.info = info;
+        this.samples = new int[info.channels()][Math.max(16, info.maxBlockSize())];
+    }
+
+    int[] channel(int index) {
+        return samples[index];
+    }
+
+    FlacFrameHeader header() {
+        return header;
+    }
+
+    /**
+     * @param fileOffset file position of {@code bytes[offset]}, used in error messages
+     * @return the frame length in bytes, or -1 when the frame extends past {@code limit}
+     */
+    int decode(byte[] bytes, int offset, int limit, long fileOffset) throws CodecMediaException {
+        FlacFrameHeader parsed = FlacFrameHeader.parse(bytes, offset, limit - offset, info.sampleRate(), info.bitsPerSample());
+        if (parsed == null) {
+            if (limit - offset < FlacFrameHeader.MAX_HEADER_LENGTH) {
+                return -1;
+            }
+            throw new CodecMediaException("Invalid FLAC frame header at offset " + fileOffset);
+        }
+        if (parsed.channels() != info.channels() || parsed.bitsPerSample() <= 0) {
+            throw new CodecMediaException("FLAC frame at offset " + fileOffset + " does not match STREAMINFO");
+        }
+        int blockSize = parsed.blockSize();
+        if (samples[0].length < blockSize) {
+            samples = new int[info.channels()][blockSize];
+        }
+
+        reader.reset(bytes, offset + parsed.headerLength(), limit);
+        int assignment = parsed.channelAssignment();
+        for (int c = 0; c < parsed.channels(); c++) {
+            int bits = parsed.bitsPerSample();
+            boolean side = (assignment == FlacFrameHeader.CHANNELS_LEFT_SIDE && c == 1)
+                    || (assignment == FlacFrameHeader.CHANNELS_RIGHT_SIDE && c == 0)
+                    || (assignment == FlacFrameHeader.CHANNELS_MID_SIDE && c == 1);
+            if (side) {
+                bits++;
+            }
+            decodeSubframe(samples[c], blockSize, bits, fileOffset);
+            if (reader.overrun()) {
+                return -1;
+            }
+        }
+        reader.alignToByte();
+        int crcOffset = reader.bytePosition();
+        int storedCrc = reader.readUInt(16);
+        if (reader.overrun()) {
+            return -1;
+        }
+        if (FlacCrc.crc16(0, bytes, offset, crcOffset - offset) != storedCrc) {
+            throw new CodecMediaException("FLAC frame CRC-16 mismatch at offset " + fileOffset);
+        }
+
+        decorrelate(assignment, blockSize);
+        header = parsed;
+        return crcOffset + 2 - offset;
+    }
+
+    private void decodeSubframe(int[] dst, int blockSize, int bits, long fileOffset) throws CodecMediaException {
+        if (reader.readUInt(1) != 0) {
+            throw new CodecMediaException("Invalid FLAC subframe padding at frame offset " + fileOffset);
+        }
+        int type = reader.readUInt(6);
+        int wasted = 0;
+        if (reader.readUInt(1) != 0) {
+            wasted = reader.readUnary() + 1;
+            bits -= wasted;
+        }
+        if (bits > 32) {
+            throw new CodecMediaException("Unsupported FLAC sample width: 32-bit stereo decorrelation");
+        }
+
+        if (type == 0) {
+            int value = reader.readSInt(bits);
+            for (int i = 0; i < blockSize; i++) {
+                dst[i] = value;
+            }
+        } else if (type == 1) {
+            for (int i = 0; i < blockSize; i++) {
+                dst[i] = reader.readSInt(bits);
+            }
+        } else if (type >= 8 && type <= 12) {
+            decodeFixed(dst, blockSize, bits, type - 8, fileOffset);
+        } else if (type >= 32) {
+            decodeLpc(dst, blockSize, bits, (type & 0x1F) + 1, fileOffset);
+        } else {
+            throw new CodecMediaException("Reserved FLAC subframe type " + type + " at frame offset " + fileOffset);
+        }
+
+        if (wasted > 0) {
+            for (int i = 0; i < blockSize; i++) {
+                dst[i] <<= wasted;
+            }
+        }
+    }
+
+    private void decodeFixed(int[] dst, int blockSize, int bits, int order, long fileOffset) throws CodecMediaException {
+        for (int i = 0; i < order; i++) {
+            dst[i] = reader.readSInt(bits);
+        }
+        decodeResidual(dst, blockSize, order, fileOffset);
+        switch (order) {
+            case 1 -> {
+                for (int i = 1; i < blockSize; i++) {
+                    dst[i] += dst[i - 1];
+                }
+            }
+            case 2 -> {
+                for (int i = 2; i < blockSize; i++) {
+                    dst[i] += 2 * dst[i - 1] - dst[i - 2];
+                }
+            }
+            case 3 -> {
+                for (int i = 3; i < blockSize; i++) {
+                    dst[i] += 3 * dst[i - 1] - 3 * dst[i - 2] + dst[i - 3];
+                }
+            }
+            case 4 -> {
+                for (int i = 4; i < blockSize; i++) {
+                    dst[i] += 4 * dst[i - 1] - 6 * dst[i - 2] + 4 * dst[i - 3] - dst[i - 4];
+                }
+            }
+            default -> {
+                // order 0: residual is the signal
+            }
+        }
+    }
+
+    private void decodeLpc(int[] dst, int blockSize, int bits, int order, long fileOffset) throws CodecMediaException {
+        for (int i = 0; i < order; i++) {
+            dst[i] = reader.readSInt(bits);
+        }
+        int precision = reader.readUInt(4) + 1;
+        if (precision == 16) {
+            throw new CodecMediaException("Invalid FLAC LPC coefficient precision at frame offset " + fileOffset);
+        }
+        int shift = reader.readSInt(5);
+        if (shift < 0) {
+            throw new CodecMediaException("Negative FLAC LPC shift at frame offset " + fileOffset);
+        }
+        int[] coefs = coefficients;
+        for (int i = 0; i < order; i++) {
+            coefs[i] = reader.readSInt(precision);
+        }
+        decodeResidual(dst, blockSize, order, fileOffset);
+        for (int i = order; i < blockSize; i++) {
+            long sum = 0L;
+            for (int j = 0; j < order; j++) {
+                sum += (long) coefs[j] * dst[i - 1 - j];
+            }
+            dst[i] += (int) (sum >> shift);
+        }
+    }
+
+    private void decodeResidual(int[] dst, int blockSize, int order, long fileOffset) throws CodecMediaException {
+        int method = reader.readUInt(2);
+        if (method > 1) {
+            throw new CodecMediaException("Reserved FLAC residual coding method at frame offset " + fileOffset);
+        }
+        int parameterBits = method == 0 ? 4 : 5;
+        int escape = method == 0 ? 15 : 31;
+        int partitionOrder = reader.readUInt(4);
+        int partitions = 1 << partitionOrder;
+        int partitionSamples = blockSize >>> partitionOrder;
+        if ((partitionSamples << partitionOrder) != blockSize || partitionSamples < order) {
+            throw new CodecMediaException("Invalid FLAC residual partition order at frame offset " + fileOffset);
+        }
+
+        int position = order;
+        for (int p = 0; p < partitions; p++) {
+            int count = p == 0 ? partitionSamples - order : partitionSamples;
+            int parameter = reader.readUInt(parameterBits);
+            if (parameter == escape) {
+                int bits = reader.readUInt(5);
+                for (int i = 0; i < count; i++) {
+                    dst[position + i] = reader.readSInt(bits);
+                }
+            } else {
+                reader.readRice(dst, position, count, parameter);
+            }
+            if (reader.overrun()) {
+                return;
+            }
+            position += count;
+        }
+    }
+
+    private void decorrelate(int assignment, int blockSize) {
+        if (assignment < FlacFrameHeader.CHANNELS_LEFT_SIDE) {
+            return;
+        }
+        int[] first = samples[0];
+        int[] second = samples[1];
+        switch (assignment) {
+            case FlacFrameHeader.CHANNELS_LEFT_SIDE -> {
+                for (int i = 0; i < blockSize; i++) {
+                    second[i] = first[i] - second[i];
+                }
+            }
+            case FlacFrameHeader.CHANNELS_RIGHT_SIDE -> {
+                for (int i = 0; i < blockSize; i++) {
+                    first[i] += second[i];
+                }
+            }
+            default -> {
+                for (int i = 0; i < blockSize; i++) {
+                    int side = second[i];
+                    int mid = (first[i] << 1) | (side & 1);
+                    first[i] = (mid + side) >> 1;
+                    second[i] = (mid - side) >> 1;
+                }
+            }
+        }
+    }
+}
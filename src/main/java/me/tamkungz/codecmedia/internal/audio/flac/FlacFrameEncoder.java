@@ -0,0 +1,592 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.util.Arrays;
+
+/**
+ * Encodes one block of samples into a complete FLAC frame.
+ *
+ * <p>Every channel is tried as a constant, verbatim, fixed-predictor (orders 0-4) and LPC subframe
+ * (orders 1 to {@code maxLpcOrder}, Levinson-Durbin over a Tukey-windowed autocorrelation), and the
+ * cheapest estimate wins. Stereo blocks additionally try left/side, right/side and mid/side. Residuals
+ * are Rice coded with the partition order and per-partition parameters chosen from partition sums.
+ * Instances keep their scratch buffers between frames and are not thread-safe.
+ */
+final class FlacFrameEncoder {
+
+    static final int MAX_LPC_ORDER = 32;
+    static final int MAX_PARTITION_ORDER = 8;
+
+    private static final int TYPE_CONSTANT = 0;
+    private static final int TYPE_VERBATIM = 1;
+    private static final int TYPE_FIXED = 2;
+    private static final int TYPE_LPC = 3;
+    private static final int MAX_FIXED_ORDER = 4;
+    private static final int MAX_RESIDUAL = 1 << 30;
+    private static final double TUKEY_RATIO = 0.5;
+
+    private final int channels;
+    private final int bitsPerSample;
+    private final int sampleRate;
+    private final int maxLpcOrder;
+    private final FlacBitWriter writer;
+    private final Subframe[] subframes;
+    private final int[] mid;
+    private final int[] side;
+    private final int[] shifted;
+    private final int[] scratch;
+    private final long[] partitionSums;
+    private final double[] windowed;
+    private final double[] autocorrelation;
+    private final double[][] lpc;
+    private final int[] quantized;
+    private double[] window;
+    private int windowLength;
+
+    FlacFrameEncoder(int channels, int bitsPerSample, int sampleRate, int maxBlockSize, int maxLpcOrder) {
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+        this.sampleRate = sampleRate;
+        this.maxLpcOrder = Math.min(maxLpcOrder, MAX_LPC_ORDER);
+        this.writer = new FlacBitWriter(maxBlockSize * channels * ((bitsPerSample + 7) >>> 3) + 64);
+        int subframeCount = channels == 2 ? 4 : channels;
+        this.subframes = new Subframe[subframeCount];
+        for (int i = 0; i < subframeCount; i++) {
+            subframes[i] = new Subframe(maxBlockSize);
+        }
+        this.mid = channels == 2 ? new int[maxBlockSize] : null;
+        this.side = channels == 2 ? new int[maxBlockSize] : null;
+        this.shifted = new int[maxBlockSize];
+        this.scratch = new int[maxBlockSize];
+        this.partitionSums = new long[1 << MAX_PARTITION_ORDER];
+        this.windowed = new double[maxBlockSize];
+        this.autocorrelation = new double[this.maxLpcOrder + 1];
+        this.lpc = new double[this.maxLpcOrder + 1][];
+        this.quantized = new int[MAX_LPC_ORDER];
+    }
+
+    /**
+     * @param samples one array per channel holding at least {@code blockSize} samples
+     * @return the encoded frame, including its CRC-16 footer
+     */
+    byte[] encode(int[][] samples, int blockSize, long frameNumber) {
+        int assignment;
+        Subframe first;
+        Subframe second = null;
+        if (channels == 2) {
+            int[] left = samples[0];
+            int[] right = samples[1];
+            for (int i = 0; i < blockSize; i++) {
+                side[i] = left[i] - right[i];
+                mid[i] = (left[i] + right[i]) >> 1;
+            }
+            analyze(subframes[0], left, blockSize, bitsPerSample);
+            analyze(subframes[1], right, blockSize, bitsPerSample);
+            analyze(subframes[2], mid, blockSize, bitsPerSample);
+            analyze(subframes[3], side, blockSize, bitsPerSample + 1);
+            long independent = subframes[0].bits + subframes[1].bits;
+            long leftSide = subframes[0].bits + subframes[3].bits;
+            long rightSide = subframes[3].bits + subframes[1].bits;
+            long midSide = subframes[2].bits + subframes[3].bits;
+            long best = Math.min(Math.min(independent, leftSide), Math.min(rightSide, midSide));
+            if (best == independent) {
+                assignment = 1;
+                first = subframes[0];
+                second = subframes[1];
+            } else if (best == leftSide) {
+                assignment = FlacFrameHeader.CHANNELS_LEFT_SIDE;
+                first = subframes[0];
+                second = subframes[3];
+            } else if (best == rightSide) {
+                assignment = FlacFrameHeader.CHANNELS_RIGHT_SIDE;
+                first = subframes[3];
+                second = subframes[1];
+            } else {
+                assignment = FlacFrameHeader.CHANNELS_MID_SIDE;
+                first = subframes[2];
+                second = subframes[3];
+            }
+        } else {
+            assignment = channels - 1;
+            for (int c = 0; c < channels; c++) {
+                analyze(subframes[c], samples[c], blockSize, bitsPerSample);
+            }
+            first = subframes[0];
+        }
+
+        writer.reset();
+        writeHeader(assignment, blockSize, frameNumber);
+        if (channels == 2) {
+            writeSubframe(first, blockSize);
+            writeSubframe(second, blockSize);
+        } else {
+            for (int c = 0; c < channels; c++) {
+                writeSubframe(subframes[c], blockSize);
+            }
+        }
+        writer.alignToByte();
+        int crc = FlacCrc.crc16(0, writer.buffer(), 0, writer.length());
+        writer.writeBits(crc, 16);
+        return Arrays.copyOf(writer.buffer(), writer.length());
+    }
+
+    private void writeHeader(int assignment, int blockSize, long frameNumber) {
+        int blockSizeCode = blockSizeCode(blockSize);
+        int sampleRateCode = sampleRateCode(sampleRate);
+        writer.writeBits(0xFFF8, 16);
+        writer.writeBits(blockSizeCode, 4);
+        writer.writeBits(sampleRateCode, 4);
+        writer.writeBits(assignment, 4);
+        writer.writeBits(sampleSizeCode(bitsPerSample), 3);
+        writer.writeBits(0, 1);
+        writer.writeUtf8(frameNumber);
+        if (blockSizeCode == 6) {
+            writer.writeBits(blockSize - 1, 8);
+        } else if (blockSizeCode == 7) {
+            writer.writeBits(blockSize - 1, 16);
+        }
+        if (sampleRateCode == 12) {
+            writer.writeBits(sampleRate / 1000, 8);
+        } else if (sampleRateCode == 13) {
+            writer.writeBits(sampleRate, 16);
+        } else if (sampleRateCode == 14) {
+            writer.writeBits(sampleRate / 10, 16);
+        }
+        writer.writeBits(FlacCrc.crc8(writer.buffer(), 0, writer.length()), 8);
+    }
+
+    private void analyze(Subframe subframe, int[] samples, int blockSize, int sampleBits) {
+        subframe.source = samples;
+        subframe.wasted = 0;
+        int first = samples[0];
+        int or = 0;
+        boolean constant = true;
+        for (int i = 0; i < blockSize; i++) {
+            or |= samples[i];
+            constant &= samples[i] == first;
+        }
+        if (constant) {
+            subframe.type = TYPE_CONSTANT;
+            subframe.sampleBits = sampleBits;
+            subframe.bits = 8L + sampleBits;
+            return;
+        }
+
+        int wasted = Integer.numberOfTrailingZeros(or);
+        int[] x = samples;
+        if (wasted > 0) {
+            for (int i = 0; i < blockSize; i++) {
+                shifted[i] = samples[i] >> wasted;
+            }
+            x = shifted;
+            sampleBits -= wasted;
+        }
+        long headerBits = 8L + wasted;
+        subframe.wasted = wasted;
+        subframe.sampleBits = sampleBits;
+        subframe.type = TYPE_VERBATIM;
+        subframe.bits = headerBits + (long) blockSize * sampleBits;
+
+        int fixedOrder = bestFixedOrder(x, blockSize);
+        if (fixedOrder >= 0 && fixedResidual(x, blockSize, fixedOrder, scratch)) {
+            long bits = headerBits + (long) fixedOrder * sampleBits + riceBits(scratch, blockSize, fixedOrder, subframe.candidate);
+            if (bits < subframe.bits) {
+                subframe.accept(TYPE_FIXED, fixedOrder, bits, scratch, blockSize, x);
+            }
+        }
+
+        int lpcOrders = Math.min(maxLpcOrder, blockSize - 1);
+        if (lpcOrders > 0 && computeLpc(x, blockSize, lpcOrders)) {
+            int precision = sampleBits <= 16 ? 14 : 15;
+            for (int order = 1; order <= lpcOrders && lpc[order] != null; order++) {
+                int shift = quantize(lpc[order], order, precision);
+                if (shift < 0 || !lpcResidual(x, blockSize, order, shift, scratch)) {
+                    continue;
+                }
+                long bits = headerBits + (long) order * sampleBits + 4 + 5 + (long) order * precision
+                        + riceBits(scratch, blockSize, order, subframe.candidate);
+                if (bits < subframe.bits) {
+                    subframe.accept(TYPE_LPC, order, bits, scratch, blockSize, x);
+                    subframe.precision = precision;
+                    subframe.shift = shift;
+                    System.arraycopy(quantized, 0, subframe.coefficients, 0, order);
+                }
+            }
+        }
+    }
+
+    private void writeSubframe(Subframe subframe, int blockSize) {
+        int wasted = subframe.wasted;
+        switch (subframe.type) {
+            case TYPE_CONSTANT -> {
+                writer.writeBits(0, 8);
+                writer.writeBits(subframe.source[0], subframe.sampleBits);
+                return;
+            }
+            case TYPE_VERBATIM -> writer.writeBits(0x01 << 1 | (wasted > 0 ? 1 : 0), 8);
+            case TYPE_FIXED -> writer.writeBits((0x08 | subframe.order) << 1 | (wasted > 0 ? 1 : 0), 8);
+            default -> writer.writeBits((0x20 | (subframe.order - 1)) << 1 | (wasted > 0 ? 1 : 0), 8);
+        }
+        if (wasted > 0) {
+            writer.writeUnary(wasted - 1);
+        }
+
+        int bits = subframe.sampleBits;
+        if (subframe.type == TYPE_VERBATIM) {
+            int[] source = subframe.source;
+            for (int i = 0; i < blockSize; i++) {
+                writer.writeBits(source[i] >> wasted, bits);
+            }
+            return;
+        }
+
+        int[] warmup = subframe.warmup;
+        for (int i = 0; i < subframe.order; i++) {
+            writer.writeBits(warmup[i], bits);
+        }
+        if (subframe.type == TYPE_LPC) {
+            writer.writeBits(subframe.precision - 1, 4);
+            writer.writeBits(subframe.shift, 5);
+            for (int i = 0; i < subframe.order; i++) {
+                writer.writeBits(subframe.coefficients[i], subframe.precision);
+            }
+        }
+
+        RicePlan plan = subframe.plan;
+        int partitions = 1 << plan.partitionOrder;
+        int partitionSamples = blockSize >>> plan.partitionOrder;
+        writer.writeBits(plan.extended ? 1 : 0, 2);
+        writer.writeBits(plan.partitionOrder, 4);
+        int position = subframe.order;
+        for (int p = 0; p < partitions; p++) {
+            int count = p == 0 ? partitionSamples - subframe.order : partitionSamples;
+            writer.writeBits(plan.parameters[p], plan.extended ? 5 : 4);
+            writer.writeRice(subframe.residual, position, count, plan.parameters[p]);
+            position += count;
+        }
+    }
+
+    /**
+     * Picks the fixed order with the smallest absolute residual sum; -1 when the block is too short.
+     */
+    private static int bestFixedOrder(int[] x, int blockSize) {
+        if (blockSize <= MAX_FIXED_ORDER) {
+            return -1;
+        }
+        long sum0 = 0L;
+        long sum1 = 0L;
+        long sum2 = 0L;
+        long sum3 = 0L;
+        long sum4 = 0L;
+        for (int i = MAX_FIXED_ORDER; i < blockSize; i++) {
+            long e0 = x[i];
+            long e1 = e0 - x[i - 1];
+            long e2 = e1 - ((long) x[i - 1] - x[i - 2]);
+            long e3 = e2 - ((long) x[i - 1] - 2L * x[i - 2] + x[i - 3]);
+            long e4 = e3 - ((long) x[i - 1] - 3L * x[i - 2] + 3L * x[i - 3] - x[i - 4]);
+            sum0 += Math.abs(e0);
+            sum1 += Math.abs(e1);
+            sum2 += Math.abs(e2);
+            sum3 += Math.abs(e3);
+            sum4 += Math.abs(e4);
+        }
+        long[] sums = {sum0, sum1, sum2, sum3, sum4};
+        int best = 0;
+        for (int order = 1; order <= MAX_FIXED_ORDER; order++) {
+            if (sums[order] < sums[best]) {
+                best = order;
+            }
+        }
+        return best;
+    }
+
+    private static boolean fixedResidual(int[] x, int blockSize, int order, int[] residual) {
+        for (int i = order; i < blockSize; i++) {
+            long prediction = switch (order) {
+                case 0 -> 0L;
+                case 1 -> x[i - 1];
+                case 2 -> 2L * x[i - 1] - x[i - 2];
+                case 3 -> 3L * x[i - 1] - 3L * x[i - 2] + x[i - 3];
+                default -> 4L * x[i - 1] - 6L * x[i - 2] + 4L * x[i - 3] - x[i - 4];
+            };
+            long value = x[i] - prediction;
+            if (value >= MAX_RESIDUAL || value <= -MAX_RESIDUAL) {
+                return false;
+            }
+            residual[i] = (int) value;
+        }
+        return true;
+    }
+
+    private boolean lpcResidual(int[] x, int blockSize, int order, int shift, int[] residual) {
+        int[] q = quantized;
+        for (int i = order; i < blockSize; i++) {
+            long sum = 0L;
+            for (int j = 0; j < order; j++) {
+                sum += (long) q[j] * x[i - 1 - j];
+            }
+            long value = x[i] - (sum >> shift);
+            if (value >= MAX_RESIDUAL || value <= -MAX_RESIDUAL) {
+                return false;
+            }
+            residual[i] = (int) value;
+        }
+        return true;
+    }
+
+    /**
+     * Fills {@code lpc[1..maxOrder]} with predictor coefficients, where {@code lpc[p][j]} weights
+     * sample {@code x[i - 1 - j]}. Orders the recursion cannot reach stay {@code null}.
+     */
+    private boolean computeLpc(int[] x, int blockSize, int maxOrder) {
+        if (window == null || windowLength != blockSize) {
+            window = tukeyWindow(blockSize);
+            windowLength = blockSize;
+        }
+        for (int i = 0; i < blockSize; i++) {
+            windowed[i] = x[i] * window[i];
+        }
+        for (int lag = 0; lag <= maxOrder; lag++) {
+            double sum = 0.0;
+            for (int i = lag; i < blockSize; i++) {
+                sum += windowed[i] * windowed[i - lag];
+            }
+            autocorrelation[lag] = sum;
+        }
+        Arrays.fill(lpc, null);
+        double error = autocorrelation[0];
+        if (!(error > 0.0)) {
+            return false;
+        }
+        double[] current = new double[0];
+        for (int order = 1; order <= maxOrder; order++) {
+            double acc = autocorrelation[order];
+            for (int j = 0; j < order - 1; j++) {
+                acc -= current[j] * autocorrelation[order - 1 - j];
+            }
+            double reflection = acc / error;
+            double[] next = new double[order];
+            for (int j = 0; j < order - 1; j++) {
+                next[j] = current[j] - reflection * current[order - 2 - j];
+            }
+            next[order - 1] = reflection;
+            lpc[order] = next;
+            current = next;
+            error *= 1.0 - reflection * reflection;
+            if (!(error > 0.0)) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Quantizes {@code coefficients} into {@link #quantized} with error feedback.
+     *
+     * @return the shift, or -1 when the coefficients cannot be represented with a non-negative shift
+     */
+    private int quantize(double[] coefficients, int order, int precision) {
+        double max = 0.0;
+        for (int j = 0; j < order; j++) {
+            max = Math.max(max, Math.abs(coefficients[j]));
+        }
+        if (!(max > 0.0) || Double.isInfinite(max)) {
+            return -1;
+        }
+        int shift = Math.min(15, precision - 2 - Math.getExponent(max));
+        if (shift < 0) {
+            return -1;
+        }
+        int qmax = (1 << (precision - 1)) - 1;
+        int qmin = -(1 << (precision - 1));
+        double scale = 1 << shift;
+        double error = 0.0;
+        for (int j = 0; j < order; j++) {
+            error += coefficients[j] * scale;
+            long q = Math.round(error);
+            q = Math.max(qmin, Math.min(qmax, q));
+            quantized[j] = (int) q;
+            error -= q;
+        }
+        return shift;
+    }
+
+    /**
+     * Chooses the partition order and Rice parameters for {@code residual[order..blockSize)}.
+     *
+     * @return estimated size of the residual section in bits
+     */
+    private long riceBits(int[] residual, int blockSize, int order, RicePlan plan) {
+        int maxPartitionOrder = 0;
+        while (maxPartitionOrder < MAX_PARTITION_ORDER
+                && (blockSize & ((2 << maxPartitionOrder) - 1)) == 0
+                && (blockSize >>> (maxPartitionOrder + 1)) > order) {
+            maxPartitionOrder++;
+        }
+
+        int partitions = 1 << maxPartitionOrder;
+        int partitionSamples = blockSize >>> maxPartitionOrder;
+        int position = order;
+        for (int p = 0; p < partitions; p++) {
+            int end = (p + 1) * partitionSamples;
+            long sum = 0L;
+            for (; position < end; position++) {
+                int value = residual[position];
+                sum += ((long) value << 1) ^ (value >> 31);
+            }
+            partitionSums[p] = sum;
+        }
+
+        long bestBits = Long.MAX_VALUE;
+        for (int partitionOrder = maxPartitionOrder; partitionOrder >= 0; partitionOrder--) {
+            int count = 1 << partitionOrder;
+            if (partitionOrder < maxPartitionOrder) {
+                for (int p = 0; p < count; p++) {
+                    partitionSums[p] = partitionSums[2 * p] + partitionSums[2 * p + 1];
+                }
+            }
+            int samplesPer = blockSize >>> partitionOrder;
+            long bits = 2 + 4;
+            boolean extended = false;
+            for (int p = 0; p < count; p++) {
+                int n = p == 0 ? samplesPer - order : samplesPer;
+                int parameter = riceParameter(partitionSums[p], n);
+                plan.scratch[p] = parameter;
+                extended |= parameter > 14;
+                bits += riceCost(partitionSums[p], n, parameter);
+            }
+            bits += (long) count * (extended ? 5 : 4);
+            if (bits < bestBits) {
+                bestBits = bits;
+                plan.partitionOrder = partitionOrder;
+                plan.extended = extended;
+                System.arraycopy(plan.scratch, 0, plan.parameters, 0, count);
+            }
+        }
+        return bestBits;
+    }
+
+    private static int riceParameter(long sum, int count) {
+        if (count <= 0 || sum <= count) {
+            return 0;
+        }
+        int guess = 63 - Long.numberOfLeadingZeros(sum / count);
+        int best = guess;
+        long bestCost = riceCost(sum, count, guess);
+        for (int k = Math.max(0, guess - 1); k <= Math.min(30, guess + 1); k++) {
+            long cost = riceCost(sum, count, k);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = k;
+            }
+        }
+        return Math.min(30, best);
+    }
+
+    private static long riceCost(long sum, int count, int parameter) {
+        return (long) count * (parameter + 1) + (sum >>> parameter);
+    }
+
+    private static double[] tukeyWindow(int length) {
+        double[] w = new double[length];
+        Arrays.fill(w, 1.0);
+        int taper = (int) (TUKEY_RATIO / 2 * (length - 1));
+        for (int i = 0; i < taper; i++) {
+            double value = 0.5 * (1.0 - Math.cos(Math.PI * i / taper));
+            w[i] = value;
+            w[length - 1 - i] = value;
+        }
+        return w;
+    }
+
+    private static int blockSizeCode(int blockSize) {
+        return switch (blockSize) {
+            case 192 -> 1;
+            case 576, 1152, 2304, 4608 -> 2 + Integer.numberOfTrailingZeros(blockSize / 576);
+            case 256, 512, 1024, 2048, 4096, 8192, 16384, 32768 -> 8 + Integer.numberOfTrailingZeros(blockSize / 256);
+            default -> blockSize <= 256 ? 6 : 7;
+        };
+    }
+
+    private static int sampleRateCode(int sampleRate) {
+        return switch (sampleRate) {
+            case 88_200 -> 1;
+            case 176_400 -> 2;
+            case 192_000 -> 3;
+            case 8_000 -> 4;
+            case 16_000 -> 5;
+            case 22_050 -> 6;
+            case 24_000 -> 7;
+            case 32_000 -> 8;
+            case 44_100 -> 9;
+            case 48_000 -> 10;
+            case 96_000 -> 11;
+            default -> {
+                if (sampleRate % 1000 == 0 && sampleRate / 1000 <= 0xFF) {
+                    yield 12;
+                }
+                if (sampleRate <= 0xFFFF) {
+                    yield 13;
+                }
+                if (sampleRate % 10 == 0 && sampleRate / 10 <= 0xFFFF) {
+                    yield 14;
+                }
+                yield 0;
+            }
+        };
+    }
+
+    private static int sampleSizeCode(int bitsPerSample) {
+        return switch (bitsPerSample) {
+            case 8 -> 1;
+            case 12 -> 2;
+            case 16 -> 4;
+            case 20 -> 5;
+            case 24 -> 6;
+            default -> 0;
+        };
+    }
+
+    private static final class RicePlan {
+
+        private final int[] parameters = new int[1 << MAX_PARTITION_ORDER];
+        private final int[] scratch = new int[1 << MAX_PARTITION_ORDER];
+        private int partitionOrder;
+        private boolean extended;
+
+        void copyFrom(RicePlan other) {
+            partitionOrder = other.partitionOrder;
+            extended = other.extended;
+            System.arraycopy(other.parameters, 0, parameters, 0, 1 << other.partitionOrder);
+        }
+    }
+
+    private static final class Subframe {
+
+        private final int[] residual;
+        private final int[] warmup = new int[MAX_LPC_ORDER];
+        private final int[] coefficients = new int[MAX_LPC_ORDER];
+        private final RicePlan plan = new RicePlan();
+        private final RicePlan candidate = new RicePlan();
+        private int[] source;
+        private int type;
+        private int order;
+        private int wasted;
+        private int sampleBits;
+        private int precision;
+        private int shift;
+        private long bits;
+
+        Subframe(int maxBlockSize) {
+            this.residual = new int[maxBlockSize];
+        }
+
+        void accept(int type, int order, long bits, int[] candidateResidual, int blockSize, int[] x) {
+            this.type = type;
+            this.order = order;
+            this.bits = bits;
+            System.arraycopy(candidateResidual, order, residual, order, blockSize - order);
+            System.arraycopy(x, 0, warmup, 0, order);
+            plan.copyFrom(candidate);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+/**
+ * Decoded FLAC frame header.
+ *
+ * <p>{@code codedNumber} is the frame number for fixed-blocksize streams and the first sample number
+ * for variable-blocksize streams; {@link #firstSample(int)} resolves it either way.
+ */
+public record FlacFrameHeader(
+        boolean variableBlockSize,
+        int blockSize,
+        int sampleRate,
+        int channelAssignment,
+        int channels,
+        int bitsPerSample,
+        long codedNumber,
+        int headerLength
+) {
+
+    public static final int MAX_HEADER_LENGTH = 16;
+
+    public static final int CHANNELS_LEFT_SIDE = 8;
+    public static final int CHANNELS_RIGHT_SIDE = 9;
+    public static final int CHANNELS_MID_SIDE = 10;
+
+    private static final int[] SAMPLE_RATES = {
+            0, 88_200, 176_400, 192_000, 8_000, 16_000, 22_050, 24_000,
+            32_000, 44_100, 48_000, 96_000
+    };
+    private static final int[] SAMPLE_SIZES = {0, 8, 12, -1, 16, 20, 24, 32};
+
+    public long firstSample(int nominalBlockSize) {
+        return variableBlockSize ? codedNumber : codedNumber * nominalBlockSize;
+    }
+
+    /**
+     * Parses and CRC-8 checks a frame header starting at {@code offset}.
+     *
+     * @param streamSampleRate STREAMINFO sample rate, used when the header defers to it
+     * @param streamBitsPerSample STREAMINFO sample size, used when the header defers to it
+     * @return the header, or {@code null} when the bytes are not a valid header
+     */
+    public static FlacFrameHeader parse(byte[] bytes, int offset, int available, int streamSampleRate, int streamBitsPerSample) {
+        if (available < 6 || (bytes[offset] & 0xFF) != 0xFF || ((bytes[offset + 1] & 0xFE) != 0xF8)) {
+            return null;
+        }
+        boolean variable = (bytes[offset + 1] & 0x01) != 0;
+        int blockSizeCode = (bytes[offset + 2] & 0xF0) >>> 4;
+        int sampleRateCode = bytes[offset + 2] & 0x0F;
+        int channelAssignment = (bytes[offset + 3] & 0xF0) >>> 4;
+        int sampleSizeCode = (bytes[offset + 3] & 0x0E) >>> 1;
+        if (blockSizeCode == 0 || sampleRateCode == 15 || channelAssignment > CHANNELS_MID_SIDE
+                || SAMPLE_SIZES[sampleSizeCode] < 0 || (bytes[offset + 3] & 0x01) != 0) {
+            return null;
+        }
+
+        int pos = offset + 4;
+        int end = offset + available;
+        int lead = bytes[pos] & 0xFF;
+        int extra;
+        long number;
+        if ((lead & 0x80) == 0) {
+            extra = 0;
+            number = lead;
+        } else if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            number = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            number = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            number = lead & 0x07;
+        } else if ((lead & 0xFC) == 0xF8) {
+            extra = 4;
+            number = lead & 0x03;
+        } else if ((lead & 0xFE) == 0xFC) {
+            extra = 5;
+            number = lead & 0x01;
+        } else if (lead == 0xFE) {
+            extra = 6;
+            number = 0;
+        } else {
+            return null;
+        }
+        if (!variable && extra > 5) {
+            return null;
+        }
+        pos++;
+        if (pos + extra > end) {
+            return null;
+        }
+        for (int i = 0; i < extra; i++) {
+            int next = bytes[pos++] & 0xFF;
+            if ((next & 0xC0) != 0x80) {
+                return null;
+            }
+            number = (number << 6) | (next & 0x3F);
+        }
+
+        int blockSize;
+        if (blockSizeCode == 1) {
+            blockSize = 192;
+        } else if (blockSizeCode <= 5) {
+            blockSize = 576 << (blockSizeCode - 2);
+        } else if (blockSizeCode == 6) {
+            if (pos + 1 > end) {
+                return null;
+            }
+            blockSize = (bytes[pos++] & 0xFF) + 1;
+        } else if (blockSizeCode == 7) {
+            if (pos + 2 > end) {
+                return null;
+            }
+            blockSize = (((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF)) + 1;
+            pos += 2;
+        } else {
+            blockSize = 256 << (blockSizeCode - 8);
+        }
+
+        int sampleRate;
+        if (sampleRateCode == 0) {
+            sampleRate = streamSampleRate;
+        } else if (sampleRateCode <= 11) {
+            sampleRate = SAMPLE_RATES[sampleRateCode];
+        } else if (sampleRateCode == 12) {
+            if (pos + 1 > end) {
+                return null;
+            }
+            sampleRate = (bytes[pos++] & 0xFF) * 1000;
+        } else {
+            if (pos + 2 > end) {
+                return null;
+            }
+            int value = ((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF);
+            sampleRate = sampleRateCode == 13 ? value : value * 10;
+            pos += 2;
+        }
+
+        if (pos + 1 > end || FlacCrc.crc8(bytes, offset, pos - offset) != (bytes[pos] & 0xFF)) {
+            return null;
+        }
+        pos++;
+
+        int bitsPerSample = sampleSizeCode == 0 ? streamBitsPerSample : SAMPLE_SIZES[sampleSizeCode];
+        int channels = channelAssignment < CHANNELS_LEFT_SIDE ? channelAssignment + 1 : 2;
+        return new FlacFrameHeader(variable, blockSize, sampleRate, channelAssignment, channels, bitsPerSample, number, pos - offset);
+    }
+}
@@ -0,0 +1,276 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Verifies header CRC-8 and frame CRC-16 of every FLAC frame without decoding audio.
+ *
+ * <p>Frame boundaries are found by running CRC-16 from the start of a frame and stopping at the next
+ * sync code whose header is valid, consistent with STREAMINFO and continues the sample numbering;
+ * a correct frame leaves a zero remainder there. The audio area is cut into regions at sync points
+ * verified the same way, and regions are checked concurrently with positioned reads.
+ */
+public final class FlacFrameVerifier {
+
+    static final int MAX_ERRORS = 100;
+    private static final int CHUNK_BYTES = 1 << 18;
+    private static final int REGIONS_PER_WORKER = 4;
+    private static final long MIN_REGION_BYTES = 1L << 20;
+    private static final int RESYNC_WINDOW_FRAMES = 16;
+
+    private FlacFrameVerifier() {
+    }
+
+    public static FlacVerification verify(FileChannel channel, int parallelism) throws CodecMediaException {
+        FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+        try {
+            return verify(channel, info, channel.size(), parallelism, MIN_REGION_BYTES);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to verify FLAC frames: " + e.getMessage(), e);
+        }
+    }
+
+    static FlacVerification verify(FileChannel channel, FlacStreamInfo info, long fileSize, int parallelism, long minRegionBytes)
+            throws IOException, CodecMediaException {
+        long audioEnd = FlacDecoder.audioEnd(channel, fileSize);
+        long audioStart = info.audioStartOffset();
+        if (audioStart >= audioEnd) {
+            return new FlacVerification(0, 0, List.of("FLAC stream has no audio frames"), List.of());
+        }
+
+        int workers = ParallelTasks.resolveParallelism(parallelism);
+        long span = audioEnd - audioStart;
+        int regionCount = (int) Math.max(1L, Math.min((long) workers * REGIONS_PER_WORKER, span / Math.max(1L, minRegionBytes)));
+        long[] bounds = splitAtVerifiedSyncs(channel, info, audioEnd, regionCount);
+
+        Region[] regions = new Region[bounds.length - 1];
+        ParallelTasks.runAll(regions.length, workers, index -> {
+            try {
+                regions[index] = verifyRegion(channel, info, bounds[index], bounds[index + 1], fileSize);
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to verify FLAC frames: " + e.getMessage(), e);
+            }
+        });
+
+        List<String> errors = new ArrayList<>();
+        long frames = 0;
+        long expected = 0;
+        for (Region region : regions) {
+            if (region.firstSample >= 0 && region.firstSample != expected) {
+                addError(errors, "FLAC frame sequence broken at offset " + region.start
+                        + ": expected sample " + expected + ", found " + region.firstSample);
+            }
+            for (String error : region.errors) {
+                addError(errors, error);
+            }
+            frames += region.frames;
+            if (region.nextSample >= 0) {
+                expected = region.nextSample;
+            }
+        }
+        if (errors.isEmpty() && info.totalSamples() > 0 && expected != info.totalSamples()) {
+            addError(errors, "FLAC frames hold " + expected + " samples but STREAMINFO declares " + info.totalSamples());
+        }
+        return new FlacVerification(frames, expected, List.of(), List.copyOf(errors));
+    }
+
+    private static Region verifyRegion(FileChannel channel, FlacStreamInfo info, long start, long end, long fileSize)
+            throws IOException {
+        Region region = new Region(start);
+        FlacFrameHeader header = readHeader(channel, info, start, fileSize);
+        if (header == null) {
+            region.errors.add("Invalid FLAC frame header at offset " + start);
+            return region;
+        }
+        int nominalBlock = nominalBlockSize(info, header);
+        long currentFirst = header.firstSample(nominalBlock);
+        int currentBlock = header.blockSize();
+        region.firstSample = currentFirst;
+        long frameStart = start;
+        boolean damaged = false;
+        int crc = 0;
+
+        byte[] chunk = new byte[CHUNK_BYTES + FlacFrameHeader.MAX_HEADER_LENGTH];
+        long position = start;
+        while (position < end) {
+            int length = (int) Math.min(CHUNK_BYTES, end - position);
+            int available = (int) Math.min(length + FlacFrameHeader.MAX_HEADER_LENGTH, fileSize - position);
+            ChannelReads.readFully(channel, position, ByteBuffer.wrap(chunk, 0, available));
+            int i = 0;
+            while (i < length) {
+                int sync = i;
+                while (sync < length && chunk[sync] != (byte) 0xFF) {
+                    sync++;
+                }
+                crc = FlacCrc.crc16(crc, chunk, i, sync - i);
+                if (sync == length) {
+                    break;
+                }
+                long absolute = position + sync;
+                if (absolute > frameStart && sync + 1 < available && (chunk[sync + 1] & 0xFE) == 0xF8) {
+                    FlacFrameHeader candidate = FlacFrameHeader.parse(chunk, sync, available - sync, info.sampleRate(), info.bitsPerSample());
+                    long next = currentFirst + currentBlock;
+                    boolean boundary = false;
+                    if (candidate != null && consistent(candidate, info)) {
+                        long first = candidate.firstSample(nominalBlock);
+                        if (first == next) {
+                            if (crc != 0 && !damaged) {
+                                region.addError("FLAC frame CRC-16 mismatch at offset " + frameStart);
+                            }
+                            boundary = true;
+                        } else if (first > next && first <= next + (long) RESYNC_WINDOW_FRAMES * nominalBlock) {
+                            if (!damaged) {
+                                region.addError("Missing or corrupt FLAC frame(s) between offsets " + frameStart + " and " + absolute);
+                            }
+                            boundary = true;
+                        }
+                        if (boundary) {
+                            currentFirst = first;
+                            currentBlock = candidate.blockSize();
+                            damaged = false;
+                        }
+                    } else if (crc == 0 && !damaged) {
+                        // The previous frame ends here cleanly, so this is a real header that fails its checks.
+                        region.addError("FLAC frame header CRC-8 mismatch at offset " + absolute);
+                        currentFirst = next;
+                        currentBlock = nominalBlock;
+                        damaged = true;
+                        boundary = true;
+                    }
+                    if (boundary) {
+                        region.frames++;
+                        frameStart = absolute;
+                        crc = 0;
+                    }
+                }
+                crc = FlacCrc.crc16(crc, chunk, sync, 1);
+                i = sync + 1;
+            }
+            position += length;
+        }
+        if (crc != 0 && !damaged) {
+            region.addError("FLAC frame CRC-16 mismatch at offset " + frameStart);
+        }
+        region.frames++;
+        region.nextSample = currentFirst + currentBlock;
+        return region;
+    }
+
+    /**
+     * Cuts the audio area into up to {@code regionCount} ranges that each start at a verified frame.
+     *
+     * @return ascending boundaries: the start of each range followed by {@code audioEnd}
+     */
+    public static long[] splitAtVerifiedSyncs(FileChannel channel, FlacStreamInfo info, long audioEnd, int regionCount)
+            throws IOException {
+        long audioStart = info.audioStartOffset();
+        long span = audioEnd - audioStart;
+        long[] bounds = new long[regionCount + 1];
+        int count = 0;
+        bounds[count++] = audioStart;
+        for (int i = 1; i < regionCount; i++) {
+            long nominal = audioStart + span * i / regionCount;
+            if (nominal <= bounds[count - 1]) {
+                continue;
+            }
+            long split = findVerifiedSync(channel, info, nominal, audioStart + span * (i + 1) / regionCount, audioEnd);
+            if (split > bounds[count - 1]) {
+                bounds[count++] = split;
+            }
+        }
+        bounds[count++] = audioEnd;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Finds the first frame at or after {@code from} (and before {@code limit}) whose own CRC-16 checks
+     * out against the following header, so a region never starts at a sync pattern inside audio data.
+     *
+     * @return the verified frame offset, or -1 when none is found
+     */
+    static long findVerifiedSync(FileChannel channel, FlacStreamInfo info, long from, long limit, long audioEnd)
+            throws IOException {
+        int window = (int) Math.min(audioEnd - from,
+                info.maxFrameSize() > 0 ? (long) info.maxFrameSize() * 2 + FlacFrameHeader.MAX_HEADER_LENGTH : 1 << 20);
+        if (window < 2) {
+            return -1L;
+        }
+        byte[] bytes = ChannelReads.readBytes(channel, from, window);
+        int searchEnd = (int) Math.min(window - 1, limit - from);
+        for (int i = 0; i < searchEnd; i++) {
+            if (bytes[i] != (byte) 0xFF || (bytes[i + 1] & 0xFE) != 0xF8) {
+                continue;
+            }
+            FlacFrameHeader header = FlacFrameHeader.parse(bytes, i, window - i, info.sampleRate(), info.bitsPerSample());
+            if (header == null || !consistent(header, info)) {
+                continue;
+            }
+            long expected = header.firstSample(nominalBlockSize(info, header)) + header.blockSize();
+            int crc = FlacCrc.crc16(0, bytes, i, header.headerLength());
+            for (int j = i + header.headerLength(); j < window; j++) {
+                if (crc == 0 && bytes[j] == (byte) 0xFF && j + 1 < window && (bytes[j + 1] & 0xFE) == 0xF8) {
+                    FlacFrameHeader next = FlacFrameHeader.parse(bytes, j, window - j, info.sampleRate(), info.bitsPerSample());
+                    if (next != null && consistent(next, info) && next.firstSample(nominalBlockSize(info, next)) == expected) {
+                        return from + i;
+                    }
+                }
+                crc = FlacCrc.crc16(crc, bytes, j, 1);
+            }
+            if (crc == 0 && from + window == audioEnd) {
+                return from + i;
+            }
+        }
+        return -1L;
+    }
+
+    private static FlacFrameHeader readHeader(FileChannel channel, FlacStreamInfo info, long offset, long fileSize)
+            throws IOException {
+        int length = (int) Math.min(FlacFrameHeader.MAX_HEADER_LENGTH, fileSize - offset);
+        byte[] bytes = ChannelReads.readBytes(channel, offset, length);
+        FlacFrameHeader header = FlacFrameHeader.parse(bytes, 0, length, info.sampleRate(), info.bitsPerSample());
+        return header != null && consistent(header, info) ? header : null;
+    }
+
+    private static boolean consistent(FlacFrameHeader header, FlacStreamInfo info) {
+        return header.channels() == info.channels()
+                && header.sampleRate() == info.sampleRate()
+                && header.bitsPerSample() == info.bitsPerSample()
+                && (info.maxBlockSize() == 0 || header.blockSize() <= info.maxBlockSize());
+    }
+
+    private static int nominalBlockSize(FlacStreamInfo info, FlacFrameHeader header) {
+        return info.maxBlockSize() > 0 ? info.maxBlockSize() : header.blockSize();
+    }
+
+    private static void addError(List<String> errors, String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    private static final class Region {
+
+        private final long start;
+        private final List<String> errors = new ArrayList<>();
+        private long firstSample = -1L;
+        private long nextSample = -1L;
+        private long frames;
+
+        Region(long start) {
+            this.start = start;
+        }
+
+        void addError(String error) {
+            FlacFrameVerifier.addError(errors, error);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+/**
+ * Position of one metadata block; {@code headerOffset} points at the 4-byte block header and the
+ * body follows it.
+ */
+public record FlacMetadataBlock(
+        int type,
+        boolean last,
+        long headerOffset,
+        int length
+) {
+
+    public static final int STREAMINFO = 0;
+    public static final int PADDING = 1;
+    public static final int APPLICATION = 2;
+    public static final int SEEKTABLE = 3;
+    public static final int VORBIS_COMMENT = 4;
+    public static final int CUESHEET = 5;
+    public static final int PICTURE = 6;
+
+    public long bodyOffset() {
+        return headerOffset + 4;
+    }
+
+    public long endOffset() {
+        return headerOffset + 4 + length;
+    }
+}
@@ -1,16 +1,23 @@
 package me.tamkungz.codecmedia.internal.audio.flac;
 
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import me.tamkungz.codecmedia.CodecMediaException;
 import me.tamkungz.codecmedia.internal.audio.BitrateMode;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
 
 public final class FlacParser {
 
+    private static final Set<String> MAPPED_COMMENT_FIELDS = Set.of("TITLE", "ARTIST", "ALBUM", "COMMENT", "GENRE", "DATE", "YEAR");
+
     private FlacParser() {
     }
 
@@ -79,6 +86,83 @@ public final class FlacParser {
         return new FlacProbeInfo("flac", sampleRate, channels, bitsPerSample, bitrateKbps, BitrateMode.VBR, durationMillis);
     }
 
+    /**
+     * Walks the metadata block headers of a FLAC file without reading block bodies.
+     * The block after the one flagged as last marks the first audio frame.
+     */
+    public static List<FlacMetadataBlock> readMetadataBlocks(SeekableByteChannel channel) throws CodecMediaException {
+        try {
+            long size = channel.size();
+            if (size < 8 || !isLikelyFlac(ChannelReads.readBytes(channel, 0, 4))) {
+                throw new CodecMediaException("Not a FLAC file");
+            }
+            List<FlacMetadataBlock> blocks = new ArrayList<>();
+            long offset = 4;
+            while (true) {
+                if (offset + 4 > size) {
+                    throw new CodecMediaException("Unexpected end of FLAC metadata");
+                }
+                byte[] header = ChannelReads.readBytes(channel, offset, 4);
+                boolean last = (header[0] & 0x80) != 0;
+                int blockType = header[0] & 0x7F;
+                if (blockType == 0x7F) {
+                    throw new CodecMediaException("Invalid FLAC metadata block type: 127 is reserved");
+                }
+                int length = ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+                FlacMetadataBlock block = new FlacMetadataBlock(blockType, last, offset, length);
+                if (block.endOffset() > size) {
+                    throw new CodecMediaException("Invalid FLAC metadata block length");
+                }
+                blocks.add(block);
+                offset = block.endOffset();
+                if (last) {
+                    return blocks;
+                }
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read FLAC metadata: " + e.getMessage(), e);
+        }
+    }
+
+    public static FlacStreamInfo readStreamInfo(SeekableByteChannel channel) throws CodecMediaException {
+        return readStreamInfo(channel, readMetadataBlocks(channel));
+    }
+
+    public static FlacStreamInfo readStreamInfo(SeekableByteChannel channel, List<FlacMetadataBlock> blocks)
+            throws CodecMediaException {
+        FlacMetadataBlock first = blocks.get(0);
+        if (first.type() != FlacMetadataBlock.STREAMINFO || first.length() < 34) {
+            throw new CodecMediaException("FLAC STREAMINFO is missing or invalid");
+        }
+        byte[] body;
+        try {
+            body = ChannelReads.readBytes(channel, first.bodyOffset(), 34);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read FLAC STREAMINFO: " + e.getMessage(), e);
+        }
+        long audioStart = blocks.get(blocks.size() - 1).endOffset();
+        return parseStreamInfo(body, audioStart);
+    }
+
+    static FlacStreamInfo parseStreamInfo(byte[] body, long audioStartOffset) throws CodecMediaException {
+        int minBlockSize = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+        int maxBlockSize = ((body[2] & 0xFF) << 8) | (body[3] & 0xFF);
+        int minFrameSize = ((body[4] & 0xFF) << 16) | ((body[5] & 0xFF) << 8) | (body[6] & 0xFF);
+        int maxFrameSize = ((body[7] & 0xFF) << 16) | ((body[8] & 0xFF) << 8) | (body[9] & 0xFF);
+        long packed = readUInt64BE(body, 10);
+        int sampleRate = (int) ((packed >>> 44) & 0xFFFFF);
+        int channels = (int) (((packed >>> 41) & 0x7) + 1);
+        int bitsPerSample = (int) (((packed >>> 36) & 0x1F) + 1);
+        long totalSamples = packed & 0xFFFFFFFFFL;
+        if (sampleRate <= 0) {
+            throw new CodecMediaException("FLAC STREAMINFO is missing or invalid");
+        }
+        byte[] md5 = new byte[16];
+        System.arraycopy(body, 18, md5, 0, 16);
+        return new FlacStreamInfo(minBlockSize, maxBlockSize, minFrameSize, maxFrameSize,
+                sampleRate, channels, bitsPerSample, totalSamples, md5, audioStartOffset);
+    }
+
     public static boolean isLikelyFlac(byte[] bytes) {
         return bytes != null
                 && bytes.length >= 4
@@ -119,6 +203,27 @@ public final class FlacParser {
         return Map.of();
     }
 
+    /**
+     * Channel variant of {@link #readVorbisCommentMetadata(byte[])}: walks block headers and reads
+     * only the VORBIS_COMMENT body.
+     */
+    public static Map<String, String> readVorbisCommentMetadata(SeekableByteChannel channel) throws CodecMediaException {
+        for (FlacMetadataBlock block : readMetadataBlocks(channel)) {
+            if (block.type() == FlacMetadataBlock.VORBIS_COMMENT) {
+                try {
+                    return parseVorbisCommentBlock(ChannelReads.readBytes(channel, block.bodyOffset(), block.length()), 0, block.length());
+                } catch (IOException e) {
+                    throw new CodecMediaException("Failed to read FLAC Vorbis comment: " + e.getMessage(), e);
+                }
+            }
+        }
+        return Map.of();
+    }
+
+    /**
+     * Maps the common fields to library keys and passes every other field through lower-cased
+     * (for example {@code REPLAYGAIN_TRACK_GAIN} becomes {@code replaygain_track_gain}).
+     */
     private static Map<String, String> parseVorbisCommentBlock(byte[] bytes, int offset, int length) {
         int end = offset + length;
         int pos = offset;
@@ -139,7 +244,7 @@ public final class FlacParser {
         }
         pos += 4;
 
-        Map<String, String> raw = new HashMap<>();
+        Map<String, String> raw = new LinkedHashMap<>();
         Map<String, String> out = new LinkedHashMap<>();
         for (int i = 0; i < commentCount; i++) {
             int commentLen = readLeIntAt(bytes, pos, end);
@@ -169,6 +274,11 @@ public final class FlacParser {
         putIfPresent(out, "comment", raw, "COMMENT");
         putIfPresent(out, "genre", raw, "GENRE");
         putIfPresent(out, "date", raw, "DATE", "YEAR");
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            if (!MAPPED_COMMENT_FIELDS.contains(entry.getKey())) {
+                out.putIfAbsent(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue());
+            }
+        }
         return out;
     }
 
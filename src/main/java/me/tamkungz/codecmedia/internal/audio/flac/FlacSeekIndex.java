@@ -0,0 +1,230 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Sample-to-byte-offset index for a FLAC stream, held as two parallel primitive arrays sorted by
+ * sample number.
+ *
+ * <p>The SEEKTABLE block is used when it has real seek points; otherwise frame headers are located by
+ * scanning for the 0xFFF8/0xFFF9 sync code after the metadata, accepting a candidate only when its
+ * CRC-8 matches and its sample number continues the previous frame, and keeping one point per
+ * {@code intervalSamples}. A scan can stop once it passes the sample a caller is about to seek to.
+ */
+public final class FlacSeekIndex {
+
+    private static final long PLACEHOLDER_POINT = -1L;
+    private static final int SCAN_BUFFER_BYTES = 1 << 16;
+
+    private final long[] samples;
+    private final long[] offsets;
+    private final int size;
+    private final boolean fromSeekTable;
+
+    private FlacSeekIndex(long[] samples, long[] offsets, int size, boolean fromSeekTable) {
+        this.samples = samples;
+        this.offsets = offsets;
+        this.size = size;
+        this.fromSeekTable = fromSeekTable;
+    }
+
+    public static FlacSeekIndex build(SeekableByteChannel channel) throws CodecMediaException {
+        List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(channel);
+        return build(channel, blocks, FlacParser.readStreamInfo(channel, blocks), Long.MAX_VALUE);
+    }
+
+    /**
+     * Builds the index from already parsed metadata, with one point per second when frames have to be
+     * scanned; the scan stops after the frame holding {@code untilSample}.
+     */
+    public static FlacSeekIndex build(SeekableByteChannel channel, List<FlacMetadataBlock> blocks, FlacStreamInfo info,
+            long untilSample) throws CodecMediaException {
+        for (FlacMetadataBlock block : blocks) {
+            if (block.type() == FlacMetadataBlock.SEEKTABLE) {
+                FlacSeekIndex index = fromSeekTable(channel, block, info);
+                if (index != null) {
+                    return index;
+                }
+            }
+        }
+        return scanFrames(channel, info, info.sampleRate(), untilSample);
+    }
+
+    /**
+     * @return the seek-table index, or {@code null} when the table holds only placeholder points
+     */
+    static FlacSeekIndex fromSeekTable(SeekableByteChannel channel, FlacMetadataBlock block, FlacStreamInfo info)
+            throws CodecMediaException {
+        int count = block.length() / 18;
+        ByteBuffer body;
+        long audioBytes;
+        try {
+            body = ByteBuffer.allocate(count * 18);
+            ChannelReads.readFully(channel, block.bodyOffset(), body);
+            audioBytes = channel.size() - info.audioStartOffset();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read FLAC SEEKTABLE: " + e.getMessage(), e);
+        }
+        body.flip();
+
+        long[] samples = new long[count + 1];
+        long[] offsets = new long[count + 1];
+        int size = 0;
+        samples[size] = 0L;
+        offsets[size++] = info.audioStartOffset();
+        for (int i = 0; i < count; i++) {
+            long sample = body.getLong();
+            long offset = body.getLong();
+            body.getShort();
+            if (sample == PLACEHOLDER_POINT) {
+                continue;
+            }
+            if (sample <= samples[size - 1] || offset <= offsets[size - 1] - info.audioStartOffset()
+                    || offset >= audioBytes) {
+                continue;
+            }
+            samples[size] = sample;
+            offsets[size++] = info.audioStartOffset() + offset;
+        }
+        return size > 1 ? new FlacSeekIndex(samples, offsets, size, true) : null;
+    }
+
+    static FlacSeekIndex scanFrames(SeekableByteChannel channel, FlacStreamInfo info, long intervalSamples,
+            long untilSample) throws CodecMediaException {
+        long interval = Math.max(1L, intervalSamples);
+        int nominalBlockSize = info.maxBlockSize();
+        Points points = new Points();
+        long expected = 0L;
+        long nextPoint = 0L;
+        long pendingFirst = -1L;
+        long pendingNext = -1L;
+        long pendingOffset = -1L;
+        long skipUntil = 0L;
+
+        byte[] chunk = new byte[SCAN_BUFFER_BYTES];
+        try {
+            long fileSize = channel.size();
+            long position = info.audioStartOffset();
+            while (position < fileSize - 1 && expected <= untilSample) {
+                int length = (int) Math.min(chunk.length, fileSize - position);
+                ChannelReads.readFully(channel, position, ByteBuffer.wrap(chunk, 0, length));
+                boolean tail = position + length >= fileSize;
+                // Keep a header's worth of bytes for the next chunk unless this is the end of the file.
+                int scanLimit = tail ? length - 1 : length - FlacFrameHeader.MAX_HEADER_LENGTH;
+                int start = (int) Math.max(0L, skipUntil - position);
+                int i = start;
+                for (; i < scanLimit && expected <= untilSample; i++) {
+                    if (chunk[i] != (byte) 0xFF || (chunk[i + 1] & 0xFE) != 0xF8) {
+                        continue;
+                    }
+                    FlacFrameHeader header = FlacFrameHeader.parse(chunk, i, length - i, info.sampleRate(), info.bitsPerSample());
+                    if (header == null) {
+                        continue;
+                    }
+                    int blockSize = nominalBlockSize > 0 ? nominalBlockSize : header.blockSize();
+                    long first = header.firstSample(blockSize);
+                    long offset = position + i;
+                    if (first == expected || (first == pendingNext && pendingFirst >= 0)) {
+                        if (first != expected && pendingFirst >= nextPoint) {
+                            // The pending candidate was a genuine resync point after damaged frames.
+                            points.add(pendingFirst, pendingOffset);
+                            nextPoint = pendingFirst + interval;
+                        }
+                        if (first >= nextPoint) {
+                            points.add(first, offset);
+                            nextPoint = first + interval;
+                        }
+                        expected = first + header.blockSize();
+                        pendingFirst = -1L;
+                        pendingNext = -1L;
+                        i += Math.max(header.headerLength(), info.minFrameSize()) - 1;
+                    } else if (first > expected && (info.totalSamples() <= 0 || first < info.totalSamples())) {
+                        pendingFirst = first;
+                        pendingNext = first + header.blockSize();
+                        pendingOffset = offset;
+                        i += header.headerLength() - 1;
+                    }
+                }
+                if (tail || expected > untilSample) {
+                    break;
+                }
+                // Skips past a header may run beyond the scan limit; resume there in the next chunk.
+                skipUntil = position + i;
+                position += scanLimit;
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to scan FLAC frames: " + e.getMessage(), e);
+        }
+        return new FlacSeekIndex(points.samples, points.offsets, points.size, false);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean fromSeekTable() {
+        return fromSeekTable;
+    }
+
+    public long sampleAt(int index) {
+        return samples[index];
+    }
+
+    public long offsetAt(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * @return index of the last point whose sample number is at or before {@code sample}, or -1 when the
+     *         index is empty
+     */
+    public int indexFor(long sample) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (samples[mid] <= sample) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return absolute file offset of the frame to start decoding from to reach {@code sample} (the first
+     *         point when {@code sample} precedes it), or -1 when the index is empty
+     */
+    public long offsetForSample(long sample) {
+        if (size == 0) {
+            return -1L;
+        }
+        return offsets[Math.max(0, indexFor(sample))];
+    }
+
+    private static final class Points {
+
+        private long[] samples = new long[16];
+        private long[] offsets = new long[16];
+        private int size;
+
+        void add(long sample, long offset) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            samples[size] = sample;
+            offsets[size++] = offset;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+/**
+ * Full STREAMINFO contents plus the offset of the first audio frame.
+ */
+public record FlacStreamInfo(
+        int minBlockSize,
+        int maxBlockSize,
+        int minFrameSize,
+        int maxFrameSize,
+        int sampleRate,
+        int channels,
+        int bitsPerSample,
+        long totalSamples,
+        byte[] md5,
+        long audioStartOffset
+) {
+
+    public boolean fixedBlockSize() {
+        return minBlockSize == maxBlockSize && maxBlockSize > 0;
+    }
+}
@@ -0,0 +1,261 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.internal.io.IoCleanup;
+
+/**
+ * Replaces the VORBIS_COMMENT block of a FLAC file.
+ *
+ * <p>When the new comment fits in the space held by the old comment and PADDING blocks, only the
+ * metadata from the first changed block onward is rewritten in place with one positioned write and
+ * the audio frames are not touched. Otherwise the file is rewritten once through a sibling temp file,
+ * audio copied with {@code transferTo}, with {@value #REWRITE_PADDING_BYTES} bytes of PADDING so the
+ * next edits fit in place; the temp file takes the original's POSIX permissions before it replaces it.
+ */
+public final class FlacTagWriter {
+
+    public static final int REWRITE_PADDING_BYTES = 16 * 1024;
+
+    private static final String DEFAULT_VENDOR = "CodecMedia";
+    private static final int MAX_BLOCK_LENGTH = 0xFFFFFF;
+    private static final String[][] FIELD_NAMES = {
+            {"title", "TITLE"},
+            {"artist", "ARTIST"},
+            {"album", "ALBUM"},
+            {"comment", "COMMENT"},
+            {"genre", "GENRE"},
+            {"date", "DATE"}
+    };
+
+    private FlacTagWriter() {
+    }
+
+    /**
+     * Replaces all Vorbis comments with {@code entries}. Entries with empty values or keys that are
+     * not valid Vorbis field names are skipped.
+     *
+     * @return {@code true} when the comment was written in place, {@code false} after a full rewrite
+     */
+    public static boolean write(Path input, Map<String, String> entries) throws CodecMediaException {
+        boolean inPlace;
+        Path staged = null;
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(channel);
+            long audioStart = blocks.get(blocks.size() - 1).endOffset();
+            byte[] comment = buildComment(readVendor(channel, blocks), entries);
+
+            // kept blocks stay in order; the new comment replaces the first old one (or follows STREAMINFO)
+            List<Object> plan = new ArrayList<>();
+            boolean commentPlaced = false;
+            for (FlacMetadataBlock block : blocks) {
+                if (block.type() == FlacMetadataBlock.VORBIS_COMMENT) {
+                    if (!commentPlaced) {
+                        plan.add(comment);
+                        commentPlaced = true;
+                    }
+                } else if (block.type() != FlacMetadataBlock.PADDING) {
+                    plan.add(block);
+                }
+            }
+            if (!commentPlaced) {
+                plan.add(1, comment);
+            }
+
+            long used = 4;
+            for (Object item : plan) {
+                used += 4 + (item instanceof FlacMetadataBlock block ? block.length() : ((byte[]) item).length);
+            }
+            long slack = audioStart - used;
+            inPlace = slack == 0 || (slack >= 4 && slack - 4 <= MAX_BLOCK_LENGTH);
+            if (inPlace) {
+                writeInPlace(channel, blocks, plan, slack == 0 ? -1 : (int) (slack - 4), audioStart);
+            } else {
+                staged = Files.createTempFile(input.toAbsolutePath().getParent(), "codecmedia-flac-", ".tmp");
+                copyPermissions(input, staged);
+                rewrite(channel, plan, audioStart, staged);
+            }
+        } catch (IOException e) {
+            IoCleanup.deleteQuietly(staged);
+            throw new CodecMediaException("Failed to write FLAC metadata: " + input, e);
+        } catch (CodecMediaException e) {
+            IoCleanup.deleteQuietly(staged);
+            throw e;
+        }
+
+        if (staged != null) {
+            try {
+                try {
+                    Files.move(staged, input, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(staged, input, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                IoCleanup.deleteQuietly(staged);
+                throw new CodecMediaException("Failed to replace FLAC file: " + input, e);
+            }
+        }
+        return inPlace;
+    }
+
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        // createTempFile always creates the file owner-only
+        if (Files.getFileStore(from).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+        }
+    }
+
+    /**
+     * Rewrites from the first block whose position or content changes up to the audio start; the
+     * blocks before it (at least STREAMINFO) are left as they are.
+     */
+    private static void writeInPlace(FileChannel channel, List<FlacMetadataBlock> blocks, List<Object> plan,
+                                     int paddingLength, long audioStart) throws IOException {
+        int unchanged = 0;
+        while (unchanged < plan.size() && unchanged < blocks.size()
+                && plan.get(unchanged) == blocks.get(unchanged)
+                && blocks.get(unchanged).last() == (paddingLength < 0 && unchanged == plan.size() - 1)) {
+            unchanged++;
+        }
+        long start = unchanged == 0 ? 4 : blocks.get(unchanged - 1).endOffset();
+
+        ByteBuffer region = ByteBuffer.allocate((int) (audioStart - start));
+        for (int i = unchanged; i < plan.size(); i++) {
+            boolean last = paddingLength < 0 && i == plan.size() - 1;
+            Object item = plan.get(i);
+            if (item instanceof FlacMetadataBlock block) {
+                putBlockHeader(region, block.type(), last, block.length());
+                region.put(ChannelReads.readBytes(channel, block.bodyOffset(), block.length()));
+            } else {
+                byte[] comment = (byte[]) item;
+                putBlockHeader(region, FlacMetadataBlock.VORBIS_COMMENT, last, comment.length);
+                region.put(comment);
+            }
+        }
+        if (paddingLength >= 0) {
+            putBlockHeader(region, FlacMetadataBlock.PADDING, true, paddingLength);
+        }
+        region.position(region.limit());
+        region.flip();
+        long position = start;
+        while (region.hasRemaining()) {
+            position += channel.write(region, position);
+        }
+    }
+
+    private static void rewrite(FileChannel channel, List<Object> plan, long audioStart, Path staged) throws IOException {
+        try (FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer magic = ByteBuffer.wrap(new byte[] {'f', 'L', 'a', 'C'});
+            while (magic.hasRemaining()) {
+                out.write(magic);
+            }
+            for (Object item : plan) {
+                ByteBuffer header = ByteBuffer.allocate(4);
+                if (item instanceof FlacMetadataBlock block) {
+                    putBlockHeader(header, block.type(), false, block.length());
+                    ChannelWrites.writeFully(out, header.flip());
+                    ChannelWrites.transferFully(channel, block.bodyOffset(), block.length(), out);
+                } else {
+                    byte[] comment = (byte[]) item;
+                    putBlockHeader(header, FlacMetadataBlock.VORBIS_COMMENT, false, comment.length);
+                    ChannelWrites.writeFully(out, header.flip());
+                    ChannelWrites.writeFully(out, ByteBuffer.wrap(comment));
+                }
+            }
+            ByteBuffer padding = ByteBuffer.allocate(4 + REWRITE_PADDING_BYTES);
+            putBlockHeader(padding, FlacMetadataBlock.PADDING, true, REWRITE_PADDING_BYTES);
+            padding.position(padding.limit());
+            ChannelWrites.writeFully(out, padding.flip());
+            ChannelWrites.transferFully(channel, audioStart, channel.size() - audioStart, out);
+        }
+    }
+
+    private static String readVendor(FileChannel channel, List<FlacMetadataBlock> blocks) throws IOException {
+        for (FlacMetadataBlock block : blocks) {
+            if (block.type() == FlacMetadataBlock.VORBIS_COMMENT && block.length() >= 4) {
+                byte[] lengthBytes = ChannelReads.readBytes(channel, block.bodyOffset(), 4);
+                long vendorLength = (lengthBytes[0] & 0xFFL) | (lengthBytes[1] & 0xFFL) << 8
+                        | (lengthBytes[2] & 0xFFL) << 16 | (lengthBytes[3] & 0xFFL) << 24;
+                if (vendorLength <= block.length() - 4) {
+                    return new String(ChannelReads.readBytes(channel, block.bodyOffset() + 4, (int) vendorLength),
+                            StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return DEFAULT_VENDOR;
+    }
+
+    static byte[] buildComment(String vendor, Map<String, String> entries) throws CodecMediaException {
+        List<byte[]> fields = new ArrayList<>();
+        Map<String, String> remaining = new TreeMap<>(entries);
+        for (String[] names : FIELD_NAMES) {
+            String value = remaining.remove(names[0]);
+            if (value != null && !value.isEmpty()) {
+                fields.add((names[1] + "=" + value).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        for (Map.Entry<String, String> entry : remaining.entrySet()) {
+            String name = entry.getKey().toUpperCase(Locale.ROOT);
+            if (!entry.getValue().isEmpty() && isValidFieldName(name)) {
+                fields.add((name + "=" + entry.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] vendorBytes = vendor.getBytes(StandardCharsets.UTF_8);
+        writeLeInt(out, vendorBytes.length);
+        out.writeBytes(vendorBytes);
+        writeLeInt(out, fields.size());
+        for (byte[] field : fields) {
+            writeLeInt(out, field.length);
+            out.writeBytes(field);
+        }
+        if (out.size() > MAX_BLOCK_LENGTH) {
+            throw new CodecMediaException("FLAC Vorbis comment exceeds the 16 MiB metadata block limit");
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isValidFieldName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < 0x20 || c > 0x7D || c == '=') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putBlockHeader(ByteBuffer buffer, int type, boolean last, int length) {
+        buffer.put((byte) ((last ? 0x80 : 0) | type));
+        buffer.put((byte) (length >>> 16)).put((byte) (length >>> 8)).put((byte) length);
+    }
+
+    private static void writeLeInt(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
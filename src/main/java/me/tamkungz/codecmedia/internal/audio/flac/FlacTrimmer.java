@@ -0,0 +1,134 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.TrimResult;
+
+/**
+ * Frame-accurate FLAC trim without re-encoding.
+ *
+ * <p>The frame holding the start sample is located through a {@link FlacSeekIndex} (the SEEKTABLE,
+ * or a CRC-verified frame header scan that stops at the start sample when there is none), and then
+ * by walking frames. Only the kept frames are read in full: each one is found by its CRC-16 and the next frame header, renumbered from 0
+ * (frame number or sample number, with header CRC-8 and frame CRC-16 recomputed) and written out.
+ * Metadata blocks are copied except SEEKTABLE and CUESHEET, which would point into dropped audio;
+ * STREAMINFO gets the new sample count and frame size bounds, and its MD5 is cleared to "unknown".
+ */
+public final class FlacTrimmer {
+
+    private static final int STREAMINFO_LENGTH = 34;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 20;
+
+    private FlacTrimmer() {
+    }
+
+    public static TrimResult trim(Path input, Path output, long startMillis, long endMillis) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(in);
+            FlacStreamInfo info = FlacParser.readStreamInfo(in, blocks);
+            long audioEnd = FlacDecoder.audioEnd(in, in.size());
+            int rate = info.sampleRate();
+            long startSample = startMillis * rate / 1000L;
+            long endSample = (endMillis * rate + 999L) / 1000L;
+            if (info.totalSamples() > 0 && startSample >= info.totalSamples()) {
+                throw new CodecMediaException("Trim start is past the end of the input: " + startMillis + " ms");
+            }
+
+            FlacFrameCursor cursor = new FlacFrameCursor(in, info, audioEnd);
+            long searchStart = FlacSeekIndex.build(in, blocks, info, startSample).offsetForSample(startSample);
+            cursor.reset(searchStart >= 0 ? searchStart : info.audioStartOffset());
+            while (cursor.next()) {
+                if (cursor.firstSample() + cursor.header().blockSize() > startSample) {
+                    break;
+                }
+            }
+            if (cursor.header() == null) {
+                throw new CodecMediaException("Trim start is past the end of the input: " + startMillis + " ms");
+            }
+
+            writeMetadata(in, out, blocks);
+            long firstSample = cursor.firstSample();
+            long firstNumber = cursor.header().codedNumber();
+            long samples = 0;
+            int minFrame = Integer.MAX_VALUE;
+            int maxFrame = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_BYTES);
+            do {
+                FlacFrameHeader header = cursor.header();
+                int length = cursor.rewrite(header.codedNumber() - firstNumber, header.variableBlockSize());
+                if (buffer.remaining() < length) {
+                    buffer.flip();
+                    ChannelWrites.writeFully(out, buffer);
+                    buffer.clear();
+                    if (buffer.capacity() < length) {
+                        buffer = ByteBuffer.allocate(length);
+                    }
+                }
+                buffer.put(cursor.rewritten(), 0, length);
+                samples += header.blockSize();
+                minFrame = Math.min(minFrame, length);
+                maxFrame = Math.max(maxFrame, length);
+            } while (firstSample + samples < endSample && cursor.next());
+            buffer.flip();
+            ChannelWrites.writeFully(out, buffer);
+
+            byte[] streamInfo = ChannelReads.readBytes(in, blocks.get(0).bodyOffset(), STREAMINFO_LENGTH);
+            patchStreamInfo(streamInfo, minFrame, maxFrame, samples);
+            ByteBuffer patch = ByteBuffer.wrap(streamInfo);
+            long position = 8;
+            while (patch.hasRemaining()) {
+                position += out.write(patch, position);
+            }
+            return new TrimResult(output, "flac", firstSample * 1000L / rate, (firstSample + samples) * 1000L / rate);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to trim FLAC: " + input, e);
+        }
+    }
+
+    private static void writeMetadata(FileChannel in, FileChannel out, List<FlacMetadataBlock> blocks) throws IOException {
+        List<FlacMetadataBlock> kept = new ArrayList<>();
+        for (FlacMetadataBlock block : blocks) {
+            if (block.type() != FlacMetadataBlock.SEEKTABLE && block.type() != FlacMetadataBlock.CUESHEET) {
+                kept.add(block);
+            }
+        }
+        ChannelWrites.transferFully(in, 0, 4, out);
+        for (int i = 0; i < kept.size(); i++) {
+            FlacMetadataBlock block = kept.get(i);
+            ByteBuffer header = ByteBuffer.allocate(4);
+            header.put((byte) (block.type() | (i == kept.size() - 1 ? 0x80 : 0)));
+            header.put((byte) (block.length() >>> 16)).put((byte) (block.length() >>> 8)).put((byte) block.length());
+            header.flip();
+            ChannelWrites.writeFully(out, header);
+            ChannelWrites.transferFully(in, block.bodyOffset(), block.length(), out);
+        }
+    }
+
+    private static void patchStreamInfo(byte[] body, int minFrame, int maxFrame, long samples) {
+        body[4] = (byte) (minFrame >>> 16);
+        body[5] = (byte) (minFrame >>> 8);
+        body[6] = (byte) minFrame;
+        body[7] = (byte) (maxFrame >>> 16);
+        body[8] = (byte) (maxFrame >>> 8);
+        body[9] = (byte) maxFrame;
+        // Total samples: the low 4 bits of byte 13 and bytes 14-17
+        body[13] = (byte) ((body[13] & 0xF0) | ((samples >>> 32) & 0x0F));
+        body[14] = (byte) (samples >>> 24);
+        body[15] = (byte) (samples >>> 16);
+        body[16] = (byte) (samples >>> 8);
+        body[17] = (byte) samples;
+        Arrays.fill(body, 18, STREAMINFO_LENGTH, (byte) 0);
+    }
+}
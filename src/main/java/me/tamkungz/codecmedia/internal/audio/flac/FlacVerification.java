@@ -0,0 +1,15 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.util.List;
+
+public record FlacVerification(
+        long frameCount,
+        long sampleCount,
+        List<String> warnings,
+        List<String> errors
+) {
+
+    public boolean valid() {
+        return errors.isEmpty();
+    }
+}
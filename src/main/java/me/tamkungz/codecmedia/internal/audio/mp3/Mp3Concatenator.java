@@ -0,0 +1,120 @@
+package me.tamkungz.codecmedia.internal.audio.mp3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.ConcatResult;
+import me.tamkungz.codecmedia.options.ConcatOptions;
+
+/**
+ * Joins MP3 files with the same MPEG version, layer, sample rate and channel count by appending
+ * their frames.
+ *
+ * <p>Each input's frame headers are hopped once to find its audio frames (skipping a source
+ * {@code Xing}/{@code Info}/{@code VBRI} frame and trailing junk), count them and sample a TOC; the
+ * frames are then moved with {@code transferTo} behind one new {@code Xing} frame, or {@code Info}
+ * frame when every frame has the same bitrate. The ID3v2 and ID3v1 tags of the first input are kept
+ * when tags are kept. Per-input LAME encoder delay/padding is not carried over, so joins are not
+ * gapless.
+ */
+public final class Mp3Concatenator {
+
+    private Mp3Concatenator() {
+    }
+
+    public static ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options) throws CodecMediaException {
+        List<long[]> segments = new ArrayList<>(inputs.size());
+        Mp3XingFrame.TocSampler toc = new Mp3XingFrame.TocSampler();
+        byte[] firstHeader = null;
+        Mp3FrameHeader reference = null;
+        long frames = 0;
+        long audioBytes = 0;
+        int bitrate = -1;
+        boolean constantBitrate = true;
+        long firstAudioStart = 0;
+        long firstAudioEnd = 0;
+        for (Path input : inputs) {
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                Mp3FrameScanner scanner = new Mp3FrameScanner(in);
+                long offset = scanner.findFrame(scanner.audioStart(), scanner.audioEnd());
+                if (offset < 0) {
+                    throw new CodecMediaException("No valid MP3 frame found: " + input);
+                }
+                Mp3FrameHeader first = scanner.headerAt(offset);
+                byte[] firstBytes = ChannelReads.readBytes(in, offset, first.frameLength());
+                if (reference == null) {
+                    reference = first;
+                    firstHeader = firstBytes;
+                    firstAudioStart = scanner.audioStart();
+                    firstAudioEnd = scanner.audioEnd();
+                } else if (!compatible(reference, first)) {
+                    throw new CodecMediaException("MP3 inputs have different stream parameters: " + input);
+                }
+                if (Mp3XingFrame.tagOf(firstBytes, first) != null) {
+                    offset += first.frameLength();
+                }
+                long start = offset;
+                Mp3FrameHeader header;
+                while ((header = scanner.headerAt(offset)) != null) {
+                    if (!compatible(reference, header)) {
+                        break;
+                    }
+                    if (bitrate < 0) {
+                        bitrate = header.bitrateKbps();
+                    }
+                    constantBitrate &= header.bitrateKbps() == bitrate;
+                    toc.add(audioBytes + offset - start);
+                    offset += header.frameLength();
+                    frames++;
+                }
+                segments.add(new long[] {start, offset});
+                audioBytes += offset - start;
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to read MP3: " + input, e);
+            }
+        }
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < inputs.size(); i++) {
+                try (FileChannel in = FileChannel.open(inputs.get(i), StandardOpenOption.READ)) {
+                    if (i == 0) {
+                        if (options.keepTags()) {
+                            ChannelWrites.transferFully(in, 0, firstAudioStart, out);
+                        }
+                        byte[] xing = Mp3XingFrame.build(firstHeader, constantBitrate ? "Info" : "Xing", frames, audioBytes, toc);
+                        if (xing != null) {
+                            ChannelWrites.writeFully(out, ByteBuffer.wrap(xing));
+                        }
+                    }
+                    long[] segment = segments.get(i);
+                    ChannelWrites.transferFully(in, segment[0], segment[1] - segment[0], out);
+                } catch (IOException e) {
+                    throw new CodecMediaException("Failed to concatenate MP3: " + inputs.get(i), e);
+                }
+            }
+            if (options.keepTags()) {
+                try (FileChannel in = FileChannel.open(inputs.get(0), StandardOpenOption.READ)) {
+                    ChannelWrites.transferFully(in, firstAudioEnd, in.size() - firstAudioEnd, out);
+                }
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to concatenate MP3: " + output, e);
+        }
+        long samples = frames * reference.samplesPerFrame();
+        return new ConcatResult(output, "mp3", inputs.size(), samples * 1000L / reference.sampleRate());
+    }
+
+    private static boolean compatible(Mp3FrameHeader a, Mp3FrameHeader b) {
+        return a.versionBits() == b.versionBits() && a.layerBits() == b.layerBits() && a.sampleRate() == b.sampleRate()
+                && a.channels() == b.channels();
+    }
+}
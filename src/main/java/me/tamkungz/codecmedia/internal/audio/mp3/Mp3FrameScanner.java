@@ -0,0 +1,93 @@
+package me.tamkungz.codecmedia.internal.audio.mp3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Locates the MPEG audio region of a file (between the ID3v2 and ID3v1 tags) and hops its frame
+ * headers without reading frame payloads.
+ */
+final class Mp3FrameScanner {
+
+    private static final int SYNC_SEARCH_BYTES = 64 * 1024;
+
+    private final FileChannel in;
+    private final long audioStart;
+    private final long audioEnd;
+    private final ByteBuffer scratch = ByteBuffer.allocate(4);
+
+    Mp3FrameScanner(FileChannel in) throws IOException {
+        this.in = in;
+        long fileSize = in.size();
+        this.audioStart = id3v2Size(in, fileSize);
+        long end = fileSize;
+        if (fileSize - audioStart >= 128
+                && "TAG".equals(new String(ChannelReads.readBytes(in, fileSize - 128, 3), StandardCharsets.US_ASCII))) {
+            end = fileSize - 128;
+        }
+        this.audioEnd = end;
+    }
+
+    /** End of the ID3v2 tag, or 0. */
+    long audioStart() {
+        return audioStart;
+    }
+
+    /** Start of the ID3v1 tag, or the file size. */
+    long audioEnd() {
+        return audioEnd;
+    }
+
+    /**
+     * First offset in {@code [from, limit)} holding a frame header followed by another one (or by the
+     * end of the audio), or -1.
+     */
+    long findFrame(long from, long limit) throws IOException {
+        int window = (int) Math.min(SYNC_SEARCH_BYTES + 3L, audioEnd - from);
+        if (window < 4) {
+            return -1;
+        }
+        byte[] bytes = ChannelReads.readBytes(in, from, window);
+        int searchEnd = (int) Math.min(window - 3, limit - from);
+        for (int i = 0; i < searchEnd; i++) {
+            Mp3FrameHeader header = Mp3Parser.parseFrameHeader(bytes, i);
+            if (header == null) {
+                continue;
+            }
+            long next = from + i + header.frameLength();
+            Mp3FrameHeader following = headerAt(next);
+            if (next == audioEnd || (following != null && following.versionBits() == header.versionBits()
+                    && following.sampleRate() == header.sampleRate())) {
+                return from + i;
+            }
+        }
+        return -1;
+    }
+
+    /** The frame header at {@code offset} when the whole frame lies inside the audio, else {@code null}. */
+    Mp3FrameHeader headerAt(long offset) throws IOException {
+        if (offset < 0 || offset + 4 > audioEnd) {
+            return null;
+        }
+        scratch.clear();
+        ChannelReads.readFully(in, offset, scratch);
+        Mp3FrameHeader header = Mp3Parser.parseFrameHeader(scratch.array(), 0);
+        return header != null && offset + header.frameLength() <= audioEnd ? header : null;
+    }
+
+    private static long id3v2Size(FileChannel in, long fileSize) throws IOException {
+        if (fileSize < 10) {
+            return 0;
+        }
+        byte[] header = ChannelReads.readBytes(in, 0, 10);
+        if (header[0] != 'I' || header[1] != 'D' || header[2] != '3') {
+            return 0;
+        }
+        long size = ((header[6] & 0x7F) << 21) | ((header[7] & 0x7F) << 14) | ((header[8] & 0x7F) << 7) | (header[9] & 0x7F);
+        return Math.min(fileSize, 10 + size + ((header[5] & 0x10) != 0 ? 10 : 0));
+    }
+}
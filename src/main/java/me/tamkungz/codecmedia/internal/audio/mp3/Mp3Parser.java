@@ -121,7 +121,7 @@ public final class Mp3Parser {
         return false;
     }
 
-    private static Mp3FrameHeader parseFrameHeader(byte[] data, int offset) {
+    static Mp3FrameHeader parseFrameHeader(byte[] data, int offset) {
         if (offset < 0 || offset + 4 > data.length) {
             return null;
         }
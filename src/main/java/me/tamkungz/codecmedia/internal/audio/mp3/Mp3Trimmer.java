@@ -0,0 +1,135 @@
+package me.tamkungz.codecmedia.internal.audio.mp3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.TrimResult;
+
+/**
+ * Frame-accurate MP3 trim without re-encoding.
+ *
+ * <p>The start frame is found arithmetically for CBR streams (no tag frame, or a LAME {@code Info}
+ * frame) and resynchronized on a chain of valid headers; VBR streams are walked by hopping 4-byte
+ * frame headers, so frame payloads are never read. The kept frames are copied with
+ * {@code transferTo}, together with the ID3v2 and ID3v1 tags. A source {@code Xing}/{@code Info}/
+ * {@code VBRI} frame is replaced by a new {@code Xing}/{@code Info} frame with the kept frame count,
+ * byte count and a TOC sampled during the same header walk; its LAME extension (encoder
+ * delay/padding) is not carried over. The first kept frame may reference bit-reservoir data of a
+ * dropped frame, so decoders may render its first granule as silence.
+ */
+public final class Mp3Trimmer {
+
+    private Mp3Trimmer() {
+    }
+
+    public static TrimResult trim(Path input, Path output, long startMillis, long endMillis) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long fileSize = in.size();
+            Mp3FrameScanner scanner = new Mp3FrameScanner(in);
+            long audioStart = scanner.audioStart();
+            long audioEnd = scanner.audioEnd();
+            long firstFrame = scanner.findFrame(audioStart, audioEnd);
+            if (firstFrame < 0) {
+                throw new CodecMediaException("No valid MP3 frame found");
+            }
+            Mp3FrameHeader first = scanner.headerAt(firstFrame);
+            byte[] firstBytes = ChannelReads.readBytes(in, firstFrame, first.frameLength());
+            String tag = Mp3XingFrame.tagOf(firstBytes, first);
+            long firstAudio = tag != null ? firstFrame + first.frameLength() : firstFrame;
+
+            int samplesPerFrame = first.samplesPerFrame();
+            int sampleRate = first.sampleRate();
+            long startIndex = startMillis * sampleRate / (1000L * samplesPerFrame);
+            long endIndex = ceilDiv(endMillis * sampleRate, 1000L * samplesPerFrame);
+
+            long startOffset = -1;
+            if (tag == null || "Info".equals(tag)) {
+                startOffset = seekConstantBitrate(scanner, first, firstAudio, startIndex);
+            }
+            if (startOffset < 0) {
+                startOffset = walk(scanner, firstAudio, startIndex);
+            }
+            if (startOffset < 0) {
+                throw new CodecMediaException("Trim start is past the end of the input: " + startMillis + " ms");
+            }
+
+            long endOffset = startOffset;
+            long kept = 0;
+            Mp3XingFrame.TocSampler toc = new Mp3XingFrame.TocSampler();
+            while (startIndex + kept < endIndex) {
+                Mp3FrameHeader header = scanner.headerAt(endOffset);
+                if (header == null) {
+                    break;
+                }
+                toc.add(endOffset - startOffset);
+                endOffset += header.frameLength();
+                kept++;
+            }
+
+            ChannelWrites.transferFully(in, 0, audioStart, out);
+            if (tag != null) {
+                byte[] xing = Mp3XingFrame.build(firstBytes, "Info".equals(tag) ? "Info" : "Xing", kept,
+                        endOffset - startOffset, toc);
+                if (xing != null) {
+                    ChannelWrites.writeFully(out, ByteBuffer.wrap(xing));
+                }
+            }
+            ChannelWrites.transferFully(in, startOffset, endOffset - startOffset, out);
+            ChannelWrites.transferFully(in, audioEnd, fileSize - audioEnd, out);
+
+            long startSample = startIndex * samplesPerFrame;
+            long endSample = (startIndex + kept) * samplesPerFrame;
+            return new TrimResult(output, "mp3", startSample * 1000L / sampleRate, endSample * 1000L / sampleRate);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to trim MP3: " + input, e);
+        }
+    }
+
+    /**
+     * Locates frame {@code index} of a constant-bitrate stream from its nominal frame length; padding
+     * puts the real start within a byte or two of the estimate.
+     *
+     * @return the frame offset, or -1 when the stream does not look CBR there
+     */
+    private static long seekConstantBitrate(Mp3FrameScanner scanner, Mp3FrameHeader first, long firstAudio, long index)
+            throws IOException {
+        if (index == 0) {
+            return firstAudio;
+        }
+        double frameBytes = (first.versionBits() == 0b11 ? 144_000.0 : 72_000.0) * first.bitrateKbps() / first.sampleRate();
+        long estimate = firstAudio + (long) (index * frameBytes);
+        if (estimate >= scanner.audioEnd()) {
+            return -1;
+        }
+        long found = scanner.findFrame(Math.max(firstAudio, estimate - 2), Math.min(scanner.audioEnd(), estimate + 3));
+        if (found < 0) {
+            return -1;
+        }
+        Mp3FrameHeader header = scanner.headerAt(found);
+        return header.bitrateKbps() == first.bitrateKbps() ? found : -1;
+    }
+
+    /** Hops frame headers from {@code offset}; returns the offset of frame {@code index}, or -1 past the end. */
+    private static long walk(Mp3FrameScanner scanner, long offset, long index) throws IOException {
+        for (long i = 0; i < index; i++) {
+            Mp3FrameHeader header = scanner.headerAt(offset);
+            if (header == null) {
+                return -1;
+            }
+            offset += header.frameLength();
+        }
+        return scanner.headerAt(offset) != null ? offset : -1;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return value > Long.MAX_VALUE - divisor ? Long.MAX_VALUE / divisor : (value + divisor - 1) / divisor;
+    }
+}
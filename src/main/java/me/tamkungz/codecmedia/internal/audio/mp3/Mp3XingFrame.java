@@ -0,0 +1,123 @@
+package me.tamkungz.codecmedia.internal.audio.mp3;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Builds {@code Xing}/{@code Info} tag frames for MP3 streams assembled from copied frames.
+ *
+ * <p>The tag frame takes the version, sample rate and channel mode of a source frame header, with
+ * the CRC bit cleared and the bitrate raised until the frame holds the frame count, byte count and
+ * 100-entry TOC.
+ */
+final class Mp3XingFrame {
+
+    private static final int FLAG_FRAMES = 0x1;
+    private static final int FLAG_BYTES = 0x2;
+    private static final int FLAG_TOC = 0x4;
+    private static final int TAG_FIELDS_BYTES = 4 + 4 + 4 + 4 + 100;
+
+    private Mp3XingFrame() {
+    }
+
+    /** {@code "Xing"}, {@code "Info"} or {@code "VBRI"} when the frame is a VBR tag frame, else {@code null}. */
+    static String tagOf(byte[] frame, Mp3FrameHeader header) {
+        int xingOffset = 4 + sideInfoSize(header);
+        if (xingOffset + 4 <= frame.length) {
+            String tag = new String(frame, xingOffset, 4, StandardCharsets.US_ASCII);
+            if ("Xing".equals(tag) || "Info".equals(tag)) {
+                return tag;
+            }
+        }
+        if (40 <= frame.length && "VBRI".equals(new String(frame, 36, 4, StandardCharsets.US_ASCII))) {
+            return "VBRI";
+        }
+        return null;
+    }
+
+    /**
+     * @param sourceHeader the 4 header bytes of a frame of the stream
+     * @param tag {@code "Xing"} for VBR streams, {@code "Info"} for CBR streams
+     * @param frames number of audio frames after the tag frame
+     * @param audioBytes bytes of those frames
+     * @param toc the sampled frame offsets of the audio frames
+     * @return the tag frame, or {@code null} when no bitrate gives a frame large enough
+     */
+    static byte[] build(byte[] sourceHeader, String tag, long frames, long audioBytes, TocSampler toc) {
+        byte[] header = Arrays.copyOf(sourceHeader, 4);
+        header[1] |= 0x01;
+        header[2] &= (byte) 0x0D;
+        Mp3FrameHeader parsed = null;
+        for (int index = (sourceHeader[2] & 0xF0) >>> 4; index <= 14; index++) {
+            header[2] = (byte) ((header[2] & 0x0F) | (index << 4));
+            parsed = Mp3Parser.parseFrameHeader(header, 0);
+            if (parsed != null && parsed.frameLength() >= 4 + sideInfoSize(parsed) + TAG_FIELDS_BYTES) {
+                break;
+            }
+            parsed = null;
+        }
+        if (parsed == null) {
+            return null;
+        }
+
+        byte[] frame = new byte[parsed.frameLength()];
+        System.arraycopy(header, 0, frame, 0, 4);
+        long bytes = frame.length + audioBytes;
+        ByteBuffer fields = ByteBuffer.wrap(frame, 4 + sideInfoSize(parsed), TAG_FIELDS_BYTES);
+        fields.put(tag.getBytes(StandardCharsets.US_ASCII));
+        fields.putInt(FLAG_FRAMES | FLAG_BYTES | (frames > 0 ? FLAG_TOC : 0));
+        fields.putInt((int) Math.min(frames, 0xFFFFFFFFL));
+        fields.putInt((int) Math.min(bytes, 0xFFFFFFFFL));
+        if (frames > 0) {
+            for (int i = 0; i < 100; i++) {
+                long offset = frame.length + toc.offsetAt(i * frames / 100);
+                fields.put((byte) Math.min(255, offset * 256 / bytes));
+            }
+        }
+        return frame;
+    }
+
+    static int sideInfoSize(Mp3FrameHeader header) {
+        return header.versionBits() == 0b11
+                ? (header.channels() == 1 ? 17 : 32)
+                : (header.channels() == 1 ? 9 : 17);
+    }
+
+    /**
+     * Records the byte offset of every {@code stride}-th frame in a fixed-size table, doubling the
+     * stride when the table fills, so a TOC can be built after one header walk of any length.
+     */
+    static final class TocSampler {
+
+        private final long[] offsets = new long[1024];
+        private int count;
+        private long stride = 1;
+        private long frames;
+
+        /** Adds the next frame, at {@code offset} bytes from the first audio frame. */
+        void add(long offset) {
+            if (frames % stride == 0) {
+                if (count == offsets.length) {
+                    for (int i = 0; i < count / 2; i++) {
+                        offsets[i] = offsets[i * 2];
+                    }
+                    count /= 2;
+                    stride *= 2;
+                }
+                if (frames % stride == 0) {
+                    offsets[count++] = offset;
+                }
+            }
+            frames++;
+        }
+
+        /** Offset of the closest recorded frame at or before {@code frame}. */
+        long offsetAt(long frame) {
+            if (count == 0) {
+                return 0;
+            }
+            return offsets[(int) Math.min(count - 1, frame / stride)];
+        }
+    }
+}
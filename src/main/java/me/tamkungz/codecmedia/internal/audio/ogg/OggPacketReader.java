@@ -0,0 +1,269 @@
+package me.tamkungz.codecmedia.internal.audio.ogg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.PacketReader;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.model.Packet;
+
+/**
+ * Ogg packet reader walking page headers and lacing tables.
+ * <p>
+ * A packet that continues across pages is kept as a list of byte spans, so iterating reads only the
+ * 27-byte page headers and their lacing tables. Packets are returned in the order they complete.
+ * Tracks number logical streams in order of appearance, starting at 1. Ogg only stamps pages: the
+ * last packet completed on a page gets the page granule and earlier ones the stream's previous
+ * granule, with {@code dts} equal to {@code pts}. The timescale is the sample rate for Vorbis, Opus
+ * (48 kHz) and FLAC streams and {@code 1} for other codecs. Page CRCs are not checked and an
+ * unfinished packet at the end of the file is dropped. The reader owns and closes the channel.
+ */
+public final class OggPacketReader implements PacketReader {
+
+    private static final int PAGE_HEADER_BYTES = 27;
+    private static final int FLAG_CONTINUED = 0x01;
+
+    private final SeekableByteChannel channel;
+    private final long channelSize;
+    private final Map<Integer, Stream> streams = new HashMap<>();
+    private final ByteBuffer pageHeader = ByteBuffer.allocate(PAGE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer identHeader = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] lacing = new byte[255];
+
+    private long nextPage;
+    private Stream pageStream;
+    private long pageGranule;
+    private int segmentCount;
+    private int segmentIndex;
+    private int lastCompleteSegment;
+    private long segmentOffset;
+
+    private long[] spanOffsets = new long[4];
+    private int[] spanLengths = new int[4];
+    private int spanCount;
+    private Packet current;
+
+    public OggPacketReader(SeekableByteChannel channel) throws CodecMediaException {
+        this.channel = channel;
+        try {
+            this.channelSize = channel.size();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read OGG stream size", e);
+        }
+        if (channelSize < PAGE_HEADER_BYTES || !readPageHeader(0)) {
+            throw new CodecMediaException("Invalid OGG stream: missing OggS header");
+        }
+    }
+
+    @Override
+    public Packet next() throws CodecMediaException {
+        while (true) {
+            while (segmentIndex < segmentCount) {
+                Stream stream = pageStream;
+                int value = lacing[segmentIndex] & 0xFF;
+                stream.append(segmentOffset, value);
+                segmentOffset += value;
+                int segment = segmentIndex++;
+                if (value == 255) {
+                    continue;
+                }
+                if (stream.skipping) {
+                    // Tail of a packet whose start precedes the first page read
+                    stream.skipping = false;
+                    stream.spanCount = 0;
+                    continue;
+                }
+                long pts = segment == lastCompleteSegment ? pageGranule : stream.granule;
+                current = complete(stream, pts);
+                return current;
+            }
+            if (pageStream != null && lastCompleteSegment >= 0 && pageGranule >= 0) {
+                pageStream.granule = pageGranule;
+            }
+            if (nextPage + PAGE_HEADER_BYTES > channelSize || !readPageHeader(nextPage)) {
+                current = null;
+                return null;
+            }
+        }
+    }
+
+    /** Hands the stream's spans over to the current packet, swapping arrays instead of copying. */
+    private Packet complete(Stream stream, long pts) throws CodecMediaException {
+        long[] offsets = spanOffsets;
+        int[] lengths = spanLengths;
+        spanOffsets = stream.spanOffsets;
+        spanLengths = stream.spanLengths;
+        spanCount = stream.spanCount;
+        stream.spanOffsets = offsets;
+        stream.spanLengths = lengths;
+        stream.spanCount = 0;
+
+        long size = 0;
+        for (int i = 0; i < spanCount; i++) {
+            size += spanLengths[i];
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new CodecMediaException("OGG packet too large: " + size + " bytes");
+        }
+        if (stream.timescale == 0) {
+            stream.timescale = detectTimescale();
+        }
+        return new Packet(stream.track, Math.max(0, pts), Math.max(0, pts), true,
+                spanOffsets[0], (int) size, stream.timescale);
+    }
+
+    /** Sample rate from an identification packet; {@code 1} when the codec is not recognized. */
+    private long detectTimescale() throws CodecMediaException {
+        identHeader.clear().limit(Math.min(identHeader.capacity(), spanLengths[0]));
+        read(spanOffsets[0], identHeader);
+        identHeader.flip();
+        int length = identHeader.limit();
+        if (length >= 16 && startsWith(identHeader, 0, (byte) 0x01, "vorbis")) {
+            return identHeader.getInt(12) & 0xFFFFFFFFL;
+        }
+        if (length >= 8 && startsWith(identHeader, -1, (byte) 0, "OpusHead")) {
+            return 48_000;
+        }
+        if (length >= 30 && startsWith(identHeader, 0, (byte) 0x7F, "FLAC")) {
+            // Mapping header (13 bytes) + metadata block header (4) + STREAMINFO: rate is 20 bits at byte 10
+            int b0 = identHeader.get(27) & 0xFF;
+            int b1 = identHeader.get(28) & 0xFF;
+            int b2 = identHeader.get(29) & 0xFF;
+            return ((long) b0 << 12) | (b1 << 4) | (b2 >>> 4);
+        }
+        return 1;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int typeIndex, byte type, String magic) {
+        if (typeIndex >= 0 && buffer.get(typeIndex) != type) {
+            return false;
+        }
+        int start = typeIndex + 1;
+        for (int i = 0; i < magic.length(); i++) {
+            if (buffer.get(start + i) != (byte) magic.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads the page at {@code offset}; false when it is truncated by the end of the file.
+     */
+    private boolean readPageHeader(long offset) throws CodecMediaException {
+        pageHeader.clear();
+        read(offset, pageHeader);
+        if (pageHeader.getInt(0) != 0x5367674F || pageHeader.get(4) != 0) {
+            throw new CodecMediaException("Invalid OGG page at offset " + offset);
+        }
+        int flags = pageHeader.get(5) & 0xFF;
+        int serial = pageHeader.getInt(14);
+        int count = pageHeader.get(26) & 0xFF;
+        if (offset + PAGE_HEADER_BYTES + count > channelSize) {
+            return false;
+        }
+        read(offset + PAGE_HEADER_BYTES, ByteBuffer.wrap(lacing, 0, count));
+        long payloadSize = 0;
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            int value = lacing[i] & 0xFF;
+            payloadSize += value;
+            if (value < 255) {
+                last = i;
+            }
+        }
+        long payloadOffset = offset + PAGE_HEADER_BYTES + count;
+        if (payloadOffset + payloadSize > channelSize) {
+            return false;
+        }
+
+        Stream stream = pageStream != null && pageStream.serial == serial ? pageStream : streams.get(serial);
+        if (stream == null) {
+            stream = new Stream(serial, streams.size() + 1);
+            streams.put(serial, stream);
+            stream.skipping = (flags & FLAG_CONTINUED) != 0;
+        } else if ((flags & FLAG_CONTINUED) == 0 && stream.spanCount > 0) {
+            // A fresh packet starts while one is pending: the pending one can never complete
+            stream.spanCount = 0;
+            stream.skipping = false;
+        }
+        pageStream = stream;
+        pageGranule = pageHeader.getLong(6);
+        segmentCount = count;
+        segmentIndex = 0;
+        lastCompleteSegment = last;
+        segmentOffset = payloadOffset;
+        nextPage = payloadOffset + payloadSize;
+        return true;
+    }
+
+    @Override
+    public void readPayload(ByteBuffer target) throws CodecMediaException {
+        if (current == null) {
+            throw new CodecMediaException("No current packet to read");
+        }
+        if (target.remaining() < current.size()) {
+            throw new CodecMediaException("Buffer too small for packet: " + target.remaining() + " < " + current.size());
+        }
+        int position = target.position();
+        for (int i = 0; i < spanCount; i++) {
+            read(spanOffsets[i], target.slice(position, spanLengths[i]));
+            position += spanLengths[i];
+        }
+        target.position(position);
+    }
+
+    private void read(long offset, ByteBuffer buffer) throws CodecMediaException {
+        try {
+            ChannelReads.readFully(channel, offset, buffer);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read OGG data at offset " + offset, e);
+        }
+    }
+
+    @Override
+    public void close() throws CodecMediaException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to close packet reader", e);
+        }
+    }
+
+    private static final class Stream {
+        private final int serial;
+        private final int track;
+        private long granule;
+        private long timescale;
+        private boolean skipping;
+        private long[] spanOffsets = new long[4];
+        private int[] spanLengths = new int[4];
+        private int spanCount;
+
+        private Stream(int serial, int track) {
+            this.serial = serial;
+            this.track = track;
+        }
+
+        /** Adds a lacing segment, extending the last span when the bytes are contiguous. */
+        private void append(long offset, int length) {
+            if (spanCount > 0 && spanOffsets[spanCount - 1] + spanLengths[spanCount - 1] == offset) {
+                spanLengths[spanCount - 1] += length;
+                return;
+            }
+            if (spanCount == spanOffsets.length) {
+                spanOffsets = Arrays.copyOf(spanOffsets, spanCount * 2);
+                spanLengths = Arrays.copyOf(spanLengths, spanCount * 2);
+            }
+            spanOffsets[spanCount] = offset;
+            spanLengths[spanCount] = length;
+            spanCount++;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package me.tamkungz.codecmedia.internal.audio.ogg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams packets of one logical bitstream into Ogg pages with lacing, granule positions and
+ * page CRCs.
+ * <p>
+ * Packets are laced into a page until it would exceed 255 segments or about
+ * {@value #TARGET_PAGE_BYTES} payload bytes; packets larger than a page continue on the next one.
+ * The granule position of a page is that of the last packet completed on it, or {@code -1} when no
+ * packet ends there. {@link #flush()} forces a page boundary (header packets must start a page);
+ * {@link #finish()} writes the last page with the end-of-stream flag. Not thread-safe.
+ */
+public final class OggPageWriter {
+
+    public static final int FLAG_CONTINUED = 0x01;
+    public static final int FLAG_BOS = 0x02;
+    public static final int FLAG_EOS = 0x04;
+
+    private static final int TARGET_PAGE_BYTES = 4096;
+    private static final int MAX_SEGMENTS = 255;
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int r = i << 24;
+            for (int bit = 0; bit < 8; bit++) {
+                r = (r & 0x80000000) != 0 ? (r << 1) ^ 0x04C11DB7 : r << 1;
+            }
+            CRC_TABLE[i] = r;
+        }
+    }
+
+    private final WritableByteChannel out;
+    private final int serial;
+    private final byte[] lacing = new byte[MAX_SEGMENTS];
+    private final ByteBuffer header = ByteBuffer.allocate(27 + MAX_SEGMENTS).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer body = ByteBuffer.allocate(MAX_SEGMENTS * 255);
+    private int segments;
+    private long sequence;
+    private long granule = -1;
+    private long lastGranule;
+    private boolean continued;
+    private boolean started;
+    private boolean finished;
+
+    public OggPageWriter(WritableByteChannel out, int serial) {
+        this.out = out;
+        this.serial = serial;
+    }
+
+    public void writePacket(byte[] packet, long granulePosition) throws IOException {
+        writePacket(ByteBuffer.wrap(packet), granulePosition);
+    }
+
+    /**
+     * Appends the remaining bytes of {@code packet} as one packet ending at {@code granulePosition}.
+     */
+    public void writePacket(ByteBuffer packet, long granulePosition) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Ogg stream already finished");
+        }
+        if (body.position() >= TARGET_PAGE_BYTES) {
+            writePage(false);
+        }
+        while (true) {
+            int room = MAX_SEGMENTS - segments;
+            if (room == 0) {
+                writePage(false);
+                continue;
+            }
+            int length = packet.remaining();
+            int needed = length / 255 + 1;
+            if (needed <= room) {
+                for (int i = 0; i < needed - 1; i++) {
+                    lacing[segments++] = (byte) 255;
+                }
+                lacing[segments++] = (byte) (length % 255);
+                body.put(packet);
+                granule = granulePosition;
+                lastGranule = granulePosition;
+                return;
+            }
+            int chunk = room * 255;
+            for (int i = 0; i < room; i++) {
+                lacing[segments++] = (byte) 255;
+            }
+            body.put(packet.slice(packet.position(), chunk));
+            packet.position(packet.position() + chunk);
+            writePage(false);
+            continued = true;
+        }
+    }
+
+    /** Ends the current page, if it holds any segments. */
+    public void flush() throws IOException {
+        if (segments > 0) {
+            writePage(false);
+        }
+    }
+
+    /** Writes the remaining segments as the end-of-stream page (an empty one if none are pending). */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (segments == 0) {
+            granule = lastGranule;
+        }
+        writePage(true);
+        finished = true;
+    }
+
+    public long pagesWritten() {
+        return sequence;
+    }
+
+    private void writePage(boolean last) throws IOException {
+        int flags = (continued ? FLAG_CONTINUED : 0) | (started ? 0 : FLAG_BOS) | (last ? FLAG_EOS : 0);
+        header.clear();
+        header.put((byte) 'O').put((byte) 'g').put((byte) 'g').put((byte) 'S');
+        header.put((byte) 0);
+        header.put((byte) flags);
+        header.putLong(granule);
+        header.putInt(serial);
+        header.putInt((int) sequence);
+        header.putInt(0);
+        header.put((byte) segments);
+        header.put(lacing, 0, segments);
+        header.flip();
+        body.flip();
+        int crc = crc(0, header.array(), 0, header.limit());
+        crc = crc(crc, body.array(), 0, body.limit());
+        header.putInt(22, crc);
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+        while (body.hasRemaining()) {
+            out.write(body);
+        }
+        body.clear();
+        segments = 0;
+        granule = -1;
+        continued = false;
+        started = true;
+        sequence++;
+    }
+
+    /**
+     * Updates an Ogg page checksum (CRC-32, polynomial 0x04C11DB7, no reflection, zero initial value).
+     */
+    public static int crc(int crc, byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ data[i]) & 0xFF];
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,250 @@
+package me.tamkungz.codecmedia.internal.audio.ogg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.TrimResult;
+
+/**
+ * Page-accurate trim of the first Vorbis or Opus stream of an Ogg file, without re-encoding.
+ *
+ * <p>Page headers are hopped to find the last packet-aligned page before the start and the first
+ * page reaching the end, so only the kept pages are read in full. Header pages are copied; kept audio
+ * pages are rewritten with contiguous sequence numbers, granules rebased to the cut, the end-of-stream
+ * flag on the last page (whose granule is lowered to the requested end so decoders drop the excess
+ * samples) and recomputed CRCs. For Opus, decoding starts {@value #OPUS_PRE_ROLL} samples early to
+ * let the decoder converge, and the OpusHead pre-skip is raised so playback starts at the requested
+ * sample; Vorbis streams start at the page boundary. Pages of other logical streams are dropped.
+ */
+public final class OggTrimmer {
+
+    private static final int PAGE_HEADER_BYTES = 27;
+    private static final int OPUS_PRE_ROLL = 3840;
+    private static final int OPUS_RATE = 48_000;
+
+    private OggTrimmer() {
+    }
+
+    public static TrimResult trim(Path input, Path output, long startMillis, long endMillis) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            byte[] lacing = new byte[255];
+            OggPageHeader first = readPage(in, 0, size, lacing);
+            if (first == null || (first.headerType() & OggPageWriter.FLAG_BOS) == 0) {
+                throw new CodecMediaException("Invalid OGG stream: missing OggS header");
+            }
+            long serial = first.serialNumber();
+            byte[] ident = ChannelReads.readBytes(in, first.headerSize(), Math.min(first.payloadSize(), 32));
+            boolean opus = startsWith(ident, "OpusHead");
+            boolean vorbis = ident.length >= 16 && ident[0] == 1 && startsWith(ident, 1, "vorbis");
+            if (!opus && !vorbis) {
+                throw new CodecMediaException("Ogg trim supports Vorbis and Opus streams only");
+            }
+            ByteBuffer identBuffer = ByteBuffer.wrap(ident).order(ByteOrder.LITTLE_ENDIAN);
+            long rate = opus ? OPUS_RATE : identBuffer.getInt(12) & 0xFFFFFFFFL;
+            int preSkip = opus ? identBuffer.getShort(10) & 0xFFFF : 0;
+            if (rate <= 0) {
+                throw new CodecMediaException("Invalid OGG stream: sample rate is missing");
+            }
+            int headerPackets = opus ? 2 : 3;
+            long startGranule = preSkip + startMillis * rate / 1000L;
+            long endGranule = preSkip + (endMillis * rate + 999L) / 1000L;
+            long decodeFrom = opus ? Math.max(0, startGranule - OPUS_PRE_ROLL) : startGranule;
+
+            // Pass 1: hop page headers to the end of the header packets, the cut page and the end page
+            long offset = 0;
+            int packets = 0;
+            long headerEnd = -1;
+            long cutOffset = -1;
+            long cutGranule = 0;
+            long endOffset = -1;
+            long previousGranule = 0;
+            OggPageHeader page;
+            while ((page = readPage(in, offset, size, lacing)) != null) {
+                long pageOffset = offset;
+                offset += page.totalPageSize();
+                if (page.serialNumber() != serial) {
+                    continue;
+                }
+                if (headerEnd < 0) {
+                    packets += completedPackets(lacing, page.segmentCount());
+                    if (packets >= headerPackets) {
+                        if (packets > headerPackets || (page.segmentCount() > 0 && lacing[page.segmentCount() - 1] == (byte) 255)) {
+                            throw new CodecMediaException("Invalid OGG stream: audio data shares a page with headers");
+                        }
+                        headerEnd = offset;
+                    }
+                    continue;
+                }
+                if ((page.headerType() & OggPageWriter.FLAG_CONTINUED) == 0
+                        && (cutOffset < 0 || previousGranule <= decodeFrom)) {
+                    cutOffset = pageOffset;
+                    cutGranule = previousGranule;
+                }
+                if (page.granulePosition() >= 0) {
+                    previousGranule = page.granulePosition();
+                }
+                if (cutOffset >= 0 && page.granulePosition() >= endGranule) {
+                    endOffset = pageOffset;
+                    break;
+                }
+                endOffset = pageOffset;
+            }
+            if (headerEnd < 0) {
+                throw new CodecMediaException("Invalid OGG stream: header packets are incomplete");
+            }
+            if (cutOffset < 0 || previousGranule <= startGranule) {
+                throw new CodecMediaException("Trim start is past the end of the input: " + startMillis + " ms");
+            }
+
+            long newPreSkip = opus ? Math.min(0xFFFF, startGranule - cutGranule) : 0;
+            long finalGranule = Math.min(previousGranule, endGranule);
+
+            // Pass 2: copy the header pages, then rewrite the kept audio pages
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_HEADER_BYTES + 255 + 255 * 255).order(ByteOrder.LITTLE_ENDIAN);
+            long sequence = 0;
+            offset = 0;
+            while (offset < headerEnd) {
+                page = readPage(in, offset, size, lacing);
+                if (page.serialNumber() == serial) {
+                    if (offset == 0 && opus && newPreSkip != preSkip) {
+                        loadPage(in, offset, page, buffer);
+                        buffer.putShort(page.headerSize() + 10, (short) newPreSkip);
+                        writePage(out, buffer, page.totalPageSize());
+                    } else {
+                        ChannelWrites.transferFully(in, offset, page.totalPageSize(), out);
+                    }
+                    sequence = page.sequenceNumber() + 1;
+                }
+                offset += page.totalPageSize();
+            }
+            offset = cutOffset;
+            while (offset <= endOffset) {
+                page = readPage(in, offset, size, lacing);
+                if (page.serialNumber() == serial) {
+                    loadPage(in, offset, page, buffer);
+                    int length = page.totalPageSize();
+                    int flags = page.headerType() & OggPageWriter.FLAG_CONTINUED;
+                    long granule = page.granulePosition();
+                    if (offset == endOffset) {
+                        flags |= OggPageWriter.FLAG_EOS;
+                        granule = finalGranule;
+                        length = dropTrailingPartialPacket(buffer, page);
+                    }
+                    buffer.put(5, (byte) flags);
+                    buffer.putLong(6, granule >= 0 ? granule - cutGranule : -1);
+                    buffer.putInt(18, (int) sequence++);
+                    writePage(out, buffer, length);
+                }
+                offset += page.totalPageSize();
+            }
+
+            long startSample = cutGranule + newPreSkip - preSkip;
+            return new TrimResult(output, "ogg", Math.max(0, startSample) * 1000L / rate,
+                    Math.max(0, finalGranule - preSkip) * 1000L / rate);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to trim OGG: " + input, e);
+        }
+    }
+
+    /**
+     * Reads the page header and lacing table at {@code offset}; {@code null} at the end of the file or
+     * when the page is truncated.
+     */
+    private static OggPageHeader readPage(FileChannel in, long offset, long size, byte[] lacing)
+            throws IOException, CodecMediaException {
+        if (offset + PAGE_HEADER_BYTES > size) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(PAGE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ChannelReads.readFully(in, offset, header);
+        if (header.getInt(0) != 0x5367674F || header.get(4) != 0) {
+            throw new CodecMediaException("Invalid OGG page at offset " + offset);
+        }
+        int segments = header.get(26) & 0xFF;
+        if (offset + PAGE_HEADER_BYTES + segments > size) {
+            return null;
+        }
+        ChannelReads.readFully(in, offset + PAGE_HEADER_BYTES, ByteBuffer.wrap(lacing, 0, segments));
+        int payload = 0;
+        for (int i = 0; i < segments; i++) {
+            payload += lacing[i] & 0xFF;
+        }
+        int headerSize = PAGE_HEADER_BYTES + segments;
+        if (offset + headerSize + payload > size) {
+            return null;
+        }
+        return new OggPageHeader(0, header.get(5) & 0xFF, header.getLong(6), header.getInt(14) & 0xFFFFFFFFL,
+                header.getInt(18) & 0xFFFFFFFFL, segments, payload, headerSize + payload, headerSize);
+    }
+
+    private static void loadPage(FileChannel in, long offset, OggPageHeader page, ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(page.totalPageSize());
+        ChannelReads.readFully(in, offset, buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Cuts the lacing of a loaded page after its last completed packet.
+     *
+     * @return the new page length
+     */
+    private static int dropTrailingPartialPacket(ByteBuffer page, OggPageHeader header) {
+        int segments = header.segmentCount();
+        int kept = segments;
+        while (kept > 0 && page.get(PAGE_HEADER_BYTES + kept - 1) == (byte) 255) {
+            kept--;
+        }
+        if (kept == segments) {
+            return header.totalPageSize();
+        }
+        int payload = 0;
+        for (int i = 0; i < kept; i++) {
+            payload += page.get(PAGE_HEADER_BYTES + i) & 0xFF;
+        }
+        byte[] bytes = page.array();
+        System.arraycopy(bytes, header.headerSize(), bytes, PAGE_HEADER_BYTES + kept, payload);
+        page.put(26, (byte) kept);
+        return PAGE_HEADER_BYTES + kept + payload;
+    }
+
+    private static void writePage(FileChannel out, ByteBuffer page, int length) throws IOException {
+        page.putInt(22, 0);
+        page.putInt(22, OggPageWriter.crc(0, page.array(), 0, length));
+        page.clear().limit(length);
+        while (page.hasRemaining()) {
+            out.write(page);
+        }
+    }
+
+    private static int completedPackets(byte[] lacing, int segments) {
+        int count = 0;
+        for (int i = 0; i < segments; i++) {
+            if (lacing[i] != (byte) 255) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean startsWith(byte[] bytes, String magic) {
+        return startsWith(bytes, 0, magic);
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, String magic) {
+        if (bytes.length < offset + magic.length()) {
+            return false;
+        }
+        return new String(bytes, offset, magic.length(), StandardCharsets.US_ASCII).equals(magic);
+    }
+}
@@ -0,0 +1,105 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Reads a frame range of a PCM payload with positioned reads, so several instances can share one channel.
+ */
+public final class ChannelPcmSource implements PcmSource {
+
+    private static final int DEFAULT_BLOCK_FRAMES = 4096;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final PcmLayout layout;
+    private final PcmSampleDecoder decoder;
+    private final ByteBuffer block;
+    private final long endFrame;
+    private long nextFrame;
+
+    public ChannelPcmSource(FileChannel channel, PcmLayout layout, long startFrame, long endFrame, boolean ownsChannel)
+            throws CodecMediaException {
+        if (startFrame < 0 || endFrame < startFrame || endFrame > layout.totalFrames()) {
+            throw new CodecMediaException("Invalid PCM frame range: " + startFrame + ".." + endFrame);
+        }
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.layout = layout;
+        this.decoder = PcmSampleDecoder.forLayout(layout);
+        this.block = ByteBuffer.allocateDirect(DEFAULT_BLOCK_FRAMES * layout.frameSize());
+        this.nextFrame = startFrame;
+        this.endFrame = endFrame;
+    }
+
+    public PcmLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public int sampleRate() {
+        return layout.sampleRate();
+    }
+
+    @Override
+    public int channels() {
+        return layout.channels();
+    }
+
+    @Override
+    public long totalFrames() {
+        return layout.totalFrames();
+    }
+
+    @Override
+    public int read(float[] dst, int maxFrames) throws CodecMediaException {
+        if (nextFrame >= endFrame) {
+            return -1;
+        }
+        int frames = (int) Math.min(Math.min(maxFrames, DEFAULT_BLOCK_FRAMES), endFrame - nextFrame);
+        int frameSize = layout.frameSize();
+        block.clear().limit(frames * frameSize);
+        long position = layout.frameOffset(nextFrame);
+        try {
+            while (block.hasRemaining()) {
+                int read = channel.read(block, position + block.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read PCM data: " + e.getMessage(), e);
+        }
+        frames = block.position() / frameSize;
+        if (frames == 0) {
+            nextFrame = endFrame;
+            return -1;
+        }
+        block.flip();
+        decoder.decode(block, dst, 0, frames * layout.channels());
+        nextFrame += frames;
+        return frames;
+    }
+
+    @Override
+    public long skip(long frames) {
+        long skipped = Math.min(Math.max(0L, frames), endFrame - nextFrame);
+        nextFrame += skipped;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws CodecMediaException {
+        if (!ownsChannel) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to close PCM source: " + e.getMessage(), e);
+        }
+    }
+}
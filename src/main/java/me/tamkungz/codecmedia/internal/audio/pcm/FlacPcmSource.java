@@ -0,0 +1,79 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacDecoder;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacStreamInfo;
+
+/**
+ * {@link PcmSource} over the pure-Java FLAC decoder.
+ */
+public final class FlacPcmSource implements PcmSource {
+
+    private final FileChannel channel;
+    private final FlacDecoder decoder;
+    private final FlacStreamInfo info;
+    private final float scale;
+    private int frameLength;
+    private int framePosition;
+    private boolean finished;
+
+    public FlacPcmSource(FileChannel channel, FlacDecoder decoder) {
+        this.channel = channel;
+        this.decoder = decoder;
+        this.info = decoder.info();
+        this.scale = (float) (1.0 / (1L << (info.bitsPerSample() - 1)));
+    }
+
+    @Override
+    public int sampleRate() {
+        return info.sampleRate();
+    }
+
+    @Override
+    public int channels() {
+        return info.channels();
+    }
+
+    @Override
+    public long totalFrames() {
+        return info.totalSamples() > 0 ? info.totalSamples() : -1L;
+    }
+
+    @Override
+    public int read(float[] dst, int maxFrames) throws CodecMediaException {
+        if (framePosition >= frameLength) {
+            if (finished) {
+                return -1;
+            }
+            int decoded = decoder.decodeFrame();
+            if (decoded < 0) {
+                finished = true;
+                return -1;
+            }
+            frameLength = decoded;
+            framePosition = 0;
+        }
+        int channels = info.channels();
+        int frames = Math.min(maxFrames, frameLength - framePosition);
+        for (int c = 0; c < channels; c++) {
+            int[] samples = decoder.channel(c);
+            for (int i = 0, d = c; i < frames; i++, d += channels) {
+                dst[d] = samples[framePosition + i] * scale;
+            }
+        }
+        framePosition += frames;
+        return frames;
+    }
+
+    @Override
+    public void close() throws CodecMediaException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to close PCM source: " + e.getMessage(), e);
+        }
+    }
+}
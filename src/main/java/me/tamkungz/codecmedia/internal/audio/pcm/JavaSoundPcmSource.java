@@ -0,0 +1,109 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.IoCleanup;
+
+/**
+ * Fallback source for any file Java Sound can decode, normalized to 16-bit signed little-endian PCM.
+ */
+public final class JavaSoundPcmSource implements PcmSource {
+
+    private static final int BLOCK_FRAMES = 4096;
+
+    private final AudioInputStream stream;
+    private final PcmSampleDecoder decoder;
+    private final int channels;
+    private final int sampleRate;
+    private final long totalFrames;
+    private final byte[] block;
+
+    private JavaSoundPcmSource(AudioInputStream stream, int sampleRate, int channels, long totalFrames)
+            throws CodecMediaException {
+        this.stream = stream;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.totalFrames = totalFrames;
+        this.decoder = PcmSampleDecoder.forLayout(
+                new PcmLayout(sampleRate, channels, 16, 2, PcmEncoding.SIGNED_INT, false, 0L, 0L));
+        this.block = new byte[BLOCK_FRAMES * channels * 2];
+    }
+
+    public static JavaSoundPcmSource open(Path input) throws CodecMediaException {
+        AudioInputStream source = null;
+        try {
+            source = AudioSystem.getAudioInputStream(input.toFile());
+            AudioFormat sourceFormat = source.getFormat();
+            int channels = sourceFormat.getChannels();
+            float rate = sourceFormat.getSampleRate();
+            if (channels <= 0 || rate <= 0) {
+                throw new CodecMediaException("Unsupported audio format for PCM decoding: " + sourceFormat);
+            }
+            AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, rate, 16, channels, channels * 2, rate, false);
+            AudioInputStream pcm = AudioSystem.getAudioInputStream(pcmFormat, source);
+            return new JavaSoundPcmSource(pcm, Math.round(rate), channels, pcm.getFrameLength());
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            IoCleanup.closeQuietly(source);
+            throw new CodecMediaException("Audio cannot be decoded to PCM: " + input, e);
+        } catch (IOException e) {
+            IoCleanup.closeQuietly(source);
+            throw new CodecMediaException("Failed to open audio for PCM decoding: " + input, e);
+        }
+    }
+
+    @Override
+    public int sampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int channels() {
+        return channels;
+    }
+
+    @Override
+    public long totalFrames() {
+        return totalFrames;
+    }
+
+    @Override
+    public int read(float[] dst, int maxFrames) throws CodecMediaException {
+        int frameSize = channels * 2;
+        int wanted = Math.min(maxFrames, BLOCK_FRAMES) * frameSize;
+        int filled = 0;
+        try {
+            while (filled < wanted) {
+                int read = stream.read(block, filled, wanted - filled);
+                if (read < 0) {
+                    break;
+                }
+                filled += read;
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to decode audio: " + e.getMessage(), e);
+        }
+        int frames = filled / frameSize;
+        if (frames == 0) {
+            return -1;
+        }
+        decoder.decode(ByteBuffer.wrap(block, 0, frames * frameSize), dst, 0, frames * channels);
+        return frames;
+    }
+
+    @Override
+    public void close() throws CodecMediaException {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to close audio stream: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+public enum PcmEncoding {
+    SIGNED_INT,
+    UNSIGNED_INT,
+    FLOAT
+}
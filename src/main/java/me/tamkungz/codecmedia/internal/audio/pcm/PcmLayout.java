@@ -0,0 +1,28 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+/**
+ * Location and sample format of an uncompressed PCM payload inside a container file.
+ */
+public record PcmLayout(
+        int sampleRate,
+        int channels,
+        int bitsPerSample,
+        int bytesPerSample,
+        PcmEncoding encoding,
+        boolean bigEndian,
+        long dataOffset,
+        long dataLength
+) {
+
+    public int frameSize() {
+        return bytesPerSample * channels;
+    }
+
+    public long totalFrames() {
+        return dataLength / frameSize();
+    }
+
+    public long frameOffset(long frame) {
+        return dataOffset + frame * frameSize();
+    }
+}
@@ -0,0 +1,111 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Converts interleaved PCM bytes into normalized floats in the range [-1, 1].
+ */
+public final class PcmSampleDecoder {
+
+    private static final float SCALE_8 = 1.0f / 128.0f;
+    private static final float SCALE_16 = 1.0f / 32768.0f;
+    private static final float SCALE_24 = 1.0f / 8388608.0f;
+    private static final float SCALE_32 = 1.0f / 2147483648.0f;
+
+    private enum Kind {
+        U8,
+        S8,
+        S16,
+        S24,
+        S32,
+        F32,
+        F64
+    }
+
+    private final Kind kind;
+    private final ByteOrder order;
+
+    private PcmSampleDecoder(Kind kind, ByteOrder order) {
+        this.kind = kind;
+        this.order = order;
+    }
+
+    public static PcmSampleDecoder forLayout(PcmLayout layout) throws CodecMediaException {
+        ByteOrder order = layout.bigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        Kind kind = switch (layout.encoding()) {
+            case UNSIGNED_INT -> layout.bytesPerSample() == 1 ? Kind.U8 : null;
+            case SIGNED_INT -> switch (layout.bytesPerSample()) {
+                case 1 -> Kind.S8;
+                case 2 -> Kind.S16;
+                case 3 -> Kind.S24;
+                case 4 -> Kind.S32;
+                default -> null;
+            };
+            case FLOAT -> switch (layout.bytesPerSample()) {
+                case 4 -> Kind.F32;
+                case 8 -> Kind.F64;
+                default -> null;
+            };
+        };
+        if (kind == null) {
+            throw new CodecMediaException("Unsupported PCM sample format: "
+                    + layout.encoding() + " " + layout.bitsPerSample() + "-bit");
+        }
+        return new PcmSampleDecoder(kind, order);
+    }
+
+    /**
+     * Decodes {@code sampleCount} interleaved samples from the current position of {@code src}.
+     */
+    public void decode(ByteBuffer src, float[] dst, int dstOffset, int sampleCount) {
+        src.order(order);
+        int end = dstOffset + sampleCount;
+        switch (kind) {
+            case U8 -> {
+                for (int i = dstOffset; i < end; i++) {
+                    dst[i] = ((src.get() & 0xFF) - 128) * SCALE_8;
+                }
+            }
+            case S8 -> {
+                for (int i = dstOffset; i < end; i++) {
+                    dst[i] = src.get() * SCALE_8;
+                }
+            }
+            case S16 -> {
+                for (int i = dstOffset; i < end; i++) {
+                    dst[i] = src.getShort() * SCALE_16;
+                }
+            }
+            case S24 -> {
+                boolean big = order == ByteOrder.BIG_ENDIAN;
+                for (int i = dstOffset; i < end; i++) {
+                    int b0 = src.get() & 0xFF;
+                    int b1 = src.get() & 0xFF;
+                    int b2 = src.get();
+                    int value = big
+                            ? ((b0 << 24) | (b1 << 16) | ((b2 & 0xFF) << 8)) >> 8
+                            : (b2 << 16) | (b1 << 8) | b0;
+                    dst[i] = value * SCALE_24;
+                }
+            }
+            case S32 -> {
+                for (int i = dstOffset; i < end; i++) {
+                    dst[i] = src.getInt() * SCALE_32;
+                }
+            }
+            case F32 -> {
+                for (int i = dstOffset; i < end; i++) {
+                    dst[i] = src.getFloat();
+                }
+            }
+            case F64 -> {
+                for (int i = dstOffset; i < end; i++) {
+                    dst[i] = (float) src.getDouble();
+                }
+            }
+        }
+    }
+}
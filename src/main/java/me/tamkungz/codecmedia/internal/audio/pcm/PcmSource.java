@@ -0,0 +1,46 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Sequential reader of interleaved, normalized float samples.
+ */
+public interface PcmSource extends AutoCloseable {
+
+    int sampleRate();
+
+    int channels();
+
+    /**
+     * @return total frame count, or {@code -1} when the source cannot report it up front
+     */
+    long totalFrames();
+
+    /**
+     * Reads up to {@code maxFrames} interleaved frames into {@code dst}.
+     *
+     * @return number of frames read, or {@code -1} at end of stream
+     */
+    int read(float[] dst, int maxFrames) throws CodecMediaException;
+
+    /**
+     * Advances past {@code frames} frames without returning them.
+     *
+     * @return number of frames actually skipped
+     */
+    default long skip(long frames) throws CodecMediaException {
+        float[] scratch = new float[1024 * channels()];
+        long skipped = 0;
+        while (skipped < frames) {
+            int read = read(scratch, (int) Math.min(1024, frames - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    void close() throws CodecMediaException;
+}
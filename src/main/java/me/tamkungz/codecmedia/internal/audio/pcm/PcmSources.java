@@ -0,0 +1,85 @@
+package me.tamkungz.codecmedia.internal.audio.pcm;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.aiff.AiffParser;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacDecoder;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacParser;
+import me.tamkungz.codecmedia.internal.audio.wav.WavParser;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.IoCleanup;
+
+/**
+ * Opens a {@link PcmSource} for a media file: WAV and AIFF payloads are read directly from the file,
+ * FLAC is decoded in pure Java, and everything else goes through Java Sound.
+ */
+public final class PcmSources {
+
+    private PcmSources() {
+    }
+
+    public static PcmSource open(Path input) throws CodecMediaException {
+        FileChannel channel = openChannel(input);
+        boolean handedOff = false;
+        try {
+            PcmLayout layout = readLayout(channel);
+            if (layout != null) {
+                ChannelPcmSource source = new ChannelPcmSource(channel, layout, 0L, layout.totalFrames(), true);
+                handedOff = true;
+                return source;
+            }
+            if (isFlac(channel)) {
+                FlacPcmSource source = new FlacPcmSource(channel, FlacDecoder.open(channel, FlacParser.readStreamInfo(channel)));
+                handedOff = true;
+                return source;
+            }
+        } finally {
+            if (!handedOff) {
+                IoCleanup.closeQuietly(channel);
+            }
+        }
+        return JavaSoundPcmSource.open(input);
+    }
+
+    /**
+     * @return the PCM layout when the file stores uncompressed PCM that can be read in place, otherwise {@code null}
+     */
+    public static PcmLayout readLayout(FileChannel channel) throws CodecMediaException {
+        byte[] header;
+        try {
+            if (channel.size() < 12) {
+                return null;
+            }
+            header = ChannelReads.readBytes(channel, 0, 12);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read audio header: " + e.getMessage(), e);
+        }
+        if (WavParser.isLikelyWav(header)) {
+            return WavParser.readPcmLayout(channel);
+        }
+        if (AiffParser.isLikelyAiff(header)) {
+            return AiffParser.readPcmLayout(channel);
+        }
+        return null;
+    }
+
+    private static boolean isFlac(FileChannel channel) throws CodecMediaException {
+        try {
+            return channel.size() >= 4 && FlacParser.isLikelyFlac(ChannelReads.readBytes(channel, 0, 4));
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read audio header: " + e.getMessage(), e);
+        }
+    }
+
+    public static FileChannel openChannel(Path input) throws CodecMediaException {
+        try {
+            return FileChannel.open(input, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to open audio file: " + input, e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package me.tamkungz.codecmedia.internal.audio.wav;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.ConcatResult;
+import me.tamkungz.codecmedia.options.ConcatOptions;
+
+/**
+ * Joins WAV/RF64 files with identical sample formats into one {@code data} chunk.
+ *
+ * <p>The header chunks of the first input are copied ({@code fmt } and {@code fact} only when tags
+ * are not kept), then the sample frames of every input are moved with {@code transferTo}. The output
+ * size is known before writing, so the header is written once; when it would exceed the 32-bit RIFF
+ * size the output becomes RF64 with a {@code ds64} chunk.
+ */
+public final class WavConcatenator {
+
+    private static final long RIFF_SIZE_LIMIT = 0xFFFFFFFFL;
+    private static final int DS64_CHUNK_BYTES = 8 + 28;
+
+    private WavConcatenator() {
+    }
+
+    public static ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options) throws CodecMediaException {
+        return concat(inputs, output, options, RIFF_SIZE_LIMIT);
+    }
+
+    static ConcatResult concat(List<Path> inputs, Path output, ConcatOptions options, long riffSizeLimit)
+            throws CodecMediaException {
+        List<PcmLayout> layouts = new ArrayList<>(inputs.size());
+        long dataBytes = 0;
+        for (Path input : inputs) {
+            PcmLayout layout = readLayout(input);
+            if (!layouts.isEmpty() && !sameFormat(layouts.get(0), layout)) {
+                throw new CodecMediaException("WAV inputs have different sample formats: " + input);
+            }
+            layouts.add(layout);
+            dataBytes += layout.totalFrames() * layout.frameSize();
+        }
+        PcmLayout first = layouts.get(0);
+        long frames = dataBytes / first.frameSize();
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(inputs.get(0), first, out, options, dataBytes, frames, riffSizeLimit);
+            for (int i = 0; i < inputs.size(); i++) {
+                PcmLayout layout = layouts.get(i);
+                try (FileChannel in = FileChannel.open(inputs.get(i), StandardOpenOption.READ)) {
+                    ChannelWrites.transferFully(in, layout.dataOffset(), layout.totalFrames() * layout.frameSize(), out);
+                } catch (IOException e) {
+                    throw new CodecMediaException("Failed to concatenate WAV: " + inputs.get(i), e);
+                }
+            }
+            if ((dataBytes & 1) != 0) {
+                ChannelWrites.writeFully(out, ByteBuffer.allocate(1));
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to concatenate WAV: " + output, e);
+        }
+        return new ConcatResult(output, "wav", inputs.size(), frames * 1000L / first.sampleRate());
+    }
+
+    /** Writes the RIFF/RF64 header, the copied header chunks and the {@code data} chunk header. */
+    private static void writeHeader(Path firstInput, PcmLayout first, FileChannel out, ConcatOptions options,
+            long dataBytes, long frames, long riffSizeLimit) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(firstInput, StandardOpenOption.READ)) {
+            List<Chunk> chunks = headerChunks(in, first.dataOffset() - 8, options.keepTags());
+            long headerBytes = 12 + 8;
+            for (Chunk chunk : chunks) {
+                headerBytes += chunk.length();
+            }
+            long fileSize = headerBytes + dataBytes + (dataBytes & 1);
+            boolean rf64 = fileSize - 8 > riffSizeLimit;
+            if (rf64 && !options.allowRf64()) {
+                throw new CodecMediaException("Concatenated WAV exceeds the 4 GiB RIFF limit and RF64 output is disabled");
+            }
+            if (rf64) {
+                fileSize += DS64_CHUNK_BYTES;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(12 + DS64_CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(ascii(rf64 ? "RF64" : "RIFF")).putInt((int) (rf64 ? RIFF_SIZE_LIMIT : fileSize - 8)).put(ascii("WAVE"));
+            if (rf64) {
+                header.put(ascii("ds64")).putInt(28).putLong(fileSize - 8).putLong(dataBytes).putLong(frames).putInt(0);
+            }
+            header.flip();
+            ChannelWrites.writeFully(out, header);
+            for (Chunk chunk : chunks) {
+                long chunkStart = out.position();
+                ChannelWrites.transferFully(in, chunk.offset(), chunk.length(), out);
+                if ("fact".equals(chunk.id()) && chunk.length() >= 12) {
+                    ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                    count.putInt((int) Math.min(frames, RIFF_SIZE_LIMIT)).flip();
+                    out.write(count, chunkStart + 8);
+                }
+            }
+            ByteBuffer dataHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            dataHeader.put(ascii("data")).putInt((int) (rf64 ? RIFF_SIZE_LIMIT : dataBytes)).flip();
+            ChannelWrites.writeFully(out, dataHeader);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to concatenate WAV: " + firstInput, e);
+        }
+    }
+
+    /**
+     * Chunks to copy from {@code [12, dataHeader)}: RIFF-level {@code ds64} and {@code JUNK} are
+     * dropped, and only {@code fmt }/{@code fact} are kept without tags.
+     */
+    private static List<Chunk> headerChunks(FileChannel in, long dataHeader, boolean keepTags) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long offset = 12;
+        while (offset + 8 <= dataHeader) {
+            ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            ChannelReads.readFully(in, offset, chunkHeader);
+            String id = new String(chunkHeader.array(), 0, 4, StandardCharsets.US_ASCII);
+            long size = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+            long length = Math.min(8 + size + (size & 1), dataHeader - offset);
+            boolean format = "fmt ".equals(id) || "fact".equals(id);
+            if (format || (keepTags && !"ds64".equals(id) && !"JUNK".equals(id))) {
+                chunks.add(new Chunk(id, offset, length));
+            }
+            offset += length;
+        }
+        return chunks;
+    }
+
+    private static PcmLayout readLayout(Path input) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            return WavParser.readPcmLayout(in);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read WAV: " + input, e);
+        }
+    }
+
+    private static boolean sameFormat(PcmLayout a, PcmLayout b) {
+        return a.sampleRate() == b.sampleRate() && a.channels() == b.channels() && a.bitsPerSample() == b.bitsPerSample()
+                && a.bytesPerSample() == b.bytesPerSample() && a.encoding() == b.encoding() && a.bigEndian() == b.bigEndian();
+    }
+
+    private static byte[] ascii(String id) {
+        return id.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record Chunk(String id, long offset, long length) {
+    }
+}
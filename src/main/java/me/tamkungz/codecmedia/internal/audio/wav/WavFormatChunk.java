@@ -0,0 +1,65 @@
+package me.tamkungz.codecmedia.internal.audio.wav;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writer for the WAV {@code fmt } chunk.
+ *
+ * <p>Plain {@code WAVE_FORMAT_PCM}/{@code WAVE_FORMAT_IEEE_FLOAT} is only written for mono or stereo
+ * audio in containers of up to 16 bits; anything wider or with more channels gets
+ * {@code WAVE_FORMAT_EXTENSIBLE} with the valid bit count, the default speaker mask for the channel
+ * count (FLAC/WAV channel order) and the PCM or float sub-format GUID.
+ */
+public final class WavFormatChunk {
+
+    private static final int WAVE_FORMAT_PCM = 0x0001;
+    private static final int WAVE_FORMAT_IEEE_FLOAT = 0x0003;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+    // KSDATAFORMAT_SUBTYPE_* GUID after its leading format code
+    private static final byte[] SUBTYPE_GUID_TAIL = {
+            0x00, 0x00, 0x00, 0x00, 0x10, 0x00, (byte) 0x80, 0x00, 0x00, (byte) 0xAA, 0x00, 0x38, (byte) 0x9B, 0x71
+    };
+    // Speaker masks for 1-8 channels: mono, stereo, 3.0, quad, 5.0, 5.1, 6.1, 7.1
+    private static final int[] CHANNEL_MASKS = {0x4, 0x3, 0x7, 0x33, 0x37, 0x3F, 0x70F, 0x63F};
+
+    private WavFormatChunk() {
+    }
+
+    public static boolean extensible(int channels, int bytesPerSample) {
+        return channels > 2 || bytesPerSample > 2;
+    }
+
+    /** Size of the chunk including its 8-byte header. */
+    public static int chunkBytes(int channels, int bytesPerSample, boolean floating) {
+        return 8 + (extensible(channels, bytesPerSample) ? 40 : floating ? 18 : 16);
+    }
+
+    /**
+     * Writes the whole chunk into a little-endian buffer.
+     *
+     * @param validBits significant bits per sample, left-justified in the {@code bytesPerSample} container
+     */
+    public static void put(ByteBuffer out, int channels, int sampleRate, int bytesPerSample, int validBits,
+            boolean floating) {
+        boolean extensible = extensible(channels, bytesPerSample);
+        int format = floating ? WAVE_FORMAT_IEEE_FLOAT : WAVE_FORMAT_PCM;
+        int blockAlign = channels * bytesPerSample;
+        out.put((byte) 'f').put((byte) 'm').put((byte) 't').put((byte) ' ');
+        out.putInt(chunkBytes(channels, bytesPerSample, floating) - 8);
+        out.putShort((short) (extensible ? WAVE_FORMAT_EXTENSIBLE : format));
+        out.putShort((short) channels);
+        out.putInt(sampleRate);
+        out.putInt(sampleRate * blockAlign);
+        out.putShort((short) blockAlign);
+        out.putShort((short) (bytesPerSample * 8));
+        if (extensible) {
+            out.putShort((short) 22);
+            out.putShort((short) validBits);
+            out.putInt(channels <= CHANNEL_MASKS.length ? CHANNEL_MASKS[channels - 1] : 0);
+            out.putShort((short) format);
+            out.put(SUBTYPE_GUID_TAIL);
+        } else if (floating) {
+            out.putShort((short) 0);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package me.tamkungz.codecmedia.internal.audio.wav;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -9,6 +11,9 @@ import java.util.Map;
 
 import me.tamkungz.codecmedia.CodecMediaException;
 import me.tamkungz.codecmedia.internal.audio.BitrateMode;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmEncoding;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
 
 public final class WavParser {
 
@@ -122,6 +127,93 @@ public final class WavParser {
         return new WavProbeInfo(durationMillis, bitrateKbps, sampleRate, channels, BitrateMode.CBR);
     }
 
+    /**
+     * Walks chunk headers only and stops at the {@code data} chunk, so the payload is never loaded.
+     * A data size that runs past the end of the file (e.g. an unfinished recording) is clamped.
+     */
+    public static PcmLayout readPcmLayout(SeekableByteChannel channel) throws CodecMediaException {
+        try {
+            long fileSize = channel.size();
+            if (fileSize < 12) {
+                throw new CodecMediaException("Not a WAV/RIFF file");
+            }
+            byte[] header = ChannelReads.readBytes(channel, 0, 12);
+            if (!isLikelyWav(header)) {
+                throw new CodecMediaException("Not a WAV/RIFF file");
+            }
+            boolean isRf64 = header[0] == 'R' && header[1] == 'F';
+
+            long offset = 12;
+            Long ds64DataSize = null;
+            byte[] fmt = null;
+            while (offset + 8 <= fileSize) {
+                byte[] chunkHeader = ChannelReads.readBytes(channel, offset, 8);
+                String chunkId = new String(chunkHeader, 0, 4, StandardCharsets.US_ASCII);
+                long chunkSize = readLeUInt32(chunkHeader, 4);
+                long chunkDataStart = offset + 8;
+
+                if ("ds64".equals(chunkId)) {
+                    if (chunkSize < 16 || chunkDataStart + 16 > fileSize) {
+                        throw new CodecMediaException("Invalid RF64 ds64 chunk");
+                    }
+                    ds64DataSize = readLeLong(ChannelReads.readBytes(channel, chunkDataStart, 16), 8);
+                    if (ds64DataSize < 0) {
+                        throw new CodecMediaException("RF64 data size is too large");
+                    }
+                } else if ("fmt ".equals(chunkId)) {
+                    if (chunkSize < 16 || chunkDataStart + chunkSize > fileSize) {
+                        throw new CodecMediaException("WAV fmt chunk is too small");
+                    }
+                    fmt = ChannelReads.readBytes(channel, chunkDataStart, (int) Math.min(chunkSize, 40));
+                } else if ("data".equals(chunkId)) {
+                    if (fmt == null) {
+                        throw new CodecMediaException("WAV data chunk precedes fmt chunk");
+                    }
+                    long dataSize = chunkSize;
+                    if (isRf64 && chunkSize == 0xFFFFFFFFL) {
+                        if (ds64DataSize == null) {
+                            throw new CodecMediaException("RF64 data chunk uses 0xFFFFFFFF size but ds64 is missing");
+                        }
+                        dataSize = ds64DataSize;
+                    }
+                    dataSize = Math.min(dataSize, fileSize - chunkDataStart);
+                    return toPcmLayout(fmt, chunkDataStart, dataSize);
+                }
+
+                offset = chunkDataStart + chunkSize + (chunkSize & 1);
+            }
+            throw new CodecMediaException("WAV is missing required fmt/data chunks");
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read WAV header: " + e.getMessage(), e);
+        }
+    }
+
+    private static PcmLayout toPcmLayout(byte[] fmt, long dataOffset, long dataSize) throws CodecMediaException {
+        int audioFormat = readLeShort(fmt, 0);
+        validateSupportedAudioFormat(audioFormat, fmt, 0, fmt.length);
+        if (audioFormat == WAVE_FORMAT_EXTENSIBLE) {
+            audioFormat = readLeShort(fmt, 24);
+        }
+        int channels = readLeShort(fmt, 2);
+        int sampleRate = readLeInt(fmt, 4);
+        int blockAlign = readLeShort(fmt, 12);
+        int bitsPerSample = readLeShort(fmt, 14);
+        if (channels <= 0 || sampleRate <= 0 || bitsPerSample <= 0) {
+            throw new CodecMediaException("Invalid WAV format values");
+        }
+        int bytesPerSample = blockAlign > 0 && blockAlign % channels == 0
+                ? blockAlign / channels
+                : (bitsPerSample + 7) / 8;
+
+        PcmEncoding encoding;
+        if (audioFormat == WAVE_FORMAT_IEEE_FLOAT) {
+            encoding = PcmEncoding.FLOAT;
+        } else {
+            encoding = bytesPerSample == 1 ? PcmEncoding.UNSIGNED_INT : PcmEncoding.SIGNED_INT;
+        }
+        return new PcmLayout(sampleRate, channels, bitsPerSample, bytesPerSample, encoding, false, dataOffset, dataSize);
+    }
+
     public static boolean isLikelyWav(byte[] bytes) {
         return bytes.length >= 12
                 && ((bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F')
@@ -261,16 +353,18 @@ public final class WavParser {
         int subType = readLeShort(bytes, subFormatOffset);
         boolean validGuid = bytes[subFormatOffset + 2] == 0
                 && bytes[subFormatOffset + 3] == 0
-                && bytes[subFormatOffset + 4] == 0x10
+                && bytes[subFormatOffset + 4] == 0
                 && bytes[subFormatOffset + 5] == 0
-                && (bytes[subFormatOffset + 6] & 0xFF) == 0x80
+                && bytes[subFormatOffset + 6] == 0x10
                 && bytes[subFormatOffset + 7] == 0
-                && bytes[subFormatOffset + 8] == 0
-                && (bytes[subFormatOffset + 9] & 0xFF) == 0xAA
+                && (bytes[subFormatOffset + 8] & 0xFF) == 0x80
+                && bytes[subFormatOffset + 9] == 0
                 && bytes[subFormatOffset + 10] == 0
-                && (bytes[subFormatOffset + 11] & 0xFF) == 0x38
-                && (bytes[subFormatOffset + 12] & 0xFF) == 0x9B
-                && bytes[subFormatOffset + 13] == 0x71;
+                && (bytes[subFormatOffset + 11] & 0xFF) == 0xAA
+                && bytes[subFormatOffset + 12] == 0
+                && (bytes[subFormatOffset + 13] & 0xFF) == 0x38
+                && (bytes[subFormatOffset + 14] & 0xFF) == 0x9B
+                && bytes[subFormatOffset + 15] == 0x71;
         if (!validGuid || (subType != WAVE_FORMAT_PCM && subType != WAVE_FORMAT_IEEE_FLOAT)) {
             throw new CodecMediaException("Unsupported WAV extensible sub-format: 0x" + Integer.toHexString(subType));
         }
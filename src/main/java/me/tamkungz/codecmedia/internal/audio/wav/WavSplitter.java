@@ -0,0 +1,161 @@
+package me.tamkungz.codecmedia.internal.audio.wav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.SplitResult;
+import me.tamkungz.codecmedia.options.SplitOptions;
+
+/**
+ * Sample-accurate split of a WAV/RF64 file into fixed-length WAV segments.
+ *
+ * <p>Segment boundaries are whole sample frames ({@code fmt } block alignment), so every byte range is
+ * computed up front. One header template ({@code fmt }, optional {@code fact}, {@code data}) is built
+ * from the source and only its size fields are patched per segment; segment bodies are moved with
+ * {@code transferTo} from one shared input channel, with segments written concurrently on a bounded
+ * pool. No sample data passes through the heap. Segments switch to RF64 only when one would exceed
+ * the 32-bit RIFF size.
+ */
+public final class WavSplitter {
+
+    private static final long RIFF_SIZE_LIMIT = 0xFFFFFFFFL;
+    private static final int DS64_CHUNK_BYTES = 8 + 28;
+
+    private WavSplitter() {
+    }
+
+    /**
+     * @param baseName segment file name prefix; segments are named {@code <baseName>_0001.wav} onwards
+     */
+    public static SplitResult split(Path input, Path outputDir, String baseName, SplitOptions options)
+            throws CodecMediaException {
+        if (options.segmentMillis() <= 0) {
+            throw new CodecMediaException("SplitOptions.segmentMillis must be positive");
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            PcmLayout layout = WavParser.readPcmLayout(in);
+            long totalFrames = layout.totalFrames();
+            if (totalFrames == 0) {
+                throw new CodecMediaException("WAV input has no sample frames: " + input);
+            }
+            long framesTimesThousand = Math.multiplyExact(options.segmentMillis(), (long) layout.sampleRate());
+            long count = (Math.multiplyExact(totalFrames, 1000L) + framesTimesThousand - 1) / framesTimesThousand;
+            if (count > Integer.MAX_VALUE) {
+                throw new CodecMediaException("Too many segments: " + count);
+            }
+            int segments = (int) count;
+            long longestBytes = (framesTimesThousand + 999L) / 1000L * layout.frameSize();
+            HeaderTemplate template = HeaderTemplate.from(in, layout, longestBytes);
+
+            int digits = Math.max(4, Integer.toString(segments).length());
+            List<Path> files = new ArrayList<>(segments);
+            for (int i = 0; i < segments; i++) {
+                files.add(outputDir.resolve(baseName + "_" + String.format("%0" + digits + "d", i + 1) + ".wav"));
+            }
+            ParallelTasks.runAll(segments, options.parallelism(), index -> {
+                long startFrame = index * framesTimesThousand / 1000L;
+                long endFrame = Math.min(totalFrames, (index + 1) * framesTimesThousand / 1000L);
+                writeSegment(in, layout, template, startFrame, endFrame, files.get(index));
+            });
+            return new SplitResult(List.copyOf(files), layout.sampleRate(), totalFrames);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to split WAV: " + input, e);
+        }
+    }
+
+    private static void writeSegment(FileChannel in, PcmLayout layout, HeaderTemplate template, long startFrame,
+            long endFrame, Path output) throws CodecMediaException {
+        long frames = endFrame - startFrame;
+        long dataBytes = frames * layout.frameSize();
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelWrites.writeFully(out, template.forSegment(dataBytes, frames));
+            ChannelWrites.transferFully(in, layout.frameOffset(startFrame), dataBytes, out);
+            if ((dataBytes & 1) != 0) {
+                ChannelWrites.writeFully(out, ByteBuffer.allocate(1));
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to write WAV segment: " + output, e);
+        }
+    }
+
+    /** Segment header bytes with the offsets of the fields that differ per segment. */
+    private record HeaderTemplate(byte[] bytes, boolean rf64, int factOffset) {
+
+        static HeaderTemplate from(FileChannel in, PcmLayout layout, long longestDataBytes) throws IOException, CodecMediaException {
+            byte[] fmt = null;
+            boolean fact = false;
+            long offset = 12;
+            long dataHeader = layout.dataOffset() - 8;
+            while (offset + 8 <= dataHeader) {
+                ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                ChannelReads.readFully(in, offset, chunkHeader);
+                String id = new String(chunkHeader.array(), 0, 4, StandardCharsets.US_ASCII);
+                long size = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+                if ("fmt ".equals(id)) {
+                    fmt = ChannelReads.readBytes(in, offset, (int) (8 + size + (size & 1)));
+                } else if ("fact".equals(id)) {
+                    fact = true;
+                }
+                offset += 8 + size + (size & 1);
+            }
+            if (fmt == null) {
+                throw new CodecMediaException("WAV fmt chunk is missing");
+            }
+
+            int headerLength = 12 + fmt.length + (fact ? 12 : 0) + 8;
+            boolean rf64 = headerLength + longestDataBytes + 1 - 8 > RIFF_SIZE_LIMIT;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(headerLength + DS64_CHUNK_BYTES);
+            out.writeBytes(ascii(rf64 ? "RF64" : "RIFF"));
+            out.writeBytes(new byte[4]);
+            out.writeBytes(ascii("WAVE"));
+            if (rf64) {
+                out.writeBytes(ascii("ds64"));
+                out.writeBytes(new byte[] {28, 0, 0, 0});
+                out.writeBytes(new byte[28]);
+            }
+            out.writeBytes(fmt);
+            int factOffset = -1;
+            if (fact) {
+                factOffset = out.size();
+                out.writeBytes(ascii("fact"));
+                out.writeBytes(new byte[] {4, 0, 0, 0});
+                out.writeBytes(new byte[4]);
+            }
+            out.writeBytes(ascii("data"));
+            out.writeBytes(new byte[4]);
+            return new HeaderTemplate(out.toByteArray(), rf64, factOffset);
+        }
+
+        ByteBuffer forSegment(long dataBytes, long frames) {
+            ByteBuffer header = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            long riffSize = bytes.length + dataBytes + (dataBytes & 1) - 8;
+            header.putInt(4, (int) (rf64 ? RIFF_SIZE_LIMIT : riffSize));
+            if (rf64) {
+                header.putLong(20, riffSize).putLong(28, dataBytes).putLong(36, frames);
+            }
+            if (factOffset >= 0) {
+                header.putInt(factOffset + 8, (int) Math.min(frames, RIFF_SIZE_LIMIT));
+            }
+            header.putInt(bytes.length - 4, (int) (rf64 ? RIFF_SIZE_LIMIT : dataBytes));
+            return header;
+        }
+
+        private static byte[] ascii(String id) {
+            return id.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
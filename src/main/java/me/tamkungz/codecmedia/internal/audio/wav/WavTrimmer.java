@@ -0,0 +1,104 @@
+package me.tamkungz.codecmedia.internal.audio.wav;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.TrimResult;
+
+/**
+ * Sample-accurate WAV/RF64 trim.
+ *
+ * <p>Chunks before {@code data} ({@code fmt }, {@code ds64}, {@code LIST}, ...) and the selected range
+ * of whole sample frames are copied with {@code transferTo}; only the RIFF, {@code data},
+ * {@code ds64} and {@code fact} sizes are rewritten. Chunks after {@code data} are dropped.
+ */
+public final class WavTrimmer {
+
+    private WavTrimmer() {
+    }
+
+    public static TrimResult trim(Path input, Path output, long startMillis, long endMillis) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            PcmLayout layout = WavParser.readPcmLayout(in);
+            long totalFrames = layout.totalFrames();
+            long startFrame = framesAt(startMillis, layout.sampleRate());
+            if (startFrame >= totalFrames) {
+                throw new CodecMediaException("Trim start is past the end of the input: " + startMillis + " ms");
+            }
+            long endFrame = Math.max(startFrame + 1, Math.min(totalFrames, framesAt(endMillis, layout.sampleRate())));
+            long frames = endFrame - startFrame;
+            long dataBytes = frames * layout.frameSize();
+            long headerEnd = layout.dataOffset() - 8;
+
+            ByteBuffer riff = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            ChannelReads.readFully(in, 0, riff);
+            riff.flip();
+            boolean rf64 = riff.get(0) == 'R' && riff.get(1) == 'F';
+            ChannelWrites.writeFully(out, riff);
+            ChannelWrites.transferFully(in, 12, headerEnd - 12, out);
+            ByteBuffer dataHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            dataHeader.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+            dataHeader.putInt((int) (rf64 ? 0xFFFFFFFFL : dataBytes)).flip();
+            ChannelWrites.writeFully(out, dataHeader);
+            ChannelWrites.transferFully(in, layout.frameOffset(startFrame), dataBytes, out);
+            if ((dataBytes & 1) != 0) {
+                ChannelWrites.writeFully(out, ByteBuffer.allocate(1));
+            }
+
+            long fileSize = out.position();
+            writeUInt32(out, 4, rf64 ? 0xFFFFFFFFL : fileSize - 8);
+            patchSizes(out, headerEnd, fileSize, dataBytes, frames);
+            int rate = layout.sampleRate();
+            return new TrimResult(output, "wav", startFrame * 1000L / rate, endFrame * 1000L / rate);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to trim WAV: " + input, e);
+        }
+    }
+
+    /** Rewrites the {@code ds64} sizes and the {@code fact} sample count among the copied chunks. */
+    private static void patchSizes(FileChannel out, long headerEnd, long fileSize, long dataBytes, long frames)
+            throws IOException {
+        long offset = 12;
+        ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        while (offset + 8 <= headerEnd) {
+            chunkHeader.clear();
+            ChannelReads.readFully(out, offset, chunkHeader);
+            int id = chunkHeader.getInt(0);
+            long size = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+            if (id == fourCc("ds64") && size >= 24) {
+                ByteBuffer ds64 = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+                ds64.putLong(fileSize - 8).putLong(dataBytes).putLong(frames).flip();
+                out.write(ds64, offset + 8);
+            } else if (id == fourCc("fact") && size >= 4) {
+                writeUInt32(out, offset + 8, Math.min(frames, 0xFFFFFFFFL));
+            }
+            offset += 8 + size + (size & 1);
+        }
+    }
+
+    private static long framesAt(long millis, int sampleRate) {
+        return millis > Long.MAX_VALUE / sampleRate ? Long.MAX_VALUE : millis * sampleRate / 1000L;
+    }
+
+    private static int fourCc(String id) {
+        return id.charAt(0) | (id.charAt(1) << 8) | (id.charAt(2) << 16) | (id.charAt(3) << 24);
+    }
+
+    private static void writeUInt32(FileChannel out, long position, long value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt((int) value).flip();
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+    }
+}
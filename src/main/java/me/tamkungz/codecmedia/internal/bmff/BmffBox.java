@@ -0,0 +1,24 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+/**
+ * Position of one ISO-BMFF box; {@code size} includes the 8- or 16-byte header.
+ */
+public record BmffBox(
+        String type,
+        long offset,
+        int headerSize,
+        long size
+) {
+
+    public long payloadOffset() {
+        return offset + headerSize;
+    }
+
+    public long payloadSize() {
+        return size - headerSize;
+    }
+
+    public long endOffset() {
+        return offset + size;
+    }
+}
@@ -0,0 +1,421 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Duration and sample totals of a fragmented MP4 (fMP4/CMAF), where {@code moov} carries only
+ * {@code mvex} defaults and the samples are described by {@code moof/traf/trun} fragments.
+ *
+ * <p>{@link #probe(BmffReader)} picks the cheapest source: the {@code mvex/mehd} fragment duration,
+ * else the {@code mfra/tfra} random-access index at the tail (only the last fragment is parsed, so no
+ * sample totals are known), else a walk over the top-level {@code moof} headers. Media data is never read.
+ *
+ * <p>For files that are still being written, {@link #open(BmffReader)} followed by repeated
+ * {@link #update()} calls processes each fragment once as it is appended; an incomplete box at the
+ * tail is left for the next call. Not thread-safe.
+ */
+public final class BmffFragmentScanner {
+
+    private static final int TFHD_BASE_DATA_OFFSET = 0x000001;
+    private static final int TFHD_SAMPLE_DESCRIPTION_INDEX = 0x000002;
+    private static final int TFHD_DEFAULT_DURATION = 0x000008;
+    private static final int TFHD_DEFAULT_SIZE = 0x000010;
+    private static final int TFHD_DEFAULT_FLAGS = 0x000020;
+
+    private static final int TRUN_DATA_OFFSET = 0x000001;
+    private static final int TRUN_FIRST_SAMPLE_FLAGS = 0x000004;
+    private static final int TRUN_DURATION = 0x000100;
+    private static final int TRUN_SIZE = 0x000200;
+    private static final int TRUN_FLAGS = 0x000400;
+    private static final int TRUN_COMPOSITION_OFFSET = 0x000800;
+
+    /**
+     * Fragment totals of one track; {@code duration} is in the track's {@code timescale} and counts up
+     * to the end of the last fragment seen. {@code sampleCount} and {@code sampleBytes} are zero when
+     * the duration came from the random-access index alone.
+     */
+    public record TrackFragments(
+            int trackId,
+            String handlerType,
+            long timescale,
+            long duration,
+            long sampleCount,
+            long sampleBytes
+    ) {
+    }
+
+    private final BmffReader reader;
+    private final boolean fragmented;
+    private final long movieTimescale;
+    private final Long mehdDuration;
+    private final Map<Integer, TrackState> tracks;
+    private long nextOffset;
+    private int fragmentCount;
+    private boolean indexed;
+
+    private BmffFragmentScanner(BmffReader reader, boolean fragmented, long movieTimescale, Long mehdDuration,
+                                Map<Integer, TrackState> tracks, long nextOffset) {
+        this.reader = reader;
+        this.fragmented = fragmented;
+        this.movieTimescale = movieTimescale;
+        this.mehdDuration = mehdDuration;
+        this.tracks = tracks;
+        this.nextOffset = nextOffset;
+    }
+
+    /**
+     * Reads the {@code moov} track list and {@code mvex} defaults without touching any fragment.
+     * Fails when {@code moov} is missing or not yet complete.
+     */
+    public static BmffFragmentScanner open(BmffReader reader) throws CodecMediaException {
+        long size = reader.refreshSize();
+        BmffBox moov = null;
+        long offset = 0;
+        BmffBox box;
+        while ((box = reader.readCompleteBox(offset, size)) != null) {
+            if ("moov".equals(box.type())) {
+                moov = box;
+                break;
+            }
+            offset = box.endOffset();
+        }
+        if (moov == null) {
+            throw new CodecMediaException("Fragmented MP4 has no complete moov box");
+        }
+
+        long movieTimescale = 0;
+        BmffBox mvhd = reader.child(moov, "mvhd");
+        if (mvhd != null && mvhd.payloadSize() >= 20) {
+            byte[] payload = reader.readPayload(mvhd);
+            movieTimescale = readUInt32(payload, payload[0] == 1 ? 20 : 12);
+        }
+
+        Map<Integer, TrackState> tracks = new LinkedHashMap<>();
+        for (BmffBox trak : reader.children(moov, "trak")) {
+            BmffBox tkhd = reader.child(trak, "tkhd");
+            if (tkhd == null || tkhd.payloadSize() < 24) {
+                continue;
+            }
+            byte[] tkhdPayload = reader.readPayload(tkhd);
+            int trackId = (int) readUInt32(tkhdPayload, tkhdPayload[0] == 1 ? 20 : 12);
+            BmffBox mdia = reader.child(trak, "mdia");
+            String handlerType = null;
+            long timescale = 0;
+            if (mdia != null) {
+                BmffBox hdlr = reader.child(mdia, "hdlr");
+                if (hdlr != null && hdlr.payloadSize() >= 12) {
+                    handlerType = new String(reader.read(hdlr.payloadOffset() + 8, 4), StandardCharsets.ISO_8859_1);
+                }
+                BmffBox mdhd = reader.child(mdia, "mdhd");
+                if (mdhd != null && mdhd.payloadSize() >= 20) {
+                    byte[] payload = reader.readPayload(mdhd);
+                    timescale = readUInt32(payload, payload[0] == 1 ? 20 : 12);
+                }
+            }
+            tracks.put(trackId, new TrackState(trackId, handlerType, timescale));
+        }
+
+        BmffBox mvex = reader.child(moov, "mvex");
+        Long mehdDuration = null;
+        if (mvex != null) {
+            for (BmffBox child : reader.children(mvex)) {
+                if ("mehd".equals(child.type()) && child.payloadSize() >= 8) {
+                    byte[] payload = reader.readPayload(child);
+                    long duration = payload[0] == 1 && payload.length >= 12 ? readUInt64(payload, 4) : readUInt32(payload, 4);
+                    mehdDuration = duration > 0 ? duration : null;
+                } else if ("trex".equals(child.type()) && child.payloadSize() >= 24) {
+                    byte[] payload = reader.readPayload(child);
+                    TrackState track = tracks.get((int) readUInt32(payload, 4));
+                    if (track != null) {
+                        track.defaultDuration = readUInt32(payload, 12);
+                        track.defaultSize = readUInt32(payload, 16);
+                    }
+                }
+            }
+        }
+        return new BmffFragmentScanner(reader, mvex != null, movieTimescale, mehdDuration, tracks, 0);
+    }
+
+    /**
+     * Opens the file and fills in the duration from the cheapest available source; see the class
+     * documentation.
+     */
+    public static BmffFragmentScanner probe(BmffReader reader) throws CodecMediaException {
+        BmffFragmentScanner scanner = open(reader);
+        if (!scanner.fragmented || scanner.mehdDuration != null) {
+            return scanner;
+        }
+        if (!scanner.readRandomAccessIndex()) {
+            scanner.update();
+        }
+        return scanner;
+    }
+
+    /** Whether {@code moov} announces movie fragments through {@code mvex}. */
+    public boolean fragmented() {
+        return fragmented;
+    }
+
+    /**
+     * Processes the complete top-level boxes appended since the previous call. Not available once
+     * {@link #probe(BmffReader)} took the duration from the random-access index, since the fragments
+     * before the last one were never counted.
+     *
+     * @return the number of new {@code moof} fragments
+     */
+    public int update() throws CodecMediaException {
+        if (indexed) {
+            throw new CodecMediaException("Fragment totals were read from the mfra index and cannot be updated");
+        }
+        long size = reader.refreshSize();
+        int added = 0;
+        BmffBox box;
+        while ((box = reader.readCompleteBox(nextOffset, size)) != null) {
+            if ("moof".equals(box.type())) {
+                readFragment(box, null);
+                added++;
+            }
+            nextOffset = box.endOffset();
+        }
+        fragmentCount += added;
+        return added;
+    }
+
+    /** Offset of the first top-level box not yet processed by {@link #update()}. */
+    public long scannedOffset() {
+        return nextOffset;
+    }
+
+    public int fragmentCount() {
+        return fragmentCount;
+    }
+
+    public List<TrackFragments> tracks() {
+        List<TrackFragments> out = new ArrayList<>(tracks.size());
+        for (TrackState track : tracks.values()) {
+            out.add(new TrackFragments(track.trackId, track.handlerType, track.timescale, track.endTime,
+                    track.sampleCount, track.sampleBytes));
+        }
+        return out;
+    }
+
+    /**
+     * Longest track duration seen in the fragments, else the {@code mehd} fragment duration, else
+     * {@code null}.
+     */
+    public Long durationMillis() {
+        long longest = 0;
+        for (TrackState track : tracks.values()) {
+            if (track.timescale > 0 && track.endTime > 0) {
+                longest = Math.max(longest, track.endTime * 1000L / track.timescale);
+            }
+        }
+        if (longest > 0) {
+            return longest;
+        }
+        if (mehdDuration != null && movieTimescale > 0) {
+            return mehdDuration * 1000L / movieTimescale;
+        }
+        return null;
+    }
+
+    /**
+     * Uses the {@code mfro} trailer to find {@code mfra}, then parses only the fragment holding the
+     * last {@code tfra} entry of each track.
+     */
+    private boolean readRandomAccessIndex() throws CodecMediaException {
+        long size = reader.size();
+        if (size < 16) {
+            return false;
+        }
+        byte[] mfro = reader.read(size - 16, 16);
+        if (readUInt32(mfro, 0) != 16 || !"mfro".equals(new String(mfro, 4, 4, StandardCharsets.ISO_8859_1))) {
+            return false;
+        }
+        long mfraSize = readUInt32(mfro, 12);
+        if (mfraSize < 16 || mfraSize > size) {
+            return false;
+        }
+        BmffBox mfra = reader.readBox(size - mfraSize, size);
+        if (mfra == null || !"mfra".equals(mfra.type())) {
+            return false;
+        }
+        indexed = true;
+        boolean found = false;
+        for (BmffBox tfra : reader.children(mfra, "tfra")) {
+            if (tfra.payloadSize() < 16) {
+                continue;
+            }
+            byte[] head = reader.read(tfra.payloadOffset(), 16);
+            boolean version1 = head[0] == 1;
+            TrackState track = tracks.get((int) readUInt32(head, 4));
+            int lengths = (int) readUInt32(head, 8);
+            long entries = readUInt32(head, 12);
+            if (track == null || entries == 0) {
+                continue;
+            }
+            int entrySize = (version1 ? 16 : 8)
+                    + ((lengths >> 4) & 3) + 1 + ((lengths >> 2) & 3) + 1 + (lengths & 3) + 1;
+            long last = tfra.payloadOffset() + 16 + (entries - 1) * entrySize;
+            if (last + (version1 ? 16 : 8) > tfra.endOffset()) {
+                throw new CodecMediaException("Truncated tfra box at offset " + tfra.offset());
+            }
+            byte[] entry = reader.read(last, version1 ? 16 : 8);
+            long time = version1 ? readUInt64(entry, 0) : readUInt32(entry, 0);
+            long moofOffset = version1 ? readUInt64(entry, 8) : readUInt32(entry, 4);
+            BmffBox moof = reader.readBox(moofOffset, size);
+            if (moof == null || !"moof".equals(moof.type())) {
+                throw new CodecMediaException("tfra entry does not point at a moof box: offset " + moofOffset);
+            }
+            track.decodeTime = time;
+            readFragment(moof, track.trackId);
+            found = true;
+        }
+        indexed = found;
+        nextOffset = found ? size : 0;
+        return found;
+    }
+
+    /**
+     * Adds the runs of every {@code traf} in {@code moof}, or only those of {@code onlyTrack} when set.
+     */
+    private void readFragment(BmffBox moof, Integer onlyTrack) throws CodecMediaException {
+        for (BmffBox traf : reader.children(moof, "traf")) {
+            TrackState track = null;
+            long defaultDuration = 0;
+            long defaultSize = 0;
+            Long baseTime = null;
+            List<BmffBox> runs = new ArrayList<>();
+            for (BmffBox box : reader.children(traf)) {
+                if ("tfhd".equals(box.type()) && box.payloadSize() >= 8) {
+                    ByteBuffer tfhd = ByteBuffer.wrap(reader.readPayload(box));
+                    int flags = tfhd.getInt() & 0xFFFFFF;
+                    track = tracks.get(tfhd.getInt());
+                    if (track == null) {
+                        break;
+                    }
+                    defaultDuration = track.defaultDuration;
+                    defaultSize = track.defaultSize;
+                    skip(tfhd, (flags & TFHD_BASE_DATA_OFFSET) != 0 ? 8 : 0, box);
+                    skip(tfhd, (flags & TFHD_SAMPLE_DESCRIPTION_INDEX) != 0 ? 4 : 0, box);
+                    if ((flags & TFHD_DEFAULT_DURATION) != 0) {
+                        defaultDuration = readUInt32(tfhd, box);
+                    }
+                    if ((flags & TFHD_DEFAULT_SIZE) != 0) {
+                        defaultSize = readUInt32(tfhd, box);
+                    }
+                    skip(tfhd, (flags & TFHD_DEFAULT_FLAGS) != 0 ? 4 : 0, box);
+                } else if ("tfdt".equals(box.type()) && box.payloadSize() >= 8) {
+                    byte[] payload = reader.readPayload(box);
+                    baseTime = payload[0] == 1 && payload.length >= 12 ? readUInt64(payload, 4) : readUInt32(payload, 4);
+                } else if ("trun".equals(box.type())) {
+                    runs.add(box);
+                }
+            }
+            if (track == null || (onlyTrack != null && track.trackId != onlyTrack)) {
+                continue;
+            }
+            long time = baseTime != null ? baseTime : track.decodeTime;
+            for (BmffBox trun : runs) {
+                time += readRun(trun, track, defaultDuration, defaultSize);
+            }
+            track.decodeTime = time;
+            track.endTime = Math.max(track.endTime, time);
+        }
+    }
+
+    /**
+     * Adds one {@code trun}'s sample count and bytes to {@code track} and returns its duration.
+     */
+    private long readRun(BmffBox trun, TrackState track, long defaultDuration, long defaultSize)
+            throws CodecMediaException {
+        ByteBuffer run = ByteBuffer.wrap(reader.readPayload(trun));
+        if (run.remaining() < 8) {
+            throw new CodecMediaException("Truncated trun box at offset " + trun.offset());
+        }
+        int flags = run.getInt() & 0xFFFFFF;
+        long count = run.getInt() & 0xFFFFFFFFL;
+        skip(run, (flags & TRUN_DATA_OFFSET) != 0 ? 4 : 0, trun);
+        skip(run, (flags & TRUN_FIRST_SAMPLE_FLAGS) != 0 ? 4 : 0, trun);
+
+        boolean durations = (flags & TRUN_DURATION) != 0;
+        boolean sizes = (flags & TRUN_SIZE) != 0;
+        int stride = (durations ? 4 : 0) + (sizes ? 4 : 0)
+                + ((flags & TRUN_FLAGS) != 0 ? 4 : 0) + ((flags & TRUN_COMPOSITION_OFFSET) != 0 ? 4 : 0);
+        if (count * stride > run.remaining()) {
+            throw new CodecMediaException("Truncated trun box at offset " + trun.offset());
+        }
+        long duration = durations ? 0 : count * defaultDuration;
+        long bytes = sizes ? 0 : count * defaultSize;
+        if (durations || sizes) {
+            int start = run.position();
+            for (long i = 0; i < count; i++) {
+                int at = start + (int) (i * stride);
+                if (durations) {
+                    duration += run.getInt(at) & 0xFFFFFFFFL;
+                }
+                if (sizes) {
+                    bytes += run.getInt(durations ? at + 4 : at) & 0xFFFFFFFFL;
+                }
+            }
+        }
+        if (!indexed) {
+            track.sampleCount += count;
+            track.sampleBytes += bytes;
+        }
+        return duration;
+    }
+
+    private static void skip(ByteBuffer buffer, int count, BmffBox box) throws CodecMediaException {
+        if (buffer.remaining() < count) {
+            throw new CodecMediaException("Truncated " + box.type() + " box at offset " + box.offset());
+        }
+        buffer.position(buffer.position() + count);
+    }
+
+    private static long readUInt32(ByteBuffer buffer, BmffBox box) throws CodecMediaException {
+        if (buffer.remaining() < 4) {
+            throw new CodecMediaException("Truncated " + box.type() + " box at offset " + box.offset());
+        }
+        return buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    private static long readUInt32(byte[] bytes, int offset) throws CodecMediaException {
+        if (offset + 4 > bytes.length) {
+            throw new CodecMediaException("Unexpected end of BMFF data");
+        }
+        return ByteBuffer.wrap(bytes, offset, 4).getInt() & 0xFFFFFFFFL;
+    }
+
+    private static long readUInt64(byte[] bytes, int offset) throws CodecMediaException {
+        if (offset + 8 > bytes.length) {
+            throw new CodecMediaException("Unexpected end of BMFF data");
+        }
+        return ByteBuffer.wrap(bytes, offset, 8).getLong();
+    }
+
+    private static final class TrackState {
+        private final int trackId;
+        private final String handlerType;
+        private final long timescale;
+        private long defaultDuration;
+        private long defaultSize;
+        private long decodeTime;
+        private long endTime;
+        private long sampleCount;
+        private long sampleBytes;
+
+        private TrackState(int trackId, String handlerType, long timescale) {
+            this.trackId = trackId;
+            this.handlerType = handlerType;
+            this.timescale = timescale;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Rebuilds an in-memory {@code moov} box with new chunk offsets, optionally dropping tracks.
+ *
+ * <p>Only the {@code moov/trak/mdia/minf/stbl} path is re-serialized; every other box is copied
+ * verbatim. An {@code stco} table whose new offsets no longer fit in 32 bits is written as
+ * {@code co64}; since that grows {@code moov}, which in turn can move the media behind it, the tree is
+ * rebuilt until its size is stable. Memory use is bounded by the size of {@code moov}.
+ */
+public final class BmffMoovRewriter {
+
+    private static final Set<String> PATH_TYPES = Set.of("moov", "trak", "mdia", "minf", "stbl");
+
+    private BmffMoovRewriter() {
+    }
+
+    /**
+     * New file position of one chunk; {@code moovSize} is the size of the {@code moov} being written.
+     */
+    @FunctionalInterface
+    public interface ChunkOffsetMapper {
+        long map(int track, int chunk, long offset, long moovSize) throws CodecMediaException;
+    }
+
+    /**
+     * @param moov       the complete {@code moov} box, header included
+     * @param keepTrack  tests the index of each {@code trak} in {@code moov}; dropped tracks are omitted
+     * @param mapper     maps each chunk offset of a kept track
+     * @return the rewritten {@code moov} box
+     */
+    public static byte[] rewrite(byte[] moov, IntPredicate keepTrack, ChunkOffsetMapper mapper) throws CodecMediaException {
+        if (moov.length < 8 || !"moov".equals(new String(moov, 4, 4, StandardCharsets.ISO_8859_1))) {
+            throw new CodecMediaException("Expected a moov box to rewrite");
+        }
+        Set<Integer> co64Tables = new HashSet<>();
+        long moovSize = moov.length;
+        while (true) {
+            Pass pass = new Pass(moov, keepTrack, mapper, co64Tables, moovSize);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(moov.length);
+            pass.copyBoxes(0, moov.length, out, -1);
+            if (pass.upgraded.isEmpty() && out.size() == moovSize) {
+                return out.toByteArray();
+            }
+            co64Tables.addAll(pass.upgraded);
+            moovSize = out.size() + 4L * pass.upgradedEntries;
+        }
+    }
+
+    private static final class Pass {
+        private final byte[] src;
+        private final IntPredicate keepTrack;
+        private final ChunkOffsetMapper mapper;
+        private final Set<Integer> co64Tables;
+        private final long moovSize;
+        private final Set<Integer> upgraded = new HashSet<>();
+        private long upgradedEntries;
+        private int tracks;
+        private int tables;
+
+        private Pass(byte[] src, IntPredicate keepTrack, ChunkOffsetMapper mapper, Set<Integer> co64Tables, long moovSize) {
+            this.src = src;
+            this.keepTrack = keepTrack;
+            this.mapper = mapper;
+            this.co64Tables = co64Tables;
+            this.moovSize = moovSize;
+        }
+
+        private void copyBoxes(int start, int end, ByteArrayOutputStream out, int track) throws CodecMediaException {
+            ByteBuffer buffer = ByteBuffer.wrap(src);
+            int cursor = start;
+            while (cursor + 8 <= end) {
+                long size = buffer.getInt(cursor) & 0xFFFFFFFFL;
+                String type = new String(src, cursor + 4, 4, StandardCharsets.ISO_8859_1);
+                int headerSize = 8;
+                if (size == 1) {
+                    if (cursor + 16 > end) {
+                        throw new CodecMediaException("Invalid extended BMFF box header for type: " + type + " in moov");
+                    }
+                    size = buffer.getLong(cursor + 8);
+                    headerSize = 16;
+                } else if (size == 0) {
+                    size = end - cursor;
+                }
+                if (size < headerSize || size > end - cursor) {
+                    throw new CodecMediaException("Invalid BMFF box size for type: " + type + " in moov");
+                }
+                int boxEnd = cursor + (int) size;
+                int payload = cursor + headerSize;
+
+                if ("trak".equals(type) && track < 0) {
+                    int index = tracks++;
+                    if (keepTrack.test(index)) {
+                        writeContainer(type, payload, boxEnd, out, index);
+                    }
+                } else if (PATH_TYPES.contains(type)) {
+                    writeContainer(type, payload, boxEnd, out, track);
+                } else if (track >= 0 && ("stco".equals(type) || "co64".equals(type))) {
+                    writeChunkOffsets(type, payload, boxEnd, out, track);
+                } else {
+                    out.write(src, cursor, (int) size);
+                }
+                cursor = boxEnd;
+            }
+        }
+
+        private void writeContainer(String type, int payload, int end, ByteArrayOutputStream out, int track)
+                throws CodecMediaException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(end - payload);
+            copyBoxes(payload, end, body, track);
+            writeHeader(out, type, body.size());
+            out.write(body.toByteArray(), 0, body.size());
+        }
+
+        private void writeChunkOffsets(String type, int payload, int end, ByteArrayOutputStream out, int track)
+                throws CodecMediaException {
+            int table = tables++;
+            boolean wide = "co64".equals(type);
+            ByteBuffer in = ByteBuffer.wrap(src, payload, end - payload).slice();
+            if (in.remaining() < 8) {
+                throw new CodecMediaException("Truncated " + type + " box in moov");
+            }
+            int versionFlags = in.getInt();
+            long count = in.getInt() & 0xFFFFFFFFL;
+            if (count * (wide ? 8 : 4) > in.remaining()) {
+                throw new CodecMediaException("Truncated " + type + " box in moov");
+            }
+            boolean writeWide = wide || co64Tables.contains(table);
+            ByteBuffer entries = ByteBuffer.allocate(8 + (int) count * (writeWide ? 8 : 4));
+            entries.putInt(versionFlags).putInt((int) count);
+            for (int i = 0; i < count; i++) {
+                long offset = wide ? in.getLong() : in.getInt() & 0xFFFFFFFFL;
+                long mapped = mapper.map(track, i, offset, moovSize);
+                if (mapped < 0) {
+                    throw new CodecMediaException("Chunk offset maps outside the output: " + offset);
+                }
+                if (writeWide) {
+                    entries.putLong(mapped);
+                } else {
+                    if (mapped > 0xFFFFFFFFL && upgraded.add(table)) {
+                        upgradedEntries += count;
+                    }
+                    entries.putInt((int) mapped);
+                }
+            }
+            writeHeader(out, writeWide ? "co64" : "stco", entries.capacity());
+            out.write(entries.array(), 0, entries.capacity());
+        }
+
+        private static void writeHeader(ByteArrayOutputStream out, String type, long payloadSize) {
+            ByteBuffer header;
+            if (payloadSize + 8 > 0xFFFFFFFFL) {
+                header = ByteBuffer.allocate(16).putInt(1).put(type.getBytes(StandardCharsets.ISO_8859_1))
+                        .putLong(payloadSize + 16);
+            } else {
+                header = ByteBuffer.allocate(8).putInt((int) (payloadSize + 8))
+                        .put(type.getBytes(StandardCharsets.ISO_8859_1));
+            }
+            out.write(header.array(), 0, header.capacity());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.PacketReader;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.model.Packet;
+
+/**
+ * MP4/MOV packet reader backed by each track's {@link BmffSampleIndex}.
+ * <p>
+ * Samples of all tracks are merged in file-offset order (the order a sequential remux reads
+ * them), walking each track chunk by chunk so no per-sample offset search is needed. Tracks are
+ * identified by their {@code tkhd} track ID and times are in the track's media timescale; edit lists
+ * are not applied. {@link #seek(long)} moves every track to its keyframe at or before the target
+ * time. Fragmented files are not supported. The reader owns and closes the channel.
+ */
+public final class BmffPacketReader implements PacketReader {
+
+    private final SeekableByteChannel channel;
+    private final TrackCursor[] tracks;
+    private Packet current;
+
+    public BmffPacketReader(SeekableByteChannel channel) throws CodecMediaException {
+        this.channel = channel;
+        BmffReader reader = new BmffReader(channel);
+        BmffBox moov = reader.child(null, "moov");
+        if (moov == null) {
+            throw new CodecMediaException("Cannot read packets: missing moov box");
+        }
+        if (reader.child(moov, "mvex") != null) {
+            throw new CodecMediaException("Cannot read packets: fragmented MP4 is not supported");
+        }
+        List<TrackCursor> cursors = new ArrayList<>();
+        for (BmffBox trak : reader.children(moov, "trak")) {
+            BmffBox tkhd = reader.child(trak, "tkhd");
+            if (tkhd == null || tkhd.payloadSize() < 16) {
+                continue;
+            }
+            int version = reader.read(tkhd.payloadOffset(), 1)[0];
+            int trackId = ByteBuffer.wrap(reader.read(tkhd.payloadOffset() + (version == 1 ? 20 : 12), 4)).getInt();
+            BmffSampleIndex index = BmffSampleIndex.build(reader, trak);
+            TrackCursor cursor = new TrackCursor(trackId, index);
+            if (cursor.seekChunk(0)) {
+                cursors.add(cursor);
+            }
+        }
+        this.tracks = cursors.toArray(new TrackCursor[0]);
+    }
+
+    @Override
+    public Packet next() throws CodecMediaException {
+        TrackCursor next = null;
+        for (TrackCursor cursor : tracks) {
+            if (cursor.sample >= 0 && (next == null || cursor.offset < next.offset)) {
+                next = cursor;
+            }
+        }
+        if (next == null) {
+            current = null;
+            return null;
+        }
+        BmffSampleIndex index = next.index;
+        int sample = next.sample;
+        current = new Packet(next.trackId, index.presentationTime(sample), index.decodeTime(sample),
+                index.isKeyframe(sample), next.offset, index.sampleSize(sample), index.timescale());
+        next.advance();
+        return current;
+    }
+
+    @Override
+    public void readPayload(ByteBuffer target) throws CodecMediaException {
+        readPayload(channel, current, target);
+    }
+
+    @Override
+    public void seek(long millis) throws CodecMediaException {
+        for (TrackCursor cursor : tracks) {
+            BmffSampleIndex index = cursor.index;
+            cursor.seekSample(index.keyframeAtOrBefore(index.sampleAtMillis(millis)));
+        }
+        current = null;
+    }
+
+    @Override
+    public void close() throws CodecMediaException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to close packet reader", e);
+        }
+    }
+
+    private static void readPayload(SeekableByteChannel channel, Packet packet, ByteBuffer target) throws CodecMediaException {
+        if (packet == null) {
+            throw new CodecMediaException("No current packet to read");
+        }
+        if (target.remaining() < packet.size()) {
+            throw new CodecMediaException("Buffer too small for packet: " + target.remaining() + " < " + packet.size());
+        }
+        try {
+            ChannelReads.readFully(channel, packet.offset(), target.slice(target.position(), packet.size()));
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read packet at offset " + packet.offset(), e);
+        }
+        target.position(target.position() + packet.size());
+    }
+
+    private static final class TrackCursor {
+        private final int trackId;
+        private final BmffSampleIndex index;
+        private int chunk;
+        private int sample = -1;
+        private int chunkEnd;
+        private long offset;
+
+        private TrackCursor(int trackId, BmffSampleIndex index) {
+            this.trackId = trackId;
+            this.index = index;
+        }
+
+        /** Moves to the first sample of the first non-empty chunk from {@code from}; false when none is left. */
+        private boolean seekChunk(int from) {
+            for (chunk = from; chunk < index.chunkCount(); chunk++) {
+                int count = index.chunkSampleCount(chunk);
+                if (count > 0) {
+                    sample = index.chunkFirstSample(chunk);
+                    chunkEnd = sample + count;
+                    offset = index.chunkOffset(chunk);
+                    return true;
+                }
+            }
+            sample = -1;
+            return false;
+        }
+
+        private void seekSample(int target) {
+            chunk = index.chunkOf(target);
+            sample = target;
+            chunkEnd = index.chunkFirstSample(chunk) + index.chunkSampleCount(chunk);
+            offset = index.sampleOffset(target);
+        }
+
+        private void advance() {
+            offset += index.sampleSize(sample) & 0xFFFFFFFFL;
+            sample++;
+            if (sample >= chunkEnd) {
+                seekChunk(chunk + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ByteArrayChannel;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Lazy ISO-BMFF (MP4/MOV/HEIF) box tree over a seekable channel.
+ *
+ * <p>Only box headers are read while walking; a container's children are listed when asked for and
+ * payloads are read only through {@link #readPayload(BmffBox)}. Media data such as {@code mdat} is
+ * therefore skipped by its header size, so probing a large file reads the {@code moov} tree and the
+ * top-level headers in front of it. Supports 64-bit {@code largesize} headers and size 0 (box runs to
+ * the end of its parent). Not thread-safe.
+ */
+public final class BmffReader {
+
+    /** Largest payload {@link #readPayload(BmffBox)} will load into memory. */
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+
+    private static final Set<String> CONTAINER_TYPES = Set.of(
+            "moov", "trak", "mdia", "minf", "stbl", "edts", "dinf", "udta", "tref",
+            "mvex", "moof", "traf", "mfra", "sinf", "schi", "meta", "iprp", "ipco", "ilst");
+
+    private final SeekableByteChannel channel;
+    private long size;
+    private final ByteBuffer header = ByteBuffer.allocate(16);
+
+    public BmffReader(SeekableByteChannel channel) throws CodecMediaException {
+        this.channel = channel;
+        try {
+            this.size = channel.size();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read BMFF data size", e);
+        }
+    }
+
+    public static BmffReader of(byte[] bytes) throws CodecMediaException {
+        return new BmffReader(new ByteArrayChannel(bytes));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Re-reads the channel size, for files that are still being appended to.
+     */
+    public long refreshSize() throws CodecMediaException {
+        try {
+            size = channel.size();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read BMFF data size", e);
+        }
+        return size;
+    }
+
+    public static boolean isContainer(String type) {
+        return CONTAINER_TYPES.contains(type);
+    }
+
+    /**
+     * Reads the box header at {@code offset}.
+     *
+     * @return the box, or {@code null} when fewer than 8 bytes are left before {@code end}
+     */
+    public BmffBox readBox(long offset, long end) throws CodecMediaException {
+        return readBox(offset, end, false);
+    }
+
+    /**
+     * Like {@link #readBox(long, long)} for a file that is still growing: returns {@code null} instead
+     * of failing when the header or body is not complete before {@code end}, and for size-0 boxes
+     * whose end is not known yet.
+     */
+    public BmffBox readCompleteBox(long offset, long end) throws CodecMediaException {
+        return readBox(offset, end, true);
+    }
+
+    private BmffBox readBox(long offset, long end, boolean partial) throws CodecMediaException {
+        if (offset + 8 > end) {
+            return null;
+        }
+        header.clear().limit((int) Math.min(16, end - offset));
+        read(offset, header);
+        long boxSize = header.getInt(0) & 0xFFFFFFFFL;
+        String type = new String(header.array(), 4, 4, StandardCharsets.ISO_8859_1);
+        int headerSize = 8;
+        if (boxSize == 1) {
+            if (header.limit() < 16) {
+                if (partial) {
+                    return null;
+                }
+                throw new CodecMediaException("Invalid extended BMFF box header for type: " + type + " at offset " + offset);
+            }
+            boxSize = header.getLong(8);
+            headerSize = 16;
+        } else if (boxSize == 0) {
+            if (partial) {
+                return null;
+            }
+            boxSize = end - offset;
+        }
+        if (boxSize < headerSize) {
+            throw new CodecMediaException("Invalid BMFF box size for type: " + type + " at offset " + offset);
+        }
+        if (boxSize > end - offset) {
+            if (partial) {
+                return null;
+            }
+            throw new CodecMediaException("BMFF box exceeds bounds for type: " + type + " at offset " + offset);
+        }
+        return new BmffBox(type, offset, headerSize, boxSize);
+    }
+
+    public List<BmffBox> topLevel() throws CodecMediaException {
+        return list(0, size, null);
+    }
+
+    public List<BmffBox> children(BmffBox parent) throws CodecMediaException {
+        return list(childrenOffset(parent), parent.endOffset(), null);
+    }
+
+    public List<BmffBox> children(BmffBox parent, String type) throws CodecMediaException {
+        return list(childrenOffset(parent), parent.endOffset(), type);
+    }
+
+    /**
+     * First child of {@code parent} with the given type; a {@code null} parent means the top level.
+     * Stops reading headers as soon as the box is found.
+     */
+    public BmffBox child(BmffBox parent, String type) throws CodecMediaException {
+        long offset = parent == null ? 0 : childrenOffset(parent);
+        long end = parent == null ? size : parent.endOffset();
+        BmffBox box;
+        while ((box = readBox(offset, end)) != null) {
+            if (type.equals(box.type())) {
+                return box;
+            }
+            offset = box.endOffset();
+        }
+        return null;
+    }
+
+    /**
+     * Follows a slash-separated path of first matches from the top level, e.g. {@code moov/trak/mdia}.
+     */
+    public BmffBox find(String path) throws CodecMediaException {
+        BmffBox box = null;
+        for (String type : path.split("/")) {
+            box = child(box, type);
+            if (box == null) {
+                return null;
+            }
+        }
+        return box;
+    }
+
+    /**
+     * Depth-first search below {@code parent} (the top level when {@code null}), descending only into
+     * known container boxes.
+     */
+    public BmffBox findFirst(BmffBox parent, String type) throws CodecMediaException {
+        long offset = parent == null ? 0 : childrenOffset(parent);
+        long end = parent == null ? size : parent.endOffset();
+        BmffBox box;
+        while ((box = readBox(offset, end)) != null) {
+            if (type.equals(box.type())) {
+                return box;
+            }
+            if (isContainer(box.type())) {
+                BmffBox nested = findFirst(box, type);
+                if (nested != null) {
+                    return nested;
+                }
+            }
+            offset = box.endOffset();
+        }
+        return null;
+    }
+
+    public byte[] readPayload(BmffBox box) throws CodecMediaException {
+        if (box.payloadSize() > MAX_PAYLOAD_BYTES) {
+            throw new CodecMediaException("BMFF box too large to load: " + box.type() + " (" + box.payloadSize() + " bytes)");
+        }
+        return read(box.payloadOffset(), (int) box.payloadSize());
+    }
+
+    public byte[] read(long position, int length) throws CodecMediaException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        read(position, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Fills the remaining space of {@code buffer} from {@code position}.
+     */
+    public void read(long position, ByteBuffer buffer) throws CodecMediaException {
+        try {
+            ChannelReads.readFully(channel, position, buffer);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read BMFF data at offset " + position, e);
+        }
+    }
+
+    /**
+     * Start of the child boxes of {@code parent}. ISO {@code meta} is a full box with version/flags
+     * before its children; the QuickTime variant starts directly with {@code hdlr}.
+     */
+    private long childrenOffset(BmffBox parent) throws CodecMediaException {
+        long start = parent.payloadOffset();
+        if ("meta".equals(parent.type()) && parent.payloadSize() >= 8) {
+            byte[] probe = read(start, 8);
+            if (!"hdlr".equals(new String(probe, 4, 4, StandardCharsets.ISO_8859_1))) {
+                start += 4;
+            }
+        }
+        return start;
+    }
+
+    private List<BmffBox> list(long offset, long end, String type) throws CodecMediaException {
+        List<BmffBox> out = new ArrayList<>();
+        BmffBox box;
+        while ((box = readBox(offset, end)) != null) {
+            if (type == null || type.equals(box.type())) {
+                out.add(box);
+            }
+            offset = box.endOffset();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,456 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Per-track sample index built from the {@code stbl} tables of an MP4/MOV track.
+ *
+ * <p>Tables are loaded with bulk {@link java.nio.IntBuffer} reads and kept in primitive arrays:
+ * {@code stts}, {@code ctts} and {@code stsc} stay run-length encoded (one entry per run, with the
+ * first sample of each run precomputed), chunk offsets are one {@code long} per chunk, sample sizes
+ * are one {@code int} per sample (none when {@code stsz} has a constant size) and sync samples are one
+ * {@code int} per keyframe. Time, sample and keyframe lookups are binary searches over these runs;
+ * locating a sample inside its chunk adds the sizes of the samples before it in that chunk.
+ * Edit lists are not applied; times are in the track's media timescale.
+ */
+public final class BmffSampleIndex {
+
+    private static final int READ_CHUNK_INTS = 16 * 1024;
+
+    private final long timescale;
+    private final int sampleCount;
+
+    private final int[] timeRunFirstSample;
+    private final long[] timeRunFirstTime;
+    private final int[] timeRunDelta;
+    private final long duration;
+
+    private final int[] offsetRunFirstSample;
+    private final int[] offsetRunOffset;
+
+    private final int[] chunkRunFirstChunk;
+    private final int[] chunkRunFirstSample;
+    private final int[] chunkRunSamplesPerChunk;
+    private final long[] chunkOffsets;
+
+    private final int constantSampleSize;
+    private final int[] sampleSizes;
+    private final long totalSampleBytes;
+
+    private final int[] syncSamples;
+
+    private BmffSampleIndex(long timescale, int sampleCount, int[] timeRunFirstSample, long[] timeRunFirstTime,
+                            int[] timeRunDelta, long duration, int[] offsetRunFirstSample, int[] offsetRunOffset,
+                            int[] chunkRunFirstChunk, int[] chunkRunFirstSample, int[] chunkRunSamplesPerChunk,
+                            long[] chunkOffsets, int constantSampleSize, int[] sampleSizes, long totalSampleBytes,
+                            int[] syncSamples) {
+        this.timescale = timescale;
+        this.sampleCount = sampleCount;
+        this.timeRunFirstSample = timeRunFirstSample;
+        this.timeRunFirstTime = timeRunFirstTime;
+        this.timeRunDelta = timeRunDelta;
+        this.duration = duration;
+        this.offsetRunFirstSample = offsetRunFirstSample;
+        this.offsetRunOffset = offsetRunOffset;
+        this.chunkRunFirstChunk = chunkRunFirstChunk;
+        this.chunkRunFirstSample = chunkRunFirstSample;
+        this.chunkRunSamplesPerChunk = chunkRunSamplesPerChunk;
+        this.chunkOffsets = chunkOffsets;
+        this.constantSampleSize = constantSampleSize;
+        this.sampleSizes = sampleSizes;
+        this.totalSampleBytes = totalSampleBytes;
+        this.syncSamples = syncSamples;
+    }
+
+    /**
+     * Builds the index of a {@code trak} box, taking the timescale from {@code mdia/mdhd}.
+     */
+    public static BmffSampleIndex build(BmffReader reader, BmffBox trak) throws CodecMediaException {
+        BmffBox mdia = reader.child(trak, "mdia");
+        BmffBox mdhd = mdia == null ? null : reader.child(mdia, "mdhd");
+        BmffBox minf = mdia == null ? null : reader.child(mdia, "minf");
+        BmffBox stbl = minf == null ? null : reader.child(minf, "stbl");
+        if (mdhd == null || stbl == null || mdhd.payloadSize() < 24) {
+            throw new CodecMediaException("Track has no media header or sample table");
+        }
+        byte[] head = reader.read(mdhd.payloadOffset(), 24);
+        long timescale = ByteBuffer.wrap(head).getInt(head[0] == 1 ? 20 : 12) & 0xFFFFFFFFL;
+        return build(reader, stbl, timescale);
+    }
+
+    public static BmffSampleIndex build(BmffReader reader, BmffBox stbl, long timescale) throws CodecMediaException {
+        BmffBox stts = null;
+        BmffBox ctts = null;
+        BmffBox stsc = null;
+        BmffBox stco = null;
+        BmffBox stsz = null;
+        BmffBox stss = null;
+        for (BmffBox box : reader.children(stbl)) {
+            switch (box.type()) {
+                case "stts" -> stts = box;
+                case "ctts" -> ctts = box;
+                case "stsc" -> stsc = box;
+                case "stco", "co64" -> stco = box;
+                case "stsz" -> stsz = box;
+                case "stss" -> stss = box;
+                default -> {
+                }
+            }
+        }
+        if (stts == null || stsc == null || stco == null || stsz == null) {
+            throw new CodecMediaException("Sample table is missing stts, stsc, stco/co64 or stsz");
+        }
+
+        // stsz: version/flags, sample_size, sample_count[, entry_size...]
+        int[] stszHead = readInts(reader, stsz, 4, 2, 0);
+        int constantSampleSize = stszHead[0];
+        int sampleCount = checkedCount(stszHead[1], "stsz");
+        int[] sampleSizes = null;
+        long totalSampleBytes;
+        if (constantSampleSize != 0) {
+            totalSampleBytes = (constantSampleSize & 0xFFFFFFFFL) * sampleCount;
+        } else {
+            sampleSizes = readInts(reader, stsz, 12, sampleCount, 0);
+            totalSampleBytes = 0;
+            for (int size : sampleSizes) {
+                totalSampleBytes += size & 0xFFFFFFFFL;
+            }
+        }
+
+        // stts: (sample_count, sample_delta) runs
+        int entries = checkedCount(readInts(reader, stts, 4, 1, 0)[0], "stts");
+        int[] pairs = readInts(reader, stts, 8, entries * 2L, 0);
+        int[] timeRunFirstSample = new int[entries];
+        long[] timeRunFirstTime = new long[entries];
+        int[] timeRunDelta = new int[entries];
+        long sample = 0;
+        long time = 0;
+        for (int i = 0; i < entries; i++) {
+            timeRunFirstSample[i] = (int) Math.min(sample, Integer.MAX_VALUE);
+            timeRunFirstTime[i] = time;
+            timeRunDelta[i] = pairs[i * 2 + 1];
+            long count = pairs[i * 2] & 0xFFFFFFFFL;
+            sample += count;
+            time += count * (pairs[i * 2 + 1] & 0xFFFFFFFFL);
+        }
+
+        // ctts: (sample_count, sample_offset) runs; offsets are signed in version 1 and in practice in version 0
+        int[] offsetRunFirstSample = null;
+        int[] offsetRunOffset = null;
+        if (ctts != null) {
+            int cttsEntries = checkedCount(readInts(reader, ctts, 4, 1, 0)[0], "ctts");
+            int[] cttsPairs = readInts(reader, ctts, 8, cttsEntries * 2L, 0);
+            offsetRunFirstSample = new int[cttsEntries];
+            offsetRunOffset = new int[cttsEntries];
+            long first = 0;
+            for (int i = 0; i < cttsEntries; i++) {
+                offsetRunFirstSample[i] = (int) Math.min(first, Integer.MAX_VALUE);
+                offsetRunOffset[i] = cttsPairs[i * 2 + 1];
+                first += cttsPairs[i * 2] & 0xFFFFFFFFL;
+            }
+        }
+
+        // stco/co64: one offset per chunk
+        int chunkCount = checkedCount(readInts(reader, stco, 4, 1, 0)[0], stco.type());
+        long[] chunkOffsets = new long[chunkCount];
+        if ("co64".equals(stco.type())) {
+            int[] halves = readInts(reader, stco, 8, chunkCount * 2L, 0);
+            for (int i = 0; i < chunkCount; i++) {
+                chunkOffsets[i] = ((long) halves[i * 2] << 32) | (halves[i * 2 + 1] & 0xFFFFFFFFL);
+            }
+        } else {
+            int[] offsets = readInts(reader, stco, 8, chunkCount, 0);
+            for (int i = 0; i < chunkCount; i++) {
+                chunkOffsets[i] = offsets[i] & 0xFFFFFFFFL;
+            }
+        }
+
+        // stsc: (first_chunk, samples_per_chunk, sample_description_index) runs
+        int stscEntries = checkedCount(readInts(reader, stsc, 4, 1, 0)[0], "stsc");
+        int[] triples = readInts(reader, stsc, 8, stscEntries * 3L, 0);
+        int[] chunkRunFirstChunk = new int[stscEntries];
+        int[] chunkRunFirstSample = new int[stscEntries];
+        int[] chunkRunSamplesPerChunk = new int[stscEntries];
+        long firstSample = 0;
+        for (int i = 0; i < stscEntries; i++) {
+            chunkRunFirstChunk[i] = triples[i * 3] - 1;
+            chunkRunSamplesPerChunk[i] = triples[i * 3 + 1];
+            chunkRunFirstSample[i] = (int) Math.min(firstSample, Integer.MAX_VALUE);
+            if (chunkRunFirstChunk[i] < 0 || chunkRunSamplesPerChunk[i] <= 0
+                    || (i > 0 && chunkRunFirstChunk[i] <= chunkRunFirstChunk[i - 1])) {
+                throw new CodecMediaException("Invalid stsc entry " + i);
+            }
+            if (i + 1 < stscEntries) {
+                firstSample += (long) (triples[(i + 1) * 3] - 1 - chunkRunFirstChunk[i]) * chunkRunSamplesPerChunk[i];
+            }
+        }
+
+        // stss: 1-based sync sample numbers; absent means every sample is a keyframe
+        int[] syncSamples = null;
+        if (stss != null) {
+            int syncCount = checkedCount(readInts(reader, stss, 4, 1, 0)[0], "stss");
+            syncSamples = readInts(reader, stss, 8, syncCount, -1);
+        }
+
+        return new BmffSampleIndex(timescale, sampleCount, timeRunFirstSample, timeRunFirstTime, timeRunDelta, time,
+                offsetRunFirstSample, offsetRunOffset, chunkRunFirstChunk, chunkRunFirstSample, chunkRunSamplesPerChunk,
+                chunkOffsets, constantSampleSize, sampleSizes, totalSampleBytes, syncSamples);
+    }
+
+    /**
+     * Sum of all sample sizes of an {@code stsz} box, read in bulk without building an index.
+     */
+    public static long totalSampleBytes(BmffReader reader, BmffBox stsz) throws CodecMediaException {
+        int[] head = readInts(reader, stsz, 4, 2, 0);
+        long sampleCount = head[1] & 0xFFFFFFFFL;
+        if (head[0] != 0) {
+            return (head[0] & 0xFFFFFFFFL) * sampleCount;
+        }
+        long count = Math.min(sampleCount, Math.max(0, (stsz.payloadSize() - 12) / 4));
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, READ_CHUNK_INTS) * 4);
+        int[] sizes = new int[buffer.capacity() / 4];
+        long total = 0;
+        for (long done = 0; done < count; ) {
+            int n = (int) Math.min(count - done, READ_CHUNK_INTS);
+            buffer.clear().limit(n * 4);
+            reader.read(stsz.payloadOffset() + 12 + done * 4, buffer);
+            buffer.flip().asIntBuffer().get(sizes, 0, n);
+            for (int i = 0; i < n; i++) {
+                total += sizes[i] & 0xFFFFFFFFL;
+            }
+            done += n;
+        }
+        return total;
+    }
+
+    public long timescale() {
+        return timescale;
+    }
+
+    public int sampleCount() {
+        return sampleCount;
+    }
+
+    /** Sum of all {@code stts} deltas, in timescale units. */
+    public long duration() {
+        return duration;
+    }
+
+    public long totalSampleBytes() {
+        return totalSampleBytes;
+    }
+
+    public int chunkCount() {
+        return chunkOffsets.length;
+    }
+
+    public long chunkOffset(int chunk) {
+        return chunkOffsets[chunk];
+    }
+
+    public int chunkFirstSample(int chunk) {
+        if (chunkRunFirstChunk.length == 0) {
+            return 0;
+        }
+        int run = floorIndex(chunkRunFirstChunk, chunk);
+        long first = chunkRunFirstSample[run] + (long) (chunk - chunkRunFirstChunk[run]) * chunkRunSamplesPerChunk[run];
+        return (int) Math.min(first, sampleCount);
+    }
+
+    public int chunkSampleCount(int chunk) {
+        if (chunkRunFirstChunk.length == 0) {
+            return 0;
+        }
+        int run = floorIndex(chunkRunFirstChunk, chunk);
+        int first = chunkFirstSample(chunk);
+        return (int) Math.min(chunkRunSamplesPerChunk[run], sampleCount - (long) first);
+    }
+
+    /** Bytes of all samples in {@code chunk}, which are stored back to back from its offset. */
+    public long chunkSize(int chunk) {
+        int first = chunkFirstSample(chunk);
+        int count = chunkSampleCount(chunk);
+        if (sampleSizes == null) {
+            return (long) count * (constantSampleSize & 0xFFFFFFFFL);
+        }
+        long size = 0;
+        for (int i = first; i < first + count; i++) {
+            size += sampleSizes[i] & 0xFFFFFFFFL;
+        }
+        return size;
+    }
+
+    /**
+     * Last sample whose decode time is at or before {@code time}; times before the first sample map to
+     * sample 0 and times past the end to the last sample.
+     */
+    public int sampleAtTime(long time) {
+        if (sampleCount == 0 || timeRunFirstTime.length == 0 || time <= 0) {
+            return 0;
+        }
+        int run = floorIndex(timeRunFirstTime, time);
+        long delta = timeRunDelta[run] & 0xFFFFFFFFL;
+        int runLength = (run + 1 < timeRunFirstSample.length ? timeRunFirstSample[run + 1] : sampleCount) - timeRunFirstSample[run];
+        long within = delta == 0 ? 0 : (time - timeRunFirstTime[run]) / delta;
+        long sample = timeRunFirstSample[run] + Math.min(within, Math.max(0, runLength - 1));
+        return (int) Math.min(sample, sampleCount - 1);
+    }
+
+    public int sampleAtMillis(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        return sampleAtTime(millis > Long.MAX_VALUE / Math.max(1, timescale) ? Long.MAX_VALUE : millis * timescale / 1000);
+    }
+
+    public long decodeTime(int sample) {
+        checkSample(sample);
+        if (timeRunFirstSample.length == 0) {
+            return 0;
+        }
+        int run = floorIndex(timeRunFirstSample, sample);
+        return timeRunFirstTime[run] + (long) (sample - timeRunFirstSample[run]) * (timeRunDelta[run] & 0xFFFFFFFFL);
+    }
+
+    public long presentationTime(int sample) {
+        return decodeTime(sample) + compositionOffset(sample);
+    }
+
+    public int compositionOffset(int sample) {
+        checkSample(sample);
+        if (offsetRunFirstSample == null || offsetRunFirstSample.length == 0) {
+            return 0;
+        }
+        return offsetRunOffset[floorIndex(offsetRunFirstSample, sample)];
+    }
+
+    public int sampleSize(int sample) {
+        checkSample(sample);
+        return sampleSizes == null ? constantSampleSize : sampleSizes[sample];
+    }
+
+    public int chunkOf(int sample) {
+        checkSample(sample);
+        int run = floorIndex(chunkRunFirstSample, sample);
+        return chunkRunFirstChunk[run] + (sample - chunkRunFirstSample[run]) / chunkRunSamplesPerChunk[run];
+    }
+
+    /** File offset of the first byte of {@code sample}. */
+    public long sampleOffset(int sample) {
+        checkSample(sample);
+        int run = floorIndex(chunkRunFirstSample, sample);
+        int chunkInRun = (sample - chunkRunFirstSample[run]) / chunkRunSamplesPerChunk[run];
+        int chunk = chunkRunFirstChunk[run] + chunkInRun;
+        if (chunk >= chunkOffsets.length) {
+            throw new IllegalArgumentException("Sample " + sample + " maps past the last chunk");
+        }
+        int firstInChunk = chunkRunFirstSample[run] + chunkInRun * chunkRunSamplesPerChunk[run];
+        long offset = chunkOffsets[chunk];
+        if (sampleSizes == null) {
+            return offset + (long) (sample - firstInChunk) * (constantSampleSize & 0xFFFFFFFFL);
+        }
+        for (int i = firstInChunk; i < sample; i++) {
+            offset += sampleSizes[i] & 0xFFFFFFFFL;
+        }
+        return offset;
+    }
+
+    public boolean isKeyframe(int sample) {
+        checkSample(sample);
+        return syncSamples == null || Arrays.binarySearch(syncSamples, sample) >= 0;
+    }
+
+    /** Nearest keyframe at or before {@code sample} (the first keyframe when none precedes it). */
+    public int keyframeAtOrBefore(int sample) {
+        checkSample(sample);
+        if (syncSamples == null) {
+            return sample;
+        }
+        if (syncSamples.length == 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(syncSamples, sample);
+        if (index >= 0) {
+            return sample;
+        }
+        int insertion = -index - 1;
+        return syncSamples[Math.max(0, insertion - 1)];
+    }
+
+    /** Zero-based keyframe sample numbers; every sample when the track has no {@code stss}. */
+    public int[] keyframes() {
+        if (syncSamples == null) {
+            int[] all = new int[sampleCount];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        return syncSamples.clone();
+    }
+
+    private void checkSample(int sample) {
+        if (sample < 0 || sample >= sampleCount) {
+            throw new IllegalArgumentException("Sample out of range: " + sample + " (0-" + (sampleCount - 1) + ")");
+        }
+    }
+
+    private static int floorIndex(int[] sortedStarts, int value) {
+        int index = Arrays.binarySearch(sortedStarts, value);
+        if (index < 0) {
+            return Math.max(0, -index - 2);
+        }
+        // runs of length 0 share a start; use the last of them
+        while (index + 1 < sortedStarts.length && sortedStarts[index + 1] == value) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int floorIndex(long[] sortedStarts, long value) {
+        int index = Arrays.binarySearch(sortedStarts, value);
+        if (index < 0) {
+            return Math.max(0, -index - 2);
+        }
+        while (index + 1 < sortedStarts.length && sortedStarts[index + 1] == value) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int checkedCount(int raw, String table) throws CodecMediaException {
+        if (raw < 0) {
+            throw new CodecMediaException("Entry count too large in " + table + ": " + (raw & 0xFFFFFFFFL));
+        }
+        return raw;
+    }
+
+    /**
+     * Reads {@code count} big-endian ints starting {@code fieldOffset} bytes into the payload, in
+     * fixed-size bulk reads, adding {@code bias} to each value.
+     */
+    private static int[] readInts(BmffReader reader, BmffBox box, int fieldOffset, long longCount, int bias)
+            throws CodecMediaException {
+        if (longCount < 0 || fieldOffset + longCount * 4 > box.payloadSize()) {
+            throw new CodecMediaException("Truncated " + box.type() + " box: " + longCount + " values do not fit "
+                    + box.payloadSize() + " bytes");
+        }
+        int count = (int) longCount;
+        int[] out = new int[count];
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(count, READ_CHUNK_INTS) * 4);
+        for (int done = 0; done < count; ) {
+            int n = Math.min(count - done, READ_CHUNK_INTS);
+            buffer.clear().limit(n * 4);
+            reader.read(box.payloadOffset() + fieldOffset + done * 4L, buffer);
+            buffer.flip().asIntBuffer().get(out, done, n);
+            done += n;
+        }
+        if (bias != 0) {
+            for (int i = 0; i < count; i++) {
+                out[i] += bias;
+            }
+        }
+        return out;
+    }
+}
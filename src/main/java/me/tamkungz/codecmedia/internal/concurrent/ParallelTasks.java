@@ -0,0 +1,76 @@
+package me.tamkungz.codecmedia.internal.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Runs a fixed number of independent, index-addressed tasks on a bounded work-stealing pool.
+ */
+public final class ParallelTasks {
+
+    @FunctionalInterface
+    public interface IndexedTask {
+        void run(int index) throws CodecMediaException;
+    }
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * @return {@code requested} when positive, otherwise the number of available processors
+     */
+    public static int resolveParallelism(int requested) {
+        return requested > 0 ? requested : Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs {@code task} for every index in {@code [0, taskCount)} and waits for completion.
+     * Work runs on the calling thread when only one worker is needed.
+     */
+    public static void runAll(int taskCount, int parallelism, IndexedTask task) throws CodecMediaException {
+        int workers = Math.min(resolveParallelism(parallelism), taskCount);
+        if (workers <= 1) {
+            for (int i = 0; i < taskCount; i++) {
+                task.run(i);
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            List<Callable<Void>> callables = new ArrayList<>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                int index = i;
+                callables.add(() -> {
+                    task.run(index);
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(callables)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof CodecMediaException codecMediaException) {
+                        throw codecMediaException;
+                    }
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new CodecMediaException("Parallel task failed: " + cause, cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CodecMediaException("Interrupted while waiting for parallel tasks", e);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmEncoding;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.internal.audio.wav.WavFormatChunk;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * Direct WAV <-> AIFF/AIFC converter for uncompressed PCM, without Java Sound.
+ * <p>
+ * The source layout comes from the WAV {@code fmt } or AIFF {@code COMM} chunk and only the header
+ * is rebuilt. Sample data streams through two direct buffers: byte order is swapped with bulk copies
+ * between opposite-order buffer views (16/32/64-bit samples), 24-bit samples are swapped in place,
+ * and 8-bit samples flip their sign bit (WAV is unsigned, AIFF signed). Payloads that are already in
+ * the target byte order, such as AIFC {@code sowt} to WAV, are moved with {@code transferTo}. Float
+ * samples are written as WAV float (format 3, or its WAVE_FORMAT_EXTENSIBLE sub-format) with a
+ * {@code fact} chunk, or as AIFC {@code fl32}/{@code fl64} whatever the AIFF extension; integer
+ * samples are written as AIFC {@code NONE} to {@code aifc}. WAV output uses WAVE_FORMAT_EXTENSIBLE
+ * above 16 bits or 2 channels ({@link WavFormatChunk}) and switches to RF64 past 4 GiB.
+ */
+public final class AiffWavConverter implements MediaConverter {
+
+    private static final Set<String> AIFF_EXTENSIONS = Set.of("aif", "aiff", "aifc");
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long SIZE_LIMIT = 0xFFFFFFFFL;
+    private static final int AIFC_VERSION_1 = 0xA2805140;
+
+    static boolean supports(String sourceExtension, String targetExtension) {
+        return ("wav".equals(sourceExtension) && AIFF_EXTENSIONS.contains(targetExtension))
+                || (AIFF_EXTENSIONS.contains(sourceExtension) && "wav".equals(targetExtension));
+    }
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        if (!supports(request.sourceExtension(), request.targetExtension())) {
+            throw new CodecMediaException("Direct PCM conversion supports wav<->aiff/aifc only");
+        }
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                PcmLayout layout = PcmSources.readLayout(in);
+                if (layout == null) {
+                    throw new CodecMediaException("Direct PCM conversion requires WAV or AIFF PCM input: " + request.input());
+                }
+                int bytesPerSample = layout.bytesPerSample();
+                boolean supportedSize = layout.encoding() == PcmEncoding.FLOAT
+                        ? bytesPerSample == 4 || bytesPerSample == 8
+                        : bytesPerSample >= 1 && bytesPerSample <= 4 || bytesPerSample == 8;
+                if (!supportedSize) {
+                    throw new CodecMediaException("Unsupported PCM sample size for direct conversion: " + layout.bitsPerSample() + " bits");
+                }
+
+                boolean toWav = "wav".equals(request.targetExtension());
+                long dataBytes = layout.totalFrames() * layout.frameSize();
+                byte[] header = toWav
+                        ? wavHeader(layout, dataBytes)
+                        : aiffHeader(layout, dataBytes, "aifc".equals(request.targetExtension()));
+                ChannelWrites.writeFully(out, ByteBuffer.wrap(header));
+
+                boolean swap = bytesPerSample > 1 && layout.bigEndian() == toWav;
+                boolean flipSign = bytesPerSample == 1 && layout.encoding() != PcmEncoding.FLOAT
+                        && (layout.encoding() == PcmEncoding.UNSIGNED_INT) != toWav;
+                if (swap || flipSign) {
+                    copyConverted(in, layout, dataBytes, out);
+                } else {
+                    ChannelWrites.transferFully(in, layout.dataOffset(), dataBytes, out);
+                }
+                if ((dataBytes & 1) != 0) {
+                    ChannelWrites.writeFully(out, ByteBuffer.allocate(1));
+                }
+            }
+            return new ConversionResult(output, request.targetExtension(), true);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    /** Streams whole frames through two direct buffers, swapping byte order or flipping 8-bit sign bits. */
+    private static void copyConverted(FileChannel in, PcmLayout layout, long dataBytes, FileChannel out) throws IOException {
+        int chunk = Math.max(1, BUFFER_BYTES / layout.frameSize()) * layout.frameSize();
+        ByteBuffer source = ByteBuffer.allocateDirect(chunk);
+        ByteBuffer target = ByteBuffer.allocateDirect(chunk);
+        long position = layout.dataOffset();
+        long remaining = dataBytes;
+        while (remaining > 0) {
+            int length = (int) Math.min(chunk, remaining);
+            source.clear().limit(length);
+            ChannelReads.readFully(in, position, source);
+            source.flip();
+            target.clear().limit(length);
+            convertSamples(source, target, layout.bytesPerSample());
+            ChannelWrites.writeFully(out, target);
+            position += length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Converts {@code source} into {@code target} (both positioned at 0 with equal limits). Bulk view
+     * copies between buffers of opposite byte order are swapped by the JDK's vectorized copy routines.
+     */
+    private static void convertSamples(ByteBuffer source, ByteBuffer target, int bytesPerSample) {
+        source.order(ByteOrder.BIG_ENDIAN);
+        target.order(bytesPerSample == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int length = source.remaining();
+        switch (bytesPerSample) {
+            case 1 -> {
+                LongBuffer words = source.asLongBuffer();
+                LongBuffer flipped = target.asLongBuffer();
+                while (words.hasRemaining()) {
+                    flipped.put(words.get() ^ 0x8080808080808080L);
+                }
+                for (int i = length & ~7; i < length; i++) {
+                    target.put(i, (byte) (source.get(i) ^ 0x80));
+                }
+            }
+            case 2 -> target.asShortBuffer().put(source.asShortBuffer());
+            case 3 -> {
+                for (int i = 0; i + 2 < length; i += 3) {
+                    target.put(i, source.get(i + 2));
+                    target.put(i + 1, source.get(i + 1));
+                    target.put(i + 2, source.get(i));
+                }
+            }
+            case 4 -> target.asIntBuffer().put(source.asIntBuffer());
+            case 8 -> target.asLongBuffer().put(source.asLongBuffer());
+            default -> throw new IllegalArgumentException("Unsupported sample size: " + bytesPerSample);
+        }
+    }
+
+    private static byte[] wavHeader(PcmLayout layout, long dataBytes) {
+        boolean floating = layout.encoding() == PcmEncoding.FLOAT;
+        int fmtBytes = WavFormatChunk.chunkBytes(layout.channels(), layout.bytesPerSample(), floating);
+        int headerSize = 12 + fmtBytes + (floating ? 12 : 0) + 8;
+        long riffSize = headerSize + dataBytes + (dataBytes & 1) - 8;
+        boolean rf64 = riffSize > SIZE_LIMIT;
+        long frames = layout.totalFrames();
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize + (rf64 ? 36 : 0)).order(ByteOrder.LITTLE_ENDIAN);
+        if (rf64) {
+            riffSize += 36;
+        }
+        header.put(ascii(rf64 ? "RF64" : "RIFF")).putInt((int) (rf64 ? SIZE_LIMIT : riffSize)).put(ascii("WAVE"));
+        if (rf64) {
+            header.put(ascii("ds64")).putInt(28).putLong(riffSize).putLong(dataBytes).putLong(frames).putInt(0);
+        }
+        WavFormatChunk.put(header, layout.channels(), layout.sampleRate(), layout.bytesPerSample(),
+                layout.bitsPerSample(), floating);
+        if (floating) {
+            header.put(ascii("fact")).putInt(4).putInt((int) Math.min(frames, SIZE_LIMIT));
+        }
+        header.put(ascii("data")).putInt((int) (rf64 ? SIZE_LIMIT : dataBytes));
+        return header.array();
+    }
+
+    private static byte[] aiffHeader(PcmLayout layout, long dataBytes, boolean aifcTarget) throws CodecMediaException {
+        boolean floating = layout.encoding() == PcmEncoding.FLOAT;
+        boolean aifc = aifcTarget || floating;
+        String compression = floating ? (layout.bytesPerSample() == 4 ? "fl32" : "fl64") : "NONE";
+        String compressionName = floating ? (layout.bytesPerSample() == 4 ? "Float 32" : "Float 64") : "not compressed";
+        int nameBytes = (1 + compressionName.length() + 1) & ~1;
+        int commSize = 18 + (aifc ? 4 + nameBytes : 0);
+        int headerSize = 12 + (aifc ? 12 : 0) + 8 + commSize + 16;
+        long formSize = headerSize + dataBytes + (dataBytes & 1) - 8;
+        if (formSize > SIZE_LIMIT || layout.totalFrames() > SIZE_LIMIT) {
+            throw new CodecMediaException("AIFF output would exceed 4 GiB");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.BIG_ENDIAN);
+        header.put(ascii("FORM")).putInt((int) formSize).put(ascii(aifc ? "AIFC" : "AIFF"));
+        if (aifc) {
+            header.put(ascii("FVER")).putInt(4).putInt(AIFC_VERSION_1);
+        }
+        header.put(ascii("COMM")).putInt(commSize)
+                .putShort((short) layout.channels())
+                .putInt((int) layout.totalFrames())
+                .putShort((short) (floating ? layout.bytesPerSample() * 8 : layout.bitsPerSample()));
+        putExtended(header, layout.sampleRate());
+        if (aifc) {
+            header.put(ascii(compression)).put((byte) compressionName.length()).put(ascii(compressionName));
+            if ((compressionName.length() & 1) == 0) {
+                header.put((byte) 0);
+            }
+        }
+        header.put(ascii("SSND")).putInt((int) (8 + dataBytes)).putInt(0).putInt(0);
+        return header.array();
+    }
+
+    /** Writes a positive integer as an 80-bit IEEE 754 extended float (sign, 15-bit exponent, explicit-one mantissa). */
+    private static void putExtended(ByteBuffer buffer, int value) {
+        int highestBit = 31 - Integer.numberOfLeadingZeros(value);
+        buffer.putShort((short) (16383 + highestBit)).putLong((long) value << (63 - highestBit));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
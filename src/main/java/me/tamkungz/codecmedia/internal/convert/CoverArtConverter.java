@@ -0,0 +1,105 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.cover.CoverArtLocator;
+import me.tamkungz.codecmedia.internal.audio.cover.EmbeddedPicture;
+import me.tamkungz.codecmedia.model.ConversionResult;
+import me.tamkungz.codecmedia.model.MediaType;
+
+/**
+ * Audio -> image embedded cover-art export.
+ * <p>
+ * When the target format matches the embedded image, the payload is copied with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} and never decoded.
+ * Otherwise the picture is staged to a temporary file and handed to {@link ImageTranscodeConverter}.
+ */
+public final class CoverArtConverter implements MediaConverter {
+
+    private final MediaConverter imageTranscodeConverter = new ImageTranscodeConverter();
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        Path output = request.output();
+        String target = normalizeImageExtension(request.targetExtension());
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ)) {
+                EmbeddedPicture picture = CoverArtLocator.locate(in);
+                if (picture == null) {
+                    throw new CodecMediaException("No embedded cover art found: " + request.input());
+                }
+                String embedded = CoverArtLocator.imageExtension(in, picture);
+                if (embedded.equals(target)) {
+                    transferPicture(in, picture, output);
+                    return new ConversionResult(output, request.targetExtension(), false);
+                }
+                if (embedded.isEmpty()) {
+                    throw new CodecMediaException("Embedded cover art has an unrecognized image format: " + request.input());
+                }
+
+                Path staged = Files.createTempFile("codecmedia-cover-", "." + embedded);
+                try {
+                    transferPicture(in, picture, staged);
+                    return imageTranscodeConverter.convert(new ConversionRequest(
+                            staged,
+                            output,
+                            embedded,
+                            request.targetExtension(),
+                            MediaType.IMAGE,
+                            MediaType.IMAGE,
+                            request.options()
+                    ));
+                } finally {
+                    Files.deleteIfExists(staged);
+                }
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    static boolean hasCoverArt(Path input) throws CodecMediaException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            return CoverArtLocator.locate(in) != null;
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read embedded picture: " + input, e);
+        }
+    }
+
+    private static void transferPicture(FileChannel in, EmbeddedPicture picture, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = picture.offset();
+            long remaining = picture.length();
+            while (remaining > 0) {
+                long transferred = in.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    throw new IOException("Embedded picture exceeds file bounds");
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static String normalizeImageExtension(String extension) {
+        return switch (extension) {
+            case "jpeg" -> "jpg";
+            case "tif" -> "tiff";
+            default -> extension;
+        };
+    }
+}
@@ -6,14 +6,19 @@ import me.tamkungz.codecmedia.model.ConversionResult;
 public final class DefaultConversionHub implements ConversionHub {
 
     private final MediaConverter passthroughConverter = new SameFormatCopyConverter();
+    private final MediaConverter faststartConverter = new Mp4FaststartConverter();
     private final MediaConverter wavPcmConverter = new WavPcmConverter();
+    private final MediaConverter flacToWavConverter = new FlacToWavConverter();
+    private final MediaConverter wavToFlacConverter = new WavToFlacConverter();
+    private final MediaConverter aiffWavConverter = new AiffWavConverter();
     private final MediaConverter videoToAudioConverter = new UnsupportedRouteConverter(
             "video->audio conversion is not implemented yet (planned conversion hub path)"
     );
     private final MediaConverter mp4MovToM4aRemuxConverter = new Mp4MovToM4aRemuxConverter();
-    private final MediaConverter audioToImageConverter = new UnsupportedRouteConverter(
-            "audio->image (album cover) conversion is not implemented yet (planned conversion hub path)"
-    );
+    private final MediaConverter aacDemuxConverter = new Mp4AacDemuxConverter();
+    private final MediaConverter webmAudioToOggConverter = new WebmAudioToOggConverter();
+    private final MediaConverter coverArtConverter = new CoverArtConverter();
+    private final MediaConverter spectrogramConverter = new SpectrogramConverter();
     private final MediaConverter videoToVideoConverter = new UnsupportedRouteConverter(
             "video->video conversion is not implemented yet (planned conversion hub path)"
     );
@@ -23,13 +28,16 @@ public final class DefaultConversionHub implements ConversionHub {
     @Override
     public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
         if (request.sourceExtension().equals(request.targetExtension())) {
+            if (Mp4FaststartConverter.requested(request.sourceExtension(), request.targetExtension(), request.options().preset())) {
+                return faststartConverter.convert(request);
+            }
             return passthroughConverter.convert(request);
         }
 
         ConversionRoute route = ConversionRouteResolver.resolve(request.sourceMediaType(), request.targetMediaType());
         return switch (route) {
             case VIDEO_TO_AUDIO -> convertVideoToAudio(request);
-            case AUDIO_TO_IMAGE -> audioToImageConverter.convert(request);
+            case AUDIO_TO_IMAGE -> convertAudioToImage(request);
             case VIDEO_TO_VIDEO -> videoToVideoConverter.convert(request);
             case AUDIO_TO_AUDIO -> {
                 boolean wavPcmPair = ("wav".equals(request.sourceExtension()) && "pcm".equals(request.targetExtension()))
@@ -37,6 +45,18 @@ public final class DefaultConversionHub implements ConversionHub {
                 if (wavPcmPair) {
                     yield wavPcmConverter.convert(request);
                 }
+                if ("flac".equals(request.sourceExtension()) && "wav".equals(request.targetExtension())) {
+                    yield flacToWavConverter.convert(request);
+                }
+                if (WavToFlacConverter.supports(request.sourceExtension(), request.targetExtension())) {
+                    yield wavToFlacConverter.convert(request);
+                }
+                if (Mp4AacDemuxConverter.supports(request.sourceExtension(), request.targetExtension())) {
+                    yield aacDemuxConverter.convert(request);
+                }
+                if (AiffWavConverter.supports(request.sourceExtension(), request.targetExtension())) {
+                    yield aiffWavConverter.convert(request);
+                }
                 yield audioToAudioTranscodeConverter.convert(request);
             }
             case IMAGE_TO_IMAGE -> imageToImageTranscodeConverter.convert(request);
@@ -52,7 +72,33 @@ public final class DefaultConversionHub implements ConversionHub {
         if (mp4MovToM4a) {
             return mp4MovToM4aRemuxConverter.convert(request);
         }
+        if (Mp4AacDemuxConverter.supports(request.sourceExtension(), request.targetExtension())) {
+            return aacDemuxConverter.convert(request);
+        }
+        if (WebmAudioToOggConverter.supports(request.sourceExtension(), request.targetExtension())) {
+            return webmAudioToOggConverter.convert(request);
+        }
         return videoToAudioConverter.convert(request);
     }
-}
 
+    /**
+     * Preset {@code cover} exports embedded art only; spectrogram presets always render. Otherwise
+     * embedded art is preferred and the spectrogram is the fallback for untagged files.
+     */
+    private ConversionResult convertAudioToImage(ConversionRequest request) throws CodecMediaException {
+        String preset = request.options().preset() == null
+                ? ""
+                : request.options().preset().trim().toLowerCase(java.util.Locale.ROOT);
+        if ("cover".equals(preset)) {
+            return coverArtConverter.convert(request);
+        }
+        boolean spectrogramPreset = preset.contains("spectrogram")
+                || preset.contains("width=")
+                || preset.contains("height=")
+                || preset.contains("fft=");
+        if (!spectrogramPreset && CoverArtConverter.hasCoverArt(request.input())) {
+            return coverArtConverter.convert(request);
+        }
+        return spectrogramConverter.convert(request);
+    }
+}
@@ -0,0 +1,259 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacDecoder;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacFrameVerifier;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacParser;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacStreamInfo;
+import me.tamkungz.codecmedia.internal.audio.wav.WavFormatChunk;
+import me.tamkungz.codecmedia.internal.concurrent.ParallelTasks;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * FLAC -> WAV converter backed by the pure-Java FLAC decoder.
+ * <p>
+ * Decoded frames are packed straight into the WAV {@code data} chunk with positioned writes at
+ * {@code firstSample * blockAlign}, so with {@code threads=N} the stream is cut at verified frame
+ * boundaries and decoded region by region in parallel. Preset {@code verify} checks the STREAMINFO
+ * MD5; hashing is sequential, so it implies single-threaded decoding.
+ */
+public final class FlacToWavConverter implements MediaConverter {
+
+    private static final int REGIONS_PER_WORKER = 4;
+    private static final String PRESET_PREFIX_THREADS = "threads=";
+    private static final String PRESET_VERIFY = "verify";
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        if (!"flac".equals(request.sourceExtension()) || !"wav".equals(request.targetExtension())) {
+            throw new CodecMediaException("FLAC decoding supports flac->wav only");
+        }
+        DecodeParams params = parseDecodeParams(request.options().preset());
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                FlacStreamInfo info = FlacParser.readStreamInfo(in);
+                SampleLayout layout = new SampleLayout(info);
+                int workers = params.verifyMd5() ? 1 : ParallelTasks.resolveParallelism(params.threads());
+                long samples = workers == 1
+                        ? decodeSequential(in, out, info, layout, params.verifyMd5())
+                        : decodeParallel(in, out, info, layout, workers);
+                if (info.totalSamples() > 0 && samples != info.totalSamples()) {
+                    throw new CodecMediaException("FLAC decoded " + samples + " samples but STREAMINFO declares " + info.totalSamples());
+                }
+                writeWavHeader(out, info, layout, samples);
+            }
+            return new ConversionResult(output, request.targetExtension(), true);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    private static long decodeSequential(FileChannel in, FileChannel out, FlacStreamInfo info, SampleLayout layout, boolean verifyMd5)
+            throws CodecMediaException, IOException {
+        MessageDigest md5 = verifyMd5 && FlacDecoder.hasMd5(info) ? newMd5() : null;
+        FlacDecoder decoder = FlacDecoder.open(in, info);
+        FramePacker packer = new FramePacker(layout);
+        long end = 0L;
+        int blockSize;
+        while ((blockSize = decoder.decodeFrame()) > 0) {
+            end = Math.max(end, packer.write(decoder, blockSize, out));
+            if (md5 != null) {
+                decoder.digest(md5, packer.bytes);
+            }
+        }
+        if (md5 != null && !MessageDigest.isEqual(md5.digest(), info.md5())) {
+            throw new CodecMediaException("FLAC MD5 mismatch: decoded audio does not match the STREAMINFO signature");
+        }
+        return end;
+    }
+
+    private static long decodeParallel(FileChannel in, FileChannel out, FlacStreamInfo info, SampleLayout layout, int workers)
+            throws CodecMediaException, IOException {
+        long audioEnd = FlacDecoder.audioEnd(in, in.size());
+        long[] bounds = FlacFrameVerifier.splitAtVerifiedSyncs(in, info, audioEnd, workers * REGIONS_PER_WORKER);
+        AtomicLong end = new AtomicLong();
+        ParallelTasks.runAll(bounds.length - 1, workers, index -> {
+            FlacDecoder decoder = new FlacDecoder(in, info, bounds[index], bounds[index + 1]);
+            FramePacker packer = new FramePacker(layout);
+            long regionEnd = 0L;
+            int blockSize;
+            try {
+                while ((blockSize = decoder.decodeFrame()) > 0) {
+                    regionEnd = Math.max(regionEnd, packer.write(decoder, blockSize, out));
+                }
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to write WAV data: " + e.getMessage(), e);
+            }
+            end.accumulateAndGet(regionEnd, Math::max);
+        });
+        return end.get();
+    }
+
+    private static void writeWavHeader(FileChannel out, FlacStreamInfo info, SampleLayout layout, long samples)
+            throws CodecMediaException, IOException {
+        long dataSize = samples * layout.blockAlign;
+        long pad = dataSize & 1;
+        if (dataSize + pad > 0xFFFFFFFFL - (layout.headerBytes - 8)) {
+            throw new CodecMediaException("Decoded audio exceeds the 4 GiB WAV size limit");
+        }
+        ByteBuffer header = ByteBuffer.allocate(layout.headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.put((byte) 'R').put((byte) 'I').put((byte) 'F').put((byte) 'F');
+        header.putInt((int) (layout.headerBytes - 8 + dataSize + pad));
+        header.put((byte) 'W').put((byte) 'A').put((byte) 'V').put((byte) 'E');
+        WavFormatChunk.put(header, info.channels(), info.sampleRate(), layout.width, info.bitsPerSample(), false);
+        header.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+        header.putInt((int) dataSize);
+        header.flip();
+        while (header.hasRemaining()) {
+            out.write(header, header.position());
+        }
+        out.truncate(layout.headerBytes + dataSize);
+        if (pad != 0) {
+            out.write(ByteBuffer.wrap(new byte[1]), layout.headerBytes + dataSize);
+        }
+    }
+
+    private static MessageDigest newMd5() throws CodecMediaException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CodecMediaException("MD5 is not available in this runtime", e);
+        }
+    }
+
+    static DecodeParams parseDecodeParams(String preset) throws CodecMediaException {
+        int threads = 1;
+        boolean verifyMd5 = false;
+
+        if (preset == null || preset.isBlank() || "balanced".equalsIgnoreCase(preset.trim())) {
+            return new DecodeParams(threads, verifyMd5);
+        }
+
+        String[] tokens = preset.toLowerCase(Locale.ROOT).split(",");
+        for (String rawToken : tokens) {
+            String token = rawToken.trim();
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_THREADS)) {
+                threads = parseIntParam(token.substring(PRESET_PREFIX_THREADS.length()), "threads", 0, 256);
+                continue;
+            }
+            if (PRESET_VERIFY.equals(token)) {
+                verifyMd5 = true;
+                continue;
+            }
+            throw new CodecMediaException("Unsupported preset token for flac->wav: " + token);
+        }
+
+        return new DecodeParams(threads, verifyMd5);
+    }
+
+    private static int parseIntParam(String value, String name, int min, int max) throws CodecMediaException {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < min || parsed > max) {
+                throw new CodecMediaException(name + " out of range: " + parsed + " (" + min + "-" + max + ")");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new CodecMediaException("Invalid integer for " + name + ": " + value, e);
+        }
+    }
+
+    record DecodeParams(int threads, boolean verifyMd5) {
+    }
+
+    /**
+     * WAV sample container for a FLAC bit depth: whole bytes, left-justified, 8-bit unsigned; the
+     * header is longer when the {@code fmt } chunk needs WAVE_FORMAT_EXTENSIBLE.
+     */
+    private static final class SampleLayout {
+
+        private final int channels;
+        private final int width;
+        private final int shift;
+        private final int blockAlign;
+        private final int headerBytes;
+
+        SampleLayout(FlacStreamInfo info) {
+            this.channels = info.channels();
+            this.width = (info.bitsPerSample() + 7) >>> 3;
+            this.shift = width * 8 - info.bitsPerSample();
+            this.blockAlign = channels * width;
+            this.headerBytes = 12 + WavFormatChunk.chunkBytes(channels, width, false) + 8;
+        }
+    }
+
+    private static final class FramePacker {
+
+        private final SampleLayout layout;
+        private byte[] bytes;
+
+        FramePacker(SampleLayout layout) {
+            this.layout = layout;
+            this.bytes = new byte[4096 * layout.blockAlign];
+        }
+
+        /**
+         * @return sample number just past the written frame
+         */
+        long write(FlacDecoder decoder, int blockSize, FileChannel out) throws IOException {
+            int length = blockSize * layout.blockAlign;
+            if (bytes.length < length) {
+                bytes = Arrays.copyOf(bytes, length);
+            }
+            int channels = layout.channels;
+            int width = layout.width;
+            int shift = layout.shift;
+            for (int c = 0; c < channels; c++) {
+                int[] samples = decoder.channel(c);
+                int p = c * width;
+                if (width == 1) {
+                    for (int i = 0; i < blockSize; i++, p += layout.blockAlign) {
+                        bytes[p] = (byte) ((samples[i] << shift) + 128);
+                    }
+                } else {
+                    for (int i = 0; i < blockSize; i++, p += layout.blockAlign) {
+                        int value = samples[i] << shift;
+                        for (int b = 0; b < width; b++) {
+                            bytes[p + b] = (byte) (value >>> (8 * b));
+                        }
+                    }
+                }
+            }
+            long first = decoder.firstSample();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            long position = layout.headerBytes + first * layout.blockAlign;
+            while (buffer.hasRemaining()) {
+                position += out.write(buffer, position);
+            }
+            return first + blockSize;
+        }
+    }
+}
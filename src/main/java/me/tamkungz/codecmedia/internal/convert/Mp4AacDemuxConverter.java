@@ -0,0 +1,204 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.aac.AacAudioConfig;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
+import me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * MP4/MOV/M4A -> raw ADTS {@code .aac} demux without re-encode.
+ * <p>
+ * The first AAC audio track's sample table is walked chunk by chunk; samples that are contiguous in
+ * the file are read together in one positioned read of at most {@value #READ_AHEAD_BYTES} bytes, and
+ * each sample is written behind a 7-byte ADTS header synthesized from the {@code esds}
+ * AudioSpecificConfig. Heap use is two fixed buffers plus the sample table.
+ */
+public final class Mp4AacDemuxConverter implements MediaConverter {
+
+    private static final int READ_AHEAD_BYTES = 1024 * 1024;
+
+    public static boolean supports(String sourceExtension, String targetExtension) {
+        return "aac".equals(targetExtension)
+                && ("mp4".equals(sourceExtension) || "mov".equals(sourceExtension) || "m4a".equals(sourceExtension));
+    }
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        if (!supports(request.sourceExtension(), request.targetExtension())) {
+            throw new CodecMediaException("AAC demux supports mp4/mov/m4a -> aac only");
+        }
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                BmffReader reader = new BmffReader(in);
+                BmffBox moov = reader.child(null, "moov");
+                if (moov == null) {
+                    throw new CodecMediaException("Cannot demux to aac: missing moov box");
+                }
+                String found = null;
+                for (BmffBox trak : reader.children(moov, "trak")) {
+                    BmffBox stsd = findAudioStsd(reader, trak);
+                    if (stsd == null) {
+                        continue;
+                    }
+                    BmffBox entry = reader.readBox(stsd.payloadOffset() + 8, stsd.endOffset());
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (!"mp4a".equals(entry.type())) {
+                        found = found == null ? entry.type() : found;
+                        continue;
+                    }
+                    BmffBox esds = findEsds(reader, entry);
+                    if (esds == null) {
+                        throw new CodecMediaException("Cannot demux to aac: mp4a sample entry has no esds box");
+                    }
+                    AacAudioConfig config = AacAudioConfig.fromEsds(reader.readPayload(esds));
+                    writeAdtsFrames(in, out, BmffSampleIndex.build(reader, trak), config);
+                    return new ConversionResult(output, "aac", false);
+                }
+                throw new CodecMediaException("Cannot demux to aac: no AAC audio track found"
+                        + (found == null ? "" : " (found: " + found + ")"));
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    private static void writeAdtsFrames(FileChannel in, FileChannel out, BmffSampleIndex index, AacAudioConfig config)
+            throws CodecMediaException, IOException {
+        ByteBuffer window = ByteBuffer.allocate(READ_AHEAD_BYTES);
+        ByteBuffer frames = ByteBuffer.allocate(READ_AHEAD_BYTES);
+        int runFirst = 0;
+        int runEnd = 0;
+        long runStart = 0;
+        long runBytes = 0;
+        for (int chunk = 0; chunk < index.chunkCount(); chunk++) {
+            long offset = index.chunkOffset(chunk);
+            int first = index.chunkFirstSample(chunk);
+            int end = first + index.chunkSampleCount(chunk);
+            for (int sample = first; sample < end; sample++) {
+                int size = index.sampleSize(sample);
+                if (size < 0 || size > AacAudioConfig.MAX_ADTS_FRAME_BYTES - AacAudioConfig.ADTS_HEADER_BYTES) {
+                    throw new CodecMediaException("AAC frame too large for ADTS: sample " + sample + " (" + (size & 0xFFFFFFFFL) + " bytes)");
+                }
+                if (runBytes > 0 && (offset != runStart + runBytes || runBytes + size > READ_AHEAD_BYTES)) {
+                    emitRun(in, out, index, config, window, frames, runFirst, runEnd, runStart, (int) runBytes);
+                    runBytes = 0;
+                }
+                if (runBytes == 0) {
+                    runFirst = sample;
+                    runStart = offset;
+                }
+                runEnd = sample + 1;
+                runBytes += size;
+                offset += size;
+            }
+        }
+        if (runBytes > 0) {
+            emitRun(in, out, index, config, window, frames, runFirst, runEnd, runStart, (int) runBytes);
+        }
+        flush(out, frames);
+    }
+
+    /**
+     * Reads samples {@code [first, end)}, stored back to back from {@code position}, in one read and
+     * appends them as ADTS frames.
+     */
+    private static void emitRun(FileChannel in, FileChannel out, BmffSampleIndex index, AacAudioConfig config,
+                                ByteBuffer window, ByteBuffer frames, int first, int end, long position, int length)
+            throws CodecMediaException, IOException {
+        window.clear().limit(length);
+        ChannelReads.readFully(in, position, window);
+        window.flip();
+        for (int sample = first; sample < end; sample++) {
+            int size = index.sampleSize(sample);
+            if (frames.remaining() < AacAudioConfig.ADTS_HEADER_BYTES + size) {
+                flush(out, frames);
+            }
+            config.writeAdtsHeader(frames, size);
+            frames.put(window.slice(window.position(), size));
+            window.position(window.position() + size);
+        }
+    }
+
+    private static void flush(FileChannel out, ByteBuffer frames) throws IOException {
+        frames.flip();
+        while (frames.hasRemaining()) {
+            out.write(frames);
+        }
+        frames.clear();
+    }
+
+    private static BmffBox findAudioStsd(BmffReader reader, BmffBox trak) throws CodecMediaException {
+        BmffBox mdia = reader.child(trak, "mdia");
+        BmffBox hdlr = mdia == null ? null : reader.child(mdia, "hdlr");
+        if (hdlr == null || hdlr.payloadSize() < 12
+                || !"soun".equals(new String(reader.read(hdlr.payloadOffset() + 8, 4), StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        BmffBox minf = reader.child(mdia, "minf");
+        BmffBox stbl = minf == null ? null : reader.child(minf, "stbl");
+        BmffBox stsd = stbl == null ? null : reader.child(stbl, "stsd");
+        return stsd == null || stsd.payloadSize() < 16 ? null : stsd;
+    }
+
+    /**
+     * Finds {@code esds} after the AudioSampleEntry fields (extended by QuickTime sound description
+     * versions 1 and 2), including inside a QuickTime {@code wave} box.
+     */
+    private static BmffBox findEsds(BmffReader reader, BmffBox entry) throws CodecMediaException {
+        if (entry.payloadSize() < 28) {
+            return null;
+        }
+        int version = ByteBuffer.wrap(reader.read(entry.payloadOffset() + 8, 2)).getShort() & 0xFFFF;
+        long offset = entry.payloadOffset() + 28 + (version == 1 ? 16 : version == 2 ? 36 : 0);
+        BmffBox box;
+        while ((box = reader.readBox(offset, entry.endOffset())) != null) {
+            if ("esds".equals(box.type())) {
+                return box;
+            }
+            if ("wave".equals(box.type())) {
+                BmffBox nested = findEsdsIn(reader, box.payloadOffset(), box.endOffset());
+                if (nested != null) {
+                    return nested;
+                }
+            }
+            offset = box.endOffset();
+        }
+        return null;
+    }
+
+    private static BmffBox findEsdsIn(BmffReader reader, long offset, long end) throws CodecMediaException {
+        BmffBox box;
+        while ((box = reader.readBox(offset, end)) != null) {
+            if ("esds".equals(box.type())) {
+                return box;
+            }
+            offset = box.endOffset();
+        }
+        return null;
+    }
+}
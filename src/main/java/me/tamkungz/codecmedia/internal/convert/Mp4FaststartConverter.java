@@ -0,0 +1,162 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffMoovRewriter;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * Same-format MP4/MOV/M4A "faststart": moves {@code moov} in front of the media data so playback can
+ * start before the whole file has downloaded.
+ * <p>
+ * Only {@code moov} is loaded; its {@code stco}/{@code co64} chunk offsets are shifted by the distance
+ * each top-level box moves (upgrading to {@code co64} when needed) and every other box, {@code mdat}
+ * included, is copied untouched with {@code transferTo}. Files whose {@code moov} already precedes
+ * the media data are copied as-is.
+ */
+public final class Mp4FaststartConverter implements MediaConverter {
+
+    private static final String PRESET_FASTSTART = "faststart";
+
+    /**
+     * Whether the preset asks for faststart; used by the hub to pick this converter over a plain copy.
+     */
+    public static boolean requested(String sourceExtension, String targetExtension, String preset) {
+        if (!isBmffExtension(sourceExtension) || !isBmffExtension(targetExtension) || preset == null) {
+            return false;
+        }
+        for (String token : preset.toLowerCase(Locale.ROOT).split(",")) {
+            if (PRESET_FASTSTART.equals(token.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        if (!isBmffExtension(request.sourceExtension()) || !request.sourceExtension().equals(request.targetExtension())) {
+            throw new CodecMediaException("Faststart supports same-format mp4/mov/m4a only");
+        }
+        validatePreset(request.options().preset());
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                BmffReader reader = new BmffReader(in);
+                List<BmffBox> boxes = reader.topLevel();
+                int moovIndex = -1;
+                int firstMdat = -1;
+                for (int i = 0; i < boxes.size(); i++) {
+                    String type = boxes.get(i).type();
+                    if ("moov".equals(type)) {
+                        if (moovIndex >= 0) {
+                            throw new CodecMediaException("Cannot apply faststart: more than one moov box");
+                        }
+                        moovIndex = i;
+                    } else if ("mdat".equals(type) && firstMdat < 0) {
+                        firstMdat = i;
+                    } else if ("moof".equals(type)) {
+                        throw new CodecMediaException("Cannot apply faststart to fragmented MP4");
+                    }
+                }
+                if (moovIndex < 0) {
+                    throw new CodecMediaException("Cannot apply faststart: missing moov box");
+                }
+                if (firstMdat < 0 || moovIndex < firstMdat) {
+                    ChannelWrites.transferFully(in, 0, in.size(), out);
+                    return new ConversionResult(output, request.targetExtension(), false);
+                }
+
+                BmffBox moov = boxes.get(moovIndex);
+                if (moov.size() > BmffReader.MAX_PAYLOAD_BYTES) {
+                    throw new CodecMediaException("moov box too large to relocate: " + moov.size() + " bytes");
+                }
+                int moovAt = moovIndex;
+                int mdatAt = firstMdat;
+                byte[] relocated = BmffMoovRewriter.rewrite(reader.read(moov.offset(), (int) moov.size()), track -> true,
+                        (track, chunk, offset, moovSize) -> offset + shift(boxes, mdatAt, moovAt, offset, moovSize));
+
+                for (int i = 0; i < firstMdat; i++) {
+                    ChannelWrites.transferFully(in, boxes.get(i).offset(), boxes.get(i).size(), out);
+                }
+                ByteBuffer moovBuffer = ByteBuffer.wrap(relocated);
+                while (moovBuffer.hasRemaining()) {
+                    out.write(moovBuffer);
+                }
+                for (int i = firstMdat; i < boxes.size(); i++) {
+                    if (i != moovIndex) {
+                        ChannelWrites.transferFully(in, boxes.get(i).offset(), boxes.get(i).size(), out);
+                    }
+                }
+            }
+            return new ConversionResult(output, request.targetExtension(), false);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    /**
+     * Distance the top-level box holding {@code offset} moves once {@code moov} is written in front of
+     * {@code boxes[firstMdat]}.
+     */
+    private static long shift(List<BmffBox> boxes, int firstMdat, int moovIndex, long offset, long moovSize)
+            throws CodecMediaException {
+        int low = 0;
+        int high = boxes.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (boxes.get(mid).offset() <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        BmffBox box = boxes.get(low);
+        if (offset < box.offset() || offset >= box.endOffset() || low == moovIndex) {
+            throw new CodecMediaException("Chunk offset outside media data: " + offset);
+        }
+        if (low < firstMdat) {
+            return 0;
+        }
+        return low < moovIndex ? moovSize : moovSize - boxes.get(moovIndex).size();
+    }
+
+    private static void validatePreset(String preset) throws CodecMediaException {
+        if (preset == null || preset.isBlank() || "balanced".equalsIgnoreCase(preset.trim())) {
+            return;
+        }
+        for (String rawToken : preset.toLowerCase(Locale.ROOT).split(",")) {
+            String token = rawToken.trim();
+            if (token.isEmpty() || PRESET_FASTSTART.equals(token)) {
+                continue;
+            }
+            throw new CodecMediaException("Unsupported preset token for mp4 faststart: " + token);
+        }
+    }
+
+    private static boolean isBmffExtension(String extension) {
+        return "mp4".equals(extension) || "mov".equals(extension) || "m4a".equals(extension);
+    }
+}
@@ -1,22 +1,34 @@
 package me.tamkungz.codecmedia.internal.convert;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 
 import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffMoovRewriter;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
+import me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex;
+import me.tamkungz.codecmedia.internal.io.ChannelWrites;
 import me.tamkungz.codecmedia.model.ConversionResult;
 
 /**
  * Container-level audio remux path for MP4/MOV -> M4A without audio re-encode.
  * <p>
- * Implementation strategy is intentionally conservative and zero-dependency:
- * rewrite non-audio {@code trak} boxes in {@code moov} to {@code free} (same size),
- * preserving all chunk offsets and payload bytes.
+ * Only the audio tracks are kept: their chunks, located through each track's {@code stsc}/{@code stsz}
+ * and {@code stco}/{@code co64} tables, are copied into a fresh {@code mdat} with
+ * {@code transferTo} (adjacent chunks coalesced into one range), and {@code moov} is rebuilt without
+ * the other {@code trak} boxes and with the new chunk offsets. The output is {@code ftyp}, {@code moov}
+ * and {@code mdat}, so the m4a is faststart and its size follows the audio payload; heap use is bounded
+ * by {@code moov} and the chunk tables, never by media data.
  */
 public final class Mp4MovToM4aRemuxConverter implements MediaConverter {
 
@@ -38,44 +50,117 @@ public final class Mp4MovToM4aRemuxConverter implements MediaConverter {
                 throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
             }
 
-            byte[] inputBytes = Files.readAllBytes(request.input());
-            byte[] remuxed = remuxToM4aAudioOnly(inputBytes);
-            Files.write(output, remuxed);
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                remuxAudioTracks(new BmffReader(in), in, out);
+            }
             return new ConversionResult(output, "m4a", false);
         } catch (IOException e) {
             throw new CodecMediaException("Failed to remux file: " + request.input(), e);
         }
     }
 
-    private static byte[] remuxToM4aAudioOnly(byte[] bytes) throws CodecMediaException {
-        Box moov = findTopLevelBox(bytes, "moov");
+    private static void remuxAudioTracks(BmffReader reader, FileChannel in, FileChannel out)
+            throws CodecMediaException, IOException {
+        BmffBox ftyp = reader.child(null, "ftyp");
+        BmffBox moov = reader.child(null, "moov");
         if (moov == null) {
             throw new CodecMediaException("Cannot remux to m4a: missing moov box");
         }
+        if (reader.child(null, "moof") != null) {
+            throw new CodecMediaException("Cannot remux to m4a: fragmented MP4 input is not supported");
+        }
+        if (moov.size() > BmffReader.MAX_PAYLOAD_BYTES) {
+            throw new CodecMediaException("Cannot remux to m4a: moov box too large (" + moov.size() + " bytes)");
+        }
 
-        List<Box> moovChildren = parseChildBoxes(bytes, moov.payloadOffset(), moov.endOffset());
-        List<Box> trakBoxes = moovChildren.stream().filter(b -> "trak".equals(b.type())).toList();
-        if (trakBoxes.isEmpty()) {
-            throw new CodecMediaException("Cannot remux to m4a: source has no track boxes");
+        List<BmffBox> traks = reader.children(moov, "trak");
+        boolean[] keep = findAudioTracks(reader, traks);
+
+        // Audio chunks in source order; each gets its position relative to the new mdat payload
+        List<Chunk> chunks = new ArrayList<>();
+        long[][] relative = new long[traks.size()][];
+        for (int t = 0; t < traks.size(); t++) {
+            if (!keep[t]) {
+                continue;
+            }
+            BmffSampleIndex index = buildIndex(reader, traks.get(t));
+            int count = index == null ? 0 : index.chunkCount();
+            relative[t] = new long[count];
+            for (int c = 0; c < count; c++) {
+                chunks.add(new Chunk(t, c, index.chunkOffset(c), index.chunkSize(c)));
+            }
+        }
+        chunks.sort(Comparator.comparingLong(Chunk::offset));
+        long payloadSize = 0;
+        for (Chunk chunk : chunks) {
+            relative[chunk.track()][chunk.index()] = payloadSize;
+            payloadSize += chunk.size();
+        }
+        long ftypSize = ftyp == null ? 0 : ftyp.size();
+        int mdatHeaderSize = payloadSize + 8 > 0xFFFFFFFFL ? 16 : 8;
+
+        byte[] rebuilt = BmffMoovRewriter.rewrite(reader.read(moov.offset(), (int) moov.size()), track -> keep[track],
+                (track, chunk, offset, moovSize) -> ftypSize + moovSize + mdatHeaderSize + relative[track][chunk]);
+
+        if (ftyp != null) {
+            ChannelWrites.transferFully(in, ftyp.offset(), ftyp.size(), out);
         }
+        ChannelWrites.writeFully(out, ByteBuffer.wrap(rebuilt));
+        ByteBuffer mdatHeader = ByteBuffer.allocate(mdatHeaderSize);
+        if (mdatHeaderSize == 16) {
+            mdatHeader.putInt(1).put("mdat".getBytes(StandardCharsets.US_ASCII)).putLong(payloadSize + 16);
+        } else {
+            mdatHeader.putInt((int) (payloadSize + 8)).put("mdat".getBytes(StandardCharsets.US_ASCII));
+        }
+        ChannelWrites.writeFully(out, mdatHeader.flip());
 
-        List<Box> audioTracks = new ArrayList<>();
-        List<Box> nonAudioTracks = new ArrayList<>();
-        for (Box trak : trakBoxes) {
-            String handler = findTrackHandlerType(bytes, trak);
-            if ("soun".equals(handler)) {
-                audioTracks.add(trak);
-            } else {
-                nonAudioTracks.add(trak);
+        // Coalesce chunks that are contiguous in the source into single transfers
+        long rangeStart = -1;
+        long rangeEnd = -1;
+        for (Chunk chunk : chunks) {
+            if (chunk.offset() == rangeEnd) {
+                rangeEnd += chunk.size();
+                continue;
             }
+            if (rangeStart >= 0) {
+                ChannelWrites.transferFully(in, rangeStart, rangeEnd - rangeStart, out);
+            }
+            rangeStart = chunk.offset();
+            rangeEnd = chunk.offset() + chunk.size();
+        }
+        if (rangeStart >= 0) {
+            ChannelWrites.transferFully(in, rangeStart, rangeEnd - rangeStart, out);
         }
+    }
 
-        if (audioTracks.isEmpty()) {
-            throw new CodecMediaException("Cannot remux to m4a: no audio track found in source container");
+    /**
+     * Index of a kept track, or {@code null} when it carries no chunk table (an empty track).
+     */
+    private static BmffSampleIndex buildIndex(BmffReader reader, BmffBox trak) throws CodecMediaException {
+        BmffBox mdia = reader.child(trak, "mdia");
+        BmffBox minf = mdia == null ? null : reader.child(mdia, "minf");
+        BmffBox stbl = minf == null ? null : reader.child(minf, "stbl");
+        if (stbl == null || (reader.child(stbl, "stco") == null && reader.child(stbl, "co64") == null)) {
+            return null;
+        }
+        return BmffSampleIndex.build(reader, stbl, 0);
+    }
+
+    private static boolean[] findAudioTracks(BmffReader reader, List<BmffBox> trakBoxes) throws CodecMediaException {
+        if (trakBoxes.isEmpty()) {
+            throw new CodecMediaException("Cannot remux to m4a: source has no track boxes");
         }
 
-        for (Box audioTrack : audioTracks) {
-            String codecFourCc = findAudioSampleEntryFourCc(bytes, audioTrack);
+        boolean[] audio = new boolean[trakBoxes.size()];
+        boolean found = false;
+        for (int i = 0; i < trakBoxes.size(); i++) {
+            BmffBox trak = trakBoxes.get(i);
+            if (!"soun".equals(findTrackHandlerType(reader, trak))) {
+                continue;
+            }
+            String codecFourCc = findAudioSampleEntryFourCc(reader, trak);
             if (!isM4aCompatibleAudioFourCc(codecFourCc)) {
                 throw new CodecMediaException(
                         "Cannot remux to m4a: source audio track codec is not m4a-compatible (found: "
@@ -83,14 +168,14 @@ public final class Mp4MovToM4aRemuxConverter implements MediaConverter {
                                 + ")"
                 );
             }
+            audio[i] = true;
+            found = true;
         }
 
-        byte[] out = bytes.clone();
-        for (Box nonAudio : nonAudioTracks) {
-            // keep box size/payload unchanged; mark as free so players treat it as ignorable padding.
-            writeAscii(out, nonAudio.offset() + 4, "free");
+        if (!found) {
+            throw new CodecMediaException("Cannot remux to m4a: no audio track found in source container");
         }
-        return out;
+        return audio;
     }
 
     private static boolean isM4aCompatibleAudioFourCc(String codecFourCc) {
@@ -100,116 +185,30 @@ public final class Mp4MovToM4aRemuxConverter implements MediaConverter {
         return "mp4a".equals(codecFourCc) || "alac".equals(codecFourCc);
     }
 
-    private static String findTrackHandlerType(byte[] bytes, Box trak) throws CodecMediaException {
-        List<Box> trakChildren = parseChildBoxes(bytes, trak.payloadOffset(), trak.endOffset());
-        for (Box child : trakChildren) {
-            if (!"mdia".equals(child.type())) {
-                continue;
-            }
-            List<Box> mdiaChildren = parseChildBoxes(bytes, child.payloadOffset(), child.endOffset());
-            for (Box mdiaChild : mdiaChildren) {
-                if (!"hdlr".equals(mdiaChild.type())) {
-                    continue;
-                }
-                // full box: version+flags (4), pre_defined (4), handler_type (4)
-                int handlerOffset = mdiaChild.payloadOffset() + 8;
-                if (handlerOffset + 4 <= mdiaChild.endOffset()) {
-                    return readAscii(bytes, handlerOffset, 4);
-                }
-            }
-        }
-        return null;
-    }
-
-    private static String findAudioSampleEntryFourCc(byte[] bytes, Box trak) throws CodecMediaException {
-        List<Box> trakChildren = parseChildBoxes(bytes, trak.payloadOffset(), trak.endOffset());
-        for (Box child : trakChildren) {
-            if (!"mdia".equals(child.type())) {
-                continue;
-            }
-            List<Box> mdiaChildren = parseChildBoxes(bytes, child.payloadOffset(), child.endOffset());
-            for (Box mdiaChild : mdiaChildren) {
-                if (!"minf".equals(mdiaChild.type())) {
-                    continue;
-                }
-                List<Box> minfChildren = parseChildBoxes(bytes, mdiaChild.payloadOffset(), mdiaChild.endOffset());
-                for (Box minfChild : minfChildren) {
-                    if (!"stbl".equals(minfChild.type())) {
-                        continue;
-                    }
-                    List<Box> stblChildren = parseChildBoxes(bytes, minfChild.payloadOffset(), minfChild.endOffset());
-                    for (Box stblChild : stblChildren) {
-                        if (!"stsd".equals(stblChild.type())) {
-                            continue;
-                        }
-                        int payload = stblChild.payloadOffset();
-                        if (payload + 16 > stblChild.endOffset()) {
-                            return null;
-                        }
-                        long entryCount = readUInt32(bytes, payload + 4);
-                        if (entryCount <= 0) {
-                            return null;
-                        }
-                        int firstEntryOffset = payload + 8;
-                        if (firstEntryOffset + 8 > stblChild.endOffset()) {
-                            return null;
-                        }
-                        return readAscii(bytes, firstEntryOffset + 4, 4);
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
-    private static Box findTopLevelBox(byte[] bytes, String type) throws CodecMediaException {
-        List<Box> boxes = parseChildBoxes(bytes, 0, bytes.length);
-        for (Box box : boxes) {
-            if (type.equals(box.type())) {
-                return box;
-            }
+    private static String findTrackHandlerType(BmffReader reader, BmffBox trak) throws CodecMediaException {
+        BmffBox mdia = reader.child(trak, "mdia");
+        BmffBox hdlr = mdia == null ? null : reader.child(mdia, "hdlr");
+        // full box: version+flags (4), pre_defined (4), handler_type (4)
+        if (hdlr == null || hdlr.payloadSize() < 12) {
+            return null;
         }
-        return null;
+        return readAscii(reader.read(hdlr.payloadOffset() + 8, 4), 0, 4);
     }
 
-    private static List<Box> parseChildBoxes(byte[] bytes, int start, int endExclusive) throws CodecMediaException {
-        if (start < 0 || endExclusive < start || endExclusive > bytes.length) {
-            throw new CodecMediaException("Invalid BMFF parse range");
+    private static String findAudioSampleEntryFourCc(BmffReader reader, BmffBox trak) throws CodecMediaException {
+        BmffBox mdia = reader.child(trak, "mdia");
+        BmffBox minf = mdia == null ? null : reader.child(mdia, "minf");
+        BmffBox stbl = minf == null ? null : reader.child(minf, "stbl");
+        BmffBox stsd = stbl == null ? null : reader.child(stbl, "stsd");
+        if (stsd == null || stsd.payloadSize() < 16) {
+            return null;
         }
-        List<Box> out = new ArrayList<>();
-        int cursor = start;
-        while (cursor + 8 <= endExclusive) {
-            long size32 = readUInt32(bytes, cursor);
-            String type = readAscii(bytes, cursor + 4, 4);
-            int headerSize = 8;
-            long boxSize = size32;
-            if (size32 == 1L) {
-                if (cursor + 16 > endExclusive) {
-                    throw new CodecMediaException("Invalid extended BMFF box header for type: " + type);
-                }
-                boxSize = readUInt64(bytes, cursor + 8);
-                headerSize = 16;
-            } else if (size32 == 0L) {
-                boxSize = endExclusive - cursor;
-            }
-            if (boxSize < headerSize) {
-                throw new CodecMediaException("Invalid BMFF box size for type: " + type);
-            }
-            long next = cursor + boxSize;
-            if (next > endExclusive || next > Integer.MAX_VALUE) {
-                throw new CodecMediaException("BMFF box exceeds bounds for type: " + type);
-            }
-
-            int boxEnd = (int) next;
-            out.add(new Box(cursor, boxEnd, headerSize, type));
-            cursor = boxEnd;
+        // full box: version+flags (4), entry_count (4), then the first sample entry header
+        byte[] head = reader.read(stsd.payloadOffset(), 16);
+        if (readUInt32(head, 4) <= 0) {
+            return null;
         }
-        if (cursor != endExclusive) {
-            // trailing bytes are tolerated only when small padding was explicitly encoded as free/skip boxes.
-            // here we require clean boundaries for deterministic remux safety.
-            throw new CodecMediaException("Invalid BMFF box layout: unaligned payload near byte " + cursor);
-        }
-        return out;
+        return readAscii(head, 12, 4);
     }
 
     private static String normalize(String ext) {
@@ -230,20 +229,6 @@ public final class Mp4MovToM4aRemuxConverter implements MediaConverter {
                 | ((long) (bytes[offset + 3] & 0xFF));
     }
 
-    private static long readUInt64(byte[] bytes, int offset) throws CodecMediaException {
-        if (offset < 0 || offset + 8 > bytes.length) {
-            throw new CodecMediaException("Unexpected end of BMFF data while reading uint64");
-        }
-        return ((long) (bytes[offset] & 0xFF) << 56)
-                | ((long) (bytes[offset + 1] & 0xFF) << 48)
-                | ((long) (bytes[offset + 2] & 0xFF) << 40)
-                | ((long) (bytes[offset + 3] & 0xFF) << 32)
-                | ((long) (bytes[offset + 4] & 0xFF) << 24)
-                | ((long) (bytes[offset + 5] & 0xFF) << 16)
-                | ((long) (bytes[offset + 6] & 0xFF) << 8)
-                | ((long) (bytes[offset + 7] & 0xFF));
-    }
-
     private static String readAscii(byte[] bytes, int offset, int length) {
         if (offset < 0 || offset + length > bytes.length) {
             return "";
@@ -251,17 +236,6 @@ public final class Mp4MovToM4aRemuxConverter implements MediaConverter {
         return new String(bytes, offset, length, StandardCharsets.US_ASCII);
     }
 
-    private static void writeAscii(byte[] bytes, int offset, String value) {
-        byte[] encoded = value.getBytes(StandardCharsets.US_ASCII);
-        for (int i = 0; i < encoded.length; i++) {
-            bytes[offset + i] = encoded[i];
-        }
-    }
-
-    private record Box(int offset, int endOffset, int headerSize, String type) {
-        int payloadOffset() {
-            return offset + headerSize;
-        }
+    private record Chunk(int track, int index, long offset, long size) {
     }
 }
-
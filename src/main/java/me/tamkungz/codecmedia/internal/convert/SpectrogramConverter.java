@@ -0,0 +1,118 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.analysis.SpectrogramRenderer;
+import me.tamkungz.codecmedia.internal.image.jpeg.JpegCodec;
+import me.tamkungz.codecmedia.internal.image.png.PngCodec;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * Audio -> image spectrogram renderer (PNG/JPEG).
+ * <p>
+ * Preset tokens (comma-separated): {@code width=}, {@code height=}, {@code fft=} (power of two),
+ * and the optional marker {@code spectrogram}. Defaults are 1024x256 with a 2048-point FFT.
+ */
+public final class SpectrogramConverter implements MediaConverter {
+
+    private static final int DEFAULT_WIDTH = 1024;
+    private static final int DEFAULT_HEIGHT = 256;
+    private static final int DEFAULT_FFT_SIZE = 2048;
+
+    private static final String PRESET_MARKER = "spectrogram";
+    private static final String PRESET_PREFIX_WIDTH = "width=";
+    private static final String PRESET_PREFIX_HEIGHT = "height=";
+    private static final String PRESET_PREFIX_FFT = "fft=";
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        String target = request.targetExtension();
+        if (!"png".equals(target) && !"jpg".equals(target) && !"jpeg".equals(target)) {
+            throw new CodecMediaException("audio->image spectrogram rendering supports png/jpg/jpeg targets only");
+        }
+        SpectrogramParams params = parseSpectrogramParams(request.options().preset());
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to prepare output path: " + output, e);
+        }
+        if (Files.exists(output) && !request.options().overwrite()) {
+            throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+        }
+
+        BufferedImage image;
+        try {
+            image = SpectrogramRenderer.render(request.input(), params.width(), params.height(), params.fftSize(), 0);
+        } catch (CodecMediaException e) {
+            throw new CodecMediaException(
+                    "audio->image spectrogram rendering requires PCM-decodable audio: " + e.getMessage(), e);
+        }
+        if ("png".equals(target)) {
+            PngCodec.encode(image, output);
+        } else {
+            JpegCodec.encode(image, output);
+        }
+        return new ConversionResult(output, target, true);
+    }
+
+    static SpectrogramParams parseSpectrogramParams(String preset) throws CodecMediaException {
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        int fftSize = DEFAULT_FFT_SIZE;
+
+        if (preset == null || preset.isBlank() || "balanced".equalsIgnoreCase(preset.trim())) {
+            return new SpectrogramParams(width, height, fftSize);
+        }
+
+        String[] tokens = preset.toLowerCase(Locale.ROOT).split(",");
+        for (String rawToken : tokens) {
+            String token = rawToken.trim();
+            if (token.isEmpty() || PRESET_MARKER.equals(token)) {
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_WIDTH)) {
+                width = parseIntParam(token.substring(PRESET_PREFIX_WIDTH.length()), "width", 1, 16_384);
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_HEIGHT)) {
+                height = parseIntParam(token.substring(PRESET_PREFIX_HEIGHT.length()), "height", 1, 16_384);
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_FFT)) {
+                fftSize = parseIntParam(token.substring(PRESET_PREFIX_FFT.length()), "fft", 64, 65_536);
+                if (Integer.bitCount(fftSize) != 1) {
+                    throw new CodecMediaException("fft must be a power of two: " + fftSize);
+                }
+                continue;
+            }
+            throw new CodecMediaException("Unsupported preset token for audio->image spectrogram: " + token);
+        }
+
+        return new SpectrogramParams(width, height, fftSize);
+    }
+
+    private static int parseIntParam(String value, String name, int min, int max) throws CodecMediaException {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < min || parsed > max) {
+                throw new CodecMediaException(name + " out of range: " + parsed + " (" + min + "-" + max + ")");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new CodecMediaException("Invalid integer for " + name + ": " + value, e);
+        }
+    }
+
+    record SpectrogramParams(int width, int height, int fftSize) {
+    }
+}
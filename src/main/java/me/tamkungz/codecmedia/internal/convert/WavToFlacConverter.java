@@ -0,0 +1,190 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Set;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.flac.FlacEncoder;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmEncoding;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * WAV/AIFF -> FLAC converter backed by the pure-Java FLAC encoder.
+ * <p>
+ * Integer PCM is read straight from the data chunk with positioned reads, so the encoder sees the
+ * exact source samples. Presets: {@code lpc=N} caps the LPC order (0 keeps fixed predictors only),
+ * {@code block=N} sets the block size and {@code threads=N} the encoder pool (0, the default, uses
+ * every available processor). The output is identical for any thread count.
+ */
+public final class WavToFlacConverter implements MediaConverter {
+
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of("wav", "aif", "aiff", "aifc");
+    private static final int READ_CHUNK_FRAMES = 8192;
+    private static final String PRESET_PREFIX_LPC = "lpc=";
+    private static final String PRESET_PREFIX_BLOCK = "block=";
+    private static final String PRESET_PREFIX_THREADS = "threads=";
+
+    static boolean supports(String sourceExtension, String targetExtension) {
+        return SOURCE_EXTENSIONS.contains(sourceExtension) && "flac".equals(targetExtension);
+    }
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        if (!supports(request.sourceExtension(), request.targetExtension())) {
+            throw new CodecMediaException("FLAC encoding supports wav/aiff->flac only");
+        }
+        EncodeParams params = parseEncodeParams(request.options().preset());
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                PcmLayout layout = PcmSources.readLayout(in);
+                if (layout == null) {
+                    throw new CodecMediaException("FLAC encoding requires WAV or AIFF PCM input: " + request.input());
+                }
+                if (layout.encoding() == PcmEncoding.FLOAT) {
+                    throw new CodecMediaException("FLAC encoding requires integer PCM input, got floating point");
+                }
+                int bits = layout.bitsPerSample() > 0 && layout.bitsPerSample() <= layout.bytesPerSample() * 8
+                        ? layout.bitsPerSample()
+                        : layout.bytesPerSample() * 8;
+                FlacEncoder encoder = new FlacEncoder(layout.sampleRate(), layout.channels(), bits,
+                        params.blockSize(), params.maxLpcOrder(), params.threads());
+                encoder.encode(new PcmBlockReader(in, layout, bits), out);
+            }
+            return new ConversionResult(output, request.targetExtension(), true);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    static EncodeParams parseEncodeParams(String preset) throws CodecMediaException {
+        int maxLpcOrder = FlacEncoder.DEFAULT_MAX_LPC_ORDER;
+        int blockSize = FlacEncoder.DEFAULT_BLOCK_SIZE;
+        int threads = 0;
+
+        if (preset == null || preset.isBlank() || "balanced".equalsIgnoreCase(preset.trim())) {
+            return new EncodeParams(maxLpcOrder, blockSize, threads);
+        }
+
+        String[] tokens = preset.toLowerCase(Locale.ROOT).split(",");
+        for (String rawToken : tokens) {
+            String token = rawToken.trim();
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_LPC)) {
+                maxLpcOrder = parseIntParam(token.substring(PRESET_PREFIX_LPC.length()), "lpc", 0, 32);
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_BLOCK)) {
+                blockSize = parseIntParam(token.substring(PRESET_PREFIX_BLOCK.length()), "block", 16, 65_535);
+                continue;
+            }
+            if (token.startsWith(PRESET_PREFIX_THREADS)) {
+                threads = parseIntParam(token.substring(PRESET_PREFIX_THREADS.length()), "threads", 0, 256);
+                continue;
+            }
+            throw new CodecMediaException("Unsupported preset token for wav->flac: " + token);
+        }
+
+        return new EncodeParams(maxLpcOrder, blockSize, threads);
+    }
+
+    private static int parseIntParam(String value, String name, int min, int max) throws CodecMediaException {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < min || parsed > max) {
+                throw new CodecMediaException(name + " out of range: " + parsed + " (" + min + "-" + max + ")");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new CodecMediaException("Invalid integer for " + name + ": " + value, e);
+        }
+    }
+
+    record EncodeParams(int maxLpcOrder, int blockSize, int threads) {
+    }
+
+    /**
+     * Unpacks interleaved integer PCM into per-channel right-justified signed samples.
+     */
+    private static final class PcmBlockReader implements FlacEncoder.BlockSource {
+
+        private final FileChannel channel;
+        private final PcmLayout layout;
+        private final int shift;
+        private final ByteBuffer buffer;
+        private long framesRead;
+
+        PcmBlockReader(FileChannel channel, PcmLayout layout, int bits) {
+            this.channel = channel;
+            this.layout = layout;
+            this.shift = layout.bytesPerSample() * 8 - bits;
+            this.buffer = ByteBuffer.allocate(READ_CHUNK_FRAMES * layout.frameSize());
+        }
+
+        @Override
+        public int read(int[][] channels, int offset, int count) throws CodecMediaException {
+            long remaining = layout.totalFrames() - framesRead;
+            int frames = (int) Math.min(Math.min(count, READ_CHUNK_FRAMES), remaining);
+            if (frames <= 0) {
+                return 0;
+            }
+            buffer.clear().limit(frames * layout.frameSize());
+            long position = layout.frameOffset(framesRead);
+            try {
+                while (buffer.hasRemaining()) {
+                    int n = channel.read(buffer, position);
+                    if (n < 0) {
+                        throw new CodecMediaException("Unexpected end of PCM data at offset " + position);
+                    }
+                    position += n;
+                }
+            } catch (IOException e) {
+                throw new CodecMediaException("Failed to read PCM data: " + e.getMessage(), e);
+            }
+
+            byte[] bytes = buffer.array();
+            int width = layout.bytesPerSample();
+            boolean bigEndian = layout.bigEndian();
+            boolean unsigned = layout.encoding() == PcmEncoding.UNSIGNED_INT;
+            int channelCount = layout.channels();
+            int p = 0;
+            for (int i = 0; i < frames; i++) {
+                for (int c = 0; c < channelCount; c++) {
+                    int value = 0;
+                    for (int b = 0; b < width; b++) {
+                        int octet = bytes[p + (bigEndian ? b : width - 1 - b)] & 0xFF;
+                        value = (value << 8) | octet;
+                    }
+                    p += width;
+                    value = unsigned
+                            ? value - (1 << (width * 8 - 1))
+                            : (value << (32 - width * 8)) >> (32 - width * 8);
+                    channels[c][offset + i] = value >> shift;
+                }
+            }
+            framesRead += frames;
+            return frames;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package me.tamkungz.codecmedia.internal.convert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.ogg.OggPageWriter;
+import me.tamkungz.codecmedia.internal.video.webm.EbmlElement;
+import me.tamkungz.codecmedia.internal.video.webm.EbmlIds;
+import me.tamkungz.codecmedia.internal.video.webm.EbmlReader;
+import me.tamkungz.codecmedia.internal.video.webm.MatroskaLacing;
+import me.tamkungz.codecmedia.model.ConversionResult;
+
+/**
+ * WebM/Matroska -> Ogg extraction of an Opus or Vorbis audio track without re-encode.
+ * <p>
+ * Clusters are walked element by element; {@code SimpleBlock}/{@code Block} headers are read to
+ * find the track, and only audio block payloads are loaded. Frames (including laced ones) are
+ * written as Ogg packets with granule positions derived from block timestamps: a packet ends where
+ * the next block starts, and the last one ends at the segment duration. Header packets come from
+ * {@code CodecPrivate}; Opus gets a minimal {@code OpusTags} packet.
+ */
+public final class WebmAudioToOggConverter implements MediaConverter {
+
+    private static final int TRACK_TYPE_AUDIO = 2;
+    private static final int OPUS_RATE = 48_000;
+    private static final byte[] OPUS_TAGS_VENDOR = "codecmedia".getBytes(StandardCharsets.US_ASCII);
+
+    public static boolean supports(String sourceExtension, String targetExtension) {
+        return "ogg".equals(targetExtension) && ("webm".equals(sourceExtension) || "mkv".equals(sourceExtension));
+    }
+
+    @Override
+    public ConversionResult convert(ConversionRequest request) throws CodecMediaException {
+        if (!supports(request.sourceExtension(), request.targetExtension())) {
+            throw new CodecMediaException("WebM audio extraction supports webm/mkv -> ogg only");
+        }
+
+        Path output = request.output();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(output) && !request.options().overwrite()) {
+                throw new CodecMediaException("Output already exists and overwrite is disabled: " + output);
+            }
+
+            try (FileChannel in = FileChannel.open(request.input(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                extract(new EbmlReader(in), out);
+                return new ConversionResult(output, "ogg", false);
+            }
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to convert file: " + request.input(), e);
+        }
+    }
+
+    private static void extract(EbmlReader reader, FileChannel out) throws CodecMediaException, IOException {
+        EbmlElement ebml = reader.readElement(0, reader.size());
+        if (ebml == null || ebml.id() != EbmlIds.ID_EBML) {
+            throw new CodecMediaException("Cannot extract audio: missing EBML header");
+        }
+        EbmlElement segment = reader.readElement(ebml.endOffset(), reader.size());
+        if (segment == null || segment.id() != EbmlIds.ID_SEGMENT) {
+            throw new CodecMediaException("Cannot extract audio: missing Segment element");
+        }
+
+        long timecodeScale = 1_000_000L;
+        double duration = -1;
+        AudioTrack track = null;
+        PacketStream stream = null;
+        long offset = segment.payloadOffset();
+        EbmlElement element;
+        while ((element = reader.readElement(offset, segment.endOffset())) != null) {
+            if (element.id() == EbmlIds.ID_INFO) {
+                EbmlElement scale = reader.child(element, EbmlIds.ID_TIMECODE_SCALE);
+                if (scale != null) {
+                    timecodeScale = reader.readUnsigned(scale);
+                }
+                EbmlElement durationElement = reader.child(element, EbmlIds.ID_DURATION);
+                if (durationElement != null) {
+                    duration = reader.readFloat(durationElement);
+                }
+            } else if (element.id() == EbmlIds.ID_TRACKS) {
+                track = findAudioTrack(reader, element);
+            } else if (element.id() == EbmlIds.ID_CLUSTER) {
+                if (track == null) {
+                    throw new CodecMediaException("Cannot extract audio: Tracks element must precede the first Cluster");
+                }
+                if (stream == null) {
+                    stream = new PacketStream(new OggPageWriter(out, (int) track.number()), track, timecodeScale);
+                    stream.writeHeaders();
+                }
+                offset = readCluster(reader, element, stream);
+                continue;
+            }
+            offset = element.endOffset();
+        }
+        if (track == null) {
+            throw new CodecMediaException("Cannot extract audio: missing Tracks element");
+        }
+        if (stream == null) {
+            stream = new PacketStream(new OggPageWriter(out, (int) track.number()), track, timecodeScale);
+            stream.writeHeaders();
+        }
+        stream.finish(duration < 0 ? -1 : (long) (duration * timecodeScale));
+    }
+
+    private static AudioTrack findAudioTrack(EbmlReader reader, EbmlElement tracks) throws CodecMediaException {
+        String found = null;
+        for (EbmlElement entry : reader.children(tracks)) {
+            if (entry.id() != EbmlIds.ID_TRACK_ENTRY) {
+                continue;
+            }
+            EbmlElement type = reader.child(entry, EbmlIds.ID_TRACK_TYPE);
+            if (type == null || reader.readUnsigned(type) != TRACK_TYPE_AUDIO) {
+                continue;
+            }
+            EbmlElement codec = reader.child(entry, EbmlIds.ID_CODEC_ID);
+            String codecId = codec == null ? "" : reader.readString(codec);
+            if (!"A_OPUS".equals(codecId) && !"A_VORBIS".equals(codecId)) {
+                found = found == null ? codecId : found;
+                continue;
+            }
+            if (reader.child(entry, EbmlIds.ID_CONTENT_ENCODINGS) != null) {
+                throw new CodecMediaException("Cannot extract audio: compressed or encrypted Matroska tracks are not supported");
+            }
+            EbmlElement number = reader.child(entry, EbmlIds.ID_TRACK_NUMBER);
+            EbmlElement codecPrivate = reader.child(entry, EbmlIds.ID_CODEC_PRIVATE);
+            if (number == null || codecPrivate == null) {
+                throw new CodecMediaException("Cannot extract audio: " + codecId + " track is missing TrackNumber or CodecPrivate");
+            }
+            EbmlElement delay = reader.child(entry, EbmlIds.ID_CODEC_DELAY);
+            return new AudioTrack(reader.readUnsigned(number), "A_OPUS".equals(codecId),
+                    reader.readPayload(codecPrivate), delay == null ? 0 : reader.readUnsigned(delay));
+        }
+        throw new CodecMediaException("Cannot extract audio to ogg: no Opus or Vorbis audio track found"
+                + (found == null ? "" : " (found: " + found + ")"));
+    }
+
+    /**
+     * Feeds the audio blocks of one cluster to the stream and returns the offset of the next
+     * top-level element (which, for an unknown-size cluster, is where its children stop).
+     */
+    private static long readCluster(EbmlReader reader, EbmlElement cluster, PacketStream stream)
+            throws CodecMediaException, IOException {
+        long clusterTimecode = 0;
+        long offset = cluster.payloadOffset();
+        EbmlElement element;
+        while ((element = reader.readElement(offset, cluster.endOffset())) != null) {
+            if (cluster.unknownSize() && EbmlReader.isSegmentChild(element.id())) {
+                return offset;
+            }
+            if (element.id() == EbmlIds.ID_CLUSTER_TIMECODE) {
+                clusterTimecode = reader.readUnsigned(element);
+            } else if (element.id() == EbmlIds.ID_SIMPLE_BLOCK) {
+                stream.readBlock(reader, element, clusterTimecode);
+            } else if (element.id() == EbmlIds.ID_BLOCK_GROUP) {
+                EbmlElement block = reader.child(element, EbmlIds.ID_BLOCK);
+                if (block != null) {
+                    stream.readBlock(reader, block, clusterTimecode);
+                }
+            }
+            offset = element.endOffset();
+        }
+        return cluster.endOffset();
+    }
+
+    private record AudioTrack(long number, boolean opus, byte[] codecPrivate, long codecDelayNanos) {
+    }
+
+    /**
+     * Holds back one block so each frame's end granule can be taken from the next block's timestamp.
+     */
+    private static final class PacketStream {
+        private final OggPageWriter writer;
+        private final AudioTrack track;
+        private final long timecodeScale;
+        private final ByteBuffer blockHeader = ByteBuffer.allocate(11);
+        private int sampleRate;
+        private long granuleOffset;
+        private long lastGranule;
+
+        private byte[] pending = new byte[64 * 1024];
+        private int[] pendingFrames = new int[8];
+        private int pendingCount;
+        private long pendingStart = -1;
+        private long previousStart = -1;
+        private byte[] current = new byte[64 * 1024];
+        private int[] currentFrames = new int[8];
+
+        private PacketStream(OggPageWriter writer, AudioTrack track, long timecodeScale) {
+            this.writer = writer;
+            this.track = track;
+            this.timecodeScale = timecodeScale;
+        }
+
+        private void writeHeaders() throws CodecMediaException, IOException {
+            byte[] codecPrivate = track.codecPrivate();
+            if (track.opus()) {
+                if (codecPrivate.length < 19 || !"OpusHead".equals(new String(codecPrivate, 0, 8, StandardCharsets.US_ASCII))) {
+                    throw new CodecMediaException("Cannot extract audio: invalid OpusHead in CodecPrivate");
+                }
+                sampleRate = OPUS_RATE;
+                int preSkip = (codecPrivate[10] & 0xFF) | ((codecPrivate[11] & 0xFF) << 8);
+                // Timestamps that already include the codec delay count decoded samples; older files start at the first audible one
+                granuleOffset = track.codecDelayNanos() > 0 ? 0 : preSkip;
+                writer.writePacket(codecPrivate, 0);
+                writer.flush();
+                ByteBuffer tags = ByteBuffer.allocate(8 + 4 + OPUS_TAGS_VENDOR.length + 4).order(ByteOrder.LITTLE_ENDIAN);
+                tags.put("OpusTags".getBytes(StandardCharsets.US_ASCII)).putInt(OPUS_TAGS_VENDOR.length).put(OPUS_TAGS_VENDOR).putInt(0);
+                writer.writePacket(tags.array(), 0);
+                writer.flush();
+                return;
+            }
+            byte[][] headers = splitXiphLaced(codecPrivate);
+            if (headers.length != 3 || headers[0].length < 30 || headers[0][0] != 1) {
+                throw new CodecMediaException("Cannot extract audio: invalid Vorbis headers in CodecPrivate");
+            }
+            sampleRate = ByteBuffer.wrap(headers[0], 12, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            if (sampleRate <= 0) {
+                throw new CodecMediaException("Cannot extract audio: invalid Vorbis sample rate " + sampleRate);
+            }
+            writer.writePacket(headers[0], 0);
+            writer.flush();
+            writer.writePacket(headers[1], 0);
+            writer.writePacket(headers[2], 0);
+            writer.flush();
+        }
+
+        /**
+         * Reads the block header and, for the audio track only, the frames that follow it.
+         */
+        private void readBlock(EbmlReader reader, EbmlElement block, long clusterTimecode)
+                throws CodecMediaException, IOException {
+            blockHeader.clear().limit((int) Math.min(blockHeader.capacity(), block.size()));
+            reader.read(block.payloadOffset(), blockHeader);
+            int first = blockHeader.get(0) & 0xFF;
+            int length = Integer.numberOfLeadingZeros(first) - 23;
+            if (first == 0 || length + 3 > blockHeader.limit()) {
+                throw new CodecMediaException("Invalid Matroska block header at offset " + block.offset());
+            }
+            long trackNumber = first & (0xFF >>> length);
+            for (int i = 1; i < length; i++) {
+                trackNumber = (trackNumber << 8) | (blockHeader.get(i) & 0xFF);
+            }
+            if (trackNumber != track.number()) {
+                return;
+            }
+            long start = (clusterTimecode + blockHeader.getShort(length)) * timecodeScale;
+            int flags = blockHeader.get(length + 2) & 0xFF;
+            long payloadSize = block.size() - length - 3;
+            if (payloadSize > EbmlReader.MAX_PAYLOAD_BYTES) {
+                throw new CodecMediaException("Matroska block too large: " + payloadSize + " bytes at offset " + block.offset());
+            }
+            if (current.length < payloadSize) {
+                current = new byte[(int) Math.max(payloadSize, current.length * 2L)];
+            }
+            reader.read(block.payloadOffset() + length + 3, ByteBuffer.wrap(current, 0, (int) payloadSize));
+            int frames = unlace(current, (int) payloadSize, (flags >> 1) & 3, block.offset());
+
+            if (pendingStart >= 0) {
+                writePending(Math.max(start, pendingStart));
+            }
+            previousStart = pendingStart;
+            byte[] swap = pending;
+            pending = current;
+            current = swap;
+            int[] swapFrames = pendingFrames;
+            pendingFrames = currentFrames;
+            currentFrames = swapFrames;
+            pendingCount = frames;
+            pendingStart = start;
+        }
+
+        /**
+         * Splits {@code current} into frame sizes stored in {@code currentFrames}, moving the frame
+         * data to the front of the buffer, and returns the frame count.
+         */
+        private int unlace(byte[] data, int size, int lacing, long blockOffset) throws CodecMediaException {
+            if (lacing != MatroskaLacing.NONE && size < 1) {
+                throw new CodecMediaException("Invalid Matroska lacing at offset " + blockOffset);
+            }
+            int count = MatroskaLacing.frameCount(lacing, lacing == MatroskaLacing.NONE ? 0 : data[0]);
+            if (currentFrames.length < count) {
+                currentFrames = new int[count];
+            }
+            int start = MatroskaLacing.readFrameSizes(lacing, data, size, size, currentFrames);
+            System.arraycopy(data, start, data, 0, size - start);
+            return count;
+        }
+
+        /**
+         * Writes the held-back frames, spreading the span up to {@code end} evenly across them.
+         */
+        private void writePending(long end) throws IOException {
+            int position = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                long frameEnd = pendingStart + (end - pendingStart) * (i + 1) / pendingCount;
+                long granule = Math.max(lastGranule, granuleOffset + samples(frameEnd));
+                writer.writePacket(ByteBuffer.wrap(pending, position, pendingFrames[i]), granule);
+                lastGranule = granule;
+                position += pendingFrames[i];
+            }
+            pendingCount = 0;
+        }
+
+        /**
+         * Writes the last block, ending at the segment duration (or one block step past its start)
+         * and closes the stream.
+         */
+        private void finish(long durationNanos) throws CodecMediaException, IOException {
+            if (pendingStart >= 0) {
+                long end;
+                if (durationNanos > pendingStart) {
+                    end = durationNanos;
+                } else if (track.opus()) {
+                    end = pendingStart + opusNanos();
+                } else {
+                    end = previousStart >= 0 ? 2 * pendingStart - previousStart : pendingStart;
+                }
+                writePending(end);
+            }
+            writer.finish();
+        }
+
+        private long opusNanos() throws CodecMediaException {
+            long total = 0;
+            int position = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                total += opusPacketSamples(pending, position, pendingFrames[i]);
+                position += pendingFrames[i];
+            }
+            return total * 1_000_000_000L / OPUS_RATE;
+        }
+
+        private long samples(long nanos) {
+            return nanos <= 0 ? 0 : Math.round(nanos * (double) sampleRate / 1_000_000_000d);
+        }
+    }
+
+    /**
+     * Samples at 48 kHz in one Opus packet, from its TOC byte (RFC 6716 section 3.1).
+     */
+    static int opusPacketSamples(byte[] packet, int offset, int length) throws CodecMediaException {
+        if (length < 1) {
+            return 0;
+        }
+        int toc = packet[offset] & 0xFF;
+        int config = toc >> 3;
+        int frameSamples;
+        if (config < 12) {
+            frameSamples = new int[] {480, 960, 1920, 2880}[config & 3];
+        } else if (config < 16) {
+            frameSamples = (config & 1) == 0 ? 480 : 960;
+        } else {
+            frameSamples = new int[] {120, 240, 480, 960}[config & 3];
+        }
+        int frames = switch (toc & 3) {
+            case 0 -> 1;
+            case 1, 2 -> 2;
+            default -> {
+                if (length < 2) {
+                    throw new CodecMediaException("Invalid Opus packet: missing frame count");
+                }
+                yield packet[offset + 1] & 0x3F;
+            }
+        };
+        return frames * frameSamples;
+    }
+
+    /**
+     * Splits Matroska Xiph-laced {@code CodecPrivate} (count - 1, then all but the last size) into
+     * packets.
+     */
+    private static byte[][] splitXiphLaced(byte[] data) throws CodecMediaException {
+        if (data.length < 1) {
+            throw new CodecMediaException("Empty Xiph-laced CodecPrivate");
+        }
+        int count = (data[0] & 0xFF) + 1;
+        int[] sizes = new int[count];
+        int position = 1;
+        int total = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int b;
+            do {
+                if (position >= data.length) {
+                    throw new CodecMediaException("Truncated Xiph-laced CodecPrivate");
+                }
+                b = data[position++] & 0xFF;
+                sizes[i] += b;
+            } while (b == 255);
+            total += sizes[i];
+        }
+        sizes[count - 1] = data.length - position - total;
+        if (sizes[count - 1] < 0) {
+            throw new CodecMediaException("Truncated Xiph-laced CodecPrivate");
+        }
+        byte[][] packets = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            packets[i] = Arrays.copyOfRange(data, position, position + sizes[i]);
+            position += sizes[i];
+        }
+        return packets;
+    }
+}
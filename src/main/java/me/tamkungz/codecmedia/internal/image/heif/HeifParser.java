@@ -1,8 +1,11 @@
 package me.tamkungz.codecmedia.internal.image.heif;
 
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 
 import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
 
 public final class HeifParser {
 
@@ -21,9 +24,25 @@ public final class HeifParser {
         if (!isLikelyHeif(bytes)) {
             throw new CodecMediaException("Not a HEIF/HEIC file");
         }
-        String majorBrand = readAscii(bytes, 8, 4);
-        BoxData ispe = findBoxData(bytes, "ispe");
-        BoxData pixi = findBoxData(bytes, "pixi");
+        return parse(BmffReader.of(bytes));
+    }
+
+    /**
+     * Probes from a channel; only box headers and the {@code ispe}/{@code pixi} properties are read.
+     */
+    public static HeifProbeInfo parse(SeekableByteChannel channel) throws CodecMediaException {
+        BmffReader reader = new BmffReader(channel);
+        if (!isLikelyHeif(reader.read(0, (int) Math.min(12, reader.size())))) {
+            throw new CodecMediaException("Not a HEIF/HEIC file");
+        }
+        return parse(reader);
+    }
+
+    private static HeifProbeInfo parse(BmffReader reader) throws CodecMediaException {
+        String majorBrand = readAscii(reader.read(8, 4), 0, 4);
+        // item properties normally live in meta/iprp/ipco
+        byte[] ispe = findPayload(reader, "ispe");
+        byte[] pixi = findPayload(reader, "pixi");
         Integer width = extractIspeWidth(ispe);
         Integer height = extractIspeHeight(ispe);
         Integer bitDepth = extractPixiBitDepth(pixi);
@@ -49,41 +68,39 @@ public final class HeifParser {
         return new String(bytes, offset, length, StandardCharsets.US_ASCII);
     }
 
-    private static Integer extractIspeWidth(BoxData ispe) throws CodecMediaException {
-        if (ispe == null || ispe.payloadOffset() + 12 > ispe.boxEnd()) {
+    private static Integer extractIspeWidth(byte[] ispe) throws CodecMediaException {
+        if (ispe == null || ispe.length < 12) {
             return null;
         }
         // ispe is a FullBox: [version(1) + flags(3)] + width(4) + height(4)
-        int width = readBeInt(ispe.bytes(), ispe.payloadOffset() + 4);
+        int width = readBeInt(ispe, 4);
         return width > 0 ? width : null;
     }
 
-    private static Integer extractIspeHeight(BoxData ispe) throws CodecMediaException {
-        if (ispe == null || ispe.payloadOffset() + 12 > ispe.boxEnd()) {
+    private static Integer extractIspeHeight(byte[] ispe) throws CodecMediaException {
+        if (ispe == null || ispe.length < 12) {
             return null;
         }
         // ispe is a FullBox: [version(1) + flags(3)] + width(4) + height(4)
-        int height = readBeInt(ispe.bytes(), ispe.payloadOffset() + 8);
+        int height = readBeInt(ispe, 8);
         return height > 0 ? height : null;
     }
 
-    private static Integer extractPixiBitDepth(BoxData pixi) {
+    private static Integer extractPixiBitDepth(byte[] pixi) {
         if (pixi == null) {
             return null;
         }
-        byte[] bytes = pixi.bytes();
-        int payloadOffset = pixi.payloadOffset();
-        int dataOffset = payloadOffset + FULL_BOX_HEADER_SIZE;
-        if (dataOffset + 1 > pixi.boxEnd()) {
+        int dataOffset = FULL_BOX_HEADER_SIZE;
+        if (dataOffset + 1 > pixi.length) {
             return null;
         }
-        int channelCount = bytes[dataOffset] & 0xFF;
-        if (channelCount <= 0 || dataOffset + 1 + channelCount > pixi.boxEnd()) {
+        int channelCount = pixi[dataOffset] & 0xFF;
+        if (channelCount <= 0 || dataOffset + 1 + channelCount > pixi.length) {
             return null;
         }
         int minDepth = Integer.MAX_VALUE;
         for (int i = 0; i < channelCount; i++) {
-            int depth = bytes[dataOffset + 1 + i] & 0xFF;
+            int depth = pixi[dataOffset + 1 + i] & 0xFF;
             if (depth > 0 && depth < minDepth) {
                 minDepth = depth;
             }
@@ -91,159 +108,9 @@ public final class HeifParser {
         return minDepth == Integer.MAX_VALUE ? null : minDepth;
     }
 
-    private static BoxData findBoxData(byte[] bytes, String boxType) {
-        int offset = 0;
-        while (offset + 8 <= bytes.length) {
-            int start = offset;
-            long size = readU32AsLong(bytes, offset);
-            String type = readAscii(bytes, offset + 4, 4);
-            int headerSize = 8;
-
-            if (size == 1L) {
-                if (offset + 16 > bytes.length) {
-                    break;
-                }
-                size = readU64AsLong(bytes, offset + 8);
-                headerSize = 16;
-            } else if (size == 0L) {
-                size = bytes.length - offset;
-            }
-
-            if (size < headerSize) {
-                break;
-            }
-
-            long endLong = offset + size;
-            if (endLong > bytes.length || endLong <= offset) {
-                break;
-            }
-            int end = (int) endLong;
-
-            if (boxType.equals(type)) {
-                return new BoxData(bytes, start, offset + headerSize, end);
-            }
-
-            if (isContainerType(type)) {
-                BoxData nested = findBoxData(bytes, offset + headerSize, end, boxType);
-                if (nested != null) {
-                    return nested;
-                }
-            }
-
-            offset = end;
-        }
-        return null;
-    }
-
-    private static BoxData findBoxData(byte[] bytes, int startOffset, int endOffset, String boxType) {
-        int offset = startOffset;
-        while (offset + 8 <= endOffset) {
-            int start = offset;
-            long size = readU32AsLong(bytes, offset);
-            String type = readAscii(bytes, offset + 4, 4);
-            int headerSize = 8;
-
-            if (size == 1L) {
-                if (offset + 16 > endOffset) {
-                    break;
-                }
-                size = readU64AsLong(bytes, offset + 8);
-                headerSize = 16;
-            } else if (size == 0L) {
-                size = endOffset - offset;
-            }
-
-            if (size < headerSize) {
-                break;
-            }
-
-            long boxEndLong = offset + size;
-            if (boxEndLong > endOffset || boxEndLong <= offset) {
-                break;
-            }
-            int boxEnd = (int) boxEndLong;
-
-            if (boxType.equals(type)) {
-                return new BoxData(bytes, start, offset + headerSize, boxEnd);
-            }
-
-            if (isContainerType(type)) {
-                BoxData nested = findBoxData(bytes, offset + headerSize, boxEnd, boxType);
-                if (nested != null) {
-                    return nested;
-                }
-            }
-
-            offset = boxEnd;
-        }
-        return null;
-    }
-
-    private static boolean isContainerType(String type) {
-        return "meta".equals(type)
-                || "moov".equals(type)
-                || "trak".equals(type)
-                || "mdia".equals(type)
-                || "minf".equals(type)
-                || "stbl".equals(type)
-                || "dinf".equals(type)
-                || "edts".equals(type)
-                || "udta".equals(type)
-                || "iprp".equals(type)
-                || "ipco".equals(type)
-                || "iinf".equals(type)
-                || "iloc".equals(type)
-                || "iref".equals(type)
-                || "grpl".equals(type)
-                || "strk".equals(type)
-                || "meco".equals(type)
-                || "mere".equals(type)
-                || "traf".equals(type)
-                || "mvex".equals(type)
-                || "moof".equals(type)
-                || "sinf".equals(type)
-                || "schi".equals(type)
-                || "hnti".equals(type)
-                || "hinf".equals(type)
-                || "wave".equals(type)
-                || "ilst".equals(type)
-                || "tref".equals(type)
-                || "mfra".equals(type)
-                || "jp2h".equals(type)
-                || "res ".equals(type)
-                || "uuid".equals(type)
-                || "ipro".equals(type)
-                || "sgrp".equals(type)
-                || "fiin".equals(type)
-                || "paen".equals(type)
-                || "trgr".equals(type)
-                || "kind".equals(type)
-                || "ipma".equals(type)
-                || "pitm".equals(type);
-    }
-
-    private static long readU32AsLong(byte[] bytes, int offset) {
-        if (offset + 4 > bytes.length) {
-            return -1L;
-        }
-        return ((long) (bytes[offset] & 0xFF) << 24)
-                | ((long) (bytes[offset + 1] & 0xFF) << 16)
-                | ((long) (bytes[offset + 2] & 0xFF) << 8)
-                | (bytes[offset + 3] & 0xFFL);
-    }
-
-    private static long readU64AsLong(byte[] bytes, int offset) {
-        if (offset + 8 > bytes.length) {
-            return -1L;
-        }
-        return ((long) (bytes[offset] & 0xFF) << 56)
-                | ((long) (bytes[offset + 1] & 0xFF) << 48)
-                | ((long) (bytes[offset + 2] & 0xFF) << 40)
-                | ((long) (bytes[offset + 3] & 0xFF) << 32)
-                | ((long) (bytes[offset + 4] & 0xFF) << 24)
-                | ((long) (bytes[offset + 5] & 0xFF) << 16)
-                | ((long) (bytes[offset + 6] & 0xFF) << 8)
-                | (bytes[offset + 7] & 0xFFL);
+    private static byte[] findPayload(BmffReader reader, String boxType) throws CodecMediaException {
+        BmffBox box = reader.findFirst(null, boxType);
+        return box == null ? null : reader.readPayload(box);
     }
 
     private static int readBeInt(byte[] bytes, int offset) throws CodecMediaException {
@@ -255,13 +122,4 @@ public final class HeifParser {
                 | ((bytes[offset + 2] & 0xFF) << 8)
                 | (bytes[offset + 3] & 0xFF);
     }
-
-    private record BoxData(
-            byte[] bytes,
-            int boxStart,
-            int payloadOffset,
-            int boxEnd
-    ) {
-    }
 }
-
@@ -0,0 +1,42 @@
+package me.tamkungz.codecmedia.internal.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Positioned read helpers for seekable channels.
+ */
+public final class ChannelReads {
+
+    private ChannelReads() {
+    }
+
+    public static byte[] readBytes(SeekableByteChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, position, buffer);
+        return buffer.array();
+    }
+
+    public static void readFully(SeekableByteChannel channel, long position, ByteBuffer buffer) throws IOException {
+        long cursor = position;
+        if (channel instanceof FileChannel fileChannel) {
+            while (buffer.hasRemaining()) {
+                int read = fileChannel.read(buffer, cursor);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of channel at offset " + cursor);
+                }
+                cursor += read;
+            }
+            return;
+        }
+        channel.position(cursor);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of channel at offset " + channel.position());
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.tamkungz.codecmedia.internal.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Write and copy helpers for file channels that loop until every byte has been moved.
+ */
+public final class ChannelWrites {
+
+    private ChannelWrites() {
+    }
+
+    public static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    public static void writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        long cursor = position;
+        while (buffer.hasRemaining()) {
+            cursor += out.write(buffer, cursor);
+        }
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} of {@code in} to the current position of
+     * {@code out}, failing when {@code in} ends first.
+     */
+    public static void transferFully(FileChannel in, long position, long count, WritableByteChannel out)
+            throws IOException {
+        long cursor = position;
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = in.transferTo(cursor, remaining, out);
+            if (transferred <= 0) {
+                throw new EOFException("Unexpected end of channel before offset " + (cursor + remaining));
+            }
+            cursor += transferred;
+            remaining -= transferred;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package me.tamkungz.codecmedia.internal.playback;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free single-producer/single-consumer byte ring.
+ * <p>
+ * {@code head} and {@code tail} are ever-increasing byte counts masked into a power-of-two array. The
+ * producer alone advances {@code tail} and the consumer alone advances {@code head}; each publishes
+ * its index with a release store after copying and reads the other's with an acquire load, caching
+ * it so the common path does not touch the other side's index at all.
+ */
+final class SpscByteRing {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscByteRing.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscByteRing.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final byte[] buffer;
+    private final int mask;
+    private long head;
+    private long tail;
+    /** Producer's last seen {@code head}. */
+    private long headCache;
+    /** Consumer's last seen {@code tail}. */
+    private long tailCache;
+    private volatile boolean finished;
+
+    /** @param minCapacity capacity in bytes, rounded up to a power of two */
+    SpscByteRing(int minCapacity) {
+        if (minCapacity <= 0 || minCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring capacity out of range: " + minCapacity);
+        }
+        int capacity = Integer.highestOneBit(minCapacity);
+        if (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        this.buffer = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Producer side: copies as many of {@code length} bytes as fit.
+     *
+     * @return bytes copied, {@code 0} when the ring is full
+     */
+    int offer(byte[] src, int offset, int length) {
+        long position = tail;
+        long free = buffer.length - (position - headCache);
+        if (free < length) {
+            headCache = (long) HEAD.getAcquire(this);
+            free = buffer.length - (position - headCache);
+        }
+        int count = (int) Math.min(free, length);
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) (position & mask);
+        int first = Math.min(count, buffer.length - index);
+        System.arraycopy(src, offset, buffer, index, first);
+        System.arraycopy(src, offset + first, buffer, 0, count - first);
+        TAIL.setRelease(this, position + count);
+        return count;
+    }
+
+    /** Producer side: marks the end of the stream after the last {@link #offer}. */
+    void finish() {
+        finished = true;
+    }
+
+    /** Consumer side: bytes that can be polled now. */
+    int available() {
+        tailCache = (long) TAIL.getAcquire(this);
+        return (int) (tailCache - head);
+    }
+
+    /**
+     * Consumer side: copies exactly {@code length} bytes, which must not exceed the last
+     * {@link #available()}.
+     */
+    void poll(byte[] dst, int offset, int length) {
+        long position = head;
+        if (length > tailCache - position) {
+            throw new IllegalStateException("Polling " + length + " bytes with " + (tailCache - position) + " available");
+        }
+        int index = (int) (position & mask);
+        int first = Math.min(length, buffer.length - index);
+        System.arraycopy(buffer, index, dst, offset, first);
+        System.arraycopy(buffer, 0, dst, offset + first, length - first);
+        HEAD.setRelease(this, position + length);
+    }
+
+    /** True once the producer has finished; bytes offered before {@link #finish()} remain available. */
+    boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,241 @@
+package me.tamkungz.codecmedia.internal.playback;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.PlaybackSession;
+import me.tamkungz.codecmedia.internal.io.IoCleanup;
+
+/**
+ * Streaming Java Sound playback through a {@link SourceDataLine}.
+ * <p>
+ * A reader thread pulls PCM blocks from the {@link AudioInputStream} into a {@link SpscByteRing}
+ * and a line thread moves whole frames from the ring into the line, so memory stays at the ring
+ * size (plus a quarter of it as the line's own buffer) for any file length and playback starts as
+ * soon as the first block is read. The threads never lock: each side parks briefly when the ring is
+ * full or empty. An empty ring after playback began, before the end of the stream, counts as one
+ * underrun.
+ */
+public final class StreamingPlayback implements PlaybackSession {
+
+    private static final int BLOCK_BYTES = 16 * 1024;
+    private static final long PARK_NANOS = 250_000L;
+
+    /** Destination of the line thread; a started {@link SourceDataLine} outside of tests. */
+    interface Sink {
+        /** Blocks until the bytes are queued for output. */
+        void write(byte[] bytes, int offset, int length);
+
+        /** Plays out queued output; called by the line thread after the last write. */
+        void drain();
+
+        /** Discards queued output and unblocks a pending write; may be called from any thread. */
+        void stop();
+
+        /** Releases the sink; called once by the line thread. */
+        void close();
+    }
+
+    private final InputStream source;
+    private final int frameSize;
+    private final SpscByteRing ring;
+    private final Sink sink;
+    // Each counter has a single writer, the line thread
+    private volatile long bytesPlayed;
+    private volatile long underruns;
+    private volatile boolean stopped;
+    private volatile boolean active = true;
+    private volatile CodecMediaException failure;
+
+    StreamingPlayback(InputStream source, int frameSize, int bufferBytes, Sink sink, String name) {
+        this.source = source;
+        this.frameSize = frameSize;
+        this.ring = new SpscByteRing(Math.max(bufferBytes, frameSize));
+        this.sink = sink;
+        Thread reader = new Thread(this::readLoop, "codecmedia-playback-reader-" + name);
+        Thread writer = new Thread(this::writeLoop, "codecmedia-playback-line-" + name);
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+        reader.start();
+        writer.start();
+    }
+
+    /**
+     * Opens {@code input} and starts playback; non-PCM streams are decoded to 16-bit PCM first.
+     *
+     * @param bufferBytes ring buffer size, rounded up to a power of two
+     */
+    public static StreamingPlayback start(Path input, int bufferBytes) throws CodecMediaException {
+        AudioInputStream stream = null;
+        SourceDataLine line = null;
+        try {
+            stream = AudioSystem.getAudioInputStream(input.toFile());
+            AudioFormat format = stream.getFormat();
+            if (!AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())
+                    && !AudioFormat.Encoding.PCM_UNSIGNED.equals(format.getEncoding())) {
+                AudioFormat pcm = new AudioFormat(format.getSampleRate(), 16, Math.max(1, format.getChannels()), true, false);
+                stream = AudioSystem.getAudioInputStream(pcm, stream);
+                format = pcm;
+            }
+            int frameSize = Math.max(1, format.getFrameSize());
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, Math.max(frameSize, bufferBytes / 4 / frameSize * frameSize));
+            line.start();
+            return new StreamingPlayback(stream, frameSize, bufferBytes, new LineSink(line), input.getFileName().toString());
+        } catch (UnsupportedAudioFileException | LineUnavailableException | IOException | RuntimeException e) {
+            if (line != null) {
+                line.close();
+            }
+            IoCleanup.closeQuietly(stream);
+            throw new CodecMediaException("Java sampled playback failed for " + input + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public int bufferBytes() {
+        return ring.capacity();
+    }
+
+    @Override
+    public long bytesPlayed() {
+        return bytesPlayed;
+    }
+
+    @Override
+    public long underruns() {
+        return underruns;
+    }
+
+    @Override
+    public CodecMediaException failure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        if (!stopped) {
+            stopped = true;
+            sink.stop();
+        }
+    }
+
+    private void readLoop() {
+        byte[] block = new byte[Math.max(frameSize, BLOCK_BYTES / frameSize * frameSize)];
+        try {
+            int read;
+            while (!stopped && (read = source.read(block, 0, block.length)) >= 0) {
+                int offset = 0;
+                while (offset < read && !stopped) {
+                    int offered = ring.offer(block, offset, read - offset);
+                    if (offered == 0) {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    offset += offered;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            fail("Failed to read audio stream: " + e.getMessage(), e);
+        } finally {
+            IoCleanup.closeQuietly(source);
+            ring.finish();
+        }
+    }
+
+    private void writeLoop() {
+        byte[] chunk = new byte[Math.max(frameSize, Math.min(BLOCK_BYTES, ring.capacity()) / frameSize * frameSize)];
+        boolean playing = false;
+        boolean starving = false;
+        try {
+            while (!stopped) {
+                int count = Math.min(ring.available(), chunk.length) / frameSize * frameSize;
+                if (count == 0) {
+                    if (ring.isFinished() && ring.available() < frameSize) {
+                        break;
+                    }
+                    if (playing && !starving) {
+                        underruns++;
+                        starving = true;
+                    }
+                    LockSupport.parkNanos(PARK_NANOS);
+                    continue;
+                }
+                ring.poll(chunk, 0, count);
+                sink.write(chunk, 0, count);
+                bytesPlayed += count;
+                playing = true;
+                starving = false;
+            }
+            if (!stopped) {
+                sink.drain();
+            }
+        } catch (RuntimeException e) {
+            fail("Audio line failed: " + e.getMessage(), e);
+        } finally {
+            sink.close();
+            active = false;
+        }
+    }
+
+    private void fail(String message, Exception cause) {
+        if (failure == null) {
+            failure = new CodecMediaException(message, cause);
+        }
+        stopped = true;
+    }
+
+    private static final class LineSink implements Sink {
+
+        private final SourceDataLine line;
+        // A stopped line is never drained, so writing on after a partial write would block forever
+        private volatile boolean stopRequested;
+
+        private LineSink(SourceDataLine line) {
+            this.line = line;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            int written = 0;
+            while (written < length && !stopRequested && line.isOpen()) {
+                int count = line.write(bytes, offset + written, length - written);
+                if (count == 0 && !line.isRunning()) {
+                    return;
+                }
+                written += count;
+            }
+        }
+
+        @Override
+        public void drain() {
+            line.drain();
+        }
+
+        @Override
+        public void stop() {
+            stopRequested = true;
+            line.stop();
+            // Flushing also releases a write that is blocked on the full line buffer
+            line.flush();
+        }
+
+        @Override
+        public void close() {
+            line.close();
+        }
+    }
+}
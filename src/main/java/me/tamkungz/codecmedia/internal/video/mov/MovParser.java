@@ -1,8 +1,13 @@
 package me.tamkungz.codecmedia.internal.video.mov;
 
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
+import me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex;
 
 public final class MovParser {
 
@@ -27,108 +32,129 @@ public final class MovParser {
         if (!isAscii(bytes, 4, "ftyp")) {
             throw new CodecMediaException("Not a QuickTime/ISO-BMFF container (missing ftyp)");
         }
+        return parse(BmffReader.of(bytes));
+    }
+
+    /**
+     * Probes from a channel, reading the top-level box headers and the {@code moov} tree only.
+     */
+    public static MovProbeInfo parse(SeekableByteChannel channel) throws CodecMediaException {
+        BmffReader reader = new BmffReader(channel);
+        if (reader.size() < 12) {
+            throw new CodecMediaException("MOV data is empty or too short");
+        }
+        if (!isAscii(reader.read(0, 12), 4, "ftyp")) {
+            throw new CodecMediaException("Not a QuickTime/ISO-BMFF container (missing ftyp)");
+        }
+        return parse(reader);
+    }
 
-        String majorBrand = readAscii(bytes, 8, 4).trim();
+    private static MovProbeInfo parse(BmffReader reader) throws CodecMediaException {
+        String majorBrand = readAscii(reader.read(8, 4), 0, 4).trim();
         Integer width = null;
         Integer height = null;
         Long durationMillis = null;
-        Double frameRate = null;
         String videoCodec = null;
         String audioCodec = null;
         Integer sampleRate = null;
         Integer channels = null;
-        Integer bitDepth = null;
+        Double frameRate = null;
         Integer videoBitrateKbps = null;
         Integer audioBitrateKbps = null;
-        Long currentTrackTimescale = null;
-        Long currentTrackDuration = null;
-        String currentTrackType = null;
-
-        int offset = 0;
-        while (offset + 8 <= bytes.length) {
-            long boxSize = readUInt32(bytes, offset);
-            String boxType = readAscii(bytes, offset + 4, 4);
-
-            int headerSize = 8;
-            if (boxSize == 1) {
-                if (offset + 16 > bytes.length) {
-                    throw new CodecMediaException("Invalid MOV extended box header");
-                }
-                boxSize = readUInt64(bytes, offset + 8);
-                headerSize = 16;
-            } else if (boxSize == 0) {
-                boxSize = bytes.length - offset;
-            }
+        Integer bitDepth = null;
 
-            if (boxSize < headerSize) {
-                throw new CodecMediaException("Invalid MOV box size for box: " + boxType);
+        BmffBox moov = reader.child(null, "moov");
+        List<BmffBox> moovChildren = moov == null ? List.of() : reader.children(moov);
+        for (BmffBox box : moovChildren) {
+            if ("mvhd".equals(box.type()) && durationMillis == null) {
+                byte[] payload = reader.readPayload(box);
+                durationMillis = parseMvhdDuration(payload, 0, payload.length);
             }
+        }
 
-            int payloadStart = offset + headerSize;
-            long payloadSizeLong = boxSize - headerSize;
-            if (payloadSizeLong < 0 || payloadStart + payloadSizeLong > bytes.length) {
-                throw new CodecMediaException("MOV box exceeds file bounds: " + boxType);
+        for (BmffBox trak : moovChildren) {
+            if (!"trak".equals(trak.type())) {
+                continue;
             }
-            int payloadSize = (int) payloadSizeLong;
-
-            if ("mvhd".equals(boxType) && durationMillis == null) {
-                durationMillis = parseMvhdDuration(bytes, payloadStart, payloadSize);
-            } else if ("mdhd".equals(boxType)) {
-                MdhdInfo mdhd = parseMdhdInfo(bytes, payloadStart, payloadSize);
-                if (mdhd.timescale() != null && mdhd.timescale() > 0) {
-                    currentTrackTimescale = mdhd.timescale();
-                }
-                if (mdhd.duration() != null && mdhd.duration() > 0) {
-                    currentTrackDuration = mdhd.duration();
-                }
-            } else if ("tkhd".equals(boxType) && (width == null || height == null)) {
-                int[] wh = parseTkhdDimensions(bytes, payloadStart, payloadSize);
-                if (wh[0] > 0 && wh[1] > 0) {
-                    width = wh[0];
-                    height = wh[1];
-                }
-            } else if ("hdlr".equals(boxType)) {
-                currentTrackType = parseHdlrType(bytes, payloadStart, payloadSize);
-            } else if ("stsd".equals(boxType)) {
-                SampleDescription info = parseStsd(bytes, payloadStart, payloadSize);
-                if (info.videoCodec != null && videoCodec == null) {
-                    videoCodec = info.videoCodec;
-                }
-                if (info.audioCodec != null && audioCodec == null) {
-                    audioCodec = info.audioCodec;
-                }
-                if (info.sampleRate != null && sampleRate == null) {
-                    sampleRate = info.sampleRate;
-                }
-                if (info.channels != null && channels == null) {
-                    channels = info.channels;
+            String trackType = null;
+            Long trackTimescale = null;
+            Long trackDuration = null;
+            BmffBox mdia = null;
+            for (BmffBox box : reader.children(trak)) {
+                if ("tkhd".equals(box.type()) && (width == null || height == null)) {
+                    byte[] payload = reader.readPayload(box);
+                    int[] wh = parseTkhdDimensions(payload, 0, payload.length);
+                    if (wh[0] > 0 && wh[1] > 0) {
+                        width = wh[0];
+                        height = wh[1];
+                    }
+                } else if ("mdia".equals(box.type()) && mdia == null) {
+                    mdia = box;
                 }
-                if (info.bitDepth != null && bitDepth == null) {
-                    bitDepth = info.bitDepth;
+            }
+            if (mdia == null) {
+                continue;
+            }
+
+            BmffBox minf = null;
+            for (BmffBox box : reader.children(mdia)) {
+                if ("hdlr".equals(box.type())) {
+                    byte[] payload = reader.readPayload(box);
+                    trackType = parseHdlrType(payload, 0, payload.length);
+                } else if ("mdhd".equals(box.type())) {
+                    byte[] payload = reader.readPayload(box);
+                    MdhdInfo mdhd = parseMdhdInfo(payload, 0, payload.length);
+                    trackTimescale = mdhd.timescale();
+                    trackDuration = mdhd.duration();
+                } else if ("minf".equals(box.type()) && minf == null) {
+                    minf = box;
                 }
-            } else if ("stts".equals(boxType) && frameRate == null) {
-                frameRate = parseFrameRateFromStts(bytes, payloadStart, payloadSize, currentTrackTimescale);
-            } else if ("btrt".equals(boxType)) {
-                Integer avg = parseAverageBitrateKbpsFromBtrt(bytes, payloadStart, payloadSize);
-                if (avg != null) {
-                    if ("vide".equals(currentTrackType) && videoBitrateKbps == null) {
-                        videoBitrateKbps = avg;
-                    } else if ("soun".equals(currentTrackType) && audioBitrateKbps == null) {
-                        audioBitrateKbps = avg;
+            }
+            BmffBox stbl = minf == null ? null : reader.child(minf, "stbl");
+            if (stbl == null) {
+                continue;
+            }
+
+            Integer trackBitrateKbps = null;
+            for (BmffBox box : reader.children(stbl)) {
+                if ("stsd".equals(box.type())) {
+                    byte[] payload = reader.readPayload(box);
+                    SampleDescription info = parseStsd(payload, 0, payload.length);
+                    if (info.videoCodec != null && videoCodec == null) {
+                        videoCodec = info.videoCodec;
                     }
-                }
-            } else if ("stsz".equals(boxType) && currentTrackDuration != null && currentTrackTimescale != null) {
-                Integer fromStsz = parseBitrateFromStsz(bytes, payloadStart, payloadSize, currentTrackDuration, currentTrackTimescale);
-                if (fromStsz != null) {
-                    if ("vide".equals(currentTrackType) && videoBitrateKbps == null) {
-                        videoBitrateKbps = fromStsz;
-                    } else if ("soun".equals(currentTrackType) && audioBitrateKbps == null) {
-                        audioBitrateKbps = fromStsz;
+                    if (info.audioCodec != null && audioCodec == null) {
+                        audioCodec = info.audioCodec;
+                    }
+                    if (info.sampleRate != null && sampleRate == null) {
+                        sampleRate = info.sampleRate;
+                    }
+                    if (info.channels != null && channels == null) {
+                        channels = info.channels;
                     }
+                    if (info.bitDepth != null && bitDepth == null) {
+                        bitDepth = info.bitDepth;
+                    }
+                    if (info.averageBitrateKbps != null && trackBitrateKbps == null) {
+                        trackBitrateKbps = info.averageBitrateKbps;
+                    }
+                } else if ("stts".equals(box.type()) && "vide".equals(trackType) && frameRate == null
+                        && trackTimescale != null && trackTimescale > 0) {
+                    byte[] payload = reader.readPayload(box);
+                    frameRate = parseFrameRateFromStts(payload, 0, payload.length, trackTimescale);
+                } else if ("stsz".equals(box.type()) && box.payloadSize() >= 12 && trackBitrateKbps == null
+                        && trackDuration != null && trackTimescale != null) {
+                    long totalBytes = BmffSampleIndex.totalSampleBytes(reader, box);
+                    trackBitrateKbps = bitrateKbps(totalBytes, trackDuration, trackTimescale);
+                }
+            }
+            if (trackBitrateKbps != null) {
+                if ("vide".equals(trackType) && videoBitrateKbps == null) {
+                    videoBitrateKbps = trackBitrateKbps;
+                } else if ("soun".equals(trackType) && audioBitrateKbps == null) {
+                    audioBitrateKbps = trackBitrateKbps;
                 }
             }
-
-            offset += (int) boxSize;
         }
 
         String displayAspectRatio = null;
@@ -138,7 +164,7 @@ public final class MovParser {
         }
 
         if (durationMillis != null && durationMillis > 0) {
-            int totalKbps = (int) (((long) bytes.length * 8L * 1000L) / (durationMillis * 1000L));
+            int totalKbps = (int) ((reader.size() * 8L * 1000L) / (durationMillis * 1000L));
             if (videoBitrateKbps == null && width != null && height != null && width > 0 && height > 0) {
                 videoBitrateKbps = totalKbps;
             } else if (audioBitrateKbps == null && (sampleRate != null || channels != null)) {
@@ -269,26 +295,30 @@ public final class MovParser {
 
             if (isVideoFourCc(format) && out.videoCodec == null) {
                 out.videoCodec = normalizeCodec(format);
-                if (entrySize >= 78) {
-                    int depthOffset = cursor + 74;
-                    if (depthOffset + 2 <= cursor + entrySize) {
-                        int depth = readUInt16(bytes, depthOffset);
-                        if (depth > 0 && depth < 64) {
-                            out.bitDepth = depth;
-                        }
+                // VisualSampleEntry: 16-byte SampleEntry head, then 66 bytes of fields before depth
+                if (entrySize >= 86) {
+                    int depth = readUInt16(bytes, cursor + 82);
+                    if (depth > 0 && depth < 64) {
+                        out.bitDepth = depth;
                     }
                 }
+                if (out.averageBitrateKbps == null) {
+                    out.averageBitrateKbps = findBtrtBitrate(bytes, cursor + 86, cursor + entrySize);
+                }
             } else if (isAudioFourCc(format) && out.audioCodec == null) {
                 out.audioCodec = normalizeCodec(format);
+                // AudioSampleEntry: 16-byte SampleEntry head, version, 6 reserved, then
+                // channelcount, samplesize, 4 reserved and 16.16 samplerate
                 if (entrySize >= 36) {
-                    int channelCountOffset = cursor + 16;
-                    int sampleSizeOffset = cursor + 18;
-                    int sampleRateOffset = cursor + 24;
-                    if (sampleRateOffset + 4 <= cursor + entrySize) {
-                        out.channels = readUInt16(bytes, channelCountOffset);
-                        out.bitDepth = readUInt16(bytes, sampleSizeOffset);
-                        int srFixed = (int) readUInt32(bytes, sampleRateOffset);
-                        out.sampleRate = srFixed >>> 16;
+                    out.channels = readUInt16(bytes, cursor + 24);
+                    out.bitDepth = readUInt16(bytes, cursor + 26);
+                    int srFixed = (int) readUInt32(bytes, cursor + 32);
+                    out.sampleRate = srFixed >>> 16;
+                    // QuickTime sound description versions 1 and 2 append 16 and 36 bytes
+                    int version = readUInt16(bytes, cursor + 16);
+                    int extensions = cursor + 36 + (version == 1 ? 16 : version == 2 ? 36 : 0);
+                    if (out.averageBitrateKbps == null) {
+                        out.averageBitrateKbps = findBtrtBitrate(bytes, extensions, cursor + entrySize);
                     }
                 }
             }
@@ -298,6 +328,21 @@ public final class MovParser {
         return out;
     }
 
+    private static Integer findBtrtBitrate(byte[] bytes, int offset, int end) throws CodecMediaException {
+        int cursor = offset;
+        while (cursor + 8 <= end) {
+            long boxSize = readUInt32(bytes, cursor);
+            if (boxSize < 8 || boxSize > end - cursor) {
+                return null;
+            }
+            if (isAscii(bytes, cursor + 4, "btrt")) {
+                return parseAverageBitrateKbpsFromBtrt(bytes, cursor + 8, (int) boxSize - 8);
+            }
+            cursor += (int) boxSize;
+        }
+        return null;
+    }
+
     private static Double parseFrameRateFromStts(byte[] bytes, int offset, int size, Long trackTimescale) throws CodecMediaException {
         if (size < 16) {
             return null;
@@ -334,32 +379,11 @@ public final class MovParser {
         return (int) Math.max(1L, Math.round(avgBitrate / 1000.0d));
     }
 
-    private static Integer parseBitrateFromStsz(byte[] bytes, int offset, int size, long duration, long timescale) throws CodecMediaException {
-        if (size < 12 || duration <= 0 || timescale <= 0) {
+    private static Integer bitrateKbps(long totalBytes, long duration, long timescale) {
+        if (totalBytes <= 0 || duration <= 0 || timescale <= 0) {
             return null;
         }
-        long sampleSize = readUInt32(bytes, offset + 4);
-        long sampleCount = readUInt32(bytes, offset + 8);
-
-        long totalBytes = 0;
-        if (sampleSize > 0) {
-            totalBytes = sampleSize * sampleCount;
-        } else {
-            int cursor = offset + 12;
-            int limit = offset + size;
-            for (long i = 0; i < sampleCount && cursor + 4 <= limit; i++) {
-                totalBytes += readUInt32(bytes, cursor);
-                cursor += 4;
-            }
-        }
-        if (totalBytes <= 0) {
-            return null;
-        }
-
         double durationSeconds = duration / (double) timescale;
-        if (durationSeconds <= 0.0d) {
-            return null;
-        }
         long bps = Math.round((totalBytes * 8.0d) / durationSeconds);
         return (int) Math.max(1L, Math.round(bps / 1000.0d));
     }
@@ -463,6 +487,7 @@ public final class MovParser {
         Integer sampleRate;
         Integer channels;
         Integer bitDepth;
+        Integer averageBitrateKbps;
     }
 
     private record MdhdInfo(Long timescale, Long duration) {
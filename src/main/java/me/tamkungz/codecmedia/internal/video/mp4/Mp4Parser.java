@@ -1,6 +1,13 @@
 package me.tamkungz.codecmedia.internal.video.mp4;
 
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+
 import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.bmff.BmffBox;
+import me.tamkungz.codecmedia.internal.bmff.BmffFragmentScanner;
+import me.tamkungz.codecmedia.internal.bmff.BmffReader;
+import me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex;
 
 public final class Mp4Parser {
 
@@ -17,6 +24,12 @@ public final class Mp4Parser {
         String major = readAscii(bytes, 8, 4);
         return "isom".equals(major)
                 || "iso2".equals(major)
+                || "iso4".equals(major)
+                || "iso5".equals(major)
+                || "iso6".equals(major)
+                || "cmfc".equals(major)
+                || "cmf2".equals(major)
+                || "dash".equals(major)
                 || "avc1".equals(major)
                 || "mp41".equals(major)
                 || "mp42".equals(major)
@@ -31,8 +44,22 @@ public final class Mp4Parser {
         if (!isLikelyMp4(bytes)) {
             throw new CodecMediaException("Not an MP4/ISO BMFF file");
         }
+        return parse(BmffReader.of(bytes));
+    }
+
+    /**
+     * Probes from a channel, reading the top-level box headers and the {@code moov} tree only.
+     */
+    public static Mp4ProbeInfo parse(SeekableByteChannel channel) throws CodecMediaException {
+        BmffReader reader = new BmffReader(channel);
+        if (!isLikelyMp4(reader.read(0, (int) Math.min(12, reader.size())))) {
+            throw new CodecMediaException("Not an MP4/ISO BMFF file");
+        }
+        return parse(reader);
+    }
 
-        String majorBrand = readAscii(bytes, 8, 4);
+    private static Mp4ProbeInfo parse(BmffReader reader) throws CodecMediaException {
+        String majorBrand = readAscii(reader.read(8, 4), 0, 4);
         Integer width = null;
         Integer height = null;
         Long durationMillis = null;
@@ -45,92 +72,119 @@ public final class Mp4Parser {
         Integer audioBitrateKbps = null;
         Integer bitDepth = null;
 
-        String currentTrackType = null;
-        Long currentTrackTimescale = null;
-        Long currentTrackDuration = null;
-
-        int offset = 0;
-        while (offset + 8 <= bytes.length) {
-            long boxSize = readUInt32(bytes, offset);
-            String boxType = readAscii(bytes, offset + 4, 4);
-            if (boxSize == 0) {
-                boxSize = bytes.length - offset;
-            } else if (boxSize == 1) {
-                if (offset + 16 > bytes.length) {
-                    throw new CodecMediaException("Invalid extended MP4 box size");
+        BmffBox moov = reader.child(null, "moov");
+        List<BmffBox> moovChildren = moov == null ? List.of() : reader.children(moov);
+        for (BmffBox box : moovChildren) {
+            if ("mvhd".equals(box.type()) && box.payloadSize() >= 20 && durationMillis == null) {
+                byte[] payload = reader.readPayload(box);
+                durationMillis = parseMvhdDuration(payload, 0, payload.length);
+            }
+        }
+
+        for (BmffBox trak : moovChildren) {
+            if (!"trak".equals(trak.type())) {
+                continue;
+            }
+            String trackType = null;
+            Long trackTimescale = null;
+            Long trackDuration = null;
+            BmffBox mdia = null;
+            for (BmffBox box : reader.children(trak)) {
+                if ("tkhd".equals(box.type()) && box.payloadSize() >= 84 && (width == null || height == null)) {
+                    byte[] payload = reader.readPayload(box);
+                    int[] wh = parseTkhdDimensions(payload, 0, payload.length);
+                    if (wh[0] > 0 && wh[1] > 0) {
+                        width = wh[0];
+                        height = wh[1];
+                    }
+                } else if ("mdia".equals(box.type()) && mdia == null) {
+                    mdia = box;
                 }
-                boxSize = readUInt64(bytes, offset + 8);
             }
-            if (boxSize < 8) {
-                throw new CodecMediaException("Invalid MP4 box size for box: " + boxType);
+            if (mdia == null) {
+                continue;
             }
 
-            int headerSize = (readUInt32(bytes, offset) == 1) ? 16 : 8;
-            int payloadStart = offset + headerSize;
-            long payloadSizeLong = boxSize - headerSize;
-            if (payloadSizeLong < 0 || payloadStart + payloadSizeLong > bytes.length) {
-                throw new CodecMediaException("MP4 box exceeds file bounds: " + boxType);
+            BmffBox minf = null;
+            for (BmffBox box : reader.children(mdia)) {
+                if ("hdlr".equals(box.type())) {
+                    byte[] payload = reader.readPayload(box);
+                    trackType = parseHdlrType(payload, 0, payload.length);
+                } else if ("mdhd".equals(box.type())) {
+                    byte[] payload = reader.readPayload(box);
+                    MdhdInfo mdhd = parseMdhdInfo(payload, 0, payload.length);
+                    trackTimescale = mdhd.timescale();
+                    trackDuration = mdhd.duration();
+                } else if ("minf".equals(box.type()) && minf == null) {
+                    minf = box;
+                }
+            }
+            BmffBox stbl = minf == null ? null : reader.child(minf, "stbl");
+            if (stbl == null) {
+                continue;
             }
 
-            int payloadSize = (int) payloadSizeLong;
-            if ("mvhd".equals(boxType) && payloadSize >= 20 && durationMillis == null) {
-                durationMillis = parseMvhdDuration(bytes, payloadStart, payloadSize);
-            } else if ("tkhd".equals(boxType) && payloadSize >= 84 && (width == null || height == null)) {
-                int[] wh = parseTkhdDimensions(bytes, payloadStart, payloadSize);
-                if (wh[0] > 0 && wh[1] > 0) {
-                    width = wh[0];
-                    height = wh[1];
-                }
-            } else if ("hdlr".equals(boxType)) {
-                currentTrackType = parseHdlrType(bytes, payloadStart, payloadSize);
-            } else if ("mdhd".equals(boxType)) {
-                MdhdInfo mdhd = parseMdhdInfo(bytes, payloadStart, payloadSize);
-                if (mdhd.timescale() != null && mdhd.timescale() > 0) {
-                    currentTrackTimescale = mdhd.timescale();
-                }
-                if (mdhd.duration() != null && mdhd.duration() > 0) {
-                    currentTrackDuration = mdhd.duration();
-                }
-            } else if ("stsd".equals(boxType)) {
-                SampleDescription info = parseStsd(bytes, payloadStart, payloadSize);
-                if (info.videoCodec != null && videoCodec == null) {
-                    videoCodec = info.videoCodec;
-                }
-                if (info.audioCodec != null && audioCodec == null) {
-                    audioCodec = info.audioCodec;
-                }
-                if (info.sampleRate != null && sampleRate == null) {
-                    sampleRate = info.sampleRate;
+            Integer trackBitrateKbps = null;
+            for (BmffBox box : reader.children(stbl)) {
+                if ("stsd".equals(box.type())) {
+                    byte[] payload = reader.readPayload(box);
+                    SampleDescription info = parseStsd(payload, 0, payload.length);
+                    if (info.videoCodec != null && videoCodec == null) {
+                        videoCodec = info.videoCodec;
+                    }
+                    if (info.audioCodec != null && audioCodec == null) {
+                        audioCodec = info.audioCodec;
+                    }
+                    if (info.sampleRate != null && sampleRate == null) {
+                        sampleRate = info.sampleRate;
+                    }
+                    if (info.channels != null && channels == null) {
+                        channels = info.channels;
+                    }
+                    if (info.bitDepth != null && bitDepth == null) {
+                        bitDepth = info.bitDepth;
+                    }
+                    if (info.averageBitrateKbps != null && trackBitrateKbps == null) {
+                        trackBitrateKbps = info.averageBitrateKbps;
+                    }
+                } else if ("stts".equals(box.type()) && "vide".equals(trackType) && frameRate == null
+                        && trackTimescale != null && trackTimescale > 0) {
+                    byte[] payload = reader.readPayload(box);
+                    frameRate = parseFrameRateFromStts(payload, 0, payload.length, trackTimescale);
+                } else if ("stsz".equals(box.type()) && box.payloadSize() >= 12 && trackBitrateKbps == null
+                        && trackDuration != null && trackTimescale != null) {
+                    long totalBytes = BmffSampleIndex.totalSampleBytes(reader, box);
+                    trackBitrateKbps = bitrateKbps(totalBytes, trackDuration, trackTimescale);
                 }
-                if (info.channels != null && channels == null) {
-                    channels = info.channels;
+            }
+            if (trackBitrateKbps != null) {
+                if ("vide".equals(trackType) && videoBitrateKbps == null) {
+                    videoBitrateKbps = trackBitrateKbps;
+                } else if ("soun".equals(trackType) && audioBitrateKbps == null) {
+                    audioBitrateKbps = trackBitrateKbps;
                 }
-                if (info.bitDepth != null && bitDepth == null) {
-                    bitDepth = info.bitDepth;
+            }
+        }
+
+        // Fragmented MP4 leaves mvhd/stsz empty and describes samples in moof/trun instead
+        if (moov != null && durationMillis == null && reader.child(moov, "mvex") != null) {
+            BmffFragmentScanner fragments = BmffFragmentScanner.probe(reader);
+            durationMillis = fragments.durationMillis();
+            for (BmffFragmentScanner.TrackFragments track : fragments.tracks()) {
+                // No sample bytes when only the mfra index was read; the file-size estimate below applies
+                if (track.sampleBytes() == 0) {
+                    continue;
                 }
-            } else if ("stts".equals(boxType) && frameRate == null && currentTrackTimescale != null && currentTrackTimescale > 0) {
-                frameRate = parseFrameRateFromStts(bytes, payloadStart, payloadSize, currentTrackTimescale);
-            } else if ("btrt".equals(boxType)) {
-                Integer avg = parseAverageBitrateKbpsFromBtrt(bytes, payloadStart, payloadSize);
-                if (avg != null) {
-                    if ("vide".equals(currentTrackType) && videoBitrateKbps == null) {
-                        videoBitrateKbps = avg;
-                    } else if ("soun".equals(currentTrackType) && audioBitrateKbps == null) {
-                        audioBitrateKbps = avg;
-                    }
+                Integer trackBitrateKbps = bitrateKbps(track.sampleBytes(), track.duration(), track.timescale());
+                if (trackBitrateKbps == null) {
+                    continue;
                 }
-            } else if ("stsz".equals(boxType) && currentTrackDuration != null && currentTrackTimescale != null) {
-                Integer fromStsz = parseBitrateFromStsz(bytes, payloadStart, payloadSize, currentTrackDuration, currentTrackTimescale);
-                if (fromStsz != null) {
-                    if ("vide".equals(currentTrackType) && videoBitrateKbps == null) {
-                        videoBitrateKbps = fromStsz;
-                    } else if ("soun".equals(currentTrackType) && audioBitrateKbps == null) {
-                        audioBitrateKbps = fromStsz;
-                    }
+                if ("vide".equals(track.handlerType()) && videoBitrateKbps == null) {
+                    videoBitrateKbps = trackBitrateKbps;
+                } else if ("soun".equals(track.handlerType()) && audioBitrateKbps == null) {
+                    audioBitrateKbps = trackBitrateKbps;
                 }
             }
-
-            offset += (int) boxSize;
         }
 
         String displayAspectRatio = null;
@@ -140,7 +194,7 @@ public final class Mp4Parser {
         }
 
         if (durationMillis != null && durationMillis > 0) {
-            int totalKbps = (int) (((long) bytes.length * 8L * 1000L) / (durationMillis * 1000L));
+            int totalKbps = (int) ((reader.size() * 8L * 1000L) / (durationMillis * 1000L));
             if (videoBitrateKbps == null && width != null && height != null && width > 0 && height > 0) {
                 videoBitrateKbps = totalKbps;
             } else if (audioBitrateKbps == null && (sampleRate != null || channels != null)) {
@@ -265,26 +319,30 @@ public final class Mp4Parser {
 
             if (isVideoFourCc(format) && out.videoCodec == null) {
                 out.videoCodec = normalizeCodec(format);
-                if (entrySize >= 78) {
-                    int depthOffset = cursor + 74;
-                    if (depthOffset + 2 <= cursor + entrySize) {
-                        int depth = readUInt16(bytes, depthOffset);
-                        if (depth > 0 && depth < 64) {
-                            out.bitDepth = depth;
-                        }
+                // VisualSampleEntry: 16-byte SampleEntry head, then 66 bytes of fields before depth
+                if (entrySize >= 86) {
+                    int depth = readUInt16(bytes, cursor + 82);
+                    if (depth > 0 && depth < 64) {
+                        out.bitDepth = depth;
                     }
                 }
+                if (out.averageBitrateKbps == null) {
+                    out.averageBitrateKbps = findBtrtBitrate(bytes, cursor + 86, cursor + entrySize);
+                }
             } else if (isAudioFourCc(format) && out.audioCodec == null) {
                 out.audioCodec = normalizeCodec(format);
+                // AudioSampleEntry: 16-byte SampleEntry head, version, 6 reserved, then
+                // channelcount, samplesize, 4 reserved and 16.16 samplerate
                 if (entrySize >= 36) {
-                    int channelCountOffset = cursor + 16;
-                    int sampleSizeOffset = cursor + 18;
-                    int sampleRateOffset = cursor + 24;
-                    if (sampleRateOffset + 4 <= cursor + entrySize) {
-                        out.channels = readUInt16(bytes, channelCountOffset);
-                        out.bitDepth = readUInt16(bytes, sampleSizeOffset);
-                        int srFixed = (int) readUInt32(bytes, sampleRateOffset);
-                        out.sampleRate = srFixed >>> 16;
+                    out.channels = readUInt16(bytes, cursor + 24);
+                    out.bitDepth = readUInt16(bytes, cursor + 26);
+                    int srFixed = (int) readUInt32(bytes, cursor + 32);
+                    out.sampleRate = srFixed >>> 16;
+                    // QuickTime sound description versions 1 and 2 append 16 and 36 bytes
+                    int version = readUInt16(bytes, cursor + 16);
+                    int extensions = cursor + 36 + (version == 1 ? 16 : version == 2 ? 36 : 0);
+                    if (out.averageBitrateKbps == null) {
+                        out.averageBitrateKbps = findBtrtBitrate(bytes, extensions, cursor + entrySize);
                     }
                 }
             }
@@ -294,6 +352,21 @@ public final class Mp4Parser {
         return out;
     }
 
+    private static Integer findBtrtBitrate(byte[] bytes, int offset, int end) throws CodecMediaException {
+        int cursor = offset;
+        while (cursor + 8 <= end) {
+            long boxSize = readUInt32(bytes, cursor);
+            if (boxSize < 8 || boxSize > end - cursor) {
+                return null;
+            }
+            if (isAscii(bytes, cursor + 4, "btrt")) {
+                return parseAverageBitrateKbpsFromBtrt(bytes, cursor + 8, (int) boxSize - 8);
+            }
+            cursor += (int) boxSize;
+        }
+        return null;
+    }
+
     private static Double parseFrameRateFromStts(byte[] bytes, int offset, int size, Long trackTimescale) throws CodecMediaException {
         if (size < 16 || trackTimescale == null || trackTimescale <= 0) {
             return null;
@@ -326,32 +399,11 @@ public final class Mp4Parser {
         return (int) Math.max(1L, Math.round(avgBitrate / 1000.0d));
     }
 
-    private static Integer parseBitrateFromStsz(byte[] bytes, int offset, int size, long duration, long timescale) throws CodecMediaException {
-        if (size < 12 || duration <= 0 || timescale <= 0) {
-            return null;
-        }
-        long sampleSize = readUInt32(bytes, offset + 4);
-        long sampleCount = readUInt32(bytes, offset + 8);
-
-        long totalBytes = 0;
-        if (sampleSize > 0) {
-            totalBytes = sampleSize * sampleCount;
-        } else {
-            int cursor = offset + 12;
-            int limit = offset + size;
-            for (long i = 0; i < sampleCount && cursor + 4 <= limit; i++) {
-                totalBytes += readUInt32(bytes, cursor);
-                cursor += 4;
-            }
-        }
-        if (totalBytes <= 0) {
+    private static Integer bitrateKbps(long totalBytes, long duration, long timescale) {
+        if (totalBytes <= 0 || duration <= 0 || timescale <= 0) {
             return null;
         }
-
         double durationSeconds = duration / (double) timescale;
-        if (durationSeconds <= 0.0d) {
-            return null;
-        }
         long bps = Math.round((totalBytes * 8.0d) / durationSeconds);
         return (int) Math.max(1L, Math.round(bps / 1000.0d));
     }
@@ -458,6 +510,7 @@ public final class Mp4Parser {
         Integer sampleRate;
         Integer channels;
         Integer bitDepth;
+        Integer averageBitrateKbps;
     }
 }
 
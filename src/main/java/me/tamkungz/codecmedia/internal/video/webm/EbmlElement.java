@@ -0,0 +1,23 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+/**
+ * Position of one EBML element. {@code size} is the payload size; for an element written with an
+ * unknown size (live Matroska {@code Segment}/{@code Cluster}) it runs to the end of the enclosing
+ * range and {@code unknownSize} is set.
+ */
+public record EbmlElement(
+        int id,
+        long offset,
+        int headerSize,
+        long size,
+        boolean unknownSize
+) {
+
+    public long payloadOffset() {
+        return offset + headerSize;
+    }
+
+    public long endOffset() {
+        return offset + headerSize + size;
+    }
+}
@@ -0,0 +1,65 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+/**
+ * EBML and Matroska element IDs used by the WebM readers and converters, with their length
+ * marker bits kept as they appear on disk.
+ */
+public final class EbmlIds {
+
+    // Top level and Segment children
+    public static final int ID_EBML = 0x1A45DFA3;
+    public static final int ID_DOC_TYPE = 0x4282;
+    public static final int ID_SEGMENT = 0x18538067;
+    public static final int ID_SEEK_HEAD = 0x114D9B74;
+    public static final int ID_INFO = 0x1549A966;
+    public static final int ID_TRACKS = 0x1654AE6B;
+    public static final int ID_CLUSTER = 0x1F43B675;
+    public static final int ID_CUES = 0x1C53BB6B;
+    public static final int ID_TAGS = 0x1254C367;
+    public static final int ID_CHAPTERS = 0x1043A770;
+    public static final int ID_ATTACHMENTS = 0x1941A469;
+    public static final int ID_VOID = 0xEC;
+
+    // SeekHead
+    public static final int ID_SEEK = 0x4DBB;
+    public static final int ID_SEEK_ID = 0x53AB;
+    public static final int ID_SEEK_POSITION = 0x53AC;
+
+    // Info
+    public static final int ID_TIMECODE_SCALE = 0x2AD7B1;
+    public static final int ID_DURATION = 0x4489;
+
+    // Tracks
+    public static final int ID_TRACK_ENTRY = 0xAE;
+    public static final int ID_TRACK_NUMBER = 0xD7;
+    public static final int ID_TRACK_TYPE = 0x83;
+    public static final int ID_CODEC_ID = 0x86;
+    public static final int ID_CODEC_PRIVATE = 0x63A2;
+    public static final int ID_CODEC_DELAY = 0x56AA;
+    public static final int ID_DEFAULT_DURATION = 0x23E383;
+    public static final int ID_CONTENT_ENCODINGS = 0x6D80;
+    public static final int ID_VIDEO = 0xE0;
+    public static final int ID_PIXEL_WIDTH = 0xB0;
+    public static final int ID_PIXEL_HEIGHT = 0xBA;
+    public static final int ID_AUDIO = 0xE1;
+    public static final int ID_SAMPLING_FREQUENCY = 0xB5;
+    public static final int ID_CHANNELS = 0x9F;
+    public static final int ID_BIT_DEPTH = 0x6264;
+
+    // Cluster
+    public static final int ID_CLUSTER_TIMECODE = 0xE7;
+    public static final int ID_SIMPLE_BLOCK = 0xA3;
+    public static final int ID_BLOCK_GROUP = 0xA0;
+    public static final int ID_BLOCK = 0xA1;
+    public static final int ID_REFERENCE_BLOCK = 0xFB;
+
+    // Cues
+    public static final int ID_CUE_POINT = 0xBB;
+    public static final int ID_CUE_TIME = 0xB3;
+    public static final int ID_CUE_TRACK_POSITIONS = 0xB7;
+    public static final int ID_CUE_TRACK = 0xF7;
+    public static final int ID_CUE_CLUSTER_POSITION = 0xF1;
+
+    private EbmlIds() {
+    }
+}
@@ -0,0 +1,195 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ByteArrayChannel;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Lazy EBML (WebM/Matroska) element reader over a seekable channel.
+ *
+ * <p>Element headers (variable-length ID and size) are read on demand with one small positioned
+ * read each; payloads are read only when asked for, so a walk over {@code Cluster} elements never
+ * touches the frames inside them. Unknown-size elements run to the end of the enclosing range, and
+ * the children of an unknown-size element stop at the next top-level Segment child. Not thread-safe.
+ */
+public final class EbmlReader {
+
+    /** Largest payload {@link #readPayload(EbmlElement)} will load into memory. */
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+
+    private static final Set<Integer> SEGMENT_CHILD_IDS = Set.of(
+            EbmlIds.ID_SEEK_HEAD, EbmlIds.ID_INFO, EbmlIds.ID_TRACKS, EbmlIds.ID_CLUSTER, EbmlIds.ID_CUES,
+            EbmlIds.ID_TAGS, EbmlIds.ID_CHAPTERS, EbmlIds.ID_ATTACHMENTS, EbmlIds.ID_EBML, EbmlIds.ID_SEGMENT);
+
+    private final SeekableByteChannel channel;
+    private final long size;
+    private final ByteBuffer header = ByteBuffer.allocate(12);
+
+    public EbmlReader(SeekableByteChannel channel) throws CodecMediaException {
+        this.channel = channel;
+        try {
+            this.size = channel.size();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read EBML data size", e);
+        }
+    }
+
+    public static EbmlReader of(byte[] bytes) throws CodecMediaException {
+        return new EbmlReader(new ByteArrayChannel(bytes));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /** Whether {@code id} is one of the top-level children of a Matroska {@code Segment}. */
+    public static boolean isSegmentChild(int id) {
+        return SEGMENT_CHILD_IDS.contains(id);
+    }
+
+    /**
+     * Reads the element header at {@code offset}.
+     *
+     * @return the element, or {@code null} when fewer than 2 bytes are left before {@code end}
+     */
+    public EbmlElement readElement(long offset, long end) throws CodecMediaException {
+        if (offset + 2 > end) {
+            return null;
+        }
+        header.clear().limit((int) Math.min(12, end - offset));
+        read(offset, header);
+        int first = header.get(0) & 0xFF;
+        int idLength = Integer.numberOfLeadingZeros(first) - 23;
+        if (first == 0 || idLength > 4) {
+            throw new CodecMediaException("Invalid EBML element ID at offset " + offset);
+        }
+        if (idLength + 1 > header.limit()) {
+            throw new CodecMediaException("Truncated EBML element header at offset " + offset);
+        }
+        int id = 0;
+        for (int i = 0; i < idLength; i++) {
+            id = (id << 8) | (header.get(i) & 0xFF);
+        }
+        int sizeFirst = header.get(idLength) & 0xFF;
+        int sizeLength = Integer.numberOfLeadingZeros(sizeFirst) - 23;
+        if (sizeFirst == 0) {
+            throw new CodecMediaException("Invalid EBML size for ID 0x" + Integer.toHexString(id) + " at offset " + offset);
+        }
+        if (idLength + sizeLength > header.limit()) {
+            throw new CodecMediaException("Truncated EBML element header at offset " + offset);
+        }
+        long value = sizeFirst & (0xFF >>> sizeLength);
+        boolean allOnes = value == (0xFF >>> sizeLength);
+        for (int i = 1; i < sizeLength; i++) {
+            int b = header.get(idLength + i) & 0xFF;
+            allOnes &= b == 0xFF;
+            value = (value << 8) | b;
+        }
+        int headerSize = idLength + sizeLength;
+        long available = end - offset - headerSize;
+        if (allOnes) {
+            return new EbmlElement(id, offset, headerSize, available, true);
+        }
+        if (value > available) {
+            throw new CodecMediaException("EBML element exceeds bounds: ID 0x" + Integer.toHexString(id) + " at offset " + offset);
+        }
+        return new EbmlElement(id, offset, headerSize, value, false);
+    }
+
+    public List<EbmlElement> children(EbmlElement parent) throws CodecMediaException {
+        List<EbmlElement> out = new ArrayList<>();
+        long offset = parent.payloadOffset();
+        EbmlElement element;
+        while ((element = readElement(offset, parent.endOffset())) != null) {
+            if (parent.unknownSize() && isSegmentChild(element.id()) && parent.id() != EbmlIds.ID_SEGMENT) {
+                break;
+            }
+            out.add(element);
+            offset = element.endOffset();
+        }
+        return out;
+    }
+
+    /** First child of {@code parent} with the given ID, reading headers only up to the match. */
+    public EbmlElement child(EbmlElement parent, int id) throws CodecMediaException {
+        long offset = parent.payloadOffset();
+        EbmlElement element;
+        while ((element = readElement(offset, parent.endOffset())) != null) {
+            if (element.id() == id) {
+                return element;
+            }
+            if (parent.unknownSize() && isSegmentChild(element.id()) && parent.id() != EbmlIds.ID_SEGMENT) {
+                return null;
+            }
+            offset = element.endOffset();
+        }
+        return null;
+    }
+
+    public byte[] readPayload(EbmlElement element) throws CodecMediaException {
+        if (element.size() > MAX_PAYLOAD_BYTES) {
+            throw new CodecMediaException("EBML element too large to load: ID 0x" + Integer.toHexString(element.id())
+                    + " (" + element.size() + " bytes)");
+        }
+        return read(element.payloadOffset(), (int) element.size());
+    }
+
+    /** Big-endian unsigned integer payload of 0 to 8 bytes. */
+    public long readUnsigned(EbmlElement element) throws CodecMediaException {
+        if (element.size() > 8) {
+            throw new CodecMediaException("EBML integer too long: ID 0x" + Integer.toHexString(element.id()));
+        }
+        long value = 0;
+        for (byte b : readPayload(element)) {
+            value = (value << 8) | (b & 0xFFL);
+        }
+        return value;
+    }
+
+    /** IEEE float payload of 0, 4 or 8 bytes. */
+    public double readFloat(EbmlElement element) throws CodecMediaException {
+        if (element.size() == 0) {
+            return 0.0d;
+        }
+        if (element.size() != 4 && element.size() != 8) {
+            throw new CodecMediaException("Invalid EBML float size: ID 0x" + Integer.toHexString(element.id()));
+        }
+        ByteBuffer value = ByteBuffer.wrap(readPayload(element));
+        return element.size() == 4 ? value.getFloat() : value.getDouble();
+    }
+
+    /** String payload with trailing NUL padding removed. */
+    public String readString(EbmlElement element) throws CodecMediaException {
+        byte[] payload = readPayload(element);
+        int length = payload.length;
+        while (length > 0 && payload[length - 1] == 0) {
+            length--;
+        }
+        return new String(payload, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public byte[] read(long position, int length) throws CodecMediaException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        read(position, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Fills the remaining space of {@code buffer} from {@code position}.
+     */
+    public void read(long position, ByteBuffer buffer) throws CodecMediaException {
+        try {
+            ChannelReads.readFully(channel, position, buffer);
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to read EBML data at offset " + position, e);
+        }
+    }
+}
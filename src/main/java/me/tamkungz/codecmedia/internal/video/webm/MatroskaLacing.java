@@ -0,0 +1,113 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+import java.util.Arrays;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Matroska block lacing: frame sizes of a {@code SimpleBlock}/{@code Block} that carries several
+ * frames after its header.
+ * <p>
+ * {@code lacing} is the two-bit value from the block flags ({@code (flags >> 1) & 3}): 0 none,
+ * 1 Xiph, 2 fixed-size, 3 EBML.
+ */
+public final class MatroskaLacing {
+
+    public static final int NONE = 0;
+    public static final int XIPH = 1;
+    public static final int FIXED = 2;
+    public static final int EBML = 3;
+
+    private MatroskaLacing() {
+    }
+
+    /**
+     * Upper bound of the lace header length for block data of {@code dataSize} bytes, so callers can
+     * read just the lace header instead of the frames.
+     */
+    public static int maxHeaderBytes(int lacing, long dataSize) {
+        long bound = switch (lacing) {
+            case NONE -> 0;
+            case FIXED -> 1;
+            case EBML -> 1 + 8L * 255;
+            default -> 1 + 255 + dataSize / 255;
+        };
+        return (int) Math.min(bound, dataSize);
+    }
+
+    /** Frame count of a laced block from the first data byte. */
+    public static int frameCount(int lacing, byte firstDataByte) {
+        return lacing == NONE ? 1 : (firstDataByte & 0xFF) + 1;
+    }
+
+    /**
+     * Fills {@code frameSizes} with the size of each frame of block data holding {@code dataSize}
+     * bytes, from its lace header in {@code header[0, headerLength)}.
+     *
+     * @return length of the lace header, where the first frame starts
+     */
+    public static int readFrameSizes(int lacing, byte[] header, int headerLength, long dataSize, int[] frameSizes)
+            throws CodecMediaException {
+        if (lacing == NONE) {
+            frameSizes[0] = checkedSize(dataSize);
+            return 0;
+        }
+        if (headerLength < 1) {
+            throw new CodecMediaException("Invalid Matroska lacing: empty block");
+        }
+        int count = (header[0] & 0xFF) + 1;
+        int position = 1;
+        long total = 0;
+        if (lacing == XIPH) {
+            for (int i = 0; i < count - 1; i++) {
+                int frame = 0;
+                int b;
+                do {
+                    if (position >= headerLength) {
+                        throw new CodecMediaException("Invalid Matroska Xiph lacing");
+                    }
+                    b = header[position++] & 0xFF;
+                    frame += b;
+                } while (b == 255);
+                frameSizes[i] = frame;
+                total += frame;
+            }
+        } else if (lacing == EBML) {
+            long frame = 0;
+            for (int i = 0; i < count - 1; i++) {
+                if (position >= headerLength) {
+                    throw new CodecMediaException("Invalid Matroska EBML lacing");
+                }
+                int first = header[position] & 0xFF;
+                int length = Integer.numberOfLeadingZeros(first) - 23;
+                if (first == 0 || position + length > headerLength) {
+                    throw new CodecMediaException("Invalid Matroska EBML lacing");
+                }
+                long value = first & (0xFF >>> length);
+                for (int j = 1; j < length; j++) {
+                    value = (value << 8) | (header[position + j] & 0xFF);
+                }
+                position += length;
+                // The first size is unsigned; the others are differences stored with a bias
+                frame = i == 0 ? value : frame + value - ((1L << (7 * length - 1)) - 1);
+                frameSizes[i] = checkedSize(frame);
+                total += frame;
+            }
+        } else {
+            if ((dataSize - 1) % count != 0) {
+                throw new CodecMediaException("Invalid Matroska fixed-size lacing");
+            }
+            Arrays.fill(frameSizes, 0, count - 1, checkedSize((dataSize - 1) / count));
+            total = (count - 1) * ((dataSize - 1) / count);
+        }
+        frameSizes[count - 1] = checkedSize(dataSize - position - total);
+        return position;
+    }
+
+    private static int checkedSize(long size) throws CodecMediaException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new CodecMediaException("Invalid Matroska lacing sizes");
+        }
+        return (int) size;
+    }
+}
@@ -1,8 +1,10 @@
 package me.tamkungz.codecmedia.internal.video.webm;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import me.tamkungz.codecmedia.CodecMediaException;
 
@@ -12,9 +14,10 @@ public final class WebmCodec {
     }
 
     public static WebmProbeInfo decode(Path input) throws CodecMediaException {
-        try {
-            byte[] bytes = Files.readAllBytes(input);
-            return decode(bytes, input);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            WebmProbeInfo info = WebmParser.parse(channel);
+            validateDecodedProbe(info, input);
+            return info;
         } catch (IOException e) {
             throw new CodecMediaException("Failed to decode WebM: " + input, e);
         }
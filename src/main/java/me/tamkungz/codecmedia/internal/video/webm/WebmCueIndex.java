@@ -0,0 +1,257 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+/**
+ * Seek index of a WebM/Matroska file: (timecode, cluster position, track) entries in primitive
+ * arrays, answering time -> cluster offset lookups by binary search.
+ *
+ * <p>The {@code Cues} element is located through the SeekHead (or found before the first Cluster)
+ * and loaded with one read. Without Cues the index falls back to one entry per Cluster, hopping from
+ * header to header by element size and reading only each Cluster's {@code Timecode}; those entries
+ * have track {@code 0}. Timecodes are in {@code TimecodeScale} units and cluster positions are
+ * absolute file offsets.
+ */
+public final class WebmCueIndex {
+
+    private final long timecodeScale;
+    private final long[] timecodes;
+    private final long[] clusterPositions;
+    private final int[] tracks;
+    private final boolean fromCues;
+
+    private WebmCueIndex(long timecodeScale, long[] timecodes, long[] clusterPositions, int[] tracks, boolean fromCues) {
+        this.timecodeScale = timecodeScale;
+        this.timecodes = timecodes;
+        this.clusterPositions = clusterPositions;
+        this.tracks = tracks;
+        this.fromCues = fromCues;
+    }
+
+    public static WebmCueIndex build(SeekableByteChannel channel) throws CodecMediaException {
+        return build(new EbmlReader(channel));
+    }
+
+    /**
+     * Builds the index from {@code Cues}, or from Cluster headers when the file has none.
+     */
+    public static WebmCueIndex build(EbmlReader reader) throws CodecMediaException {
+        return build(reader, true);
+    }
+
+    /**
+     * Builds the index from Cluster headers only, ignoring any {@code Cues}.
+     */
+    public static WebmCueIndex scanClusters(EbmlReader reader) throws CodecMediaException {
+        return build(reader, false);
+    }
+
+    private static WebmCueIndex build(EbmlReader reader, boolean useCues) throws CodecMediaException {
+        EbmlElement header = reader.readElement(0, reader.size());
+        if (header == null || header.id() != EbmlIds.ID_EBML) {
+            throw new CodecMediaException("Not an EBML/WebM file (missing EBML header)");
+        }
+        EbmlElement segment = WebmParser.findSegment(reader, header.endOffset());
+        if (segment == null) {
+            throw new CodecMediaException("WebM file has no Segment element");
+        }
+
+        WebmParser.SegmentLayout layout = WebmParser.readLayout(reader, segment);
+        long timecodeScale = WebmParser.timecodeScale(reader, layout.info());
+
+        Builder builder = new Builder();
+        if (useCues && layout.cues() != null) {
+            readCues(EbmlReader.of(reader.readPayload(layout.cues())), segment.payloadOffset(), builder);
+            return builder.build(timecodeScale, true);
+        }
+        if (layout.firstCluster() >= 0) {
+            readClusterHeaders(reader, segment, layout.firstCluster(), builder);
+        }
+        return builder.build(timecodeScale, false);
+    }
+
+    /**
+     * Reads the CuePoints of an in-memory {@code Cues} payload; each CueTrackPositions becomes one
+     * entry.
+     */
+    private static void readCues(EbmlReader cues, long segmentPayload, Builder builder) throws CodecMediaException {
+        long offset = 0;
+        EbmlElement point;
+        while ((point = cues.readElement(offset, cues.size())) != null) {
+            offset = point.endOffset();
+            if (point.id() != EbmlIds.ID_CUE_POINT) {
+                continue;
+            }
+            long time = -1;
+            for (EbmlElement field : cues.children(point)) {
+                if (field.id() == EbmlIds.ID_CUE_TIME) {
+                    time = cues.readUnsigned(field);
+                }
+            }
+            if (time < 0) {
+                continue;
+            }
+            for (EbmlElement positions : cues.children(point)) {
+                if (positions.id() != EbmlIds.ID_CUE_TRACK_POSITIONS) {
+                    continue;
+                }
+                long track = 0;
+                long cluster = -1;
+                for (EbmlElement field : cues.children(positions)) {
+                    if (field.id() == EbmlIds.ID_CUE_TRACK) {
+                        track = cues.readUnsigned(field);
+                    } else if (field.id() == EbmlIds.ID_CUE_CLUSTER_POSITION) {
+                        cluster = cues.readUnsigned(field);
+                    }
+                }
+                if (cluster >= 0 && track > 0 && track <= Integer.MAX_VALUE) {
+                    builder.add(time, segmentPayload + cluster, (int) track);
+                }
+            }
+        }
+    }
+
+    private static void readClusterHeaders(EbmlReader reader, EbmlElement segment, long offset, Builder builder)
+            throws CodecMediaException {
+        EbmlElement element;
+        while ((element = reader.readElement(offset, segment.endOffset())) != null) {
+            if (element.id() != EbmlIds.ID_CLUSTER) {
+                offset = element.endOffset();
+                continue;
+            }
+            long timecode = -1;
+            long child = element.payloadOffset();
+            EbmlElement field;
+            while ((field = reader.readElement(child, element.endOffset())) != null) {
+                if (element.unknownSize() && EbmlReader.isSegmentChild(field.id())) {
+                    break;
+                }
+                if (field.id() == EbmlIds.ID_CLUSTER_TIMECODE && timecode < 0) {
+                    timecode = reader.readUnsigned(field);
+                    if (!element.unknownSize()) {
+                        break;
+                    }
+                }
+                child = field.endOffset();
+            }
+            if (timecode >= 0) {
+                builder.add(timecode, element.offset(), 0);
+            }
+            if (!element.unknownSize()) {
+                offset = element.endOffset();
+            } else {
+                // An unknown-size cluster ends where the next top-level element begins
+                offset = field == null ? element.endOffset() : child;
+            }
+        }
+    }
+
+    public long timecodeScale() {
+        return timecodeScale;
+    }
+
+    public int size() {
+        return timecodes.length;
+    }
+
+    /** Whether the entries come from the file's {@code Cues} rather than a Cluster header scan. */
+    public boolean fromCues() {
+        return fromCues;
+    }
+
+    public long timecode(int entry) {
+        return timecodes[entry];
+    }
+
+    public long millis(int entry) {
+        return timecodes[entry] * timecodeScale / 1_000_000L;
+    }
+
+    public long clusterPosition(int entry) {
+        return clusterPositions[entry];
+    }
+
+    /** Track number of a cue entry; {@code 0} for entries from the Cluster scan. */
+    public int track(int entry) {
+        return tracks[entry];
+    }
+
+    /**
+     * Last entry at or before {@code millis}, or {@code -1} when the index is empty; times before the
+     * first entry map to entry 0.
+     */
+    public int entryAtMillis(long millis) {
+        return entryAtMillis(millis, 0);
+    }
+
+    /**
+     * Like {@link #entryAtMillis(long)}, restricted to {@code track} (entries of track 0 match any
+     * track); {@code -1} when no entry matches.
+     */
+    public int entryAtMillis(long millis, int track) {
+        if (timecodes.length == 0) {
+            return -1;
+        }
+        long timecode = millis <= 0 ? 0 : millis > Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : millis * 1_000_000L / timecodeScale;
+        int index = Arrays.binarySearch(timecodes, timecode);
+        if (index < 0) {
+            index = -index - 2;
+        } else {
+            while (index + 1 < timecodes.length && timecodes[index + 1] == timecode) {
+                index++;
+            }
+        }
+        for (int i = Math.max(0, index); i >= 0; i--) {
+            if (track == 0 || tracks[i] == 0 || tracks[i] == track) {
+                return i;
+            }
+        }
+        for (int i = Math.max(0, index) + 1; i < timecodes.length; i++) {
+            if (tracks[i] == 0 || tracks[i] == track) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Builder {
+        private long[] timecodes = new long[64];
+        private long[] positions = new long[64];
+        private int[] tracks = new int[64];
+        private int count;
+        private boolean sorted = true;
+
+        private void add(long timecode, long position, int track) {
+            if (count == timecodes.length) {
+                timecodes = Arrays.copyOf(timecodes, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+                tracks = Arrays.copyOf(tracks, count * 2);
+            }
+            sorted &= count == 0 || timecodes[count - 1] <= timecode;
+            timecodes[count] = timecode;
+            positions[count] = position;
+            tracks[count] = track;
+            count++;
+        }
+
+        private WebmCueIndex build(long timecodeScale, boolean fromCues) {
+            long[] outTimes = Arrays.copyOf(timecodes, count);
+            long[] outPositions = Arrays.copyOf(positions, count);
+            int[] outTracks = Arrays.copyOf(tracks, count);
+            if (!sorted) {
+                Integer[] order = new Integer[count];
+                Arrays.setAll(order, i -> i);
+                Arrays.sort(order, (a, b) -> Long.compare(timecodes[a], timecodes[b]));
+                for (int i = 0; i < count; i++) {
+                    outTimes[i] = timecodes[order[i]];
+                    outPositions[i] = positions[order[i]];
+                    outTracks[i] = tracks[order[i]];
+                }
+            }
+            return new WebmCueIndex(timecodeScale, outTimes, outPositions, outTracks, fromCues);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.PacketReader;
+import me.tamkungz.codecmedia.model.Packet;
+
+/**
+ * WebM/Matroska packet reader walking Clusters from the first one found by
+ * {@link WebmParser#readLayout(EbmlReader, EbmlElement)}.
+ * <p>
+ * Only element headers, block headers and lace headers are read while iterating; each laced frame is
+ * its own packet with the block's timestamp. Tracks are Matroska track numbers; times are in
+ * nanoseconds (timescale 1e9) and {@code dts} equals {@code pts}, as Matroska stores presentation
+ * times only. A {@code BlockGroup} frame is a keyframe when it has no {@code ReferenceBlock}.
+ * {@link #seek(long)} jumps to a Cluster through a {@link WebmCueIndex} built on first use. The
+ * reader owns and closes the channel.
+ */
+public final class WebmPacketReader implements PacketReader {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final SeekableByteChannel channel;
+    private final EbmlReader reader;
+    private final EbmlElement segment;
+    private final long timecodeScale;
+    private final long firstCluster;
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(11);
+    private WebmCueIndex cueIndex;
+    private long nextTopLevel;
+    private EbmlElement cluster;
+    private long clusterTimecode;
+    private long childOffset;
+
+    private byte[] laceHeader = new byte[64];
+    private int[] frameSizes = new int[8];
+    private int frameCount;
+    private int frameIndex;
+    private long frameOffset;
+    private int blockTrack;
+    private long blockPts;
+    private boolean blockKeyframe;
+    private Packet current;
+
+    public WebmPacketReader(SeekableByteChannel channel) throws CodecMediaException {
+        this.channel = channel;
+        this.reader = new EbmlReader(channel);
+        EbmlElement header = reader.readElement(0, reader.size());
+        if (header == null || header.id() != EbmlIds.ID_EBML) {
+            throw new CodecMediaException("Not an EBML/WebM file (missing EBML header)");
+        }
+        segment = WebmParser.findSegment(reader, header.endOffset());
+        if (segment == null) {
+            throw new CodecMediaException("WebM file has no Segment element");
+        }
+        WebmParser.SegmentLayout layout = WebmParser.readLayout(reader, segment);
+        timecodeScale = WebmParser.timecodeScale(reader, layout.info());
+        firstCluster = layout.firstCluster() >= 0 ? layout.firstCluster() : segment.endOffset();
+        nextTopLevel = firstCluster;
+    }
+
+    @Override
+    public Packet next() throws CodecMediaException {
+        while (true) {
+            if (frameIndex < frameCount) {
+                int size = frameSizes[frameIndex++];
+                current = new Packet(blockTrack, blockPts, blockPts, blockKeyframe, frameOffset, size, NANOS_PER_SECOND);
+                frameOffset += size;
+                return current;
+            }
+            if (cluster != null) {
+                EbmlElement element = reader.readElement(childOffset, cluster.endOffset());
+                if (element == null || (cluster.unknownSize() && EbmlReader.isSegmentChild(element.id()))) {
+                    nextTopLevel = element == null ? cluster.endOffset() : childOffset;
+                    cluster = null;
+                    continue;
+                }
+                childOffset = element.endOffset();
+                if (element.id() == EbmlIds.ID_CLUSTER_TIMECODE) {
+                    clusterTimecode = reader.readUnsigned(element);
+                } else if (element.id() == EbmlIds.ID_SIMPLE_BLOCK) {
+                    loadBlock(element, null);
+                } else if (element.id() == EbmlIds.ID_BLOCK_GROUP) {
+                    EbmlElement block = reader.child(element, EbmlIds.ID_BLOCK);
+                    if (block != null) {
+                        loadBlock(block, reader.child(element, EbmlIds.ID_REFERENCE_BLOCK) == null);
+                    }
+                }
+                continue;
+            }
+            EbmlElement element = reader.readElement(nextTopLevel, segment.endOffset());
+            if (element == null) {
+                current = null;
+                return null;
+            }
+            if (element.id() == EbmlIds.ID_CLUSTER) {
+                cluster = element;
+                clusterTimecode = 0;
+                childOffset = element.payloadOffset();
+            } else {
+                nextTopLevel = element.endOffset();
+            }
+        }
+    }
+
+    /**
+     * Reads a block header and lace header and queues its frames; {@code keyframe} is {@code null}
+     * for a SimpleBlock, whose flags carry it.
+     */
+    private void loadBlock(EbmlElement block, Boolean keyframe) throws CodecMediaException {
+        blockHeader.clear().limit((int) Math.min(blockHeader.capacity(), block.size()));
+        reader.read(block.payloadOffset(), blockHeader);
+        int first = blockHeader.get(0) & 0xFF;
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (first == 0 || length > 8 || length + 3 > blockHeader.limit()) {
+            throw new CodecMediaException("Invalid Matroska block header at offset " + block.offset());
+        }
+        long track = first & (0xFF >>> length);
+        for (int i = 1; i < length; i++) {
+            track = (track << 8) | (blockHeader.get(i) & 0xFF);
+        }
+        int flags = blockHeader.get(length + 2) & 0xFF;
+        int lacing = (flags >> 1) & 3;
+        long dataOffset = block.payloadOffset() + length + 3;
+        long dataSize = block.size() - length - 3;
+
+        int headerLength = MatroskaLacing.maxHeaderBytes(lacing, dataSize);
+        if (headerLength > 0) {
+            if (laceHeader.length < headerLength) {
+                laceHeader = new byte[Math.max(headerLength, laceHeader.length * 2)];
+            }
+            reader.read(dataOffset, ByteBuffer.wrap(laceHeader, 0, headerLength));
+        }
+        int count = MatroskaLacing.frameCount(lacing, headerLength > 0 ? laceHeader[0] : 0);
+        if (frameSizes.length < count) {
+            frameSizes = new int[count];
+        }
+        int start;
+        try {
+            start = MatroskaLacing.readFrameSizes(lacing, laceHeader, headerLength, dataSize, frameSizes);
+        } catch (CodecMediaException e) {
+            throw new CodecMediaException(e.getMessage() + " at offset " + block.offset(), e);
+        }
+
+        blockTrack = (int) track;
+        blockPts = (clusterTimecode + blockHeader.getShort(length)) * timecodeScale;
+        blockKeyframe = keyframe != null ? keyframe : (flags & 0x80) != 0;
+        frameOffset = dataOffset + start;
+        frameCount = count;
+        frameIndex = 0;
+    }
+
+    /**
+     * Moves to the Cluster holding the last cue (or Cluster timecode, for files without Cues) at or
+     * before {@code millis}.
+     */
+    @Override
+    public void seek(long millis) throws CodecMediaException {
+        if (cueIndex == null) {
+            cueIndex = WebmCueIndex.build(reader);
+        }
+        int entry = cueIndex.entryAtMillis(millis);
+        nextTopLevel = entry >= 0 ? cueIndex.clusterPosition(entry) : firstCluster;
+        cluster = null;
+        frameCount = 0;
+        frameIndex = 0;
+        current = null;
+    }
+
+    @Override
+    public void readPayload(ByteBuffer target) throws CodecMediaException {
+        if (current == null) {
+            throw new CodecMediaException("No current packet to read");
+        }
+        if (target.remaining() < current.size()) {
+            throw new CodecMediaException("Buffer too small for packet: " + target.remaining() + " < " + current.size());
+        }
+        reader.read(current.offset(), target.slice(target.position(), current.size()));
+        target.position(target.position() + current.size());
+    }
+
+    @Override
+    public void close() throws CodecMediaException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new CodecMediaException("Failed to close packet reader", e);
+        }
+    }
+}
@@ -1,13 +1,11 @@
 package me.tamkungz.codecmedia.internal.video.webm;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.SeekableByteChannel;
 
 import me.tamkungz.codecmedia.CodecMediaException;
 
 public final class WebmParser {
 
-    private static final byte[] EBML_ID = new byte[] {(byte) 0x1A, (byte) 0x45, (byte) 0xDF, (byte) 0xA3};
-
     private WebmParser() {
     }
 
@@ -15,21 +13,59 @@ public final class WebmParser {
         if (bytes == null || bytes.length < 16) {
             return false;
         }
-        return matches(bytes, 0, EBML_ID) && indexOf(bytes, "webm".getBytes(StandardCharsets.US_ASCII), 0) >= 0;
+        try {
+            EbmlReader reader = EbmlReader.of(bytes);
+            EbmlElement header = reader.readElement(0, reader.size());
+            return header != null && header.id() == EbmlIds.ID_EBML && "webm".equals(readDocType(reader, header));
+        } catch (CodecMediaException e) {
+            return false;
+        }
     }
 
     public static WebmProbeInfo parse(byte[] bytes) throws CodecMediaException {
         if (bytes == null || bytes.length < 16) {
             throw new CodecMediaException("WebM data is empty or too short");
         }
-        if (!matches(bytes, 0, EBML_ID)) {
+        return parse(EbmlReader.of(bytes));
+    }
+
+    /**
+     * Probes from a channel, reading the EBML header, the SeekHead and the Info/Tracks elements
+     * only; clusters are never touched.
+     */
+    public static WebmProbeInfo parse(SeekableByteChannel channel) throws CodecMediaException {
+        EbmlReader reader = new EbmlReader(channel);
+        if (reader.size() < 16) {
+            throw new CodecMediaException("WebM data is empty or too short");
+        }
+        return parse(reader);
+    }
+
+    private static WebmProbeInfo parse(EbmlReader reader) throws CodecMediaException {
+        EbmlElement header = reader.readElement(0, reader.size());
+        if (header == null || header.id() != EbmlIds.ID_EBML) {
             throw new CodecMediaException("Not an EBML/WebM file (missing EBML header)");
         }
+        String docType = readDocType(reader, header);
+        if (docType != null && !"webm".equals(docType) && !"matroska".equals(docType)) {
+            throw new CodecMediaException("Unsupported EBML document type: " + docType);
+        }
+
+        EbmlElement segment = findSegment(reader, header.endOffset());
+        SegmentLayout layout = segment == null ? null : readLayout(reader, segment);
+        EbmlElement info = layout == null ? null : layout.info();
+        EbmlElement tracks = layout == null ? null : layout.tracks();
 
-        double durationSeconds = parseDurationSeconds(bytes);
-        long timecodeScale = parseTimecodeScale(bytes);
-        Long durationMillis = durationSeconds > 0.0d
-                ? Math.round(durationSeconds * (timecodeScale / 1_000_000.0d))
+        long timecodeScale = timecodeScale(reader, info);
+        double duration = -1.0d;
+        if (info != null) {
+            EbmlElement durationElement = reader.child(info, EbmlIds.ID_DURATION);
+            if (durationElement != null && (durationElement.size() == 4 || durationElement.size() == 8)) {
+                duration = reader.readFloat(durationElement);
+            }
+        }
+        Long durationMillis = duration > 0.0d
+                ? Math.round(duration * (timecodeScale / 1_000_000.0d))
                 : null;
 
         Integer width = null;
@@ -38,37 +74,29 @@ public final class WebmParser {
         String audioCodec = null;
         Integer sampleRate = null;
         Integer channels = null;
+        Integer bitDepth = null;
         Double frameRate = null;
         Integer videoBitrateKbps = null;
         Integer audioBitrateKbps = null;
 
-        int cursor = 0;
-        while (cursor + 2 < bytes.length) {
-            if ((bytes[cursor] & 0xFF) == 0xAE) { // TrackEntry
-                int sizeLen = vintLength(bytes[cursor + 1] & 0xFF);
-                if (sizeLen == 0 || cursor + 1 + sizeLen >= bytes.length) {
-                    break;
+        if (tracks != null) {
+            for (EbmlElement entry : reader.children(tracks)) {
+                if (entry.id() != EbmlIds.ID_TRACK_ENTRY) {
+                    continue;
                 }
-                long payloadSize = readVintValue(bytes, cursor + 1, sizeLen);
-                int payloadOffset = cursor + 1 + sizeLen;
-                int payloadEnd = (int) Math.min((long) bytes.length, payloadOffset + payloadSize);
-                TrackEntry t = parseTrackEntry(bytes, payloadOffset, payloadEnd);
+                TrackEntry t = parseTrackEntry(reader, entry);
                 if (t.trackType != null && t.trackType == 1) {
                     width = t.width != null ? t.width : width;
                     height = t.height != null ? t.height : height;
                     videoCodec = t.codec != null ? t.codec : videoCodec;
                     frameRate = t.frameRate != null ? t.frameRate : frameRate;
-                    videoBitrateKbps = t.bitrateKbps != null ? t.bitrateKbps : videoBitrateKbps;
                 } else if (t.trackType != null && t.trackType == 2) {
                     audioCodec = t.codec != null ? t.codec : audioCodec;
                     sampleRate = t.sampleRate != null ? t.sampleRate : sampleRate;
                     channels = t.channels != null ? t.channels : channels;
-                    audioBitrateKbps = t.bitrateKbps != null ? t.bitrateKbps : audioBitrateKbps;
+                    bitDepth = t.bitDepth != null ? t.bitDepth : bitDepth;
                 }
-                cursor = payloadEnd;
-                continue;
             }
-            cursor++;
         }
 
         String displayAspectRatio = null;
@@ -78,10 +106,10 @@ public final class WebmParser {
         }
 
         if (durationMillis != null && durationMillis > 0) {
-            int totalKbps = (int) (((long) bytes.length * 8L * 1000L) / (durationMillis * 1000L));
-            if (videoBitrateKbps == null && width != null && height != null && width > 0 && height > 0) {
+            int totalKbps = (int) ((reader.size() * 8L * 1000L) / (durationMillis * 1000L));
+            if (width != null && height != null && width > 0 && height > 0) {
                 videoBitrateKbps = totalKbps;
-            } else if (audioBitrateKbps == null && (sampleRate != null || channels != null)) {
+            } else if (sampleRate != null || channels != null) {
                 audioBitrateKbps = totalKbps;
             }
         }
@@ -97,168 +125,163 @@ public final class WebmParser {
                 frameRate,
                 videoBitrateKbps,
                 audioBitrateKbps,
-                null,
+                bitDepth,
                 displayAspectRatio
         );
     }
 
-    private static TrackEntry parseTrackEntry(byte[] bytes, int offset, int end) throws CodecMediaException {
-        TrackEntry out = new TrackEntry();
-        int p = offset;
-        while (p + 2 <= end) {
-            int idLen = ebmlIdLength(bytes[p] & 0xFF);
-            if (idLen == 0 || p + idLen >= end) {
-                break;
+    private static String readDocType(EbmlReader reader, EbmlElement header) throws CodecMediaException {
+        EbmlElement docType = reader.child(header, EbmlIds.ID_DOC_TYPE);
+        return docType == null ? null : reader.readString(docType);
+    }
+
+    /**
+     * Finds the Segment after the EBML header, skipping Void elements; trailing zero padding (never a
+     * valid element ID) ends the search.
+     */
+    static EbmlElement findSegment(EbmlReader reader, long offset) throws CodecMediaException {
+        while (offset < reader.size() && reader.read(offset, 1)[0] != 0) {
+            EbmlElement element = reader.readElement(offset, reader.size());
+            if (element == null) {
+                return null;
             }
+            if (element.id() == EbmlIds.ID_SEGMENT) {
+                return element;
+            }
+            if (element.id() != EbmlIds.ID_VOID) {
+                throw new CodecMediaException("Unexpected top-level EBML element 0x" + Integer.toHexString(element.id())
+                        + " at offset " + offset);
+            }
+            offset = element.endOffset();
+        }
+        return null;
+    }
 
-            int id = readElementId(bytes, p, idLen);
-            int sizeLen = vintLength(bytes[p + idLen] & 0xFF);
-            if (sizeLen == 0 || p + idLen + sizeLen > end) {
+    /**
+     * Walks the Segment's top-level headers up to the first Cluster, resolving SeekHead entries for
+     * elements stored after the clusters.
+     */
+    static SegmentLayout readLayout(EbmlReader reader, EbmlElement segment) throws CodecMediaException {
+        EbmlElement info = null;
+        EbmlElement tracks = null;
+        EbmlElement cues = null;
+        long firstCluster = -1;
+        long offset = segment.payloadOffset();
+        EbmlElement element;
+        while ((element = reader.readElement(offset, segment.endOffset())) != null) {
+            if (element.id() == EbmlIds.ID_CLUSTER) {
+                firstCluster = element.offset();
                 break;
             }
-
-            long valueSize = readVintValue(bytes, p + idLen, sizeLen);
-            int valueOffset = p + idLen + sizeLen;
-            int valueEnd = (int) Math.min((long) end, valueOffset + valueSize);
-
-            if (id == 0x83 && valueSize >= 1) { // TrackType
-                out.trackType = bytes[valueOffset] & 0xFF;
-            } else if (id == 0x86) { // CodecID
-                out.codec = new String(bytes, valueOffset, Math.max(0, valueEnd - valueOffset), StandardCharsets.US_ASCII).trim();
-            } else if (id == 0xB0) { // PixelWidth
-                out.width = readUnsigned(bytes, valueOffset, valueEnd - valueOffset);
-            } else if (id == 0xBA) { // PixelHeight
-                out.height = readUnsigned(bytes, valueOffset, valueEnd - valueOffset);
-            } else if (id == 0x9F) { // Channels
-                out.channels = readUnsigned(bytes, valueOffset, valueEnd - valueOffset);
-            } else if (id == 0xB5) { // SamplingFrequency float
-                out.sampleRate = parseEbmlFloatAsInt(bytes, valueOffset, valueEnd - valueOffset);
-            } else if (id == 0x258688) { // Track default bitrate (Bit/s)
-                Integer bps = readUnsignedLongAsInt(bytes, valueOffset, valueEnd - valueOffset);
-                if (bps != null && bps > 0) {
-                    out.bitrateKbps = (int) Math.max(1L, Math.round(bps / 1000.0d));
+            if (element.id() == EbmlIds.ID_INFO && info == null) {
+                info = element;
+            } else if (element.id() == EbmlIds.ID_TRACKS && tracks == null) {
+                tracks = element;
+            } else if (element.id() == EbmlIds.ID_CUES && cues == null) {
+                cues = element;
+            } else if (element.id() == EbmlIds.ID_SEEK_HEAD) {
+                for (EbmlElement seek : reader.children(element)) {
+                    if (seek.id() != EbmlIds.ID_SEEK) {
+                        continue;
+                    }
+                    int target = seekTarget(reader, seek);
+                    if (target == EbmlIds.ID_INFO && info == null) {
+                        info = seekElement(reader, segment, seek, target);
+                    } else if (target == EbmlIds.ID_TRACKS && tracks == null) {
+                        tracks = seekElement(reader, segment, seek, target);
+                    } else if (target == EbmlIds.ID_CUES && cues == null) {
+                        cues = seekElement(reader, segment, seek, target);
+                    }
                 }
-            } else if (id == 0x23E383) {
-                // DefaultDuration with 3-byte ID (0x23E383)
-                out.frameRate = parseDefaultDurationFrameRate(bytes, valueOffset, (int) valueSize, end);
             }
-
-            p = valueEnd;
+            offset = element.endOffset();
         }
-        return out;
+        return new SegmentLayout(segment, info, tracks, cues, firstCluster);
     }
 
-    private static Double parseDefaultDurationFrameRate(byte[] bytes, int valueOffset, int valueSize, int end) {
-        if (valueSize <= 0 || valueSize > 8) {
-            return null;
-        }
-        if (valueOffset < 0 || valueOffset + valueSize > end || valueOffset + valueSize > bytes.length) {
-            return null;
-        }
-
-        long nanoseconds = 0;
-        for (int i = 0; i < valueSize; i++) {
-            nanoseconds = (nanoseconds << 8) | (bytes[valueOffset + i] & 0xFFL);
-        }
-        if (nanoseconds <= 0) {
-            return null;
+    /** {@code TimecodeScale} of an Info element in nanoseconds, 1 ms when absent. */
+    static long timecodeScale(EbmlReader reader, EbmlElement info) throws CodecMediaException {
+        EbmlElement scale = info == null ? null : reader.child(info, EbmlIds.ID_TIMECODE_SCALE);
+        if (scale == null || scale.size() == 0) {
+            return 1_000_000L;
         }
-        return 1_000_000_000.0d / nanoseconds;
+        long value = reader.readUnsigned(scale);
+        return value > 0 ? value : 1_000_000L;
     }
 
-    private static double parseDurationSeconds(byte[] bytes) {
-        int idx = indexOf(bytes, new byte[] {(byte) 0x44, (byte) 0x89}, 0);
-        if (idx < 0 || idx + 3 >= bytes.length) {
-            return -1.0d;
-        }
-        int sizeLen = vintLength(bytes[idx + 2] & 0xFF);
-        if (sizeLen == 0 || idx + 2 + sizeLen >= bytes.length) {
-            return -1.0d;
-        }
-        int size = (int) readVintValue(bytes, idx + 2, sizeLen);
-        int valueOffset = idx + 2 + sizeLen;
-        if (size != 4 && size != 8) {
-            return -1.0d;
-        }
-        if (valueOffset + size > bytes.length) {
-            return -1.0d;
-        }
-        if (size == 4) {
-            int raw = ((bytes[valueOffset] & 0xFF) << 24)
-                    | ((bytes[valueOffset + 1] & 0xFF) << 16)
-                    | ((bytes[valueOffset + 2] & 0xFF) << 8)
-                    | (bytes[valueOffset + 3] & 0xFF);
-            return Float.intBitsToFloat(raw);
-        }
-        long raw = 0L;
-        for (int i = 0; i < 8; i++) {
-            raw = (raw << 8) | (bytes[valueOffset + i] & 0xFFL);
+    private static int seekTarget(EbmlReader reader, EbmlElement seek) throws CodecMediaException {
+        EbmlElement seekId = reader.child(seek, EbmlIds.ID_SEEK_ID);
+        if (seekId == null || seekId.size() < 1 || seekId.size() > 4) {
+            return -1;
         }
-        return Double.longBitsToDouble(raw);
+        return (int) reader.readUnsigned(seekId);
     }
 
-    private static long parseTimecodeScale(byte[] bytes) {
-        int idx = indexOf(bytes, new byte[] {(byte) 0x2A, (byte) 0xD7, (byte) 0xB1}, 0);
-        if (idx < 0 || idx + 4 >= bytes.length) {
-            return 1_000_000L;
-        }
-        int sizeLen = vintLength(bytes[idx + 3] & 0xFF);
-        if (sizeLen == 0 || idx + 3 + sizeLen >= bytes.length) {
-            return 1_000_000L;
+    /**
+     * Resolves a SeekHead entry; a position outside the file (for example a truncated download) or
+     * pointing at a different element is ignored so the linear walk can still find the target.
+     */
+    private static EbmlElement seekElement(EbmlReader reader, EbmlElement segment, EbmlElement seek, int id)
+            throws CodecMediaException {
+        EbmlElement position = reader.child(seek, EbmlIds.ID_SEEK_POSITION);
+        if (position == null) {
+            return null;
         }
-        int size = (int) readVintValue(bytes, idx + 3, sizeLen);
-        int valueOffset = idx + 3 + sizeLen;
-        if (size <= 0 || size > 8 || valueOffset + size > bytes.length) {
-            return 1_000_000L;
+        long offset = segment.payloadOffset() + reader.readUnsigned(position);
+        if (offset < segment.payloadOffset() || offset + 2 > segment.endOffset()) {
+            return null;
         }
-        long v = 0;
-        for (int i = 0; i < size; i++) {
-            v = (v << 8) | (bytes[valueOffset + i] & 0xFFL);
+        try {
+            EbmlElement element = reader.readElement(offset, segment.endOffset());
+            return element != null && element.id() == id ? element : null;
+        } catch (CodecMediaException e) {
+            return null;
         }
-        return v > 0 ? v : 1_000_000L;
     }
 
-    private static int parseEbmlFloatAsInt(byte[] bytes, int offset, int size) {
-        if (size == 4 && offset + 4 <= bytes.length) {
-            int raw = ((bytes[offset] & 0xFF) << 24)
-                    | ((bytes[offset + 1] & 0xFF) << 16)
-                    | ((bytes[offset + 2] & 0xFF) << 8)
-                    | (bytes[offset + 3] & 0xFF);
-            return (int) Math.round(Float.intBitsToFloat(raw));
-        }
-        if (size == 8 && offset + 8 <= bytes.length) {
-            long raw = 0L;
-            for (int i = 0; i < 8; i++) {
-                raw = (raw << 8) | (bytes[offset + i] & 0xFFL);
+    private static TrackEntry parseTrackEntry(EbmlReader reader, EbmlElement entry) throws CodecMediaException {
+        TrackEntry out = new TrackEntry();
+        for (EbmlElement element : reader.children(entry)) {
+            switch (element.id()) {
+                case EbmlIds.ID_TRACK_TYPE -> out.trackType = positiveInt(reader, element);
+                case EbmlIds.ID_CODEC_ID -> out.codec = reader.readString(element).trim();
+                case EbmlIds.ID_DEFAULT_DURATION -> {
+                    Integer nanoseconds = positiveInt(reader, element);
+                    out.frameRate = nanoseconds == null ? null : 1_000_000_000.0d / nanoseconds;
+                }
+                case EbmlIds.ID_VIDEO -> {
+                    for (EbmlElement video : reader.children(element)) {
+                        if (video.id() == EbmlIds.ID_PIXEL_WIDTH) {
+                            out.width = positiveInt(reader, video);
+                        } else if (video.id() == EbmlIds.ID_PIXEL_HEIGHT) {
+                            out.height = positiveInt(reader, video);
+                        }
+                    }
+                }
+                case EbmlIds.ID_AUDIO -> {
+                    for (EbmlElement audio : reader.children(element)) {
+                        if (audio.id() == EbmlIds.ID_SAMPLING_FREQUENCY && (audio.size() == 4 || audio.size() == 8)) {
+                            out.sampleRate = (int) Math.round(reader.readFloat(audio));
+                        } else if (audio.id() == EbmlIds.ID_CHANNELS) {
+                            out.channels = positiveInt(reader, audio);
+                        } else if (audio.id() == EbmlIds.ID_BIT_DEPTH) {
+                            out.bitDepth = positiveInt(reader, audio);
+                        }
+                    }
+                }
+                default -> {
+                }
             }
-            return (int) Math.round(Double.longBitsToDouble(raw));
-        }
-        return 0;
-    }
-
-    private static int readUnsigned(byte[] bytes, int offset, int size) {
-        if (size <= 0 || size > 4 || offset + size > bytes.length) {
-            return 0;
         }
-        int value = 0;
-        for (int i = 0; i < size; i++) {
-            value = (value << 8) | (bytes[offset + i] & 0xFF);
-        }
-        return value;
+        return out;
     }
 
-    private static Integer readUnsignedLongAsInt(byte[] bytes, int offset, int size) {
-        if (size <= 0 || size > 8 || offset + size > bytes.length) {
-            return null;
-        }
-        long value = 0;
-        for (int i = 0; i < size; i++) {
-            value = (value << 8) | (bytes[offset + i] & 0xFFL);
-        }
-        if (value <= 0 || value > Integer.MAX_VALUE) {
+    private static Integer positiveInt(EbmlReader reader, EbmlElement element) throws CodecMediaException {
+        if (element.size() < 1 || element.size() > 8) {
             return null;
         }
-        return (int) value;
+        long value = reader.readUnsigned(element);
+        return value > 0 && value <= Integer.MAX_VALUE ? (int) value : null;
     }
 
     private static int gcd(int a, int b) {
@@ -272,80 +295,10 @@ public final class WebmParser {
         return x == 0 ? 1 : x;
     }
 
-    private static int indexOf(byte[] haystack, byte[] needle, int from) {
-        if (needle.length == 0 || haystack.length < needle.length || from < 0) {
-            return -1;
-        }
-        outer:
-        for (int i = from; i <= haystack.length - needle.length; i++) {
-            for (int j = 0; j < needle.length; j++) {
-                if (haystack[i + j] != needle[j]) {
-                    continue outer;
-                }
-            }
-            return i;
-        }
-        return -1;
-    }
-
-    private static boolean matches(byte[] bytes, int offset, byte[] expected) {
-        if (offset < 0 || offset + expected.length > bytes.length) {
-            return false;
-        }
-        for (int i = 0; i < expected.length; i++) {
-            if (bytes[offset + i] != expected[i]) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private static int vintLength(int firstByte) {
-        if (firstByte == 0) {
-            return 0;
-        }
-        int mask = 0x80;
-        int len = 1;
-        while ((firstByte & mask) == 0) {
-            mask >>>= 1;
-            len++;
-            if (len > 8) {
-                return 0;
-            }
-        }
-        return len;
-    }
-
-    private static int ebmlIdLength(int firstByte) {
-        if (firstByte == 0) {
-            return 0;
-        }
-        int mask = 0x80;
-        int len = 1;
-        while ((firstByte & mask) == 0) {
-            mask >>>= 1;
-            len++;
-            if (len > 4) {
-                return 0;
-            }
-        }
-        return len;
-    }
-
-    private static int readElementId(byte[] bytes, int offset, int len) {
-        int value = 0;
-        for (int i = 0; i < len; i++) {
-            value = (value << 8) | (bytes[offset + i] & 0xFF);
-        }
-        return value;
-    }
-
-    private static long readVintValue(byte[] bytes, int offset, int len) {
-        long value = bytes[offset] & (0xFF >>> len);
-        for (int i = 1; i < len; i++) {
-            value = (value << 8) | (bytes[offset + i] & 0xFFL);
-        }
-        return value;
+    /**
+     * Top-level elements of a Segment; {@code firstCluster} is {@code -1} when no Cluster was reached.
+     */
+    record SegmentLayout(EbmlElement segment, EbmlElement info, EbmlElement tracks, EbmlElement cues, long firstCluster) {
     }
 
     private static final class TrackEntry {
@@ -355,8 +308,7 @@ public final class WebmParser {
         Integer height;
         Integer sampleRate;
         Integer channels;
+        Integer bitDepth;
         Double frameRate;
-        Integer bitrateKbps;
     }
 }
-
@@ -0,0 +1,23 @@
+package me.tamkungz.codecmedia.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a silence/clipping scan.
+ *
+ * <p>{@code silences} and {@code clipRuns} list at most the first 1000 occurrences each;
+ * {@code silentFrames}, {@code clipRunCount} and {@code clippedSamples} always cover every occurrence
+ * in the scanned range.
+ */
+public record AudioScanResult(
+        long totalFrames,
+        long scannedFrames,
+        long silentFrames,
+        int clipRunCount,
+        long clippedSamples,
+        List<SilenceSegment> silences,
+        List<ClipRun> clipRuns,
+        boolean rejected,
+        boolean stoppedEarly
+) {
+}
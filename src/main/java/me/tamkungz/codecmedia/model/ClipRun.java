@@ -0,0 +1,8 @@
+package me.tamkungz.codecmedia.model;
+
+public record ClipRun(
+        long startMillis,
+        int channel,
+        int samples
+) {
+}
@@ -0,0 +1,17 @@
+package me.tamkungz.codecmedia.model;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a lossless concatenation.
+ *
+ * <p>{@code durationMillis} is the total duration written, from the sample frames, MPEG frames or
+ * FLAC samples of all inputs.
+ */
+public record ConcatResult(
+        Path outputFile,
+        String format,
+        int inputCount,
+        long durationMillis
+) {
+}
@@ -0,0 +1,19 @@
+package me.tamkungz.codecmedia.model;
+
+import java.nio.file.Path;
+
+/**
+ * EBU R128 / ITU-R BS.1770 loudness figures for one file.
+ *
+ * <p>{@code integratedLufs} is negative infinity when no block passes the absolute gate (digital silence);
+ * the ReplayGain track gain is {@code 0.0} in that case.
+ */
+public record LoudnessResult(
+        Path input,
+        double integratedLufs,
+        double loudnessRangeLu,
+        double truePeakDbtp,
+        double samplePeak,
+        double replayGainTrackGainDb
+) {
+}
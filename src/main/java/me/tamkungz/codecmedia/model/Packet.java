@@ -0,0 +1,19 @@
+package me.tamkungz.codecmedia.model;
+
+/**
+ * One compressed packet (sample, block frame or Ogg packet) of a container track.
+ *
+ * <p>{@code pts} and {@code dts} are in {@code timescale} units per second. {@code offset} is the
+ * file position of the first payload byte; an Ogg packet that continues on the next page is not
+ * stored contiguously, so its {@code size} bytes should be read through the reader.
+ */
+public record Packet(
+        int track,
+        long pts,
+        long dts,
+        boolean keyframe,
+        long offset,
+        int size,
+        long timescale
+) {
+}
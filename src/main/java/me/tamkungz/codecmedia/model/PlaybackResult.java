@@ -1,11 +1,24 @@
 package me.tamkungz.codecmedia.model;
 
+import me.tamkungz.codecmedia.PlaybackSession;
+
 public record PlaybackResult(
         boolean started,
         String backend,
         MediaType mediaType,
         /** Optional diagnostic message; may be {@code null} when no message is produced. */
-        String message
+        String message,
+        /**
+         * Live handle with buffer underrun counters for streaming {@code java-sampled} playback;
+         * {@code null} for dry runs and the desktop fallback.
+         */
+        PlaybackSession session
 ) {
-}
 
+    /**
+     * Result without a playback session.
+     */
+    public PlaybackResult(boolean started, String backend, MediaType mediaType, String message) {
+        this(started, backend, mediaType, message, null);
+    }
+}
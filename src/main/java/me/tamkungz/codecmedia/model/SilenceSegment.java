@@ -0,0 +1,7 @@
+package me.tamkungz.codecmedia.model;
+
+public record SilenceSegment(
+        long startMillis,
+        long durationMillis
+) {
+}
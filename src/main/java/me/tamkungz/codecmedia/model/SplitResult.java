@@ -0,0 +1,18 @@
+package me.tamkungz.codecmedia.model;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of splitting an audio file into fixed-length segments.
+ *
+ * <p>Segment {@code i} starts at sample frame {@code floor(i * segmentMillis * sampleRate / 1000)},
+ * so boundaries do not drift when the segment length is not a whole number of frames; the last
+ * segment holds the remainder.
+ */
+public record SplitResult(
+        List<Path> segmentFiles,
+        int sampleRate,
+        long totalFrames
+) {
+}
@@ -0,0 +1,17 @@
+package me.tamkungz.codecmedia.model;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a lossless trim.
+ *
+ * <p>{@code startMillis} and {@code endMillis} are the bounds actually cut, relative to the input:
+ * the requested range snapped to the sample frames, MPEG/FLAC frames or Ogg pages of the format.
+ */
+public record TrimResult(
+        Path outputFile,
+        String format,
+        long startMillis,
+        long endMillis
+) {
+}
@@ -0,0 +1,7 @@
+package me.tamkungz.codecmedia.model;
+
+public record WaveformLevel(
+        int samplesPerBucket,
+        long bucketCount
+) {
+}
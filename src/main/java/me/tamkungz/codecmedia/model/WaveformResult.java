@@ -0,0 +1,13 @@
+package me.tamkungz.codecmedia.model;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public record WaveformResult(
+        Path peakFile,
+        int sampleRate,
+        int channels,
+        long totalFrames,
+        List<WaveformLevel> levels
+) {
+}
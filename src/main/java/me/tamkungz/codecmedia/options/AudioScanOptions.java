@@ -0,0 +1,23 @@
+package me.tamkungz.codecmedia.options;
+
+public record AudioScanOptions(
+        double silenceThresholdDbfs,
+        long minSilenceMillis,
+        int minClipRunSamples,
+        double maxSilenceRatio,
+        int maxClipRuns,
+        boolean stopEarly
+) {
+
+    /**
+     * Default silence/clipping policy.
+     *
+     * <p>Frames below -60 dBFS on every channel count as silent once the gap lasts at least 500 ms;
+     * three or more consecutive full-scale samples on one channel count as a clipped run. The file is
+     * rejected when more than 90% of it is silent or it has more than 100 clipped runs. The whole
+     * file is scanned unless {@code stopEarly} is enabled.
+     */
+    public static AudioScanOptions defaults() {
+        return new AudioScanOptions(-60.0, 500L, 3, 0.9, 100, false);
+    }
+}
@@ -0,0 +1,17 @@
+package me.tamkungz.codecmedia.options;
+
+public record ConcatOptions(
+        boolean keepTags,
+        boolean allowRf64
+) {
+
+    /**
+     * Default concatenation policy.
+     *
+     * <p>Keeps the tags and metadata chunks of the first input, and switches WAV output to RF64 when
+     * it would exceed the 4 GiB RIFF limit.
+     */
+    public static ConcatOptions defaults() {
+        return new ConcatOptions(true, true);
+    }
+}
@@ -0,0 +1,16 @@
+package me.tamkungz.codecmedia.options;
+
+public record LoudnessOptions(
+        boolean writeMetadata,
+        int parallelism
+) {
+
+    /**
+     * Default loudness policy.
+     *
+     * <p>Analyzes without writing tags and processes batches with one worker per available processor.
+     */
+    public static LoudnessOptions defaults() {
+        return new LoudnessOptions(false, 0);
+    }
+}
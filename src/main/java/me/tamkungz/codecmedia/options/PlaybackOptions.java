@@ -2,11 +2,26 @@ package me.tamkungz.codecmedia.options;
 
 public record PlaybackOptions(
         boolean dryRun,
-        boolean allowExternalApp
+        boolean allowExternalApp,
+        /** Bytes buffered between the file reader and the audio line for streaming playback. */
+        int bufferBytes
 ) {
 
+    private static final int DEFAULT_BUFFER_BYTES = 256 * 1024;
+
+    /**
+     * Options with the default streaming buffer size.
+     */
+    public PlaybackOptions(boolean dryRun, boolean allowExternalApp) {
+        this(dryRun, allowExternalApp, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * Default playback policy.
+     *
+     * <p>Plays for real, allows the desktop fallback and streams through a 256 KiB buffer.
+     */
     public static PlaybackOptions defaults() {
-        return new PlaybackOptions(false, true);
+        return new PlaybackOptions(false, true, DEFAULT_BUFFER_BYTES);
     }
 }
-
@@ -0,0 +1,16 @@
+package me.tamkungz.codecmedia.options;
+
+public record SplitOptions(
+        long segmentMillis,
+        int parallelism
+) {
+
+    /**
+     * Default segmentation policy.
+     *
+     * <p>Cuts 30 s segments and writes them with one worker per available processor.
+     */
+    public static SplitOptions defaults() {
+        return new SplitOptions(30_000L, 0);
+    }
+}
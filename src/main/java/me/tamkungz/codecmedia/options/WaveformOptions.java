@@ -0,0 +1,19 @@
+package me.tamkungz.codecmedia.options;
+
+import java.util.List;
+
+public record WaveformOptions(
+        List<Integer> samplesPerBucket,
+        int parallelism
+) {
+
+    /**
+     * Default waveform policy.
+     *
+     * <p>Builds four zoom levels of 256, 1024, 4096 and 16384 frames per bucket and
+     * uses one worker per available processor.
+     */
+    public static WaveformOptions defaults() {
+        return new WaveformOptions(List.of(256, 1024, 4096, 16384), 0);
+    }
+}
@@ -0,0 +1,80 @@
+package me.tamkungz.codecmedia;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.model.ConversionResult;
+import me.tamkungz.codecmedia.model.ExtractionResult;
+import me.tamkungz.codecmedia.model.Metadata;
+import me.tamkungz.codecmedia.model.PlaybackResult;
+import me.tamkungz.codecmedia.model.ProbeResult;
+import me.tamkungz.codecmedia.model.ValidationResult;
+import me.tamkungz.codecmedia.options.AudioExtractOptions;
+import me.tamkungz.codecmedia.options.ConversionOptions;
+import me.tamkungz.codecmedia.options.PlaybackOptions;
+import me.tamkungz.codecmedia.options.ValidationOptions;
+
+class CodecMediaEngineCompatibilityTest {
+
+    @Test
+    void engineWithOnlyTheOriginalOperationsShouldCompileAndRejectNewOnes() {
+        CodecMediaEngine engine = new OriginalEngine();
+        Path input = Path.of("input.wav");
+
+        CodecMediaException ex = assertThrows(CodecMediaException.class, () -> engine.generateWaveform(input, null));
+        assertTrue(ex.getMessage().startsWith("Waveform generation is not supported by "));
+        assertThrows(CodecMediaException.class, () -> engine.analyzeLoudness(input, null));
+        assertThrows(CodecMediaException.class, () -> engine.analyzeLoudness(List.of(input), null));
+        assertThrows(CodecMediaException.class, () -> engine.scanSilenceAndClipping(input, null));
+        assertThrows(CodecMediaException.class, () -> engine.openPacketReader(input));
+        assertThrows(CodecMediaException.class, () -> engine.trim(input, input, 0, 1));
+        assertThrows(CodecMediaException.class, () -> engine.concat(List.of(input), input, null));
+        assertThrows(CodecMediaException.class, () -> engine.split(input, input, null));
+    }
+
+    /** Implements exactly the operations of the 1.1.x interface. */
+    private static final class OriginalEngine implements CodecMediaEngine {
+        @Override
+        public ProbeResult get(Path input) {
+            return null;
+        }
+
+        @Override
+        public ProbeResult probe(Path input) {
+            return null;
+        }
+
+        @Override
+        public Metadata readMetadata(Path input) {
+            return null;
+        }
+
+        @Override
+        public void writeMetadata(Path input, Metadata metadata) {
+        }
+
+        @Override
+        public ExtractionResult extractAudio(Path input, Path outputDir, AudioExtractOptions options) {
+            return null;
+        }
+
+        @Override
+        public ConversionResult convert(Path input, Path output, ConversionOptions options) {
+            return null;
+        }
+
+        @Override
+        public PlaybackResult play(Path input, PlaybackOptions options) {
+            return null;
+        }
+
+        @Override
+        public ValidationResult validate(Path input, ValidationOptions options) {
+            return null;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import javax.imageio.ImageIO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -137,6 +138,34 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void writeMetadata_shouldKeepOnlyUnembeddedReplayGainKeysInSidecar() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp3 = createTempFileWithResource("c-major-scale_test_audacity.mp3", ".mp3");
+        Path sidecar = tempMp3.resolveSibling(tempMp3.getFileName() + ".codecmedia.properties");
+
+        try {
+            Map<String, String> entries = new java.util.LinkedHashMap<>(engine.readMetadata(tempMp3).entries());
+            entries.put("Title", "Mixed Case Title");
+            entries.put("replaygain_track_gain", "-3.20 dB");
+            entries.put("mood", "calm");
+            engine.writeMetadata(tempMp3, new me.tamkungz.codecmedia.model.Metadata(entries));
+
+            java.util.Properties properties = new java.util.Properties();
+            try (var in = Files.newInputStream(sidecar)) {
+                properties.load(in);
+            }
+            assertEquals(java.util.Set.of("replaygain_track_gain"), properties.stringPropertyNames());
+            assertEquals("Mixed Case Title", engine.readMetadata(tempMp3).entries().get("title"));
+
+            engine.writeMetadata(tempMp3, new me.tamkungz.codecmedia.model.Metadata(Map.of("mimeType", "audio/mpeg", "TITLE", "Only")));
+            assertFalse(Files.exists(sidecar));
+        } finally {
+            Files.deleteIfExists(sidecar);
+            Files.deleteIfExists(tempMp3);
+        }
+    }
+
     @Test
     void writeAndReadMetadata_shouldRoundTripViaEmbeddedAiffTextChunks() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -189,6 +218,27 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void writeMetadata_shouldEmbedFlacVorbisCommentsWithoutSidecar() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempFlac = createTempFlacFixture();
+        Path sidecar = tempFlac.resolveSibling(tempFlac.getFileName() + ".codecmedia.properties");
+
+        try {
+            engine.writeMetadata(tempFlac, new me.tamkungz.codecmedia.model.Metadata(
+                    Map.of("title", "Flac Title", "replaygain_track_gain", "-1.50 dB")));
+
+            var metadata = engine.readMetadata(tempFlac);
+            assertEquals("Flac Title", metadata.entries().get("title"));
+            assertEquals("-1.50 dB", metadata.entries().get("replaygain_track_gain"));
+            assertFalse(Files.exists(sidecar));
+            assertEquals("flac", engine.probe(tempFlac).extension());
+        } finally {
+            Files.deleteIfExists(sidecar);
+            Files.deleteIfExists(tempFlac);
+        }
+    }
+
     @Test
     void readMetadata_shouldIncludeFlacVorbisCommentWhenPresent() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -355,6 +405,149 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void convert_shouldCopyOnlyAudioChunksWhenRemuxingRealMp4ToM4a() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp4 = createTempFileWithResource("mp4_test.mp4", ".mp4");
+        Path outputM4a = Files.createTempFile("codecmedia-mp4-audio-only-", ".m4a");
+
+        try {
+            var converted = engine.convert(tempMp4, outputM4a, new me.tamkungz.codecmedia.options.ConversionOptions("m4a", "balanced", true));
+            assertFalse(converted.reencoded());
+
+            try (var in = java.nio.channels.FileChannel.open(tempMp4);
+                 var out = java.nio.channels.FileChannel.open(outputM4a)) {
+                var source = new me.tamkungz.codecmedia.internal.bmff.BmffReader(in);
+                var remuxed = new me.tamkungz.codecmedia.internal.bmff.BmffReader(out);
+                me.tamkungz.codecmedia.internal.bmff.BmffBox audioTrak = null;
+                for (var trak : source.children(source.child(null, "moov"), "trak")) {
+                    var hdlr = source.child(source.child(trak, "mdia"), "hdlr");
+                    if ("soun".equals(new String(source.read(hdlr.payloadOffset() + 8, 4), java.nio.charset.StandardCharsets.US_ASCII))) {
+                        audioTrak = trak;
+                    }
+                }
+                assertNotNull(audioTrak);
+                var remuxedTraks = remuxed.children(remuxed.child(null, "moov"), "trak");
+                assertEquals(1, remuxedTraks.size());
+                assertEquals(java.util.List.of("ftyp", "moov", "mdat"),
+                        remuxed.topLevel().stream().map(me.tamkungz.codecmedia.internal.bmff.BmffBox::type).toList());
+
+                var before = me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(source, audioTrak);
+                var after = me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(remuxed, remuxedTraks.get(0));
+                assertEquals(before.sampleCount(), after.sampleCount());
+                for (int i = 0; i < before.sampleCount(); i++) {
+                    assertTrue(java.util.Arrays.equals(
+                            source.read(before.sampleOffset(i), before.sampleSize(i)),
+                            remuxed.read(after.sampleOffset(i), after.sampleSize(i))), "sample " + i);
+                }
+                assertTrue(Files.size(outputM4a) < Files.size(tempMp4) / 4);
+            }
+
+            var probed = engine.probe(outputM4a);
+            assertEquals(me.tamkungz.codecmedia.model.MediaType.AUDIO, probed.mediaType());
+            assertEquals(1, probed.streams().size());
+            assertEquals(engine.probe(tempMp4).durationMillis(), probed.durationMillis());
+        } finally {
+            Files.deleteIfExists(outputM4a);
+            Files.deleteIfExists(tempMp4);
+        }
+    }
+
+    @Test
+    void convert_shouldDemuxMp4AudioTrackToAdtsAac() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp4 = createTempFileWithResource("mp4_test.mp4", ".mp4");
+        Path outputAac = Files.createTempFile("codecmedia-mp4-to-aac-", ".aac");
+
+        try {
+            var converted = engine.convert(tempMp4, outputAac, new me.tamkungz.codecmedia.options.ConversionOptions("aac", "balanced", true));
+            assertEquals("aac", converted.format());
+            assertFalse(converted.reencoded());
+
+            byte[] adts = Files.readAllBytes(outputAac);
+            try (var in = java.nio.channels.FileChannel.open(tempMp4)) {
+                var reader = new me.tamkungz.codecmedia.internal.bmff.BmffReader(in);
+                me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex audio = null;
+                for (var trak : reader.children(reader.child(null, "moov"), "trak")) {
+                    var hdlr = reader.child(reader.child(trak, "mdia"), "hdlr");
+                    if ("soun".equals(new String(reader.read(hdlr.payloadOffset() + 8, 4), java.nio.charset.StandardCharsets.US_ASCII))) {
+                        audio = me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(reader, trak);
+                    }
+                }
+                assertNotNull(audio);
+
+                int position = 0;
+                for (int i = 0; i < audio.sampleCount(); i++) {
+                    assertEquals(0xFF, adts[position] & 0xFF);
+                    assertEquals(0xF1, adts[position + 1] & 0xFF);
+                    // AAC-LC, 44.1 kHz, stereo
+                    assertEquals(0x50, adts[position + 2] & 0xFF);
+                    assertEquals(2, ((adts[position + 2] & 1) << 2) | ((adts[position + 3] & 0xFF) >> 6));
+                    int frameLength = ((adts[position + 3] & 3) << 11) | ((adts[position + 4] & 0xFF) << 3) | ((adts[position + 5] & 0xFF) >> 5);
+                    assertEquals(audio.sampleSize(i) + 7, frameLength);
+                    assertTrue(java.util.Arrays.equals(reader.read(audio.sampleOffset(i), audio.sampleSize(i)),
+                            java.util.Arrays.copyOfRange(adts, position + 7, position + frameLength)), "frame " + i);
+                    position += frameLength;
+                }
+                assertEquals(adts.length, position);
+            }
+        } finally {
+            Files.deleteIfExists(outputAac);
+            Files.deleteIfExists(tempMp4);
+        }
+    }
+
+    @Test
+    void convert_shouldExtractWebmVorbisTrackToOggWithoutReencode() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWebm = createTempFileWithResource("example/file_example_WEBM_480_900KB.webm", ".webm");
+        Path outputOgg = Files.createTempFile("codecmedia-webm-to-ogg-", ".ogg");
+
+        try {
+            var converted = engine.convert(tempWebm, outputOgg, new me.tamkungz.codecmedia.options.ConversionOptions("ogg", "balanced", true));
+            assertEquals("ogg", converted.format());
+            assertFalse(converted.reencoded());
+
+            byte[] ogg = Files.readAllBytes(outputOgg);
+            var info = me.tamkungz.codecmedia.internal.audio.ogg.OggParser.parse(ogg);
+            assertEquals("vorbis", info.codec());
+            assertEquals(2, info.channels());
+            assertTrue(info.sampleRate() > 0);
+            long webmDuration = engine.probe(tempWebm).durationMillis();
+            assertTrue(Math.abs(info.durationMillis() - webmDuration) <= 100, info.durationMillis() + " vs " + webmDuration);
+
+            int offset = 0;
+            int pages = 0;
+            long lastGranule = 0;
+            while (offset < ogg.length) {
+                assertEquals("OggS", new String(ogg, offset, 4, java.nio.charset.StandardCharsets.US_ASCII));
+                int segments = ogg[offset + 26] & 0xFF;
+                int payload = 0;
+                for (int i = 0; i < segments; i++) {
+                    payload += ogg[offset + 27 + i] & 0xFF;
+                }
+                int pageSize = 27 + segments + payload;
+                byte[] page = java.util.Arrays.copyOfRange(ogg, offset, offset + pageSize);
+                int storedCrc = java.nio.ByteBuffer.wrap(page, 22, 4).order(java.nio.ByteOrder.LITTLE_ENDIAN).getInt();
+                java.util.Arrays.fill(page, 22, 26, (byte) 0);
+                assertEquals(storedCrc, me.tamkungz.codecmedia.internal.audio.ogg.OggPageWriter.crc(0, page, 0, page.length), "page " + pages);
+                long granule = java.nio.ByteBuffer.wrap(page, 6, 8).order(java.nio.ByteOrder.LITTLE_ENDIAN).getLong();
+                if (granule >= 0) {
+                    assertTrue(granule >= lastGranule, "page " + pages);
+                    lastGranule = granule;
+                }
+                offset += pageSize;
+                pages++;
+            }
+            assertEquals(ogg.length, offset);
+            assertTrue(pages > 3);
+            assertTrue(ogg.length < Files.size(tempWebm));
+        } finally {
+            Files.deleteIfExists(outputOgg);
+            Files.deleteIfExists(tempWebm);
+        }
+    }
+
     @Test
     void convert_shouldRemuxMovAudioTrackToM4aWithoutReencode() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -373,6 +566,53 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void convert_shouldMoveMoovInFrontOfMdatWithFaststartPreset() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp4 = createTempFileWithResource("mp4_test.mp4", ".mp4");
+        Path outputMp4 = Files.createTempFile("codecmedia-faststart-", ".mp4");
+
+        try {
+            var converted = engine.convert(tempMp4, outputMp4, new me.tamkungz.codecmedia.options.ConversionOptions("mp4", "faststart", true));
+            assertEquals("mp4", converted.format());
+            assertFalse(converted.reencoded());
+            assertEquals(Files.size(tempMp4), Files.size(outputMp4));
+
+            try (var in = java.nio.channels.FileChannel.open(tempMp4);
+                 var out = java.nio.channels.FileChannel.open(outputMp4)) {
+                var source = new me.tamkungz.codecmedia.internal.bmff.BmffReader(in);
+                var relocated = new me.tamkungz.codecmedia.internal.bmff.BmffReader(out);
+                var sourceTypes = source.topLevel().stream().map(me.tamkungz.codecmedia.internal.bmff.BmffBox::type).toList();
+                var types = relocated.topLevel().stream().map(me.tamkungz.codecmedia.internal.bmff.BmffBox::type).toList();
+                assertTrue(sourceTypes.indexOf("moov") > sourceTypes.indexOf("mdat"));
+                assertTrue(types.indexOf("moov") < types.indexOf("mdat"));
+
+                var sourceTraks = source.children(source.child(null, "moov"), "trak");
+                var relocatedTraks = relocated.children(relocated.child(null, "moov"), "trak");
+                assertEquals(sourceTraks.size(), relocatedTraks.size());
+                for (int t = 0; t < sourceTraks.size(); t++) {
+                    var before = me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(source, sourceTraks.get(t));
+                    var after = me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(relocated, relocatedTraks.get(t));
+                    assertEquals(before.sampleCount(), after.sampleCount());
+                    for (int i = 0; i < before.sampleCount(); i += 7) {
+                        int size = Math.min(before.sampleSize(i), 64);
+                        assertTrue(java.util.Arrays.equals(
+                                source.read(before.sampleOffset(i), size),
+                                relocated.read(after.sampleOffset(i), size)), "track " + t + " sample " + i);
+                    }
+                }
+            }
+
+            var probed = engine.probe(outputMp4);
+            var original = engine.probe(tempMp4);
+            assertEquals(original.durationMillis(), probed.durationMillis());
+            assertEquals(original.streams(), probed.streams());
+        } finally {
+            Files.deleteIfExists(outputMp4);
+            Files.deleteIfExists(tempMp4);
+        }
+    }
+
     @Test
     void convert_shouldFailM4aRemuxWhenAudioTrackCodecIsNotCompatible() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -394,7 +634,227 @@ class CodecMediaFacadeTest {
     }
 
     @Test
-    void convert_shouldRejectAudioToImageRouteForNow() throws Exception {
+    void generateWaveform_shouldWritePeakFileNextToWav() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path peakFile = tempWav.resolveSibling(tempWav.getFileName() + ".codecmedia.peaks");
+
+        try {
+            var result = engine.generateWaveform(tempWav, null);
+
+            assertEquals(peakFile, result.peakFile());
+            assertTrue(Files.exists(peakFile));
+            assertEquals(44100, result.sampleRate());
+            assertEquals(2, result.channels());
+            assertEquals(4, result.levels().size());
+            assertEquals((result.totalFrames() + 255) / 256, result.levels().get(0).bucketCount());
+
+            long expectedSize = 24L + 4 * 20;
+            for (var level : result.levels()) {
+                expectedSize += level.bucketCount() * 2 * 6;
+            }
+            assertEquals(expectedSize, Files.size(peakFile));
+        } finally {
+            Files.deleteIfExists(peakFile);
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void generateWaveform_shouldDecodeFlacToSamePeaksAsWav() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path tempFlac = Files.createTempFile("codecmedia-waveform-", ".flac");
+        Path wavPeaks = tempWav.resolveSibling(tempWav.getFileName() + ".codecmedia.peaks");
+        Path flacPeaks = tempFlac.resolveSibling(tempFlac.getFileName() + ".codecmedia.peaks");
+        Path outputPng = Files.createTempFile("codecmedia-spectrogram-", ".png");
+
+        try {
+            engine.convert(tempWav, tempFlac, new me.tamkungz.codecmedia.options.ConversionOptions("flac", "balanced", true));
+            engine.generateWaveform(tempWav, null);
+            var result = engine.generateWaveform(tempFlac, null);
+
+            assertEquals(44100, result.sampleRate());
+            org.junit.jupiter.api.Assertions.assertArrayEquals(Files.readAllBytes(wavPeaks), Files.readAllBytes(flacPeaks));
+
+            engine.convert(tempFlac, outputPng, new me.tamkungz.codecmedia.options.ConversionOptions("png", "width=64,height=32,fft=512", true));
+            BufferedImage image = ImageIO.read(outputPng.toFile());
+            assertEquals(64, image.getWidth());
+        } finally {
+            Files.deleteIfExists(outputPng);
+            Files.deleteIfExists(flacPeaks);
+            Files.deleteIfExists(wavPeaks);
+            Files.deleteIfExists(tempFlac);
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void analyzeLoudness_shouldAnalyzeBatchInParallelAndKeepInputOrder() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path first = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path second = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+
+        try {
+            var results = engine.analyzeLoudness(
+                    java.util.List.of(first, second),
+                    new me.tamkungz.codecmedia.options.LoudnessOptions(false, 2)
+            );
+
+            assertEquals(2, results.size());
+            assertEquals(first, results.get(0).input());
+            assertEquals(second, results.get(1).input());
+            assertEquals(results.get(0).integratedLufs(), results.get(1).integratedLufs());
+            assertTrue(results.get(0).integratedLufs() < 0.0 && results.get(0).integratedLufs() > -70.0);
+            assertEquals(-18.0 - results.get(0).integratedLufs(), results.get(0).replayGainTrackGainDb(), 1e-9);
+            assertTrue(results.get(0).truePeakDbtp() >= 20 * Math.log10(results.get(0).samplePeak()));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+        }
+    }
+
+    @Test
+    void analyzeLoudness_shouldPersistReplayGainKeysAlongsideEmbeddedWavMetadata() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path wavSidecar = tempWav.resolveSibling(tempWav.getFileName() + ".codecmedia.properties");
+
+        try {
+            engine.writeMetadata(tempWav, new me.tamkungz.codecmedia.model.Metadata(Map.of("title", "Scale")));
+            var result = engine.analyzeLoudness(tempWav, new me.tamkungz.codecmedia.options.LoudnessOptions(true, 1));
+
+            var metadata = engine.readMetadata(tempWav);
+            assertEquals("Scale", metadata.entries().get("title"));
+            assertEquals(
+                    String.format(java.util.Locale.ROOT, "%.2f dB", result.replayGainTrackGainDb()),
+                    metadata.entries().get("replaygain_track_gain")
+            );
+            assertNotNull(metadata.entries().get("replaygain_track_peak"));
+            assertTrue(Files.exists(wavSidecar));
+        } finally {
+            Files.deleteIfExists(wavSidecar);
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void scanSilenceAndClipping_shouldScanWholeWavWithDefaults() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+
+        try {
+            var result = engine.scanSilenceAndClipping(tempWav, null);
+
+            assertTrue(result.totalFrames() > 0);
+            assertEquals(result.totalFrames(), result.scannedFrames());
+            assertFalse(result.stoppedEarly());
+            assertFalse(result.rejected());
+        } finally {
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void generateWaveform_shouldRejectNonAudioInput() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempPng = createTempFileWithResource("png_test.png", ".png");
+
+        try {
+            CodecMediaException ex = assertThrows(
+                    CodecMediaException.class,
+                    () -> engine.generateWaveform(tempPng, null)
+            );
+            assertTrue(ex.getMessage().contains("requires an audio file"));
+        } finally {
+            Files.deleteIfExists(tempPng);
+        }
+    }
+
+    @Test
+    void convert_shouldRenderSpectrogramForWavToPng() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path outputPng = Files.createTempFile("codecmedia-spectrogram-", ".png");
+
+        try {
+            var result = engine.convert(
+                    tempWav,
+                    outputPng,
+                    new me.tamkungz.codecmedia.options.ConversionOptions("png", "width=320,height=120,fft=1024", true)
+            );
+
+            assertEquals("png", result.format());
+            assertTrue(result.reencoded());
+            BufferedImage image = ImageIO.read(outputPng.toFile());
+            assertNotNull(image);
+            assertEquals(320, image.getWidth());
+            assertEquals(120, image.getHeight());
+        } finally {
+            Files.deleteIfExists(outputPng);
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void convert_shouldCopyEmbeddedCoverArtWithoutReencodingWhenFormatsMatch() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        byte[] coverPng = pngBytes(4, 3);
+        Path tempMp3 = createTempMp3WithCover(coverPng);
+        Path outputPng = Files.createTempFile("codecmedia-cover-", ".png");
+
+        try {
+            var result = engine.convert(tempMp3, outputPng, new me.tamkungz.codecmedia.options.ConversionOptions("png", "balanced", true));
+
+            assertEquals("png", result.format());
+            assertFalse(result.reencoded());
+            org.junit.jupiter.api.Assertions.assertArrayEquals(coverPng, Files.readAllBytes(outputPng));
+        } finally {
+            Files.deleteIfExists(outputPng);
+            Files.deleteIfExists(tempMp3);
+        }
+    }
+
+    @Test
+    void convert_shouldTranscodeEmbeddedCoverArtWhenFormatsDiffer() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp3 = createTempMp3WithCover(pngBytes(4, 3));
+        Path outputJpg = Files.createTempFile("codecmedia-cover-", ".jpg");
+
+        try {
+            var result = engine.convert(tempMp3, outputJpg, new me.tamkungz.codecmedia.options.ConversionOptions("jpg", "cover", true));
+
+            assertTrue(result.reencoded());
+            BufferedImage image = ImageIO.read(outputJpg.toFile());
+            assertNotNull(image);
+            assertEquals(4, image.getWidth());
+            assertEquals(3, image.getHeight());
+        } finally {
+            Files.deleteIfExists(outputJpg);
+            Files.deleteIfExists(tempMp3);
+        }
+    }
+
+    @Test
+    void convert_shouldRejectCoverPresetWhenNoArtIsEmbedded() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path outputPng = tempWav.resolveSibling(tempWav.getFileName() + ".png");
+
+        try {
+            CodecMediaException ex = assertThrows(
+                    CodecMediaException.class,
+                    () -> engine.convert(tempWav, outputPng, new me.tamkungz.codecmedia.options.ConversionOptions("png", "cover", true))
+            );
+            assertTrue(ex.getMessage().contains("No embedded cover art found"));
+        } finally {
+            Files.deleteIfExists(outputPng);
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void convert_shouldRejectAudioToImageWhenAudioCannotBeDecoded() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
         Path tempMp3 = createTempFileWithResource("c-major-scale_test_audacity.mp3", ".mp3");
         Path outputPng = Files.createTempFile("codecmedia-audio-to-image-", ".png");
@@ -402,7 +862,7 @@ class CodecMediaFacadeTest {
         try {
             boolean threw = false;
             try {
-                engine.convert(tempMp3, outputPng, new me.tamkungz.codecmedia.options.ConversionOptions("png", "balanced", true));
+                engine.convert(tempMp3, outputPng, new me.tamkungz.codecmedia.options.ConversionOptions("png", "spectrogram", true));
             } catch (CodecMediaException expected) {
                 threw = expected.getMessage().contains("audio->image");
             }
@@ -533,6 +993,99 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void convert_shouldSwapWavToAiffAndBackByteExact() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path outputAiff = Files.createTempFile("codecmedia-wav-to-aiff-", ".aiff");
+        Path roundTrip = Files.createTempFile("codecmedia-aiff-to-wav-", ".wav");
+
+        try {
+            engine.convert(tempWav, outputAiff, new me.tamkungz.codecmedia.options.ConversionOptions("aiff", "balanced", true));
+            engine.convert(outputAiff, roundTrip, new me.tamkungz.codecmedia.options.ConversionOptions("wav", "balanced", true));
+
+            me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout source = readPcmLayout(tempWav);
+            me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout aiff = readPcmLayout(outputAiff);
+            assertTrue(aiff.bigEndian());
+            assertEquals(source.totalFrames(), aiff.totalFrames());
+            assertEquals(source.sampleRate(), aiff.sampleRate());
+            byte[] wavPayload = pcmPayload(tempWav, source);
+            byte[] aiffPayload = pcmPayload(outputAiff, aiff);
+            assertEquals(wavPayload[0], aiffPayload[1]);
+            assertEquals(wavPayload[1], aiffPayload[0]);
+            org.junit.jupiter.api.Assertions.assertArrayEquals(wavPayload, pcmPayload(roundTrip, readPcmLayout(roundTrip)));
+            assertEquals(engine.probe(tempWav).durationMillis(), engine.probe(outputAiff).durationMillis());
+        } finally {
+            Files.deleteIfExists(tempWav);
+            Files.deleteIfExists(outputAiff);
+            Files.deleteIfExists(roundTrip);
+        }
+    }
+
+    @Test
+    void convert_shouldHandleAifcSowtAndFloatPcmDirectly() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path sowt = Files.createTempFile("codecmedia-sowt-", ".aifc");
+        Path fromSowt = Files.createTempFile("codecmedia-sowt-to-wav-", ".wav");
+        Path floatWav = Files.createTempFile("codecmedia-float-", ".wav");
+        Path floatAiff = Files.createTempFile("codecmedia-float-to-aiff-", ".aiff");
+        Path floatRoundTrip = Files.createTempFile("codecmedia-float-round-trip-", ".wav");
+
+        try {
+            byte[] samples = {1, 2, 3, 4, 5, 6, 7, 8};
+            java.nio.ByteBuffer aifc = java.nio.ByteBuffer.allocate(12 + 8 + 24 + 16 + samples.length);
+            aifc.put("FORM".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(aifc.capacity() - 8)
+                    .put("AIFC".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+            aifc.put("COMM".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(24)
+                    .putShort((short) 2).putInt(2).putShort((short) 16)
+                    .put(new byte[] {0x40, 0x0E, (byte) 0xAC, 0x44, 0, 0, 0, 0, 0, 0})
+                    .put("sowt".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).put(new byte[2]);
+            aifc.put("SSND".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(8 + samples.length)
+                    .putInt(0).putInt(0).put(samples);
+            Files.write(sowt, aifc.array());
+
+            engine.convert(sowt, fromSowt, new me.tamkungz.codecmedia.options.ConversionOptions("wav", "balanced", true));
+            me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout wav = readPcmLayout(fromSowt);
+            assertEquals(44_100, wav.sampleRate());
+            assertEquals(2, wav.totalFrames());
+            org.junit.jupiter.api.Assertions.assertArrayEquals(samples, pcmPayload(fromSowt, wav));
+
+            java.nio.ByteBuffer floats = java.nio.ByteBuffer.allocate(12 + 26 + 12 + 8 + 8).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            floats.put("RIFF".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(floats.capacity() - 8)
+                    .put("WAVE".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+            floats.put("fmt ".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(18).putShort((short) 3)
+                    .putShort((short) 1).putInt(48_000).putInt(48_000 * 4).putShort((short) 4).putShort((short) 32)
+                    .putShort((short) 0);
+            floats.put("fact".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(4).putInt(2);
+            floats.put("data".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).putInt(8).putFloat(0.5f).putFloat(-0.25f);
+            Files.write(floatWav, floats.array());
+
+            engine.convert(floatWav, floatAiff, new me.tamkungz.codecmedia.options.ConversionOptions("aiff", "balanced", true));
+            byte[] aiffBytes = Files.readAllBytes(floatAiff);
+            assertEquals("AIFC", new String(aiffBytes, 8, 4, java.nio.charset.StandardCharsets.US_ASCII));
+            me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout aiff = readPcmLayout(floatAiff);
+            assertEquals(me.tamkungz.codecmedia.internal.audio.pcm.PcmEncoding.FLOAT, aiff.encoding());
+            assertEquals(48_000, aiff.sampleRate());
+            assertEquals(0.5f, java.nio.ByteBuffer.wrap(pcmPayload(floatAiff, aiff)).getFloat(0));
+            assertEquals("audio/aiff", engine.probe(floatAiff).mimeType());
+
+            engine.convert(floatAiff, floatRoundTrip, new me.tamkungz.codecmedia.options.ConversionOptions("wav", "balanced", true));
+            java.nio.ByteBuffer fmt = java.nio.ByteBuffer.wrap(Files.readAllBytes(floatRoundTrip)).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            assertEquals(0xFFFE, fmt.getShort(20) & 0xFFFF);
+            assertEquals(32, fmt.getShort(38));
+            assertEquals(0x4, fmt.getInt(40));
+            assertEquals(3, fmt.getShort(44));
+            org.junit.jupiter.api.Assertions.assertArrayEquals(pcmPayload(floatWav, readPcmLayout(floatWav)),
+                    pcmPayload(floatRoundTrip, readPcmLayout(floatRoundTrip)));
+        } finally {
+            Files.deleteIfExists(sowt);
+            Files.deleteIfExists(fromSowt);
+            Files.deleteIfExists(floatWav);
+            Files.deleteIfExists(floatAiff);
+            Files.deleteIfExists(floatRoundTrip);
+        }
+    }
+
     @Test
     void convert_shouldExtractRawPcmFromWav() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -814,6 +1367,21 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void validate_strictShouldRejectFlacWithInvalidFirstFrame() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempFlac = Files.createTempFile("codecmedia-flac-", ".flac");
+
+        try {
+            Files.write(tempFlac, concat(minimalFlacBytes(), new byte[] {(byte) 0xFF, (byte) 0xF8, 0x00, 0x00, 0x00, 0x00, 0x00}));
+            var result = engine.validate(tempFlac, new me.tamkungz.codecmedia.options.ValidationOptions(true, 0));
+            assertFalse(result.valid());
+            assertTrue(result.errors().get(0).startsWith("Strict validation failed for flac: Invalid FLAC frame header"));
+        } finally {
+            Files.deleteIfExists(tempFlac);
+        }
+    }
+
     @Test
     void probe_shouldDetectMovByContainerHeader() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -861,6 +1429,485 @@ class CodecMediaFacadeTest {
         }
     }
 
+    @Test
+    void probe_shouldReadWebmTracksFromSegmentHeaders() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWebm = createTempFileWithResource("example/file_example_WEBM_480_900KB.webm", ".webm");
+
+        try {
+            var result = engine.probe(tempWebm);
+            assertEquals(30543L, result.durationMillis());
+            assertEquals(2, result.streams().size());
+            assertEquals(me.tamkungz.codecmedia.model.StreamKind.VIDEO, result.streams().get(0).kind());
+            assertEquals("V_VP8", result.streams().get(0).codec());
+            assertEquals(480, result.streams().get(0).width());
+            assertEquals(me.tamkungz.codecmedia.model.StreamKind.AUDIO, result.streams().get(1).kind());
+            assertEquals("A_VORBIS", result.streams().get(1).codec());
+            assertEquals(2, result.streams().get(1).channels());
+        } finally {
+            Files.deleteIfExists(tempWebm);
+        }
+    }
+
+    @Test
+    void openPacketReader_shouldWalkMp4SamplesInFileOrder() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp4 = createTempFileWithResource("mp4_test.mp4", ".mp4");
+
+        try {
+            Map<Integer, long[]> expected = new java.util.HashMap<>();
+            try (var channel = java.nio.channels.FileChannel.open(tempMp4)) {
+                var reader = new me.tamkungz.codecmedia.internal.bmff.BmffReader(channel);
+                var moov = reader.child(null, "moov");
+                int trackNumber = 0;
+                for (var trak : reader.children(moov, "trak")) {
+                    var index = me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(reader, trak);
+                    expected.put(++trackNumber, new long[] {index.sampleCount(), index.totalSampleBytes()});
+                }
+            }
+
+            Map<Integer, long[]> actual = new java.util.TreeMap<>();
+            java.nio.ByteBuffer payload = java.nio.ByteBuffer.allocate(1 << 20);
+            long lastOffset = -1;
+            try (PacketReader packets = engine.openPacketReader(tempMp4)) {
+                me.tamkungz.codecmedia.model.Packet packet;
+                while ((packet = packets.next()) != null) {
+                    assertTrue(packet.offset() >= lastOffset);
+                    lastOffset = packet.offset();
+                    assertTrue(packet.timescale() > 0);
+                    payload.clear();
+                    packets.readPayload(payload);
+                    assertEquals(packet.size(), payload.position());
+                    long[] totals = actual.computeIfAbsent(packet.track(), track -> new long[2]);
+                    totals[0]++;
+                    totals[1] += packet.size();
+                }
+            }
+
+            // tkhd track IDs are 1..n in trak order in this fixture
+            assertEquals(expected.keySet(), actual.keySet());
+            for (var entry : expected.entrySet()) {
+                assertEquals(entry.getValue()[0], actual.get(entry.getKey())[0]);
+                assertEquals(entry.getValue()[1], actual.get(entry.getKey())[1]);
+            }
+        } finally {
+            Files.deleteIfExists(tempMp4);
+        }
+    }
+
+    @Test
+    void openPacketReader_shouldSeekMp4TracksToTheirKeyframeBeforeTheTarget() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp4 = createTempFileWithResource("mp4_test.mp4", ".mp4");
+
+        try {
+            java.util.List<me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex> indexes = new java.util.ArrayList<>();
+            try (var channel = java.nio.channels.FileChannel.open(tempMp4)) {
+                var reader = new me.tamkungz.codecmedia.internal.bmff.BmffReader(channel);
+                for (var trak : reader.children(reader.child(null, "moov"), "trak")) {
+                    indexes.add(me.tamkungz.codecmedia.internal.bmff.BmffSampleIndex.build(reader, trak));
+                }
+            }
+            long target = Long.MAX_VALUE;
+            for (var index : indexes) {
+                target = Math.min(target, index.duration() * 1000L / index.timescale() / 2);
+            }
+            // tkhd track IDs are 1..n in trak order in this fixture
+            Map<Integer, long[]> expected = new java.util.HashMap<>();
+            for (int i = 0; i < indexes.size(); i++) {
+                var index = indexes.get(i);
+                int sample = index.keyframeAtOrBefore(index.sampleAtMillis(target));
+                expected.put(i + 1, new long[] {index.decodeTime(sample), index.sampleCount() - sample});
+            }
+
+            Map<Integer, long[]> actual = new java.util.TreeMap<>();
+            try (PacketReader packets = engine.openPacketReader(tempMp4)) {
+                packets.next();
+                packets.seek(target);
+                me.tamkungz.codecmedia.model.Packet packet;
+                while ((packet = packets.next()) != null) {
+                    long[] seen = actual.get(packet.track());
+                    if (seen == null) {
+                        assertTrue(packet.keyframe());
+                        actual.put(packet.track(), new long[] {packet.dts(), 1});
+                    } else {
+                        seen[1]++;
+                    }
+                }
+            }
+
+            assertTrue(target > 0);
+            assertEquals(expected.keySet(), actual.keySet());
+            for (var entry : expected.entrySet()) {
+                org.junit.jupiter.api.Assertions.assertArrayEquals(entry.getValue(), actual.get(entry.getKey()));
+            }
+        } finally {
+            Files.deleteIfExists(tempMp4);
+        }
+    }
+
+    @Test
+    void openPacketReader_shouldReadWebmBlocksWithKeyframeFlags() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWebm = createTempFileWithResource("example/file_example_WEBM_480_900KB.webm", ".webm");
+
+        try (PacketReader packets = engine.openPacketReader(tempWebm)) {
+            java.nio.ByteBuffer payload = java.nio.ByteBuffer.allocate(1 << 20);
+            int videoPackets = 0;
+            int videoKeyframes = 0;
+            int audioPackets = 0;
+            long lastVideoPts = -1;
+            me.tamkungz.codecmedia.model.Packet packet;
+            while ((packet = packets.next()) != null) {
+                assertEquals(1_000_000_000L, packet.timescale());
+                assertEquals(packet.pts(), packet.dts());
+                payload.clear();
+                packets.readPayload(payload);
+                if (packet.track() == 1) {
+                    videoPackets++;
+                    assertTrue(packet.pts() > lastVideoPts);
+                    lastVideoPts = packet.pts();
+                    // VP8 frame tag: bit 0 clear on keyframes, which carry the 9d 01 2a start code
+                    boolean vp8Keyframe = (payload.get(0) & 1) == 0;
+                    assertEquals(vp8Keyframe, packet.keyframe());
+                    if (vp8Keyframe) {
+                        videoKeyframes++;
+                        assertEquals((byte) 0x9D, payload.get(3));
+                        assertEquals((byte) 0x01, payload.get(4));
+                        assertEquals((byte) 0x2A, payload.get(5));
+                    }
+                } else {
+                    assertEquals(2, packet.track());
+                    audioPackets++;
+                }
+            }
+            assertTrue(videoPackets > 700, "video packets " + videoPackets);
+            assertTrue(videoKeyframes > 0);
+            assertTrue(audioPackets > 0);
+            assertTrue(lastVideoPts > 30_000_000_000L - 1_000_000_000L);
+        } finally {
+            Files.deleteIfExists(tempWebm);
+        }
+    }
+
+    @Test
+    void openPacketReader_shouldSeekWebmToTheCueClusterBeforeTheTarget() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWebm = createTempFileWithResource("example/file_example_WEBM_480_900KB.webm", ".webm");
+
+        try (PacketReader packets = engine.openPacketReader(tempWebm)) {
+            packets.seek(12_000);
+            me.tamkungz.codecmedia.model.Packet packet = packets.next();
+            assertTrue(packet.pts() <= 12_000_000_000L, "pts " + packet.pts());
+            assertTrue(packet.pts() > 6_000_000_000L, "pts " + packet.pts());
+            while (packet.track() != 1) {
+                packet = packets.next();
+            }
+            assertTrue(packet.keyframe());
+
+            packets.seek(0);
+            assertEquals(0L, packets.next().pts());
+        } finally {
+            Files.deleteIfExists(tempWebm);
+        }
+    }
+
+    @Test
+    void openPacketReader_shouldRejectNonContainerInput() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp3 = createTempFileWithResource("c-major-scale_test_audacity.mp3", ".mp3");
+
+        try {
+            assertThrows(CodecMediaException.class, () -> engine.openPacketReader(tempMp3));
+        } finally {
+            Files.deleteIfExists(tempMp3);
+        }
+    }
+
+    @Test
+    void trim_shouldCutWavOnSampleFrames() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path output = Files.createTempFile("codecmedia-trim-", ".wav");
+
+        try {
+            var result = engine.trim(tempWav, output, 1000, 3000);
+            assertEquals("wav", result.format());
+            assertEquals(1000L, result.startMillis());
+            assertEquals(3000L, result.endMillis());
+            try (var channel = java.nio.channels.FileChannel.open(output)) {
+                var layout = me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(channel);
+                assertEquals(2L * layout.sampleRate(), layout.totalFrames());
+                assertEquals(layout.dataOffset() + layout.dataLength(), channel.size());
+            }
+            assertTrue(engine.validate(output, new me.tamkungz.codecmedia.options.ValidationOptions(true, 0)).valid());
+        } finally {
+            Files.deleteIfExists(tempWav);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void trim_shouldCutMp3OnFramesAndRebuildTagFrame() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        for (String fixture : new String[] {"c-major-scale_test_audacity.mp3", "c-major-scale_test_web-convert_mono.mp3"}) {
+            Path tempMp3 = createTempFileWithResource(fixture, ".mp3");
+            Path output = Files.createTempFile("codecmedia-trim-", ".mp3");
+
+            try {
+                var result = engine.trim(tempMp3, output, 1000, 3000);
+                // 1152-sample frames at 48 kHz: frame 41 starts at 984 ms, frame 125 ends at 3000 ms
+                assertEquals(984L, result.startMillis());
+                assertEquals(3000L, result.endMillis());
+                byte[] trimmed = Files.readAllBytes(output);
+                var info = me.tamkungz.codecmedia.internal.audio.mp3.Mp3Parser.parse(trimmed);
+                assertEquals(result.endMillis() - result.startMillis(), info.durationMillis());
+                assertEquals(Files.readAllBytes(tempMp3)[0] == 'I', trimmed[0] == 'I');
+                assertTrue(engine.validate(output, new me.tamkungz.codecmedia.options.ValidationOptions(true, 0)).valid());
+            } finally {
+                Files.deleteIfExists(tempMp3);
+                Files.deleteIfExists(output);
+            }
+        }
+    }
+
+    @Test
+    void trim_shouldCutOggOnPagesWithRecomputedCrcs() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempOgg = createTempFileWithResource("c-major-scale_test_ffmpeg.ogg", ".ogg");
+        Path output = Files.createTempFile("codecmedia-trim-", ".ogg");
+
+        try {
+            var result = engine.trim(tempOgg, output, 2500, 4000);
+            // The fixture has ~1 s pages; the cut starts on the page boundary at granule 96960
+            assertEquals(2020L, result.startMillis());
+            assertEquals(4000L, result.endMillis());
+            byte[] trimmed = Files.readAllBytes(output);
+            var info = me.tamkungz.codecmedia.internal.audio.ogg.OggParser.parse(trimmed);
+            assertEquals(result.endMillis() - result.startMillis(), info.durationMillis());
+
+            java.nio.ByteBuffer pages = java.nio.ByteBuffer.wrap(trimmed).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            int offset = 0;
+            long sequence = 0;
+            int lastFlags = 0;
+            while (offset < trimmed.length) {
+                int segments = trimmed[offset + 26] & 0xFF;
+                int length = 27 + segments;
+                for (int i = 0; i < segments; i++) {
+                    length += trimmed[offset + 27 + i] & 0xFF;
+                }
+                byte[] page = java.util.Arrays.copyOfRange(trimmed, offset, offset + length);
+                int storedCrc = pages.getInt(offset + 22);
+                java.util.Arrays.fill(page, 22, 26, (byte) 0);
+                assertEquals(me.tamkungz.codecmedia.internal.audio.ogg.OggPageWriter.crc(0, page, 0, page.length), storedCrc);
+                assertEquals(sequence++, pages.getInt(offset + 18));
+                lastFlags = trimmed[offset + 5];
+                offset += length;
+            }
+            assertEquals(4, lastFlags);
+        } finally {
+            Files.deleteIfExists(tempOgg);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void trim_shouldRejectInvalidRangeAndInPlaceOutput() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path output = Files.createTempFile("codecmedia-trim-", ".wav");
+
+        try {
+            assertThrows(CodecMediaException.class, () -> engine.trim(tempWav, output, 2000, 1000));
+            assertThrows(CodecMediaException.class, () -> engine.trim(tempWav, tempWav, 0, 1000));
+            assertThrows(CodecMediaException.class, () -> engine.trim(tempWav, output, 60_000, 61_000));
+        } finally {
+            Files.deleteIfExists(tempWav);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void concat_shouldJoinWavAndAiffPayloads() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path tempAiff = Files.createTempFile("codecmedia-concat-", ".aiff");
+        Path outputWav = Files.createTempFile("codecmedia-concat-", ".wav");
+        Path outputAiff = Files.createTempFile("codecmedia-concat-", ".aiff");
+
+        try {
+            engine.convert(tempWav, tempAiff, new me.tamkungz.codecmedia.options.ConversionOptions("aiff", "balanced", true));
+            long sourceMillis = engine.probe(tempWav).durationMillis();
+
+            var wavResult = engine.concat(java.util.List.of(tempWav, tempWav), outputWav, null);
+            assertEquals("wav", wavResult.format());
+            assertEquals(2, wavResult.inputCount());
+            try (var source = java.nio.channels.FileChannel.open(tempWav);
+                 var joined = java.nio.channels.FileChannel.open(outputWav)) {
+                var sourceLayout = me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(source);
+                var joinedLayout = me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(joined);
+                assertEquals(2 * sourceLayout.totalFrames(), joinedLayout.totalFrames());
+            }
+
+            var aiffResult = engine.concat(java.util.List.of(tempAiff, tempAiff, tempAiff), outputAiff, null);
+            assertEquals("aiff", aiffResult.format());
+            assertTrue(Math.abs(engine.probe(outputAiff).durationMillis() - 3 * sourceMillis) <= 2);
+            assertTrue(engine.validate(outputAiff, new me.tamkungz.codecmedia.options.ValidationOptions(true, 0)).valid());
+        } finally {
+            Files.deleteIfExists(tempWav);
+            Files.deleteIfExists(tempAiff);
+            Files.deleteIfExists(outputWav);
+            Files.deleteIfExists(outputAiff);
+        }
+    }
+
+    @Test
+    void concat_shouldAppendMp3FramesBehindRebuiltTagFrame() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempMp3 = createTempFileWithResource("c-major-scale_test_web-convert_mono.mp3", ".mp3");
+        Path output = Files.createTempFile("codecmedia-concat-", ".mp3");
+
+        try {
+            var result = engine.concat(java.util.List.of(tempMp3, tempMp3, tempMp3), output, null);
+            assertEquals("mp3", result.format());
+            assertEquals(3 * engine.probe(tempMp3).durationMillis(), result.durationMillis());
+            var info = me.tamkungz.codecmedia.internal.audio.mp3.Mp3Parser.parse(Files.readAllBytes(output));
+            assertEquals(result.durationMillis(), info.durationMillis());
+            assertTrue(engine.validate(output, new me.tamkungz.codecmedia.options.ValidationOptions(true, 0)).valid());
+        } finally {
+            Files.deleteIfExists(tempMp3);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void concat_shouldRenumberFlacFramesAndDecodeToJoinedPcm() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path tempFlac = Files.createTempFile("codecmedia-concat-", ".flac");
+        Path output = Files.createTempFile("codecmedia-concat-", ".flac");
+        Path decoded = Files.createTempFile("codecmedia-concat-", ".wav");
+
+        try {
+            engine.convert(tempWav, tempFlac, new me.tamkungz.codecmedia.options.ConversionOptions("flac", "balanced", true));
+            var result = engine.concat(java.util.List.of(tempFlac, tempFlac), output, null);
+            assertEquals("flac", result.format());
+            assertTrue(engine.validate(output, new me.tamkungz.codecmedia.options.ValidationOptions(true, 0)).valid());
+
+            engine.convert(output, decoded, new me.tamkungz.codecmedia.options.ConversionOptions("wav", "balanced", true));
+            byte[] source = Files.readAllBytes(tempWav);
+            byte[] joined = Files.readAllBytes(decoded);
+            try (var sourceChannel = java.nio.channels.FileChannel.open(tempWav);
+                 var joinedChannel = java.nio.channels.FileChannel.open(decoded)) {
+                var sourceLayout = me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(sourceChannel);
+                var joinedLayout = me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(joinedChannel);
+                int length = (int) sourceLayout.dataLength();
+                assertEquals(2L * length, joinedLayout.dataLength());
+                byte[] pcm = java.util.Arrays.copyOfRange(source, (int) sourceLayout.dataOffset(), (int) sourceLayout.dataOffset() + length);
+                int offset = (int) joinedLayout.dataOffset();
+                assertTrue(java.util.Arrays.equals(pcm, java.util.Arrays.copyOfRange(joined, offset, offset + length)));
+                assertTrue(java.util.Arrays.equals(pcm, java.util.Arrays.copyOfRange(joined, offset + length, offset + 2 * length)));
+            }
+        } finally {
+            Files.deleteIfExists(tempWav);
+            Files.deleteIfExists(tempFlac);
+            Files.deleteIfExists(output);
+            Files.deleteIfExists(decoded);
+        }
+    }
+
+    @Test
+    void concat_shouldCheckLargeInputsFromHeadersOnly() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path small = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path large = Files.createTempFile("codecmedia-concat-large-", ".wav");
+        Path output = Files.createTempFile("codecmedia-concat-", ".wav");
+
+        try {
+            // Sparse 3 GiB 48 kHz WAV: too large for one byte array, so only a header read can reject it
+            long dataSize = 3L << 30;
+            java.nio.ByteBuffer header = java.nio.ByteBuffer.allocate(44).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            header.put(new byte[] {'R', 'I', 'F', 'F'}).putInt((int) (36 + dataSize))
+                    .put(new byte[] {'W', 'A', 'V', 'E'});
+            header.put(new byte[] {'f', 'm', 't', ' '}).putInt(16)
+                    .putShort((short) 1).putShort((short) 2).putInt(48_000).putInt(48_000 * 4)
+                    .putShort((short) 4).putShort((short) 16);
+            header.put(new byte[] {'d', 'a', 't', 'a'}).putInt((int) dataSize);
+            header.flip();
+            try (var channel = java.nio.channels.FileChannel.open(large, java.nio.file.StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+                channel.write(java.nio.ByteBuffer.allocate(1), 44 + dataSize - 1);
+            }
+
+            CodecMediaException ex = assertThrows(
+                    CodecMediaException.class,
+                    () -> engine.concat(java.util.List.of(small, large), output, null)
+            );
+            assertTrue(ex.getMessage().startsWith("WAV inputs have different sample formats"));
+        } finally {
+            Files.deleteIfExists(small);
+            Files.deleteIfExists(large);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void concat_shouldRejectIncompatibleInputs() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path stereo = createTempFileWithResource("c-major-scale_test_audacity.mp3", ".mp3");
+        Path mono = createTempFileWithResource("c-major-scale_test_web-convert_mono.mp3", ".mp3");
+        Path output = Files.createTempFile("codecmedia-concat-", ".mp3");
+
+        try {
+            assertThrows(CodecMediaException.class, () -> engine.concat(java.util.List.of(stereo, mono), output, null));
+            assertThrows(CodecMediaException.class, () -> engine.concat(java.util.List.of(), output, null));
+            assertThrows(CodecMediaException.class, () -> engine.concat(java.util.List.of(stereo, output), output, null));
+        } finally {
+            Files.deleteIfExists(stereo);
+            Files.deleteIfExists(mono);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void split_shouldCutWavIntoSampleAccurateSegments() throws Exception {
+        CodecMediaEngine engine = CodecMedia.createDefault();
+        Path wav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        Path outputDir = Files.createTempDirectory("codecmedia-split-");
+
+        try {
+            var result = engine.split(wav, outputDir, new me.tamkungz.codecmedia.options.SplitOptions(1000, 3));
+
+            assertEquals(6, result.segmentFiles().size());
+            long frames = 0;
+            for (Path segment : result.segmentFiles()) {
+                try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(segment)) {
+                    frames += me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(channel).totalFrames();
+                }
+                assertEquals("audio/wav", engine.probe(segment).mimeType());
+            }
+            assertEquals(result.totalFrames(), frames);
+            try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(result.segmentFiles().get(0))) {
+                assertEquals(44_100L, me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(channel).totalFrames());
+            }
+
+            Path mp3 = createTempFileWithResource("c-major-scale_test_audacity.mp3", ".mp3");
+            try {
+                assertThrows(CodecMediaException.class, () -> engine.split(mp3, outputDir, null));
+            } finally {
+                Files.deleteIfExists(mp3);
+            }
+        } finally {
+            Files.deleteIfExists(wav);
+            try (java.util.stream.Stream<Path> files = Files.list(outputDir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(outputDir);
+        }
+    }
+
     @Test
     void validate_strictShouldAcceptValidWebmFixture() throws Exception {
         CodecMediaEngine engine = CodecMedia.createDefault();
@@ -937,6 +1984,17 @@ class CodecMediaFacadeTest {
         }
     }
 
+    private static me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout readPcmLayout(Path file) throws Exception {
+        try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file)) {
+            return me.tamkungz.codecmedia.internal.audio.pcm.PcmSources.readLayout(channel);
+        }
+    }
+
+    private static byte[] pcmPayload(Path file, me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout layout) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        return java.util.Arrays.copyOfRange(bytes, (int) layout.dataOffset(), (int) (layout.dataOffset() + layout.dataLength()));
+    }
+
     private static Path createTempFileWithResource(String resourceName, String suffix) throws IOException {
         Path resource = Path.of("src/test/resources", resourceName);
         Path temp = Files.createTempFile("codecmedia-fixture-", suffix);
@@ -944,6 +2002,33 @@ class CodecMediaFacadeTest {
         return temp;
     }
 
+    private static Path createTempMp3WithCover(byte[] coverPng) throws IOException {
+        byte[] apicBody = concat(
+                new byte[] {0},
+                "image/png".getBytes(java.nio.charset.StandardCharsets.ISO_8859_1),
+                new byte[] {0, 3, 0},
+                coverPng
+        );
+        byte[] frame = concat(ascii4("APIC"), u32(apicBody.length), new byte[2], apicBody);
+        int size = frame.length;
+        byte[] tagHeader = {
+                'I', 'D', '3', 3, 0, 0,
+                (byte) ((size >>> 21) & 0x7F), (byte) ((size >>> 14) & 0x7F), (byte) ((size >>> 7) & 0x7F), (byte) (size & 0x7F)
+        };
+        byte[] audio = Files.readAllBytes(Path.of("src/test/resources", "c-major-scale_test_audacity.mp3"));
+        Path temp = Files.createTempFile("codecmedia-cover-", ".mp3");
+        Files.write(temp, concat(tagHeader, frame, audio));
+        return temp;
+    }
+
+    private static byte[] pngBytes(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
     private static Path createTempJpegFixture(String suffix) throws IOException {
         Path temp = Files.createTempFile("codecmedia-jpeg-", suffix);
         BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
@@ -6,11 +6,13 @@ import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.Test;
 
 import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.PlaybackSession;
 import me.tamkungz.codecmedia.internal.convert.ConversionHub;
 import me.tamkungz.codecmedia.internal.convert.ConversionRequest;
 import me.tamkungz.codecmedia.model.ConversionResult;
@@ -23,7 +25,7 @@ class StubCodecMediaEnginePlaybackRoutingTest {
     void play_dryRunShouldRemainUnchanged() throws Exception {
         Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
         StubCodecMediaEngine engine = engineWithBackends(
-                input -> fail("Java sampled backend must not be called during dry-run"),
+                (input, bufferBytes) -> fail("Java sampled backend must not be called during dry-run"),
                 new StubDesktopBackend(false, false)
         );
 
@@ -33,6 +35,7 @@ class StubCodecMediaEnginePlaybackRoutingTest {
             assertEquals("dry-run", result.backend());
             assertEquals(MediaType.AUDIO, result.mediaType());
             assertEquals("Playback simulation successful", result.message());
+            assertNull(result.session());
         } finally {
             Files.deleteIfExists(tempWav);
         }
@@ -44,7 +47,10 @@ class StubCodecMediaEnginePlaybackRoutingTest {
         AtomicInteger javaCalls = new AtomicInteger();
         StubDesktopBackend desktop = new StubDesktopBackend(true, false);
         StubCodecMediaEngine engine = engineWithBackends(
-                input -> javaCalls.incrementAndGet(),
+                (input, bufferBytes) -> {
+                    javaCalls.incrementAndGet();
+                    return null;
+                },
                 desktop
         );
 
@@ -65,7 +71,7 @@ class StubCodecMediaEnginePlaybackRoutingTest {
         AtomicInteger javaCalls = new AtomicInteger();
         StubDesktopBackend desktop = new StubDesktopBackend(true, false);
         StubCodecMediaEngine engine = engineWithBackends(
-                input -> {
+                (input, bufferBytes) -> {
                     javaCalls.incrementAndGet();
                     throw new CodecMediaException("Simulated sampled-audio failure");
                 },
@@ -87,7 +93,7 @@ class StubCodecMediaEnginePlaybackRoutingTest {
     void play_wavShouldFailClearlyWhenJavaSampledFailsAndExternalNotAllowed() throws Exception {
         Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
         StubCodecMediaEngine engine = engineWithBackends(
-                input -> {
+                (input, bufferBytes) -> {
                     throw new CodecMediaException("Simulated sampled-audio failure");
                 },
                 new StubDesktopBackend(true, false)
@@ -112,7 +118,10 @@ class StubCodecMediaEnginePlaybackRoutingTest {
         AtomicInteger javaCalls = new AtomicInteger();
         StubDesktopBackend desktop = new StubDesktopBackend(true, false);
         StubCodecMediaEngine engine = engineWithBackends(
-                input -> javaCalls.incrementAndGet(),
+                (input, bufferBytes) -> {
+                    javaCalls.incrementAndGet();
+                    return null;
+                },
                 desktop
         );
 
@@ -127,6 +136,54 @@ class StubCodecMediaEnginePlaybackRoutingTest {
         }
     }
 
+    @Test
+    void play_wavShouldPassBufferSizeAndReturnSession() throws Exception {
+        Path tempWav = createTempFileWithResource("c-major-scale_test_ableton-live.wav", ".wav");
+        AtomicInteger requestedBuffer = new AtomicInteger();
+        StubCodecMediaEngine engine = engineWithBackends(
+                (input, bufferBytes) -> {
+                    requestedBuffer.set(bufferBytes);
+                    return new StubSession(bufferBytes);
+                },
+                new StubDesktopBackend(false, false)
+        );
+
+        try {
+            var result = engine.play(tempWav, new PlaybackOptions(false, false, 64 * 1024));
+            assertEquals(64 * 1024, requestedBuffer.get());
+            assertEquals(64 * 1024, result.session().bufferBytes());
+            assertEquals(0, result.session().underruns());
+
+            assertEquals(256 * 1024, PlaybackOptions.defaults().bufferBytes());
+            try {
+                engine.play(tempWav, new PlaybackOptions(false, false, 16));
+                fail("Expected CodecMediaException");
+            } catch (CodecMediaException expected) {
+                assertTrue(expected.getMessage().contains("Playback buffer"));
+            }
+        } finally {
+            Files.deleteIfExists(tempWav);
+        }
+    }
+
+    @Test
+    void play_desktopRouteShouldIgnoreBufferSize() throws Exception {
+        Path tempMp3 = createTempFileWithResource("c-major-scale_test_audacity.mp3", ".mp3");
+        StubDesktopBackend desktop = new StubDesktopBackend(true, false);
+        StubCodecMediaEngine engine = engineWithBackends(
+                (input, bufferBytes) -> fail("Java sampled backend must not be called for MP3"),
+                desktop
+        );
+
+        try {
+            var result = engine.play(tempMp3, new PlaybackOptions(false, true, 0));
+            assertEquals("desktop-open", result.backend());
+            assertEquals(1, desktop.openCalls.get());
+        } finally {
+            Files.deleteIfExists(tempMp3);
+        }
+    }
+
     private static StubCodecMediaEngine engineWithBackends(
             StubCodecMediaEngine.JavaSampledPlaybackBackend sampledBackend,
             StubDesktopBackend desktopBackend
@@ -170,4 +227,30 @@ class StubCodecMediaEnginePlaybackRoutingTest {
             }
         }
     }
+
+    private record StubSession(int bufferBytes) implements PlaybackSession {
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public long bytesPlayed() {
+            return 0;
+        }
+
+        @Override
+        public long underruns() {
+            return 0;
+        }
+
+        @Override
+        public CodecMediaException failure() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class FftTest {
+
+    @Test
+    void shouldMatchDirectDft() {
+        int n = 64;
+        Random random = new Random(7);
+        float[] re = new float[n];
+        float[] im = new float[n];
+        double[] inRe = new double[n];
+        double[] inIm = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = random.nextFloat() * 2 - 1;
+            im[i] = random.nextFloat() * 2 - 1;
+            inRe[i] = re[i];
+            inIm[i] = im[i];
+        }
+
+        new Fft(n).transform(re, im);
+
+        for (int k = 0; k < n; k++) {
+            double sumRe = 0;
+            double sumIm = 0;
+            for (int t = 0; t < n; t++) {
+                double angle = -2 * Math.PI * k * t / n;
+                sumRe += inRe[t] * Math.cos(angle) - inIm[t] * Math.sin(angle);
+                sumIm += inRe[t] * Math.sin(angle) + inIm[t] * Math.cos(angle);
+            }
+            assertEquals(sumRe, re[k], 1e-3);
+            assertEquals(sumIm, im[k], 1e-3);
+        }
+    }
+
+    @Test
+    void shouldConcentrateSinusoidInItsBin() {
+        int n = 256;
+        float[] re = new float[n];
+        float[] im = new float[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = (float) Math.cos(2 * Math.PI * 8 * i / n);
+        }
+
+        new Fft(n).transform(re, im);
+
+        assertEquals(n / 2.0, Math.hypot(re[8], im[8]), 1e-2);
+        assertEquals(0.0, Math.hypot(re[9], im[9]), 1e-2);
+    }
+
+    @Test
+    void shouldRejectNonPowerOfTwoSize() {
+        assertThrows(IllegalArgumentException.class, () -> new Fft(100));
+    }
+}
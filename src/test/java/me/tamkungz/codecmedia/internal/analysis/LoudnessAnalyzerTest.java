@@ -0,0 +1,121 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.nio.file.Path;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSource;
+import me.tamkungz.codecmedia.model.LoudnessResult;
+
+class LoudnessAnalyzerTest {
+
+    private static final int RATE = 48_000;
+
+    @Test
+    void stereoSineAtMinus20DbfsShouldMeasureMinus20Lufs() throws Exception {
+        PcmSource source = new SyntheticSource(2, RATE * 10, frame -> 0.1 * Math.sin(2 * Math.PI * 1000 * frame / RATE));
+
+        LoudnessResult result = LoudnessAnalyzer.analyze(Path.of("sine.wav"), source);
+
+        assertEquals(-20.0, result.integratedLufs(), 0.1);
+        assertEquals(0.0, result.loudnessRangeLu(), 0.1);
+        assertEquals(-20.0, result.truePeakDbtp(), 0.2);
+        assertEquals(0.1, result.samplePeak(), 0.001);
+        assertEquals(2.0, result.replayGainTrackGainDb(), 0.1);
+    }
+
+    @Test
+    void monoSineShouldBeThreeDbQuieterThanStereo() throws Exception {
+        PcmSource source = new SyntheticSource(1, RATE * 5, frame -> 0.1 * Math.sin(2 * Math.PI * 1000 * frame / RATE));
+
+        LoudnessResult result = LoudnessAnalyzer.analyze(Path.of("mono.wav"), source);
+
+        assertEquals(-23.0, result.integratedLufs(), 0.1);
+    }
+
+    @Test
+    void loudnessRangeShouldSpanTenLuStep() throws Exception {
+        int half = RATE * 20;
+        PcmSource source = new SyntheticSource(2, half * 2, frame -> {
+            double amplitude = frame < half ? 0.1 : 0.1 / Math.sqrt(10.0);
+            return amplitude * Math.sin(2 * Math.PI * 1000 * frame / RATE);
+        });
+
+        LoudnessResult result = LoudnessAnalyzer.analyze(Path.of("step.wav"), source);
+
+        assertEquals(10.0, result.loudnessRangeLu(), 0.5);
+    }
+
+    @Test
+    void truePeakShouldExceedSamplePeakForInterSampleOvershoot() throws Exception {
+        // fs/4 sine sampled at +/-45 degrees never hits its crest on a sample
+        PcmSource source = new SyntheticSource(1, RATE * 2, frame -> 0.5 * Math.sin(Math.PI / 2 * frame + Math.PI / 4));
+
+        LoudnessResult result = LoudnessAnalyzer.analyze(Path.of("overshoot.wav"), source);
+
+        assertEquals(0.5 * Math.sqrt(0.5), result.samplePeak(), 1e-3);
+        assertTrue(result.truePeakDbtp() > 20 * Math.log10(result.samplePeak()) + 2.5);
+    }
+
+    @Test
+    void silenceShouldReportNegativeInfinityAndNoGain() throws Exception {
+        PcmSource source = new SyntheticSource(2, RATE * 2, frame -> 0.0);
+
+        LoudnessResult result = LoudnessAnalyzer.analyze(Path.of("silence.wav"), source);
+
+        assertEquals(Double.NEGATIVE_INFINITY, result.integratedLufs());
+        assertEquals(0.0, result.replayGainTrackGainDb());
+    }
+
+    private static final class SyntheticSource implements PcmSource {
+
+        private final int channels;
+        private final long totalFrames;
+        private final IntToDoubleFunction signal;
+        private int next;
+
+        SyntheticSource(int channels, long totalFrames, IntToDoubleFunction signal) {
+            this.channels = channels;
+            this.totalFrames = totalFrames;
+            this.signal = signal;
+        }
+
+        @Override
+        public int sampleRate() {
+            return RATE;
+        }
+
+        @Override
+        public int channels() {
+            return channels;
+        }
+
+        @Override
+        public long totalFrames() {
+            return totalFrames;
+        }
+
+        @Override
+        public int read(float[] dst, int maxFrames) {
+            if (next >= totalFrames) {
+                return -1;
+            }
+            int frames = (int) Math.min(maxFrames, totalFrames - next);
+            for (int f = 0; f < frames; f++) {
+                float value = (float) signal.applyAsDouble(next + f);
+                for (int c = 0; c < channels; c++) {
+                    dst[f * channels + c] = value;
+                }
+            }
+            next += frames;
+            return frames;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
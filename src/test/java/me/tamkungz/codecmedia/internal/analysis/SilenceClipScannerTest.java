@@ -0,0 +1,151 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.model.AudioScanResult;
+import me.tamkungz.codecmedia.options.AudioScanOptions;
+
+class SilenceClipScannerTest {
+
+    private static final int RATE = 8_000;
+
+    @Test
+    void shouldReportSilenceLongerThanMinimumOnly() throws Exception {
+        // 1 s tone, 1 s silence, 1 s tone, 0.1 s silence, 1 s tone
+        Path wav = writeWav(RATE * 41 / 10, frame -> {
+            boolean silent = (frame >= RATE && frame < 2 * RATE) || (frame >= 3 * RATE && frame < 3 * RATE + RATE / 10);
+            return silent ? 0 : (frame % 16 < 8 ? 8000 : -8000);
+        });
+        try {
+            AudioScanResult result = SilenceClipScanner.scan(wav, AudioScanOptions.defaults());
+
+            assertEquals(1, result.silences().size());
+            assertEquals(1000L, result.silences().get(0).startMillis());
+            assertEquals(1000L, result.silences().get(0).durationMillis());
+            assertEquals(RATE, result.silentFrames());
+            assertEquals(0, result.clipRunCount());
+            assertFalse(result.rejected());
+            assertEquals(result.totalFrames(), result.scannedFrames());
+        } finally {
+            Files.deleteIfExists(wav);
+        }
+    }
+
+    @Test
+    void shouldReportFullScaleRunsOfBothPolarities() throws Exception {
+        Path wav = writeWav(RATE, frame -> {
+            if (frame >= 100 && frame < 105) {
+                return Short.MAX_VALUE;
+            }
+            if (frame >= 5000 && frame < 5002) {
+                return Short.MIN_VALUE;
+            }
+            if (frame >= 6000 && frame < 6004) {
+                return Short.MIN_VALUE;
+            }
+            return 1000;
+        });
+        try {
+            AudioScanResult result = SilenceClipScanner.scan(wav, AudioScanOptions.defaults());
+
+            assertEquals(2, result.clipRunCount());
+            assertEquals(9L, result.clippedSamples());
+            assertEquals(12L, result.clipRuns().get(0).startMillis());
+            assertEquals(5, result.clipRuns().get(0).samples());
+            assertEquals(750L, result.clipRuns().get(1).startMillis());
+            assertTrue(result.silences().isEmpty());
+        } finally {
+            Files.deleteIfExists(wav);
+        }
+    }
+
+    @Test
+    void shouldReportFullScaleRunsOf32BitPcm() throws Exception {
+        Path wav = writeWav(RATE, 32, frame -> {
+            if (frame >= 100 && frame < 103) {
+                return Integer.MAX_VALUE;
+            }
+            if (frame >= 4000 && frame < 4002) {
+                return Integer.MIN_VALUE;
+            }
+            return Integer.MAX_VALUE - (1 << 10);
+        });
+        try {
+            AudioScanResult result = SilenceClipScanner.scan(wav, new AudioScanOptions(-60.0, 500L, 2, 1.0, 100, false));
+
+            assertEquals(2, result.clipRunCount());
+            assertEquals(3, result.clipRuns().get(0).samples());
+            assertEquals(2, result.clipRuns().get(1).samples());
+            assertEquals(5L, result.clippedSamples());
+        } finally {
+            Files.deleteIfExists(wav);
+        }
+    }
+
+    @Test
+    void stopEarlyShouldEndScanOnceSilenceRatioIsExceeded() throws Exception {
+        Path wav = writeWav(RATE * 10, frame -> 0);
+        try {
+            AudioScanOptions options = new AudioScanOptions(-60.0, 500L, 3, 0.5, 100, true);
+
+            AudioScanResult result = SilenceClipScanner.scan(wav, options);
+
+            assertTrue(result.rejected());
+            assertTrue(result.stoppedEarly());
+            assertTrue(result.scannedFrames() < result.totalFrames());
+            assertTrue(result.silentFrames() > RATE * 5);
+        } finally {
+            Files.deleteIfExists(wav);
+        }
+    }
+
+    @Test
+    void shouldRejectNonPcmInput() throws Exception {
+        Path file = Files.createTempFile("codecmedia-scan-", ".mp3");
+        try {
+            Files.write(file, new byte[64]);
+            CodecMediaException ex = assertThrows(CodecMediaException.class,
+                    () -> SilenceClipScanner.scan(file, AudioScanOptions.defaults()));
+            assertTrue(ex.getMessage().contains("WAV or AIFF"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Path writeWav(int frames, IntUnaryOperator sample) throws Exception {
+        return writeWav(frames, 16, sample);
+    }
+
+    private static Path writeWav(int frames, int bits, IntUnaryOperator sample) throws Exception {
+        int width = bits / 8;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + frames * width).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + frames * width);
+        buffer.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        buffer.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16);
+        buffer.putShort((short) 1).putShort((short) 1).putInt(RATE).putInt(RATE * width)
+                .putShort((short) width).putShort((short) bits);
+        buffer.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(frames * width);
+        for (int i = 0; i < frames; i++) {
+            if (bits == 32) {
+                buffer.putInt(sample.applyAsInt(i));
+            } else {
+                buffer.putShort((short) sample.applyAsInt(i));
+            }
+        }
+        Path file = Files.createTempFile("codecmedia-scan-", ".wav");
+        Files.write(file, buffer.array());
+        return file;
+    }
+}
@@ -0,0 +1,166 @@
+package me.tamkungz.codecmedia.internal.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.model.WaveformResult;
+
+class WaveformPeakGeneratorTest {
+
+    private static final int FRAMES = 10_050;
+
+    @Test
+    void shouldWriteMinMaxRmsForEveryLevel() throws Exception {
+        Path wav = Files.createTempFile("codecmedia-wave-", ".wav");
+        Path peaks = Files.createTempFile("codecmedia-wave-", ".peaks");
+        try {
+            Files.write(wav, pcm16Wav(FRAMES));
+
+            WaveformResult result = WaveformPeakGenerator.generate(wav, peaks, List.of(100, 1000), 1);
+
+            assertEquals(44100, result.sampleRate());
+            assertEquals(2, result.channels());
+            assertEquals(FRAMES, result.totalFrames());
+            assertEquals(101, result.levels().get(0).bucketCount());
+            assertEquals(11, result.levels().get(1).bucketCount());
+
+            ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(peaks)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals('C', file.get(0));
+            assertEquals('K', file.get(3));
+            assertEquals(2, file.getShort(20));
+            long level1Offset = file.getLong(24 + 20 + 12);
+
+            int[] expected = expectedLeftPeak(1000, 2000);
+            int entry = (int) level1Offset + 12;
+            assertEquals(expected[0], file.getShort(entry), 1);
+            assertEquals(expected[1], file.getShort(entry + 2), 1);
+            assertEquals(-16384, file.getShort(entry + 6), 1);
+            assertEquals(-16384, file.getShort(entry + 8), 1);
+            assertEquals(16384, file.getShort(entry + 10), 1);
+
+            int[] tail = expectedLeftPeak(10_000, FRAMES);
+            int lastEntry = (int) level1Offset + 10 * 12;
+            assertEquals(tail[0], file.getShort(lastEntry), 1);
+            assertEquals(tail[1], file.getShort(lastEntry + 2), 1);
+            assertEquals(file.capacity(), lastEntry + 12);
+        } finally {
+            Files.deleteIfExists(wav);
+            Files.deleteIfExists(peaks);
+        }
+    }
+
+    @Test
+    void parallelScanShouldMatchSequentialScan() throws Exception {
+        Path wav = Files.createTempFile("codecmedia-wave-", ".wav");
+        Path serial = Files.createTempFile("codecmedia-wave-serial-", ".peaks");
+        Path parallel = Files.createTempFile("codecmedia-wave-parallel-", ".peaks");
+        try {
+            Files.write(wav, pcm16Wav(FRAMES));
+
+            WaveformPeakGenerator.generate(wav, serial, List.of(50, 200, 1000), 1);
+            WaveformPeakGenerator.generate(wav, parallel, List.of(50, 200, 1000), 4, 1000);
+
+            assertArrayEquals(Files.readAllBytes(serial), Files.readAllBytes(parallel));
+        } finally {
+            Files.deleteIfExists(wav);
+            Files.deleteIfExists(serial);
+            Files.deleteIfExists(parallel);
+        }
+    }
+
+    @Test
+    void bigEndianAiffShouldProduceSamePeaksAsWav() throws Exception {
+        Path wav = Files.createTempFile("codecmedia-wave-", ".wav");
+        Path aiff = Files.createTempFile("codecmedia-wave-", ".aiff");
+        Path wavPeaks = Files.createTempFile("codecmedia-wave-wav-", ".peaks");
+        Path aiffPeaks = Files.createTempFile("codecmedia-wave-aiff-", ".peaks");
+        try {
+            Files.write(wav, pcm16Wav(FRAMES));
+            Files.write(aiff, pcm16Aiff(FRAMES));
+
+            WaveformPeakGenerator.generate(wav, wavPeaks, List.of(256), 1);
+            WaveformPeakGenerator.generate(aiff, aiffPeaks, List.of(256), 1);
+
+            assertArrayEquals(Files.readAllBytes(wavPeaks), Files.readAllBytes(aiffPeaks));
+        } finally {
+            Files.deleteIfExists(wav);
+            Files.deleteIfExists(aiff);
+            Files.deleteIfExists(wavPeaks);
+            Files.deleteIfExists(aiffPeaks);
+        }
+    }
+
+    @Test
+    void shouldRejectBucketSizesThatAreNotNested() throws Exception {
+        Path wav = Files.createTempFile("codecmedia-wave-", ".wav");
+        Path peaks = wav.resolveSibling(wav.getFileName() + ".peaks");
+        try {
+            Files.write(wav, pcm16Wav(1000));
+
+            CodecMediaException ex = assertThrows(
+                    CodecMediaException.class,
+                    () -> WaveformPeakGenerator.generate(wav, peaks, List.of(100, 250), 1)
+            );
+            assertEquals(
+                    "Waveform bucket sizes must increase and each must be a multiple of the previous: [100, 250]",
+                    ex.getMessage()
+            );
+        } finally {
+            Files.deleteIfExists(wav);
+            Files.deleteIfExists(peaks);
+        }
+    }
+
+    private static short left(int frame) {
+        return (short) (((frame * 37) % 2001 - 1000) * 30);
+    }
+
+    private static int[] expectedLeftPeak(int from, int to) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, left(i));
+            max = Math.max(max, left(i));
+        }
+        return new int[] {Math.round(min / 32768f * 32767f), Math.round(max / 32768f * 32767f)};
+    }
+
+    private static byte[] pcm16Wav(int frames) {
+        int dataSize = frames * 4;
+        ByteBuffer out = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(new byte[] {'R', 'I', 'F', 'F'}).putInt(36 + dataSize).put(new byte[] {'W', 'A', 'V', 'E'});
+        out.put(new byte[] {'f', 'm', 't', ' '}).putInt(16)
+                .putShort((short) 1).putShort((short) 2).putInt(44100).putInt(44100 * 4)
+                .putShort((short) 4).putShort((short) 16);
+        out.put(new byte[] {'d', 'a', 't', 'a'}).putInt(dataSize);
+        for (int i = 0; i < frames; i++) {
+            out.putShort(left(i)).putShort((short) -16384);
+        }
+        return out.array();
+    }
+
+    private static byte[] pcm16Aiff(int frames) {
+        int dataSize = frames * 4;
+        int formSize = 4 + 8 + 18 + 8 + 8 + dataSize;
+        ByteBuffer out = ByteBuffer.allocate(8 + formSize).order(ByteOrder.BIG_ENDIAN);
+        out.put(new byte[] {'F', 'O', 'R', 'M'}).putInt(formSize).put(new byte[] {'A', 'I', 'F', 'F'});
+        out.put(new byte[] {'C', 'O', 'M', 'M'}).putInt(18)
+                .putShort((short) 2).putInt(frames).putShort((short) 16);
+        // 44100 Hz as an 80-bit extended float
+        out.putShort((short) 0x400E).putLong(0xAC44000000000000L);
+        out.put(new byte[] {'S', 'S', 'N', 'D'}).putInt(8 + dataSize).putInt(0).putInt(0);
+        for (int i = 0; i < frames; i++) {
+            out.putShort(left(i)).putShort((short) -16384);
+        }
+        return out.array();
+    }
+}
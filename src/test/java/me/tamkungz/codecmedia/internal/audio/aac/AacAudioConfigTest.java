@@ -0,0 +1,62 @@
+package me.tamkungz.codecmedia.internal.audio.aac;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+class AacAudioConfigTest {
+
+    @Test
+    void shouldReadAudioSpecificConfigFromEsdsAndWriteAdtsHeader() throws Exception {
+        // AAC-LC, 44.1 kHz (index 4), stereo: 00010 0100 0010 000
+        byte[] asc = {0x12, 0x10};
+        byte[] decoderSpecific = concat(new byte[] {0x05, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x02}, asc);
+        byte[] decoderConfig = concat(new byte[] {0x04, (byte) (13 + decoderSpecific.length), 0x40, 0x15},
+                new byte[11], decoderSpecific);
+        byte[] esDescriptor = concat(new byte[] {0x03, (byte) (3 + decoderConfig.length + 3), 0x00, 0x01, 0x00},
+                decoderConfig, new byte[] {0x06, 0x01, 0x02});
+        byte[] esds = concat(new byte[4], esDescriptor);
+
+        AacAudioConfig config = AacAudioConfig.fromEsds(esds);
+        assertEquals(new AacAudioConfig(2, 4, 2), config);
+        assertEquals(44_100, config.sampleRate());
+
+        ByteBuffer header = ByteBuffer.allocate(7);
+        config.writeAdtsHeader(header, 371);
+        // frame length 378 = 0b0_0001_0111_1010
+        assertArrayEquals(new byte[] {(byte) 0xFF, (byte) 0xF1, 0x50, (byte) 0x80, 0x2F, 0x5F, (byte) 0xFC}, header.array());
+    }
+
+    @Test
+    void shouldUseCoreProfileForExplicitHeAac() throws Exception {
+        // SBR (5), 24 kHz (6), stereo, extension 48 kHz (3), core AAC-LC (2)
+        AacAudioConfig config = AacAudioConfig.parse(new byte[] {0x2B, 0x11, (byte) 0x88, 0x00});
+        assertEquals(new AacAudioConfig(2, 6, 2), config);
+    }
+
+    @Test
+    void shouldRejectConfigsAdtsCannotCarry() {
+        // object type 42 (USAC) through the escape value
+        assertThrows(CodecMediaException.class, () -> AacAudioConfig.parse(new byte[] {(byte) 0xF9, 0x40, 0x10}));
+        // explicit frequency index 15
+        assertThrows(CodecMediaException.class, () -> AacAudioConfig.parse(new byte[] {0x17, (byte) 0x80, 0, 0, 0}));
+        assertThrows(CodecMediaException.class, () -> new AacAudioConfig(2, 4, 2).writeAdtsHeader(ByteBuffer.allocate(7), 8190));
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int size = 0;
+        for (byte[] part : parts) {
+            size += part.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (byte[] part : parts) {
+            out.put(part);
+        }
+        return out.array();
+    }
+}
@@ -0,0 +1,159 @@
+package me.tamkungz.codecmedia.internal.audio.cover;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+class CoverArtLocatorTest {
+
+    private static final byte[] FAKE_PNG = {
+            (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D, 'I', 'H', 'D', 'R'
+    };
+
+    @Test
+    void shouldPreferFrontCoverInId3v2Tag() throws Exception {
+        byte[] back = apicFrame(0, "image/jpeg", 4, new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        byte[] front = apicUtf16Frame("image/png", 3, "Cover", FAKE_PNG);
+        byte[] tag = id3v23Tag(concat(back, front));
+        byte[] file = concat(tag, new byte[] {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x44});
+
+        EmbeddedPicture picture = locate(file);
+
+        assertNotNull(picture);
+        assertEquals(3, picture.pictureType());
+        assertEquals("image/png", picture.mimeType());
+        assertEquals(FAKE_PNG.length, picture.length());
+        assertEquals(tag.length - FAKE_PNG.length, picture.offset());
+    }
+
+    @Test
+    void shouldLocateFlacPictureBlock() throws Exception {
+        ByteBuffer picture = ByteBuffer.allocate(4 + 4 + 9 + 4 + 0 + 16 + 4 + FAKE_PNG.length);
+        picture.putInt(3).putInt(9).put("image/png".getBytes(StandardCharsets.US_ASCII)).putInt(0)
+                .putInt(1).putInt(1).putInt(24).putInt(0).putInt(FAKE_PNG.length).put(FAKE_PNG);
+        byte[] streamInfo = new byte[34];
+        byte[] file = concat(
+                "fLaC".getBytes(StandardCharsets.US_ASCII),
+                new byte[] {0x00, 0x00, 0x00, 0x22}, streamInfo,
+                flacBlockHeader(true, 6, picture.capacity()), picture.array()
+        );
+
+        EmbeddedPicture found = locate(file);
+
+        assertNotNull(found);
+        assertEquals(file.length - FAKE_PNG.length, found.offset());
+        assertEquals(FAKE_PNG.length, found.length());
+        assertEquals("image/png", found.mimeType());
+    }
+
+    @Test
+    void shouldLocateMp4CovrAtom() throws Exception {
+        byte[] data = box("data", concat(new byte[] {0, 0, 0, 14, 0, 0, 0, 0}, FAKE_PNG));
+        byte[] hdlr = box("hdlr", new byte[25]);
+        byte[] meta = box("meta", concat(new byte[4], hdlr, box("ilst", box("covr", data))));
+        byte[] file = concat(
+                box("ftyp", "M4A \0\0\0\0".getBytes(StandardCharsets.US_ASCII)),
+                box("moov", box("udta", meta)),
+                box("mdat", new byte[32])
+        );
+
+        EmbeddedPicture found = locate(file);
+
+        assertNotNull(found);
+        assertEquals("image/png", found.mimeType());
+        assertEquals(FAKE_PNG.length, found.length());
+        assertEquals(file.length - 40 - FAKE_PNG.length, found.offset());
+    }
+
+    @Test
+    void shouldReturnNullWhenNoPictureIsEmbedded() throws Exception {
+        byte[] file = id3v23Tag(textFrame("TIT2", "Title"));
+        assertNull(locate(concat(file, new byte[16])));
+    }
+
+    private static EmbeddedPicture locate(byte[] bytes) throws Exception {
+        Path temp = Files.createTempFile("codecmedia-cover-", ".bin");
+        try {
+            Files.write(temp, bytes);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ)) {
+                EmbeddedPicture picture = CoverArtLocator.locate(channel);
+                if (picture != null && picture.mimeType().equals("image/png")) {
+                    assertEquals("png", CoverArtLocator.imageExtension(channel, picture));
+                }
+                return picture;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] id3v23Tag(byte[] frames) {
+        int size = frames.length;
+        byte[] header = {
+                'I', 'D', '3', 3, 0, 0,
+                (byte) ((size >>> 21) & 0x7F), (byte) ((size >>> 14) & 0x7F), (byte) ((size >>> 7) & 0x7F), (byte) (size & 0x7F)
+        };
+        return concat(header, frames);
+    }
+
+    private static byte[] apicFrame(int encoding, String mime, int pictureType, byte[] image) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(encoding);
+        body.writeBytes(mime.getBytes(StandardCharsets.ISO_8859_1));
+        body.write(0);
+        body.write(pictureType);
+        body.write(0);
+        body.writeBytes(image);
+        return id3v23Frame("APIC", body.toByteArray());
+    }
+
+    private static byte[] apicUtf16Frame(String mime, int pictureType, String description, byte[] image) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(1);
+        body.writeBytes(mime.getBytes(StandardCharsets.ISO_8859_1));
+        body.write(0);
+        body.write(pictureType);
+        body.writeBytes(description.getBytes(StandardCharsets.UTF_16));
+        body.write(0);
+        body.write(0);
+        body.writeBytes(image);
+        return id3v23Frame("APIC", body.toByteArray());
+    }
+
+    private static byte[] textFrame(String id, String text) {
+        return id3v23Frame(id, concat(new byte[] {0}, text.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private static byte[] id3v23Frame(String id, byte[] body) {
+        ByteBuffer frame = ByteBuffer.allocate(10 + body.length);
+        frame.put(id.getBytes(StandardCharsets.ISO_8859_1)).putInt(body.length).putShort((short) 0).put(body);
+        return frame.array();
+    }
+
+    private static byte[] flacBlockHeader(boolean last, int type, int length) {
+        return new byte[] {(byte) ((last ? 0x80 : 0) | type), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length};
+    }
+
+    private static byte[] box(String type, byte[] payload) {
+        ByteBuffer box = ByteBuffer.allocate(8 + payload.length);
+        box.putInt(8 + payload.length).put(type.getBytes(StandardCharsets.ISO_8859_1)).put(payload);
+        return box.array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,66 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.options.ConcatOptions;
+
+class FlacConcatenatorTest {
+
+    @Test
+    void shouldCountShortTailBlockOfEarlierInputInMinimumBlockSize() throws Exception {
+        Path first = Files.createTempFile("codecmedia-flac-concat-", ".flac");
+        Path second = Files.createTempFile("codecmedia-flac-concat-", ".flac");
+        Path output = Files.createTempFile("codecmedia-flac-concat-", ".flac");
+        try {
+            Files.write(first, FlacFixtures.encodedStream(44_100, 16, 1024, FlacFixtures.testSignal(2, 16, 1024 * 2 + 100, 5L)));
+            Files.write(second, FlacFixtures.encodedStream(44_100, 16, 1024, FlacFixtures.testSignal(2, 16, 1024 * 2 + 40, 6L)));
+
+            FlacConcatenator.concat(List.of(first, second), output, ConcatOptions.defaults());
+
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ)) {
+                FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+                // The second input's 40-sample tail is the stream's last block and does not count
+                assertEquals(100, info.minBlockSize());
+                assertEquals(1024, info.maxBlockSize());
+                assertEquals(1024 * 4 + 140, info.totalSamples());
+                assertTrue(FlacFrameVerifier.verify(channel, 1).valid());
+            }
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void shouldRejectTailBlockBelowSixteenSamplesInsideTheJoin() throws Exception {
+        Path first = Files.createTempFile("codecmedia-flac-concat-", ".flac");
+        Path second = Files.createTempFile("codecmedia-flac-concat-", ".flac");
+        Path output = Files.createTempFile("codecmedia-flac-concat-", ".flac");
+        try {
+            Files.write(first, FlacFixtures.encodedStream(44_100, 16, 1024, FlacFixtures.testSignal(1, 16, 1024 + 10, 7L)));
+            Files.write(second, FlacFixtures.encodedStream(44_100, 16, 1024, FlacFixtures.testSignal(1, 16, 1024, 8L)));
+
+            CodecMediaException ex = assertThrows(
+                    CodecMediaException.class,
+                    () -> FlacConcatenator.concat(List.of(first, second), output, ConcatOptions.defaults())
+            );
+            assertEquals("FLAC input ends on a 10-sample block, below the 16-sample minimum inside a joined stream: " + first,
+                    ex.getMessage());
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+            Files.deleteIfExists(output);
+        }
+    }
+}
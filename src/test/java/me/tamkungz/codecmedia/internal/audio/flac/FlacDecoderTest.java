@@ -0,0 +1,232 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMedia;
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSource;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmSources;
+import me.tamkungz.codecmedia.options.ConversionOptions;
+
+class FlacDecoderTest {
+
+    @Test
+    void shouldDecodeEverySubframeKindAndStereoModeBitExactly() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 4096 * 12 + 100, 1L);
+        byte[] flac = FlacFixtures.encodedStream(44_100, 16, 4096, signal);
+
+        int[][] decoded = decodeAll(flac);
+
+        assertArrayEquals(signal[0], decoded[0]);
+        assertArrayEquals(signal[1], decoded[1]);
+    }
+
+    @Test
+    void shouldDecodeIndependentlyEncodedLpcStreamToReferencePcm() throws Exception {
+        int[][] reference = FlacFixtures.referencePcm();
+
+        int[][] decoded = decodeAll(Files.readAllBytes(FlacFixtures.REFERENCE_FLAC));
+
+        assertArrayEquals(reference[0], decoded[0]);
+        assertArrayEquals(reference[1], decoded[1]);
+        try (FileChannel channel = FileChannel.open(FlacFixtures.REFERENCE_FLAC, StandardOpenOption.READ)) {
+            FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+            FlacDecoder decoder = FlacDecoder.open(channel, info);
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            byte[] scratch = new byte[1024];
+            while (decoder.decodeFrame() > 0) {
+                decoder.digest(md5, scratch);
+            }
+            assertEquals(FlacFixtures.REFERENCE_MD5, HexFormat.of().formatHex(info.md5()));
+            assertEquals(FlacFixtures.REFERENCE_MD5, HexFormat.of().formatHex(md5.digest()));
+        }
+    }
+
+    @Test
+    void shouldDecode24BitMultichannel() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(3, 24, 1152 * 7, 2L);
+        byte[] flac = FlacFixtures.encodedStream(48_000, 24, 1152, signal);
+
+        int[][] decoded = decodeAll(flac);
+
+        for (int c = 0; c < 3; c++) {
+            assertArrayEquals(signal[c], decoded[c]);
+        }
+    }
+
+    @Test
+    void digestShouldMatchStreamInfoSignature() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 4096 * 3, 3L);
+        byte[] flac = FlacFixtures.encodedStream(44_100, 16, 4096, signal);
+        Path file = write(flac);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+            FlacDecoder decoder = FlacDecoder.open(channel, info);
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            byte[] scratch = new byte[1024];
+            while (decoder.decodeFrame() > 0) {
+                decoder.digest(md5, scratch);
+            }
+            assertTrue(FlacDecoder.hasMd5(info));
+            assertArrayEquals(info.md5(), md5.digest());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void convertShouldWriteBitExactWavSequentiallyAndInParallel() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 4096 * 20 + 7, 5L);
+        Path flac = write(FlacFixtures.encodedStream(44_100, 16, 4096, signal));
+        Path sequential = Files.createTempFile("codecmedia-flac-seq-", ".wav");
+        Path parallel = Files.createTempFile("codecmedia-flac-par-", ".wav");
+        try {
+            var engine = CodecMedia.createDefault();
+            engine.convert(flac, sequential, new ConversionOptions("wav", "verify", true));
+            engine.convert(flac, parallel, new ConversionOptions("wav", "threads=3", true));
+
+            byte[] wav = Files.readAllBytes(sequential);
+            assertArrayEquals(wav, Files.readAllBytes(parallel));
+            assertEquals(44 + signal[0].length * 4, wav.length);
+            ByteBuffer data = ByteBuffer.wrap(wav, 44, wav.length - 44).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < signal[0].length; i++) {
+                assertEquals(signal[0][i], data.getShort());
+                assertEquals(signal[1][i], data.getShort());
+            }
+        } finally {
+            Files.deleteIfExists(flac);
+            Files.deleteIfExists(sequential);
+            Files.deleteIfExists(parallel);
+        }
+    }
+
+    @Test
+    void convertShouldWriteExtensibleWavForWideMultichannelAudio() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(3, 24, 1152 * 5 + 3, 8L);
+        Path flac = write(FlacFixtures.encodedStream(48_000, 24, 1152, signal));
+        Path out = Files.createTempFile("codecmedia-flac-ext-", ".wav");
+        try {
+            CodecMedia.createDefault().convert(flac, out, new ConversionOptions("wav", "verify", true));
+
+            byte[] wav = Files.readAllBytes(out);
+            ByteBuffer header = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(40, header.getInt(16));
+            assertEquals(0xFFFE, header.getShort(20) & 0xFFFF);
+            assertEquals(9, header.getShort(32));
+            assertEquals(24, header.getShort(34));
+            assertEquals(22, header.getShort(36));
+            assertEquals(24, header.getShort(38));
+            assertEquals(0x7, header.getInt(40));
+            assertEquals(1, header.getShort(44));
+            assertEquals(68 + signal[0].length * 9 + 1, wav.length);
+            try (FileChannel channel = FileChannel.open(out, StandardOpenOption.READ)) {
+                var layout = me.tamkungz.codecmedia.internal.audio.wav.WavParser.readPcmLayout(channel);
+                assertEquals(3, layout.channels());
+                assertEquals(24, layout.bitsPerSample());
+            }
+            assertEquals(3, me.tamkungz.codecmedia.internal.audio.wav.WavParser.parse(wav).channels());
+            for (int i = 0; i < signal[0].length; i++) {
+                for (int c = 0; c < 3; c++) {
+                    int p = 68 + (i * 3 + c) * 3;
+                    int sample = (wav[p] & 0xFF) | ((wav[p + 1] & 0xFF) << 8) | (wav[p + 2] << 16);
+                    assertEquals(signal[c][i], sample);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(flac);
+            Files.deleteIfExists(out);
+        }
+    }
+
+    @Test
+    void convertShouldFailOnMd5MismatchWhenVerifying() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(1, 16, 4096, 6L);
+        byte[] bytes = FlacFixtures.encodedStream(44_100, 16, 4096, signal);
+        bytes[4 + 4 + 18] ^= 0x01; // first STREAMINFO MD5 byte
+        Path flac = write(bytes);
+        Path wav = Files.createTempFile("codecmedia-flac-md5-", ".wav");
+        try {
+            var engine = CodecMedia.createDefault();
+            CodecMediaException ex = assertThrows(CodecMediaException.class,
+                    () -> engine.convert(flac, wav, new ConversionOptions("wav", "verify", true)));
+            assertTrue(ex.getMessage().contains("MD5 mismatch"), ex.getMessage());
+        } finally {
+            Files.deleteIfExists(flac);
+            Files.deleteIfExists(wav);
+        }
+    }
+
+    @Test
+    void pcmSourcesShouldDecodeFlac() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 5000, 7L);
+        Path flac = write(FlacFixtures.encodedStream(22_050, 16, 1024, signal));
+        try (PcmSource source = PcmSources.open(flac)) {
+            assertEquals(22_050, source.sampleRate());
+            assertEquals(5000L, source.totalFrames());
+            float[] block = new float[300 * 2];
+            int position = 0;
+            int frames;
+            while ((frames = source.read(block, 300)) > 0) {
+                for (int i = 0; i < frames; i++) {
+                    assertEquals(signal[0][position + i] / 32768f, block[i * 2]);
+                    assertEquals(signal[1][position + i] / 32768f, block[i * 2 + 1]);
+                }
+                position += frames;
+            }
+            assertEquals(5000, position);
+        } finally {
+            Files.deleteIfExists(flac);
+        }
+    }
+
+    @Test
+    void shouldRejectCorruptedFrame() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(1, 16, 4096 * 2, 4L);
+        byte[] flac = FlacFixtures.encodedStream(44_100, 16, 4096, signal);
+        flac[flac.length - 100] ^= 0x40;
+
+        CodecMediaException ex = assertThrows(CodecMediaException.class, () -> decodeAll(flac));
+        assertTrue(ex.getMessage().startsWith("FLAC frame CRC-16 mismatch"), ex.getMessage());
+    }
+
+    private static int[][] decodeAll(byte[] flac) throws Exception {
+        Path file = write(flac);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+            FlacDecoder decoder = FlacDecoder.open(channel, info);
+            int[][] out = new int[info.channels()][(int) info.totalSamples()];
+            int blockSize;
+            long expectedFirst = 0;
+            while ((blockSize = decoder.decodeFrame()) > 0) {
+                assertEquals(expectedFirst, decoder.firstSample());
+                for (int c = 0; c < info.channels(); c++) {
+                    System.arraycopy(decoder.channel(c), 0, out[c], (int) expectedFirst, blockSize);
+                }
+                expectedFirst += blockSize;
+            }
+            assertEquals(info.totalSamples(), expectedFirst);
+            return out;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Path write(byte[] bytes) throws Exception {
+        Path file = Files.createTempFile("codecmedia-flac-decode-", ".flac");
+        Files.write(file, bytes);
+        return file;
+    }
+}
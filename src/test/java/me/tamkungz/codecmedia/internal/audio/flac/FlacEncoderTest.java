@@ -0,0 +1,178 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMedia;
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.options.ConversionOptions;
+
+class FlacEncoderTest {
+
+    @Test
+    void shouldRoundTripStereoLosslesslyAndCompress() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 4096 * 10 + 123, 11L);
+        Path flac = encode(signal, 44_100, 16, 4096, 8, 1);
+        try {
+            assertRoundTrip(flac, signal, 16);
+            assertTrue(Files.size(flac) < signal[0].length * 4L * 2 / 3, "LPC should beat raw PCM on a noisy sine");
+        } finally {
+            Files.deleteIfExists(flac);
+        }
+    }
+
+    @Test
+    void streamInfoMd5ShouldMatchIndependentEncoderForSamePcm() throws Exception {
+        int[][] reference = FlacFixtures.referencePcm();
+        Path flac = encode(reference, 44_100, 16, 4096, 8, 1);
+        try {
+            try (FileChannel channel = FileChannel.open(flac, StandardOpenOption.READ)) {
+                FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+                assertEquals(FlacFixtures.REFERENCE_MD5, HexFormat.of().formatHex(info.md5()));
+            }
+            assertRoundTrip(flac, reference, 16);
+        } finally {
+            Files.deleteIfExists(flac);
+        }
+    }
+
+    @Test
+    void parallelOutputShouldMatchSequentialByteForByte() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 4096 * 25 + 1, 12L);
+        Path sequential = encode(signal, 48_000, 16, 4096, 8, 1);
+        Path parallel = encode(signal, 48_000, 16, 4096, 8, 3);
+        try {
+            assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+        } finally {
+            Files.deleteIfExists(sequential);
+            Files.deleteIfExists(parallel);
+        }
+    }
+
+    @Test
+    void shouldRoundTripOddFormatsAndBlockSizes() throws Exception {
+        Random random = new Random(13L);
+        int[][] noise = new int[5][3000];
+        for (int c = 0; c < 5; c++) {
+            for (int i = 0; i < 3000; i++) {
+                noise[c][i] = random.nextInt(256) - 128;
+            }
+        }
+        noise[4] = new int[3000]; // silent channel -> constant subframes
+        int[][] wide = FlacFixtures.testSignal(1, 24, 7777, 14L);
+        int[][] stereo24 = FlacFixtures.testSignal(2, 24, 5000, 15L);
+
+        Path a = encode(noise, 8_000, 8, 1000, 0, 2);
+        Path b = encode(wide, 96_000, 24, 1152, 12, 1);
+        Path c = encode(stereo24, 37_800, 24, 777, 32, 2);
+        try {
+            assertRoundTrip(a, noise, 8);
+            assertRoundTrip(b, wide, 24);
+            assertRoundTrip(c, stereo24, 24);
+        } finally {
+            Files.deleteIfExists(a);
+            Files.deleteIfExists(b);
+            Files.deleteIfExists(c);
+        }
+    }
+
+    @Test
+    void shouldRejectUnsupportedBitDepth() {
+        CodecMediaException ex = assertThrows(CodecMediaException.class,
+                () -> new FlacEncoder(44_100, 2, 32, 4096, 8, 1));
+        assertTrue(ex.getMessage().contains("4-24 bits"), ex.getMessage());
+    }
+
+    @Test
+    void convertShouldRoundTripWavThroughFlac() throws Exception {
+        int[][] signal = FlacFixtures.testSignal(2, 16, 30_000, 16L);
+        ByteBuffer wavBytes = ByteBuffer.allocate(44 + signal[0].length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        wavBytes.put(new byte[] {'R', 'I', 'F', 'F'}).putInt(36 + signal[0].length * 4);
+        wavBytes.put(new byte[] {'W', 'A', 'V', 'E', 'f', 'm', 't', ' '}).putInt(16);
+        wavBytes.putShort((short) 1).putShort((short) 2).putInt(44_100).putInt(44_100 * 4);
+        wavBytes.putShort((short) 4).putShort((short) 16);
+        wavBytes.put(new byte[] {'d', 'a', 't', 'a'}).putInt(signal[0].length * 4);
+        for (int i = 0; i < signal[0].length; i++) {
+            wavBytes.putShort((short) signal[0][i]).putShort((short) signal[1][i]);
+        }
+
+        Path wav = Files.createTempFile("codecmedia-flac-src-", ".wav");
+        Path flac = Files.createTempFile("codecmedia-flac-enc-", ".flac");
+        Path back = Files.createTempFile("codecmedia-flac-back-", ".wav");
+        try {
+            Files.write(wav, wavBytes.array());
+            var engine = CodecMedia.createDefault();
+            engine.convert(wav, flac, new ConversionOptions("flac", "lpc=12,threads=2", true));
+            engine.convert(flac, back, new ConversionOptions("wav", "verify", true));
+
+            assertArrayEquals(wavBytes.array(), Files.readAllBytes(back));
+            assertEquals("flac", engine.probe(flac).extension());
+        } finally {
+            Files.deleteIfExists(wav);
+            Files.deleteIfExists(flac);
+            Files.deleteIfExists(back);
+        }
+    }
+
+    private static void assertRoundTrip(Path flac, int[][] signal, int bitsPerSample) throws Exception {
+        try (FileChannel channel = FileChannel.open(flac, StandardOpenOption.READ)) {
+            FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+            assertEquals(signal.length, info.channels());
+            assertEquals(bitsPerSample, info.bitsPerSample());
+            assertEquals(signal[0].length, info.totalSamples());
+
+            FlacDecoder decoder = FlacDecoder.open(channel, info);
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            byte[] scratch = new byte[4096];
+            int position = 0;
+            int blockSize;
+            while ((blockSize = decoder.decodeFrame()) > 0) {
+                assertEquals(position, decoder.firstSample());
+                for (int c = 0; c < signal.length; c++) {
+                    for (int i = 0; i < blockSize; i++) {
+                        assertEquals(signal[c][position + i], decoder.channel(c)[i], "channel " + c + " sample " + (position + i));
+                    }
+                }
+                decoder.digest(md5, scratch);
+                position += blockSize;
+            }
+            assertEquals(signal[0].length, position);
+            assertArrayEquals(info.md5(), md5.digest());
+        }
+        try (FileChannel channel = FileChannel.open(flac, StandardOpenOption.READ)) {
+            FlacVerification verification = FlacFrameVerifier.verify(channel, 1);
+            assertTrue(verification.valid(), verification.errors().toString());
+        }
+    }
+
+    private static Path encode(int[][] signal, int sampleRate, int bitsPerSample, int blockSize, int lpcOrder, int threads)
+            throws Exception {
+        Path file = Files.createTempFile("codecmedia-flac-encode-", ".flac");
+        int[] position = {0};
+        FlacEncoder encoder = new FlacEncoder(sampleRate, signal.length, bitsPerSample, blockSize, lpcOrder, threads);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            encoder.encode((channels, offset, count) -> {
+                int frames = Math.min(count, Math.min(700, signal[0].length - position[0]));
+                for (int c = 0; c < signal.length; c++) {
+                    System.arraycopy(signal[c], position[0], channels[c], offset, frames);
+                }
+                position[0] += frames;
+                return frames;
+            }, out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,430 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.internal.audio.wav.WavParser;
+import me.tamkungz.codecmedia.internal.io.ChannelReads;
+
+/**
+ * Builds small, valid FLAC streams with correct CRC-8/CRC-16: constant-subframe streams for
+ * container-level tests, and {@link #encodedStream} which cycles through verbatim, fixed, LPC,
+ * wasted-bits, escaped-Rice and every stereo decorrelation mode for decoder tests.
+ *
+ * <p>{@link #REFERENCE_FLAC} comes from an independent encoder instead, so decoder and encoder
+ * tests are not only checked against each other.
+ */
+final class FlacFixtures {
+
+    private static final int[] LPC_COEFFICIENTS = {1800, -700, 120};
+    private static final int LPC_PRECISION = 12;
+    private static final int LPC_SHIFT = 10;
+
+    /**
+     * Frames 44100-66149 of {@code c-major-scale_test_ableton-live.wav} (16-bit stereo, 44.1 kHz)
+     * encoded by FFmpeg 6.1.1 with {@code -compression_level 8 -lpc_type levinson}: five 4608-sample
+     * frames of LPC subframes (orders 7-12) in side-channel stereo modes, the last one short.
+     */
+    static final Path REFERENCE_FLAC = Path.of("src/test/resources", "c-major-scale_test_ffmpeg.flac");
+    /** MD5 of {@link #referencePcm()} as interleaved little-endian samples, as stored by FFmpeg. */
+    static final String REFERENCE_MD5 = "4051045a992a1263e4dbb9d2b5c85d15";
+    private static final int REFERENCE_FIRST_FRAME = 44_100;
+    private static final int REFERENCE_FRAMES = 22_050;
+
+    private FlacFixtures() {
+    }
+
+    /** The PCM that {@link #REFERENCE_FLAC} encodes, read from the WAV fixture it was cut from. */
+    static int[][] referencePcm() throws Exception {
+        Path wav = Path.of("src/test/resources", "c-major-scale_test_ableton-live.wav");
+        try (FileChannel channel = FileChannel.open(wav, StandardOpenOption.READ)) {
+            PcmLayout layout = WavParser.readPcmLayout(channel);
+            byte[] payload = ChannelReads.readBytes(channel, layout.dataOffset() + (long) REFERENCE_FIRST_FRAME * 4,
+                    REFERENCE_FRAMES * 4);
+            ByteBuffer bytes = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+            int[][] samples = new int[2][REFERENCE_FRAMES];
+            for (int i = 0; i < REFERENCE_FRAMES; i++) {
+                samples[0][i] = bytes.getShort();
+                samples[1][i] = bytes.getShort();
+            }
+            return samples;
+        }
+    }
+
+    /**
+     * @param frameValues constant sample value per frame (applied to every channel)
+     * @param seekPoints number of SEEKTABLE points to emit (every frame up to that count), 0 for none
+     */
+    static byte[] constantStream(int sampleRate, int channels, int blockSize, int[] frameValues, int seekPoints) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        int[] frameOffsets = new int[frameValues.length];
+        int minFrame = Integer.MAX_VALUE;
+        int maxFrame = 0;
+        for (int i = 0; i < frameValues.length; i++) {
+            frameOffsets[i] = frames.size();
+            byte[] frame = constantFrame(sampleRate, channels, blockSize, i, frameValues[i]);
+            minFrame = Math.min(minFrame, frame.length);
+            maxFrame = Math.max(maxFrame, frame.length);
+            frames.writeBytes(frame);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[] {'f', 'L', 'a', 'C'});
+        writeStreamInfo(out, seekPoints == 0, blockSize, minFrame, maxFrame, sampleRate, channels, 16,
+                (long) blockSize * frameValues.length, new byte[16]);
+        if (seekPoints > 0) {
+            out.write(0x83);
+            writeU24(out, seekPoints * 18);
+            for (int i = 0; i < seekPoints; i++) {
+                writeU64(out, (long) i * blockSize);
+                writeU64(out, frameOffsets[i]);
+                writeU16(out, blockSize);
+            }
+        }
+        out.writeBytes(frames.toByteArray());
+        return out.toByteArray();
+    }
+
+    static byte[] constantFrame(int sampleRate, int channels, int blockSize, long frameNumber, int value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeFrameHeader(out, channels - 1, 16, blockSize, frameNumber);
+        for (int c = 0; c < channels; c++) {
+            out.write(0x00); // constant subframe, no wasted bits
+            writeU16(out, value & 0xFFFF);
+        }
+        byte[] body = out.toByteArray();
+        writeU16(out, FlacCrc.crc16(0, body, 0, body.length));
+        return out.toByteArray();
+    }
+
+    /**
+     * Test signal: a sine per channel with a little deterministic noise; the second channel is
+     * correlated with the first so every stereo mode is exercised meaningfully.
+     */
+    static int[][] testSignal(int channels, int bitsPerSample, int frames, long seed) {
+        Random random = new Random(seed);
+        double amplitude = (1L << (bitsPerSample - 1)) * 0.6;
+        int[][] samples = new int[channels][frames];
+        for (int i = 0; i < frames; i++) {
+            double base = Math.sin(2 * Math.PI * i / 97.0) * amplitude;
+            for (int c = 0; c < channels; c++) {
+                double value = base * (1.0 - 0.2 * c) + random.nextGaussian() * amplitude * 0.01;
+                // even values let the wasted-bits subframe kind apply to independent channels
+                samples[c][i] = (int) Math.round(value / 2) * 2;
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Encodes {@code samples} with a small reference encoder. Frame {@code n} uses subframe kind
+     * {@code n % 6} and, for stereo, channel assignment {@code n % 4}.
+     */
+    static byte[] encodedStream(int sampleRate, int bitsPerSample, int blockSize, int[][] samples) throws Exception {
+        int channels = samples.length;
+        int total = samples[0].length;
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        int minFrame = Integer.MAX_VALUE;
+        int maxFrame = 0;
+        int frameNumber = 0;
+        for (int start = 0; start < total; start += blockSize, frameNumber++) {
+            int length = Math.min(blockSize, total - start);
+            byte[] frame = encodeFrame(samples, start, length, bitsPerSample, frameNumber);
+            minFrame = Math.min(minFrame, frame.length);
+            maxFrame = Math.max(maxFrame, frame.length);
+            frames.writeBytes(frame);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[] {'f', 'L', 'a', 'C'});
+        writeStreamInfo(out, true, blockSize, minFrame, maxFrame, sampleRate, channels, bitsPerSample, total,
+                md5(samples, bitsPerSample));
+        out.writeBytes(frames.toByteArray());
+        return out.toByteArray();
+    }
+
+    static byte[] md5(int[][] samples, int bitsPerSample) throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        int width = (bitsPerSample + 7) / 8;
+        for (int i = 0; i < samples[0].length; i++) {
+            for (int[] channel : samples) {
+                for (int b = 0; b < width; b++) {
+                    md5.update((byte) (channel[i] >>> (8 * b)));
+                }
+            }
+        }
+        return md5.digest();
+    }
+
+    private static byte[] encodeFrame(int[][] samples, int start, int length, int bitsPerSample, int frameNumber) {
+        int channels = samples.length;
+        int assignment = channels == 2 ? (frameNumber % 4 == 0 ? 1 : 7 + frameNumber % 4) : channels - 1;
+        int[][] coded = new int[channels][length];
+        int[] bits = new int[channels];
+        for (int c = 0; c < channels; c++) {
+            System.arraycopy(samples[c], start, coded[c], 0, length);
+            bits[c] = bitsPerSample;
+        }
+        if (assignment >= FlacFrameHeader.CHANNELS_LEFT_SIDE) {
+            for (int i = 0; i < length; i++) {
+                int left = coded[0][i];
+                int right = coded[1][i];
+                switch (assignment) {
+                    case FlacFrameHeader.CHANNELS_LEFT_SIDE -> coded[1][i] = left - right;
+                    case FlacFrameHeader.CHANNELS_RIGHT_SIDE -> coded[0][i] = left - right;
+                    default -> {
+                        coded[0][i] = (left + right) >> 1;
+                        coded[1][i] = left - right;
+                    }
+                }
+            }
+            bits[assignment == FlacFrameHeader.CHANNELS_RIGHT_SIDE ? 0 : 1]++;
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeFrameHeader(header, assignment, bitsPerSample, length, frameNumber);
+        BitWriter writer = new BitWriter();
+        writer.writeBytes(header.toByteArray());
+        for (int c = 0; c < channels; c++) {
+            writeSubframe(writer, coded[c], bits[c], (frameNumber + c) % 6);
+        }
+        writer.align();
+        byte[] body = writer.toByteArray();
+        writer.write(FlacCrc.crc16(0, body, 0, body.length), 16);
+        return writer.toByteArray();
+    }
+
+    private static void writeSubframe(BitWriter writer, int[] signal, int bits, int kind) {
+        int length = signal.length;
+        switch (kind) {
+            case 0 -> {
+                writer.write(0x02, 8); // verbatim
+                for (int value : signal) {
+                    writer.writeSigned(value, bits);
+                }
+            }
+            case 1, 2, 3 -> {
+                int order = Math.min(kind + 1, length);
+                writer.write(0x10 | (order << 1), 8); // fixed, order 2..4
+                for (int i = 0; i < order; i++) {
+                    writer.writeSigned(signal[i], bits);
+                }
+                int[] residual = new int[length];
+                for (int i = order; i < length; i++) {
+                    residual[i] = signal[i] - fixedPrediction(signal, i, order);
+                }
+                writeResidual(writer, residual, order, kind == 3 ? 2 : 0, kind == 2);
+            }
+            case 4 -> {
+                int order = Math.min(LPC_COEFFICIENTS.length, length);
+                writer.write(0x40 | ((order - 1) << 1), 8); // LPC
+                for (int i = 0; i < order; i++) {
+                    writer.writeSigned(signal[i], bits);
+                }
+                writer.write(LPC_PRECISION - 1, 4);
+                writer.writeSigned(LPC_SHIFT, 5);
+                for (int j = 0; j < order; j++) {
+                    writer.writeSigned(LPC_COEFFICIENTS[j], LPC_PRECISION);
+                }
+                int[] residual = new int[length];
+                for (int i = order; i < length; i++) {
+                    long sum = 0;
+                    for (int j = 0; j < order; j++) {
+                        sum += (long) LPC_COEFFICIENTS[j] * signal[i - 1 - j];
+                    }
+                    residual[i] = signal[i] - (int) (sum >> LPC_SHIFT);
+                }
+                writeResidual(writer, residual, order, 1, false);
+            }
+            default -> {
+                boolean even = true;
+                for (int value : signal) {
+                    even &= (value & 1) == 0;
+                }
+                if (!even) {
+                    writeSubframe(writer, signal, bits, 0);
+                    return;
+                }
+                // fixed order 1 with one wasted bit
+                writer.write(0x13, 8);
+                writer.write(1, 1); // unary: k - 1 = 0 zeros
+                int[] shifted = new int[length];
+                for (int i = 0; i < length; i++) {
+                    shifted[i] = signal[i] >> 1;
+                }
+                writer.writeSigned(shifted[0], bits - 1);
+                int[] residual = new int[length];
+                for (int i = 1; i < length; i++) {
+                    residual[i] = shifted[i] - shifted[i - 1];
+                }
+                writeResidual(writer, residual, 1, 0, false);
+            }
+        }
+    }
+
+    private static int fixedPrediction(int[] s, int i, int order) {
+        return switch (order) {
+            case 1 -> s[i - 1];
+            case 2 -> 2 * s[i - 1] - s[i - 2];
+            case 3 -> 3 * s[i - 1] - 3 * s[i - 2] + s[i - 3];
+            case 4 -> 4 * s[i - 1] - 6 * s[i - 2] + 4 * s[i - 3] - s[i - 4];
+            default -> 0;
+        };
+    }
+
+    private static void writeResidual(BitWriter writer, int[] residual, int order, int partitionOrder, boolean escapeFirst) {
+        int length = residual.length;
+        if ((length >> partitionOrder) << partitionOrder != length || (length >> partitionOrder) < order) {
+            partitionOrder = 0;
+        }
+        writer.write(0, 2);
+        writer.write(partitionOrder, 4);
+        int partitionSamples = length >> partitionOrder;
+        for (int p = 0; p < (1 << partitionOrder); p++) {
+            int from = p == 0 ? order : p * partitionSamples;
+            int to = (p + 1) * partitionSamples;
+            if (escapeFirst && p == 0) {
+                int bits = 1;
+                for (int i = from; i < to; i++) {
+                    while (residual[i] < -(1 << (bits - 1)) || residual[i] >= (1 << (bits - 1))) {
+                        bits++;
+                    }
+                }
+                writer.write(15, 4);
+                writer.write(bits, 5);
+                for (int i = from; i < to; i++) {
+                    writer.writeSigned(residual[i], bits);
+                }
+                continue;
+            }
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += (residual[i] << 1) ^ (residual[i] >> 31);
+            }
+            long mean = to > from ? sum / (to - from) : 0;
+            int parameter = 0;
+            while (parameter < 14 && (1L << (parameter + 1)) <= mean) {
+                parameter++;
+            }
+            writer.write(parameter, 4);
+            for (int i = from; i < to; i++) {
+                int folded = (residual[i] << 1) ^ (residual[i] >> 31);
+                for (int q = folded >>> parameter; q > 0; q--) {
+                    writer.write(0, 1);
+                }
+                writer.write(1, 1);
+                writer.write(folded & ((1 << parameter) - 1), parameter);
+            }
+        }
+    }
+
+    private static void writeStreamInfo(ByteArrayOutputStream out, boolean last, int blockSize, int minFrame, int maxFrame,
+                                        int sampleRate, int channels, int bitsPerSample, long totalSamples, byte[] md5) {
+        out.write(last ? 0x80 : 0x00);
+        writeU24(out, 34);
+        writeU16(out, blockSize);
+        writeU16(out, blockSize);
+        writeU24(out, minFrame);
+        writeU24(out, maxFrame);
+        long packed = ((long) sampleRate << 44) | ((long) (channels - 1) << 41) | ((long) (bitsPerSample - 1) << 36)
+                | totalSamples;
+        writeU64(out, packed);
+        out.writeBytes(md5);
+    }
+
+    private static void writeFrameHeader(ByteArrayOutputStream out, int assignment, int bitsPerSample, int blockSize, long frameNumber) {
+        int sampleSizeCode = switch (bitsPerSample) {
+            case 8 -> 1;
+            case 12 -> 2;
+            case 16 -> 4;
+            case 20 -> 5;
+            case 24 -> 6;
+            default -> 0;
+        };
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        header.write(0xFF);
+        header.write(0xF8);
+        header.write(0x70); // 16-bit block size follows, sample rate from STREAMINFO
+        header.write((assignment << 4) | (sampleSizeCode << 1));
+        writeUtf8Number(header, frameNumber);
+        writeU16(header, blockSize - 1);
+        byte[] bytes = header.toByteArray();
+        out.writeBytes(bytes);
+        out.write(FlacCrc.crc8(bytes, 0, bytes.length));
+    }
+
+    static void writeUtf8Number(ByteArrayOutputStream out, long value) {
+        if (value < 0x80) {
+            out.write((int) value);
+            return;
+        }
+        int extra = value < 0x800 ? 1 : value < 0x10000 ? 2 : value < 0x200000 ? 3 : value < 0x4000000 ? 4 : 5;
+        int leadMask = (0xFF00 >>> (extra + 1)) & 0xFF;
+        out.write(leadMask | (int) (value >>> (6 * extra)));
+        for (int i = extra - 1; i >= 0; i--) {
+            out.write(0x80 | (int) ((value >>> (6 * i)) & 0x3F));
+        }
+    }
+
+    static void writeU16(ByteArrayOutputStream out, int value) {
+        out.write((value >>> 8) & 0xFF);
+        out.write(value & 0xFF);
+    }
+
+    static void writeU24(ByteArrayOutputStream out, int value) {
+        out.write((value >>> 16) & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+        out.write(value & 0xFF);
+    }
+
+    static void writeU64(ByteArrayOutputStream out, long value) {
+        for (int i = 7; i >= 0; i--) {
+            out.write((int) (value >>> (i * 8)) & 0xFF);
+        }
+    }
+
+    private static final class BitWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int pending;
+        private int pendingBits;
+
+        void write(long value, int bits) {
+            for (int i = bits - 1; i >= 0; i--) {
+                pending = (pending << 1) | (int) ((value >>> i) & 1);
+                if (++pendingBits == 8) {
+                    out.write(pending);
+                    pending = 0;
+                    pendingBits = 0;
+                }
+            }
+        }
+
+        void writeSigned(int value, int bits) {
+            write(value & ((1L << bits) - 1), bits);
+        }
+
+        void writeBytes(byte[] bytes) {
+            for (byte b : bytes) {
+                write(b & 0xFF, 8);
+            }
+        }
+
+        void align() {
+            if (pendingBits > 0) {
+                write(0, 8 - pendingBits);
+            }
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class FlacFrameVerifierTest {
+
+    private static final int RATE = 8_000;
+    private static final int BLOCK = 1024;
+    private static final int FRAMES = 2_000;
+
+    @Test
+    void shouldAcceptCleanStreamAcrossParallelRegions() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 2, BLOCK, values(FRAMES), 0);
+
+        FlacVerification result = verify(flac);
+
+        assertTrue(result.valid(), () -> result.errors().toString());
+        assertEquals(FRAMES, result.frameCount());
+        assertEquals((long) FRAMES * BLOCK, result.sampleCount());
+    }
+
+    @Test
+    void shouldReportFrameCrc16MismatchForFlippedPayloadBit() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 2, BLOCK, values(FRAMES), 0);
+        int frameOffset = frameOffset(flac, 1234);
+        int frameLength = frameOffset(flac, 1235) - frameOffset;
+        flac[frameOffset + frameLength - 4] ^= 0x10;
+
+        FlacVerification result = verify(flac);
+
+        assertFalse(result.valid());
+        assertEquals(1, result.errors().size());
+        assertEquals("FLAC frame CRC-16 mismatch at offset " + frameOffset, result.errors().get(0));
+    }
+
+    @Test
+    void shouldReportHeaderCrc8MismatchAndResync() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 2, BLOCK, values(FRAMES), 0);
+        int frameOffset = frameOffset(flac, 777);
+        flac[frameOffset + 4] ^= 0x01;
+
+        FlacVerification result = verify(flac);
+
+        assertEquals(1, result.errors().size());
+        assertEquals("FLAC frame header CRC-8 mismatch at offset " + frameOffset, result.errors().get(0));
+        assertEquals((long) FRAMES * BLOCK, result.sampleCount());
+    }
+
+    @Test
+    void shouldReportStreamShorterThanStreamInfo() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 1, BLOCK, values(10), 0);
+        byte[] truncated = Arrays.copyOf(flac, frameOffset(flac, 9));
+
+        FlacVerification result = verify(truncated);
+
+        assertEquals(List.of("FLAC frames hold " + 9L * BLOCK + " samples but STREAMINFO declares " + 10L * BLOCK), result.errors());
+    }
+
+    private static FlacVerification verify(byte[] flac) throws Exception {
+        Path file = Files.createTempFile("codecmedia-flac-verify-", ".flac");
+        try {
+            Files.write(file, flac);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+                return FlacFrameVerifier.verify(channel, info, channel.size(), 3, 2048);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int frameOffset(byte[] flac, int frameNumber) {
+        // constant stereo/mono frames have a fixed length apart from the UTF-8 coded frame number
+        int offset = 4 + 4 + 34;
+        for (int i = 0; i < frameNumber; i++) {
+            FlacFrameHeader header = FlacFrameHeader.parse(flac, offset, flac.length - offset, RATE, 16);
+            offset += header.headerLength() + header.channels() * 3 + 2;
+        }
+        return offset;
+    }
+
+    private static int[] values(int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i % 3 == 0 ? 0xFFF8 : i;
+        }
+        return values;
+    }
+}
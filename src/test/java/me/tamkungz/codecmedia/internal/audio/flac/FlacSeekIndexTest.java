@@ -0,0 +1,106 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class FlacSeekIndexTest {
+
+    private static final int RATE = 8_000;
+    private static final int BLOCK = 4096;
+
+    @Test
+    void shouldUseSeekTableWhenPresent() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 2, BLOCK, values(8), 4);
+        Path file = write(flac);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FlacSeekIndex index = FlacSeekIndex.build(channel);
+
+            assertTrue(index.fromSeekTable());
+            assertEquals(4, index.size());
+            FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+            assertEquals(info.audioStartOffset(), index.offsetForSample(0));
+            long third = index.offsetForSample(2L * BLOCK + 10);
+            assertNotNull(FlacFrameHeader.parse(flac, (int) third, flac.length - (int) third, RATE, 16));
+            assertEquals(2L, FlacFrameHeader.parse(flac, (int) third, 16, RATE, 16).codedNumber());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void shouldScanFrameHeadersWhenSeekTableIsMissing() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 1, BLOCK, values(40), 0);
+        Path file = write(flac);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FlacSeekIndex index = FlacSeekIndex.build(channel);
+
+            assertFalse(index.fromSeekTable());
+            // one point per second of audio: 40 frames of 4096 samples at 8 kHz
+            assertEquals(20, index.size());
+            for (int i = 0; i < index.size(); i++) {
+                int offset = (int) index.offsetAt(i);
+                FlacFrameHeader header = FlacFrameHeader.parse(flac, offset, flac.length - offset, RATE, 16);
+                assertEquals(index.sampleAt(i), header.firstSample(BLOCK));
+            }
+            int at = index.indexFor(30L * BLOCK + 5);
+            assertTrue(index.sampleAt(at) <= 30L * BLOCK);
+            assertTrue(index.sampleAt(at) > 30L * BLOCK - RATE);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void shouldStopTheScanAfterTheTargetFrame() throws Exception {
+        byte[] flac = FlacFixtures.constantStream(RATE, 1, BLOCK, values(40), 0);
+        Path file = write(flac);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            java.util.List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(channel);
+            FlacStreamInfo info = FlacParser.readStreamInfo(channel, blocks);
+            FlacSeekIndex index = FlacSeekIndex.build(channel, blocks, info, 10L * BLOCK + 5);
+
+            // points at 0, 2, 4, 6, 8 and 10 frames; nothing past the frame holding the target
+            assertEquals(6, index.size());
+            assertEquals(10L * BLOCK, index.sampleAt(index.indexFor(10L * BLOCK + 5)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void frameHeaderShouldRejectCorruptedCrc8() {
+        byte[] frame = FlacFixtures.constantFrame(RATE, 2, BLOCK, 300, 0);
+        FlacFrameHeader header = FlacFrameHeader.parse(frame, 0, frame.length, RATE, 16);
+        assertNotNull(header);
+        assertEquals(300L, header.codedNumber());
+        assertEquals(BLOCK, header.blockSize());
+        assertEquals(2, header.channels());
+
+        frame[4] ^= 0x01;
+        assertNull(FlacFrameHeader.parse(frame, 0, frame.length, RATE, 16));
+    }
+
+    private static int[] values(int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            // 0xFFF8 as a sample value plants sync-like bytes inside the frame payload
+            values[i] = i % 2 == 0 ? 0xFFF8 : i * 100;
+        }
+        return values;
+    }
+
+    private static Path write(byte[] bytes) throws Exception {
+        Path file = Files.createTempFile("codecmedia-flac-", ".flac");
+        Files.write(file, bytes);
+        return file;
+    }
+}
@@ -0,0 +1,109 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+class FlacTagWriterTest {
+
+    @Test
+    void shouldRewriteIntoPaddingInPlaceWithoutTouchingAudio() throws Exception {
+        byte[] original = FlacFixtures.encodedStream(44_100, 16, 4096, FlacFixtures.testSignal(2, 16, 4096 * 3, 21L));
+        Path file = Files.createTempFile("codecmedia-flac-tags-", ".flac");
+        try {
+            Files.write(file, original);
+            assertFalse(FlacTagWriter.write(file, Map.of("title", "First")));
+            long audioStart = audioStart(file);
+            byte[] afterRewrite = Files.readAllBytes(file);
+            assertEquals(original.length - 42 + audioStart, afterRewrite.length);
+            assertArrayEquals(Arrays.copyOfRange(original, 42, original.length),
+                    Arrays.copyOfRange(afterRewrite, (int) audioStart, afterRewrite.length));
+
+            Map<String, String> entries = new LinkedHashMap<>();
+            entries.put("title", "Second title");
+            entries.put("artist", "Someone");
+            entries.put("replaygain_track_gain", "-3.20 dB");
+            entries.put("bad=key", "skipped");
+            assertTrue(FlacTagWriter.write(file, entries));
+
+            byte[] afterInPlace = Files.readAllBytes(file);
+            assertEquals(afterRewrite.length, afterInPlace.length);
+            assertEquals(audioStart, audioStart(file));
+            assertArrayEquals(Arrays.copyOfRange(afterRewrite, (int) audioStart, afterRewrite.length),
+                    Arrays.copyOfRange(afterInPlace, (int) audioStart, afterInPlace.length));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Map<String, String> read = FlacParser.readVorbisCommentMetadata(channel);
+                assertEquals("Second title", read.get("title"));
+                assertEquals("Someone", read.get("artist"));
+                assertEquals("-3.20 dB", read.get("replaygain_track_gain"));
+                assertFalse(read.containsKey("bad=key"));
+                assertTrue(FlacFrameVerifier.verify(channel, 1).valid());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void shouldKeepOtherBlocksWhenShrinking() throws Exception {
+        Path file = Files.createTempFile("codecmedia-flac-tags-", ".flac");
+        try {
+            Files.write(file, FlacFixtures.constantStream(44_100, 1, 1024, new int[] {1, 2, 3}, 3));
+            assertFalse(FlacTagWriter.write(file, Map.of("comment", "x".repeat(2000))));
+            assertTrue(FlacTagWriter.write(file, Map.of("genre", "Ambient")));
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(channel);
+                assertEquals(FlacMetadataBlock.STREAMINFO, blocks.get(0).type());
+                assertEquals(FlacMetadataBlock.VORBIS_COMMENT, blocks.get(1).type());
+                assertEquals(FlacMetadataBlock.SEEKTABLE, blocks.get(2).type());
+                assertEquals(FlacMetadataBlock.PADDING, blocks.get(3).type());
+                assertTrue(blocks.get(3).last());
+                assertEquals(Map.of("genre", "Ambient"), FlacParser.readVorbisCommentMetadata(channel));
+                assertEquals(3, FlacSeekIndex.build(channel).size());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void shouldKeepFilePermissionsAcrossRewrite() throws Exception {
+        Path file = Files.createTempFile("codecmedia-flac-tags-", ".flac");
+        try {
+            assumeTrue(Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class));
+            Files.write(file, FlacFixtures.constantStream(44_100, 1, 1024, new int[] {1, 2, 3}, 0));
+            Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+            Files.setPosixFilePermissions(file, permissions);
+
+            assertFalse(FlacTagWriter.write(file, Map.of("comment", "x".repeat(2000))));
+
+            assertEquals(permissions, Files.getPosixFilePermissions(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long audioStart(Path file) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<FlacMetadataBlock> blocks = FlacParser.readMetadataBlocks(channel);
+            return blocks.get(blocks.size() - 1).endOffset();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package me.tamkungz.codecmedia.internal.audio.flac;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.model.TrimResult;
+
+class FlacTrimmerTest {
+
+    private static final int RATE = 8_000;
+    private static final int BLOCK = 1024;
+    private static final int FRAMES = 400;
+
+    @Test
+    void shouldCutOnFramesAndRenumberThemWithSeekTable() throws Exception {
+        assertTrimmedRange(FlacFixtures.constantStream(RATE, 2, BLOCK, values(FRAMES), 64));
+    }
+
+    @Test
+    void shouldCutOnFramesAndRenumberThemWithoutSeekTable() throws Exception {
+        assertTrimmedRange(FlacFixtures.constantStream(RATE, 1, BLOCK, values(FRAMES), 0));
+    }
+
+    @Test
+    void shouldRejectStartPastTheEnd() throws Exception {
+        Path input = Files.createTempFile("codecmedia-flac-trim-", ".flac");
+        Path output = Files.createTempFile("codecmedia-flac-trimmed-", ".flac");
+        try {
+            Files.write(input, FlacFixtures.constantStream(RATE, 1, BLOCK, values(8), 0));
+            assertThrows(CodecMediaException.class, () -> FlacTrimmer.trim(input, output, 60_000, 61_000));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void assertTrimmedRange(byte[] flac) throws Exception {
+        Path input = Files.createTempFile("codecmedia-flac-trim-", ".flac");
+        Path output = Files.createTempFile("codecmedia-flac-trimmed-", ".flac");
+        try {
+            Files.write(input, flac);
+
+            // 20 s..30 s: sample 160000 lies in frame 156, sample 240000 ends in frame 234
+            TrimResult result = FlacTrimmer.trim(input, output, 20_000, 30_000);
+
+            assertEquals(156L * BLOCK * 1000 / RATE, result.startMillis());
+            assertEquals(235L * BLOCK * 1000 / RATE, result.endMillis());
+            byte[] trimmed = Files.readAllBytes(output);
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ)) {
+                FlacStreamInfo info = FlacParser.readStreamInfo(channel);
+                assertEquals(79L * BLOCK, info.totalSamples());
+                assertEquals(8 + 34, info.audioStartOffset());
+                FlacVerification verification = FlacFrameVerifier.verify(channel, info, channel.size(), 2, 4096);
+                assertTrue(verification.valid(), () -> verification.errors().toString());
+                assertEquals(79, verification.frameCount());
+            }
+            int offset = 8 + 34;
+            FlacFrameHeader header = FlacFrameHeader.parse(trimmed, offset, trimmed.length - offset, RATE, 16);
+            assertEquals(0, header.codedNumber());
+            int value = ((trimmed[offset + header.headerLength() + 1] & 0xFF) << 8) | (trimmed[offset + header.headerLength() + 2] & 0xFF);
+            assertEquals(values(FRAMES)[156], value);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static int[] values(int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i % 3 == 0 ? 0xFFF8 : i;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,103 @@
+package me.tamkungz.codecmedia.internal.audio.ogg;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ByteArrayChannel;
+import me.tamkungz.codecmedia.model.Packet;
+
+class OggPacketReaderTest {
+
+    @Test
+    void shouldReassemblePacketsAcrossInterleavedPages() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel out = Channels.newChannel(bytes);
+        OggPageWriter opus = new OggPageWriter(out, 11);
+        OggPageWriter vorbis = new OggPageWriter(out, 22);
+
+        byte[] opusHead = new byte[19];
+        System.arraycopy("OpusHead".getBytes(StandardCharsets.US_ASCII), 0, opusHead, 0, 8);
+        byte[] vorbisIdent = new byte[30];
+        vorbisIdent[0] = 1;
+        System.arraycopy("vorbis".getBytes(StandardCharsets.US_ASCII), 0, vorbisIdent, 1, 6);
+        ByteBuffer.wrap(vorbisIdent).order(ByteOrder.LITTLE_ENDIAN).putInt(12, 44_100);
+        byte[] large = new byte[255 * 255 + 1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i * 31);
+        }
+
+        opus.writePacket(opusHead, 0);
+        opus.flush();
+        vorbis.writePacket(vorbisIdent, 0);
+        vorbis.flush();
+        opus.writePacket(large, 960);
+        opus.flush();
+        vorbis.writePacket(new byte[] {5, 6, 7}, 128);
+        vorbis.flush();
+        opus.writePacket(new byte[] {1, 2}, 1920);
+        opus.writePacket(new byte[] {3}, 2880);
+        opus.finish();
+        vorbis.finish();
+
+        List<Packet> opusPackets = new ArrayList<>();
+        List<Packet> vorbisPackets = new ArrayList<>();
+        List<byte[]> opusPayloads = new ArrayList<>();
+        ByteBuffer payload = ByteBuffer.allocate(large.length);
+        try (OggPacketReader reader = new OggPacketReader(new ByteArrayChannel(bytes.toByteArray()))) {
+            Packet packet;
+            while ((packet = reader.next()) != null) {
+                payload.clear();
+                reader.readPayload(payload);
+                assertEquals(packet.size(), payload.position());
+                if (packet.track() == 1) {
+                    opusPackets.add(packet);
+                    opusPayloads.add(java.util.Arrays.copyOf(payload.array(), packet.size()));
+                } else {
+                    assertEquals(2, packet.track());
+                    vorbisPackets.add(packet);
+                }
+            }
+            assertNull(reader.next());
+        }
+
+        assertEquals(4, opusPackets.size());
+        assertEquals(48_000, opusPackets.get(0).timescale());
+        assertArrayEquals(opusHead, opusPayloads.get(0));
+        assertArrayEquals(large, opusPayloads.get(1));
+        assertEquals(960, opusPackets.get(1).pts());
+        // Only the last packet completed on a page carries that page's granule
+        assertEquals(960, opusPackets.get(2).pts());
+        assertEquals(2880, opusPackets.get(3).pts());
+
+        assertEquals(2, vorbisPackets.size());
+        assertEquals(44_100, vorbisPackets.get(0).timescale());
+        assertEquals(128, vorbisPackets.get(1).pts());
+        assertEquals(3, vorbisPackets.get(1).size());
+    }
+
+    @Test
+    void shouldRejectBufferSmallerThanPacket() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OggPageWriter writer = new OggPageWriter(Channels.newChannel(bytes), 1);
+        writer.writePacket(new byte[100], 0);
+        writer.finish();
+
+        try (OggPacketReader reader = new OggPacketReader(new ByteArrayChannel(bytes.toByteArray()))) {
+            assertEquals(100, reader.next().size());
+            assertThrows(CodecMediaException.class, () -> reader.readPayload(ByteBuffer.allocate(99)));
+        }
+    }
+}
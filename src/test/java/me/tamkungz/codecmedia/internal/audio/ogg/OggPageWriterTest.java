@@ -0,0 +1,67 @@
+package me.tamkungz.codecmedia.internal.audio.ogg;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class OggPageWriterTest {
+
+    @Test
+    void shouldComputeOggPageCrc() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        // CRC-32/MPEG-2 parameters minus the inverted initial value
+        assertEquals(0x89A1897F, OggPageWriter.crc(0, data, 0, data.length));
+    }
+
+    @Test
+    void shouldLacePacketsAcrossPagesWithGranulesAndFlags() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OggPageWriter writer = new OggPageWriter(Channels.newChannel(bytes), 7);
+        writer.writePacket(new byte[] {1, 2, 3}, 0);
+        writer.flush();
+        writer.writePacket(new byte[255 * 255 + 10], 960);
+        writer.writePacket(new byte[255], 1920);
+        writer.finish();
+
+        ByteBuffer out = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        // page 0: BOS, one 3-byte packet
+        assertPage(out, OggPageWriter.FLAG_BOS, 0, 0, new int[] {3});
+        // page 1: 255 full segments of the large packet, which does not end there
+        int[] full = new int[255];
+        java.util.Arrays.fill(full, 255);
+        assertPage(out, 0, -1, 1, full);
+        // page 2: the tail of the large packet, then the 255-byte packet (terminated by a 0 segment)
+        assertPage(out, OggPageWriter.FLAG_CONTINUED | OggPageWriter.FLAG_EOS, 1920, 2, new int[] {10, 255, 0});
+        assertEquals(0, out.remaining());
+        assertEquals(3, writer.pagesWritten());
+    }
+
+    private static void assertPage(ByteBuffer out, int flags, long granule, int sequence, int[] lacing) {
+        int start = out.position();
+        assertEquals(0x5367674F, out.getInt());
+        assertEquals(0, out.get());
+        assertEquals(flags, out.get());
+        assertEquals(granule, out.getLong());
+        assertEquals(7, out.getInt());
+        assertEquals(sequence, out.getInt());
+        int crc = out.getInt();
+        int segments = out.get() & 0xFF;
+        assertEquals(lacing.length, segments);
+        int payload = 0;
+        for (int value : lacing) {
+            assertEquals(value, out.get() & 0xFF);
+            payload += value;
+        }
+        out.position(out.position() + payload);
+
+        byte[] page = new byte[out.position() - start];
+        out.get(start, page);
+        java.util.Arrays.fill(page, 22, 26, (byte) 0);
+        assertEquals(crc, OggPageWriter.crc(0, page, 0, page.length));
+    }
+}
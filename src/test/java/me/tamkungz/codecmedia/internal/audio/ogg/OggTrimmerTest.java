@@ -0,0 +1,93 @@
+package me.tamkungz.codecmedia.internal.audio.ogg;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.io.ByteArrayChannel;
+import me.tamkungz.codecmedia.model.Packet;
+import me.tamkungz.codecmedia.model.TrimResult;
+
+class OggTrimmerTest {
+
+    private static final int PRE_SKIP = 312;
+    private static final int PACKET_SAMPLES = 960;
+    private static final int PACKETS_PER_PAGE = 10;
+
+    @Test
+    void shouldRaiseOpusPreSkipToStartOnTheRequestedSample() throws Exception {
+        Path input = Files.createTempFile("codecmedia-ogg-trim-", ".opus");
+        Path output = Files.createTempFile("codecmedia-ogg-trimmed-", ".opus");
+        try {
+            writeOpusStream(input, 200);
+
+            TrimResult result = OggTrimmer.trim(input, output, 1000, 2000);
+
+            assertEquals(1000L, result.startMillis());
+            assertEquals(2000L, result.endMillis());
+            byte[] trimmed = Files.readAllBytes(output);
+            // Decoding restarts on the 200 ms page at granule 38400, at least 3840 samples before the start
+            ByteBuffer head = ByteBuffer.wrap(trimmed).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(PRE_SKIP + 48_000 - 38_400, head.getShort(28 + 10) & 0xFFFF);
+
+            List<Packet> packets = new ArrayList<>();
+            try (OggPacketReader reader = new OggPacketReader(new ByteArrayChannel(trimmed))) {
+                Packet packet;
+                while ((packet = reader.next()) != null) {
+                    packets.add(packet);
+                }
+            }
+            assertEquals(2 + 7 * PACKETS_PER_PAGE, packets.size());
+            assertEquals(PACKETS_PER_PAGE * PACKET_SAMPLES, packets.get(2 + PACKETS_PER_PAGE - 1).pts());
+            assertEquals(PRE_SKIP + 96_000 - 38_400, packets.get(packets.size() - 1).pts());
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void shouldRejectStartPastTheEnd() throws Exception {
+        Path input = Files.createTempFile("codecmedia-ogg-trim-", ".opus");
+        Path output = Files.createTempFile("codecmedia-ogg-trimmed-", ".opus");
+        try {
+            writeOpusStream(input, 20);
+            assertThrows(CodecMediaException.class, () -> OggTrimmer.trim(input, output, 5000, 6000));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void writeOpusStream(Path file, int packetCount) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OggPageWriter writer = new OggPageWriter(channel, 7);
+            byte[] opusHead = new byte[19];
+            ByteBuffer head = ByteBuffer.wrap(opusHead).order(ByteOrder.LITTLE_ENDIAN);
+            head.put("OpusHead".getBytes(StandardCharsets.US_ASCII)).put((byte) 1).put((byte) 2).putShort((short) PRE_SKIP)
+                    .putInt(48_000);
+            writer.writePacket(opusHead, 0);
+            writer.flush();
+            writer.writePacket("OpusTags".getBytes(StandardCharsets.US_ASCII), 0);
+            writer.flush();
+            for (int i = 0; i < packetCount; i++) {
+                writer.writePacket(new byte[] {(byte) i, 1, 2}, (long) (i + 1) * PACKET_SAMPLES);
+                if ((i + 1) % PACKETS_PER_PAGE == 0) {
+                    writer.flush();
+                }
+            }
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package me.tamkungz.codecmedia.internal.audio.wav;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.model.ConcatResult;
+import me.tamkungz.codecmedia.options.ConcatOptions;
+
+class WavConcatenatorTest {
+
+    @Test
+    void shouldJoinDataChunksAndPadOddLength() throws Exception {
+        Path first = writeWav(new byte[] {1, 2, 3}, true);
+        Path second = writeWav(new byte[] {4, 5, 6, 7}, false);
+        Path output = Files.createTempFile("codecmedia-wav-concat-", ".wav");
+        try {
+            ConcatResult result = WavConcatenator.concat(List.of(first, second), output, ConcatOptions.defaults());
+
+            assertEquals(2, result.inputCount());
+            byte[] joined = Files.readAllBytes(output);
+            assertEquals(0, joined.length % 2);
+            assertEquals(joined.length - 8, ByteBuffer.wrap(joined).order(ByteOrder.LITTLE_ENDIAN).getInt(4));
+            assertTrue(new String(joined, StandardCharsets.US_ASCII).contains("LIST"));
+            PcmLayout layout = readLayout(output);
+            assertEquals(7, layout.totalFrames());
+            assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7}, slice(joined, layout));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void shouldDropTagChunksWhenTagsAreNotKept() throws Exception {
+        Path first = writeWav(new byte[] {1, 2}, true);
+        Path output = Files.createTempFile("codecmedia-wav-concat-", ".wav");
+        try {
+            WavConcatenator.concat(List.of(first, first), output, new ConcatOptions(false, true));
+
+            byte[] joined = Files.readAllBytes(output);
+            assertFalse(new String(joined, StandardCharsets.US_ASCII).contains("LIST"));
+            assertArrayEquals(new byte[] {1, 2, 1, 2}, slice(joined, readLayout(output)));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void shouldSwitchToRf64PastTheRiffSizeLimit() throws Exception {
+        Path first = writeWav(new byte[] {1, 2, 3, 4}, false);
+        Path output = Files.createTempFile("codecmedia-wav-concat-", ".wav");
+        try {
+            WavConcatenator.concat(List.of(first, first), output, ConcatOptions.defaults(), 40);
+
+            byte[] joined = Files.readAllBytes(output);
+            ByteBuffer header = ByteBuffer.wrap(joined).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals("RF64", new String(joined, 0, 4, StandardCharsets.US_ASCII));
+            assertEquals("ds64", new String(joined, 12, 4, StandardCharsets.US_ASCII));
+            assertEquals(joined.length - 8, header.getLong(20));
+            assertEquals(8, header.getLong(28));
+            assertEquals(8, header.getLong(36));
+            PcmLayout layout = readLayout(output);
+            assertArrayEquals(new byte[] {1, 2, 3, 4, 1, 2, 3, 4}, slice(joined, layout));
+
+            assertThrows(CodecMediaException.class,
+                    () -> WavConcatenator.concat(List.of(first, first), output, new ConcatOptions(true, false), 40));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static PcmLayout readLayout(Path file) throws Exception {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return WavParser.readPcmLayout(channel);
+        }
+    }
+
+    private static byte[] slice(byte[] bytes, PcmLayout layout) {
+        return Arrays.copyOfRange(bytes, (int) layout.dataOffset(), (int) (layout.dataOffset() + layout.dataLength()));
+    }
+
+    /** 8-bit mono 8 kHz PCM, optionally with a LIST/INFO chunk before {@code data}. */
+    private static Path writeWav(byte[] samples, boolean withList) throws Exception {
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        ByteBuffer fmt = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        fmt.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(8000).putInt(8000).putShort((short) 1).putShort((short) 8);
+        chunks.writeBytes(fmt.array());
+        if (withList) {
+            ByteBuffer list = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+            list.put("LIST".getBytes(StandardCharsets.US_ASCII)).putInt(12).put("INFOINAM".getBytes(StandardCharsets.US_ASCII))
+                    .putInt(0);
+            chunks.writeBytes(list.array());
+        }
+        ByteBuffer data = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        data.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(samples.length);
+        chunks.writeBytes(data.array());
+        chunks.writeBytes(samples);
+        if ((samples.length & 1) != 0) {
+            chunks.write(0);
+        }
+
+        ByteBuffer riff = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        riff.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(4 + chunks.size()).put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        Path file = Files.createTempFile("codecmedia-wav-part-", ".wav");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(riff.array());
+        out.writeBytes(chunks.toByteArray());
+        Files.write(file, out.toByteArray());
+        return file;
+    }
+}
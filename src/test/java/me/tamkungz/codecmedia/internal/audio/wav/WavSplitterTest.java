@@ -0,0 +1,105 @@
+package me.tamkungz.codecmedia.internal.audio.wav;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.internal.audio.pcm.PcmLayout;
+import me.tamkungz.codecmedia.model.SplitResult;
+import me.tamkungz.codecmedia.options.SplitOptions;
+
+class WavSplitterTest {
+
+    @Test
+    void shouldCutOnSampleFramesWithoutDrift() throws Exception {
+        // 8 kHz, 3 ms segments of 24 frames; 25 mono 16-bit frames leave a 1-frame remainder
+        byte[] samples = new byte[50];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (byte) i;
+        }
+        Path input = writeWav(samples, 1, 16, false);
+        Path dir = Files.createTempDirectory("codecmedia-wav-split-");
+        try {
+            SplitResult result = WavSplitter.split(input, dir, "part", new SplitOptions(3, 4));
+
+            assertEquals(2, result.segmentFiles().size());
+            assertEquals(25, result.totalFrames());
+            assertEquals(dir.resolve("part_0001.wav"), result.segmentFiles().get(0));
+            assertArrayEquals(Arrays.copyOfRange(samples, 0, 48), payload(result.segmentFiles().get(0)));
+            assertArrayEquals(Arrays.copyOfRange(samples, 48, 50), payload(result.segmentFiles().get(1)));
+            byte[] first = Files.readAllBytes(result.segmentFiles().get(0));
+            assertEquals(first.length - 8, ByteBuffer.wrap(first).order(ByteOrder.LITTLE_ENDIAN).getInt(4));
+        } finally {
+            Files.deleteIfExists(input);
+            deleteTree(dir);
+        }
+    }
+
+    @Test
+    void shouldWritePlainRiffSegmentsFromRf64Input() throws Exception {
+        byte[] samples = new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        Path input = writeWav(samples, 1, 8, true);
+        Path dir = Files.createTempDirectory("codecmedia-wav-split-");
+        try {
+            // 1 ms at 8 kHz is 8 frames
+            SplitResult result = WavSplitter.split(input, dir, "rf", new SplitOptions(1, 1));
+
+            assertEquals(2, result.segmentFiles().size());
+            byte[] first = Files.readAllBytes(result.segmentFiles().get(0));
+            assertEquals("RIFF", new String(first, 0, 4, StandardCharsets.US_ASCII));
+            assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}, payload(result.segmentFiles().get(0)));
+            byte[] last = Files.readAllBytes(result.segmentFiles().get(1));
+            assertEquals(0, last.length % 2);
+            assertArrayEquals(new byte[] {9}, payload(result.segmentFiles().get(1)));
+        } finally {
+            Files.deleteIfExists(input);
+            deleteTree(dir);
+        }
+    }
+
+    private static byte[] payload(Path file) throws Exception {
+        try (FileChannel channel = FileChannel.open(file)) {
+            PcmLayout layout = WavParser.readPcmLayout(channel);
+            byte[] bytes = Files.readAllBytes(file);
+            return Arrays.copyOfRange(bytes, (int) layout.dataOffset(), (int) (layout.dataOffset() + layout.dataLength()));
+        }
+    }
+
+    private static void deleteTree(Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /** 8 kHz PCM; an RF64 file keeps its sizes in a {@code ds64} chunk. */
+    private static Path writeWav(byte[] samples, int channels, int bits, boolean rf64) throws Exception {
+        int blockAlign = channels * bits / 8;
+        int ds64 = rf64 ? 36 : 0;
+        ByteBuffer wav = ByteBuffer.allocate(12 + ds64 + 24 + 8 + samples.length + (samples.length & 1))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        wav.put((rf64 ? "RF64" : "RIFF").getBytes(StandardCharsets.US_ASCII))
+                .putInt(rf64 ? -1 : wav.capacity() - 8).put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        if (rf64) {
+            wav.put("ds64".getBytes(StandardCharsets.US_ASCII)).putInt(28)
+                    .putLong(wav.capacity() - 8).putLong(samples.length).putLong(samples.length / blockAlign).putInt(0);
+        }
+        wav.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16).putShort((short) 1).putShort((short) channels)
+                .putInt(8000).putInt(8000 * blockAlign).putShort((short) blockAlign).putShort((short) bits);
+        wav.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(rf64 ? -1 : samples.length).put(samples);
+        Path file = Files.createTempFile("codecmedia-wav-split-src-", ".wav");
+        Files.write(file, wav.array());
+        return file;
+    }
+}
@@ -0,0 +1,205 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.video.mp4.Mp4Parser;
+import me.tamkungz.codecmedia.internal.video.mp4.Mp4ProbeInfo;
+
+class BmffFragmentScannerTest {
+
+    // Each fragment: 48 AAC frames of 1024 ticks at 48 kHz and 30 video frames of 3000 ticks at 90 kHz
+    private static final int AUDIO_SAMPLES = 48;
+    private static final int VIDEO_SAMPLES = 30;
+
+    @Test
+    void shouldReportDurationAndBitrateByScanningFragments() throws Exception {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.writeBytes(init(null));
+        for (int i = 0; i < 5; i++) {
+            file.writeBytes(fragment(i));
+        }
+
+        Mp4ProbeInfo info = Mp4Parser.parse(file.toByteArray());
+        assertEquals("iso6", info.majorBrand());
+        assertEquals(5120L, info.durationMillis());
+        // 5 x 48 x 200 bytes over 5.12 s and 5 x 150000 bytes over 5 s
+        assertEquals(75, info.audioBitrateKbps());
+        assertEquals(1200, info.videoBitrateKbps());
+
+        BmffFragmentScanner scanner = BmffFragmentScanner.probe(BmffReader.of(file.toByteArray()));
+        assertTrue(scanner.fragmented());
+        assertEquals(5, scanner.fragmentCount());
+        BmffFragmentScanner.TrackFragments audio = scanner.tracks().get(0);
+        assertEquals("soun", audio.handlerType());
+        assertEquals(5L * AUDIO_SAMPLES * 1024, audio.duration());
+        assertEquals(5L * AUDIO_SAMPLES, audio.sampleCount());
+        assertEquals(90_000L * 5, scanner.tracks().get(1).duration());
+    }
+
+    @Test
+    void shouldPreferMehdDurationWithoutReadingFragments() throws Exception {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.writeBytes(init(7_000));
+        file.writeBytes(fragment(0));
+
+        BmffFragmentScanner scanner = BmffFragmentScanner.probe(BmffReader.of(file.toByteArray()));
+        assertEquals(0, scanner.fragmentCount());
+        assertEquals(7_000L, scanner.durationMillis());
+        assertEquals(7_000L, Mp4Parser.parse(file.toByteArray()).durationMillis());
+    }
+
+    @Test
+    void shouldUseRandomAccessIndexToParseOnlyLastFragment() throws Exception {
+        BmffFragmentScanner scanner = BmffFragmentScanner.probe(BmffReader.of(indexedFile(4)));
+        assertEquals(0, scanner.fragmentCount());
+        assertEquals(4096L, scanner.durationMillis());
+        // Only the last fragment was read, so no sample totals are reported
+        assertEquals(0, scanner.tracks().get(0).sampleCount());
+        assertEquals(0, scanner.tracks().get(1).sampleBytes());
+        assertThrows(CodecMediaException.class, scanner::update);
+    }
+
+    @Test
+    void shouldEstimateBitrateFromFileSizeWhenUsingRandomAccessIndex() throws Exception {
+        byte[] file = indexedFile(6);
+
+        Mp4ProbeInfo info = Mp4Parser.parse(file);
+        assertEquals(6144L, info.durationMillis());
+        // Whole file over the whole duration, not one fragment's samples over six fragments' time
+        assertEquals((int) (file.length * 8L / 6144L), info.videoBitrateKbps());
+    }
+
+    @Test
+    void shouldProcessFragmentsIncrementallyAsFileGrows() throws Exception {
+        Path file = Files.createTempFile("codecmedia-fmp4-", ".mp4");
+        try {
+            Files.write(file, init(null));
+            Files.write(file, fragment(0), StandardOpenOption.APPEND);
+            Files.write(file, fragment(1), StandardOpenOption.APPEND);
+            byte[] third = fragment(2);
+            Files.write(file, Arrays.copyOf(third, 40), StandardOpenOption.APPEND);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                BmffFragmentScanner scanner = BmffFragmentScanner.open(new BmffReader(channel));
+                assertEquals(2, scanner.update());
+                assertEquals(2048L, scanner.durationMillis());
+                long resumeAt = scanner.scannedOffset();
+                assertEquals(Files.size(file) - 40, resumeAt);
+
+                assertEquals(0, scanner.update());
+                Files.write(file, Arrays.copyOfRange(third, 40, third.length), StandardOpenOption.APPEND);
+                assertEquals(1, scanner.update());
+                assertEquals(3, scanner.fragmentCount());
+                assertEquals(3072L, scanner.durationMillis());
+                assertEquals(Files.size(file), scanner.scannedOffset());
+                assertEquals(3L * AUDIO_SAMPLES * 200, scanner.tracks().get(0).sampleBytes());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static byte[] indexedFile(int fragments) {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.writeBytes(init(null));
+        long[] moofOffsets = new long[fragments];
+        for (int i = 0; i < moofOffsets.length; i++) {
+            moofOffsets[i] = file.size();
+            file.writeBytes(fragment(i));
+        }
+        ByteBuffer audioEntries = ByteBuffer.allocate(12 + moofOffsets.length * 19)
+                .putInt(1).putInt(0).putInt(moofOffsets.length);
+        ByteBuffer videoEntries = ByteBuffer.allocate(12 + moofOffsets.length * 11)
+                .putInt(2).putInt(0).putInt(moofOffsets.length);
+        for (int i = 0; i < moofOffsets.length; i++) {
+            audioEntries.putLong((long) i * AUDIO_SAMPLES * 1024).putLong(moofOffsets[i]).put(new byte[] {1, 1, 1});
+            videoEntries.putInt(i * VIDEO_SAMPLES * 3000).putInt((int) moofOffsets[i]).put(new byte[] {1, 1, 1});
+        }
+        byte[] tfraAudio = box("tfra", ints(0x01000000), audioEntries.array());
+        byte[] tfraVideo = box("tfra", ints(0), videoEntries.array());
+        int mfraSize = 8 + tfraAudio.length + tfraVideo.length + 16;
+        file.writeBytes(box("mfra", tfraAudio, tfraVideo, box("mfro", ints(0, mfraSize))));
+        return file.toByteArray();
+    }
+
+    private static byte[] init(Integer mehdMillis) {
+        byte[] mvhd = box("mvhd", ByteBuffer.allocate(100).putInt(12, 1000).array());
+        byte[] audio = trak(1, "soun", 48_000);
+        byte[] video = trak(2, "vide", 90_000);
+        byte[] mehd = mehdMillis == null ? new byte[0] : box("mehd", ints(0, mehdMillis));
+        byte[] mvex = box("mvex", mehd,
+                box("trex", ints(0, 1, 1, 1024, 0, 0)),
+                box("trex", ints(0, 2, 1, 3000, 5000, 0)));
+        return concat(box("ftyp", ascii("iso6"), new byte[4], ascii("iso6"), ascii("cmfc")),
+                box("moov", mvhd, audio, video, mvex));
+    }
+
+    private static byte[] trak(int trackId, String handler, int timescale) {
+        ByteBuffer tkhdPayload = ByteBuffer.allocate(84).putInt(12, trackId);
+        if ("vide".equals(handler)) {
+            tkhdPayload.putInt(76, 640 << 16).putInt(80, 360 << 16);
+        }
+        byte[] tkhd = box("tkhd", tkhdPayload.array());
+        byte[] mdhd = box("mdhd", ByteBuffer.allocate(24).putInt(12, timescale).array());
+        byte[] hdlr = box("hdlr", new byte[8], ascii(handler), new byte[13]);
+        byte[] stbl = box("stbl", box("stsd", ints(0, 0)), box("stts", ints(0, 0)), box("stsz", ints(0, 0, 0)));
+        return box("trak", tkhd, box("mdia", mdhd, hdlr, box("minf", stbl)));
+    }
+
+    private static byte[] fragment(int index) {
+        ByteBuffer sizes = ByteBuffer.allocate(AUDIO_SAMPLES * 4);
+        for (int i = 0; i < AUDIO_SAMPLES; i++) {
+            sizes.putInt(200);
+        }
+        // audio: per-sample sizes, durations from trex; v1 tfdt
+        byte[] audioTraf = box("traf",
+                box("tfhd", ints(0x020000, 1)),
+                box("tfdt", ints(0x01000000), ByteBuffer.allocate(8).putLong((long) index * AUDIO_SAMPLES * 1024).array()),
+                box("trun", ints(0x000201, AUDIO_SAMPLES, 0), sizes.array()));
+        // video: tfhd default duration, sizes from trex; v0 tfdt
+        byte[] videoTraf = box("traf",
+                box("tfhd", ints(0x020008, 2, 3000)),
+                box("tfdt", ints(0, index * VIDEO_SAMPLES * 3000)),
+                box("trun", ints(0, VIDEO_SAMPLES)));
+        byte[] moof = box("moof", box("mfhd", ints(0, index + 1)), audioTraf, videoTraf);
+        return concat(moof, box("mdat", new byte[AUDIO_SAMPLES * 200 + VIDEO_SAMPLES * 5000]));
+    }
+
+    private static byte[] box(String type, byte[]... payload) {
+        byte[] body = concat(payload);
+        return concat(ints(8 + body.length), ascii(type), body);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+class BmffMoovRewriterTest {
+
+    @Test
+    void shouldShiftOffsetsByFinalMoovSizeAndUpgradeToCo64() throws Exception {
+        byte[] moov = box("moov", box("mvhd", new byte[100]),
+                trak(box("stco", ints(0, 2, 1000, 2000))),
+                trak(box("stco", ints(0, 1, 3000))));
+        AtomicLong lastMoovSize = new AtomicLong();
+        byte[] rewritten = BmffMoovRewriter.rewrite(moov, track -> true, (track, chunk, offset, moovSize) -> {
+            lastMoovSize.set(moovSize);
+            // push the first track past 4 GiB so its table must widen
+            return offset + moovSize + (track == 0 ? 5_000_000_000L : 0L);
+        });
+
+        assertEquals(moov.length + 8, rewritten.length);
+        assertEquals(rewritten.length, lastMoovSize.get());
+        BmffReader reader = BmffReader.of(rewritten);
+        BmffBox[] traks = reader.children(reader.child(null, "moov"), "trak").toArray(BmffBox[]::new);
+        BmffSampleIndex first = BmffSampleIndex.build(reader, traks[0]);
+        BmffSampleIndex second = BmffSampleIndex.build(reader, traks[1]);
+        assertEquals(1000 + rewritten.length + 5_000_000_000L, first.chunkOffset(0));
+        assertEquals(2000 + rewritten.length + 5_000_000_000L, first.chunkOffset(1));
+        assertEquals(3000 + rewritten.length, second.chunkOffset(0));
+        assertNull(reader.findFirst(traks[1], "co64"));
+    }
+
+    @Test
+    void shouldDropTracksAndCopyOtherBoxesVerbatim() throws Exception {
+        byte[] udta = box("udta", box("free", new byte[] {1, 2, 3}));
+        byte[] moov = box("moov", box("mvhd", new byte[100]),
+                trak(box("co64", ints(0, 1), ByteBuffer.allocate(8).putLong(7_000_000_000L).array())),
+                trak(box("stco", ints(0, 1, 3000))),
+                udta);
+        byte[] rewritten = BmffMoovRewriter.rewrite(moov, track -> track == 0, (track, chunk, offset, moovSize) -> offset - 10);
+
+        BmffReader reader = BmffReader.of(rewritten);
+        BmffBox root = reader.child(null, "moov");
+        assertEquals(1, reader.children(root, "trak").size());
+        assertEquals(7_000_000_000L - 10, BmffSampleIndex.build(reader, reader.child(root, "trak")).chunkOffset(0));
+        assertEquals(new String(udta, StandardCharsets.ISO_8859_1),
+                new String(reader.read(reader.child(root, "udta").offset(), udta.length), StandardCharsets.ISO_8859_1));
+        assertEquals(moov.length - trak(box("stco", ints(0, 1, 3000))).length, rewritten.length);
+    }
+
+    private static byte[] trak(byte[] chunkOffsets) {
+        byte[] mdhd = box("mdhd", ints(0, 0, 0, 1000, 0, 0));
+        byte[] stbl = box("stbl",
+                box("stts", ints(0, 0)),
+                box("stsc", ints(0, 1, 1, 1, 1)),
+                chunkOffsets,
+                box("stsz", ints(0, 10, 0)));
+        return box("trak", box("tkhd", new byte[84]), box("mdia", mdhd, box("minf", stbl)));
+    }
+
+    private static byte[] box(String type, byte[]... payload) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] part : payload) {
+            body.writeBytes(part);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(ints(8 + body.size()));
+        out.writeBytes(type.getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+}
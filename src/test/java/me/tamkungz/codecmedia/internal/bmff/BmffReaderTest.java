@@ -0,0 +1,219 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+import me.tamkungz.codecmedia.internal.image.heif.HeifParser;
+import me.tamkungz.codecmedia.internal.image.heif.HeifProbeInfo;
+import me.tamkungz.codecmedia.internal.video.mov.MovParser;
+import me.tamkungz.codecmedia.internal.video.mov.MovProbeInfo;
+import me.tamkungz.codecmedia.internal.video.mp4.Mp4Parser;
+import me.tamkungz.codecmedia.internal.video.mp4.Mp4ProbeInfo;
+
+class BmffReaderTest {
+
+    private static final long MDAT_SIZE = 20L * 1024 * 1024 * 1024;
+
+    @Test
+    void shouldProbeMoovBehindHugeMdatWithoutReadingMediaData() throws Exception {
+        byte[] ftyp = box("ftyp", ascii("qt  "), new byte[4], ascii("qt  "));
+        byte[] mdatHeader = ByteBuffer.allocate(16).putInt(1).put(ascii("mdat")).putLong(MDAT_SIZE).array();
+        byte[] moov = moov();
+        SparseChannel channel = new SparseChannel(ftyp.length + MDAT_SIZE + moov.length);
+        channel.put(0, ftyp);
+        channel.put(ftyp.length, mdatHeader);
+        channel.put(ftyp.length + MDAT_SIZE, moov);
+
+        MovProbeInfo info = MovParser.parse(channel);
+        assertEquals(10_000L, info.durationMillis());
+        assertEquals(1920, info.width());
+        assertEquals(1080, info.height());
+        assertEquals("16:9", info.displayAspectRatio());
+        assertEquals("h264", info.videoCodec());
+        assertEquals(25.0d, info.frameRate());
+        assertEquals("aac", info.audioCodec());
+        assertEquals(48_000, info.sampleRate());
+        assertEquals(2, info.channels());
+        assertEquals(128, info.audioBitrateKbps());
+        assertEquals(800, info.videoBitrateKbps());
+        assertTrue(channel.bytesRead < ftyp.length + 16 + moov.length + 64, "read " + channel.bytesRead + " bytes");
+    }
+
+    @Test
+    void shouldWalkTreeLazilyAndMatchByteArrayParse() throws Exception {
+        byte[] file = concat(box("ftyp", ascii("isom"), new byte[4], ascii("isom")), box("free"), moov());
+        BmffReader reader = BmffReader.of(file);
+
+        List<BmffBox> top = reader.topLevel();
+        assertEquals(List.of("ftyp", "free", "moov"), top.stream().map(BmffBox::type).toList());
+        assertEquals(2, reader.children(top.get(2), "trak").size());
+        BmffBox stsd = reader.find("moov/trak/mdia/minf/stbl/stsd");
+        assertNotNull(stsd);
+        assertEquals(stsd, reader.findFirst(null, "stsd"));
+        assertNull(reader.find("moov/mdat"));
+
+        Mp4ProbeInfo info = Mp4Parser.parse(file);
+        assertEquals("isom", info.majorBrand());
+        assertEquals(10_000L, info.durationMillis());
+        assertEquals(48_000, info.sampleRate());
+    }
+
+    @Test
+    void shouldDescendIntoIsoMetaFullBoxForHeifProperties() throws Exception {
+        byte[] hdlr = box("hdlr", new byte[8], ascii("pict"), new byte[13]);
+        byte[] ispe = box("ispe", new byte[4], u32(4032), u32(3024));
+        byte[] pixi = box("pixi", new byte[4], new byte[] {3, 10, 10, 10});
+        byte[] meta = box("meta", new byte[4], hdlr, box("pitm", new byte[6]), box("iprp", box("ipco", ispe, pixi)));
+        byte[] file = concat(box("ftyp", ascii("heic"), new byte[4], ascii("mif1")), meta, box("mdat", new byte[32]));
+
+        HeifProbeInfo info = HeifParser.parse(file);
+        assertEquals("heic", info.majorBrand());
+        assertEquals(4032, info.width());
+        assertEquals(3024, info.height());
+        assertEquals(10, info.bitDepth());
+    }
+
+    @Test
+    void shouldRejectChildBoxOverrunningParent() throws Exception {
+        byte[] broken = concat(box("ftyp", ascii("isom"), new byte[4]),
+                u32(24), ascii("moov"), u32(64), ascii("trak"), new byte[8]);
+        BmffReader reader = BmffReader.of(broken);
+        BmffBox moov = reader.child(null, "moov");
+        assertNotNull(moov);
+        CodecMediaException ex = assertThrows(CodecMediaException.class, () -> reader.children(moov));
+        assertTrue(ex.getMessage().contains("exceeds bounds"), ex.getMessage());
+    }
+
+    private static byte[] moov() {
+        byte[] mvhd = box("mvhd", ByteBuffer.allocate(100).putInt(12, 1000).putInt(16, 10_000).array());
+        byte[] videoTrak = trak(
+                ByteBuffer.allocate(84).putInt(76, 1920 << 16).putInt(80, 1080 << 16).array(),
+                "vide", 25_000, 250_000,
+                box("avc1", ByteBuffer.allocate(78).putShort(74, (short) 24).array()),
+                box("stts", new byte[4], u32(1), u32(250), u32(1000)),
+                // 250 samples x 4000 bytes over 10 s = 800 kbit/s
+                box("stsz", new byte[4], u32(4000), u32(250)));
+        byte[] audioTrak = trak(
+                new byte[84],
+                "soun", 48_000, 480_000,
+                box("mp4a", ByteBuffer.allocate(28).putShort(16, (short) 2).putShort(18, (short) 16)
+                        .putInt(24, 48_000 << 16).array(),
+                        box("btrt", new byte[4], u32(128_000), u32(128_000))),
+                box("stts", new byte[4], u32(1), u32(469), u32(1024)),
+                box("stsz", new byte[4], u32(0), u32(2), u32(10), u32(10)));
+        byte[] udta = box("udta", box("meta", box("hdlr", new byte[8], ascii("mdir"), new byte[12])), new byte[4]);
+        return box("moov", mvhd, videoTrak, audioTrak, udta);
+    }
+
+    private static byte[] trak(byte[] tkhdPayload, String handler, int timescale, int duration, byte[] sampleEntry,
+                               byte[] stts, byte[] stsz) {
+        byte[] mdhd = box("mdhd", ByteBuffer.allocate(24).putInt(12, timescale).putInt(16, duration).array());
+        byte[] hdlr = box("hdlr", new byte[8], ascii(handler), new byte[13]);
+        byte[] stbl = box("stbl", box("stsd", new byte[4], u32(1), sampleEntry), stts, stsz);
+        return box("trak", box("tkhd", tkhdPayload), box("mdia", mdhd, hdlr, box("minf", stbl)));
+    }
+
+    private static byte[] box(String type, byte[]... payload) {
+        byte[] body = concat(payload);
+        return concat(u32(8 + body.length), ascii(type), body);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] u32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Channel with a large logical size where only registered regions are backed; reading anywhere
+     * else (such as the middle of mdat) fails the test.
+     */
+    private static final class SparseChannel implements SeekableByteChannel {
+
+        private final long size;
+        private final java.util.TreeMap<Long, byte[]> regions = new java.util.TreeMap<>();
+        private long position;
+        long bytesRead;
+
+        SparseChannel(long size) {
+            this.size = size;
+        }
+
+        void put(long offset, byte[] data) {
+            regions.put(offset, data);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (position >= size) {
+                return -1;
+            }
+            var region = regions.floorEntry(position);
+            long within = region == null ? -1 : position - region.getKey();
+            if (region == null || within >= region.getValue().length) {
+                throw new AssertionError("Read outside box headers at offset " + position);
+            }
+            int count = (int) Math.min(dst.remaining(), region.getValue().length - within);
+            dst.put(region.getValue(), (int) within, count);
+            position += count;
+            bytesRead += count;
+            return count;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) {
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long newSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
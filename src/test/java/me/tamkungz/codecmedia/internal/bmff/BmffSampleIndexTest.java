@@ -0,0 +1,154 @@
+package me.tamkungz.codecmedia.internal.bmff;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BmffSampleIndexTest {
+
+    @Test
+    void shouldResolveTimesOffsetsAndKeyframesAcrossRuns() throws Exception {
+        for (boolean co64 : new boolean[] {false, true}) {
+            long base = co64 ? 5_000_000_000L : 0L;
+            byte[] chunkTable = co64
+                    ? box("co64", ints(0, 4), longs(base + 1000, base + 2000, base + 3000, base + 4000))
+                    : box("stco", ints(0, 4, 1000, 2000, 3000, 4000));
+            byte[] stbl = box("stbl",
+                    box("stts", ints(0, 3, 3, 100, 2, 50, 1, 200)),
+                    box("ctts", ints(0, 2, 1, 100, 5, 0)),
+                    box("stsc", ints(0, 2, 1, 2, 1, 3, 1, 1)),
+                    chunkTable,
+                    box("stsz", ints(0, 0, 6, 10, 20, 30, 40, 50, 60)),
+                    box("stss", ints(0, 2, 1, 4)));
+            BmffReader reader = BmffReader.of(trak(1000, stbl));
+            BmffSampleIndex index = BmffSampleIndex.build(reader, reader.child(null, "trak"));
+
+            assertEquals(1000, index.timescale());
+            assertEquals(6, index.sampleCount());
+            assertEquals(600, index.duration());
+            assertEquals(210, index.totalSampleBytes());
+
+            assertEquals(0, index.sampleAtTime(-5));
+            assertEquals(0, index.sampleAtTime(99));
+            assertEquals(2, index.sampleAtTime(250));
+            assertEquals(3, index.sampleAtTime(300));
+            assertEquals(3, index.sampleAtTime(349));
+            assertEquals(4, index.sampleAtTime(350));
+            assertEquals(5, index.sampleAtTime(10_000));
+            assertEquals(4, index.sampleAtMillis(399));
+            assertEquals(350, index.decodeTime(4));
+            assertEquals(100, index.presentationTime(0));
+            assertEquals(200, index.presentationTime(2));
+
+            assertEquals(1, index.chunkOf(3));
+            assertEquals(base + 1000, index.sampleOffset(0));
+            assertEquals(base + 1010, index.sampleOffset(1));
+            assertEquals(base + 2030, index.sampleOffset(3));
+            assertEquals(base + 3000, index.sampleOffset(4));
+            assertEquals(base + 4000, index.sampleOffset(5));
+            assertEquals(40, index.sampleSize(3));
+
+            assertArrayEquals(new int[] {0, 3}, index.keyframes());
+            assertTrue(index.isKeyframe(3));
+            assertFalse(index.isKeyframe(4));
+            assertEquals(0, index.keyframeAtOrBefore(2));
+            assertEquals(3, index.keyframeAtOrBefore(5));
+        }
+    }
+
+    @Test
+    void shouldIndexMillionsOfSamplesFromCompactRuns() throws Exception {
+        int samples = 3_000_000;
+        int perChunk = 10;
+        int chunks = samples / perChunk;
+        ByteBuffer co64 = ByteBuffer.allocate(8 + chunks * 8).putInt(0).putInt(chunks);
+        for (int i = 0; i < chunks; i++) {
+            co64.putLong(64L + (long) i * perChunk * 400);
+        }
+        ByteBuffer stss = ByteBuffer.allocate(8 + samples / 250 * 4).putInt(0).putInt(samples / 250);
+        for (int i = 0; i < samples / 250; i++) {
+            stss.putInt(i * 250 + 1);
+        }
+        byte[] stbl = box("stbl",
+                box("stts", ints(0, 1, samples, 1024)),
+                box("stsc", ints(0, 1, 1, perChunk, 1)),
+                box("co64", co64.array()),
+                box("stsz", ints(0, 400, samples)),
+                box("stss", stss.array()));
+        BmffReader reader = BmffReader.of(trak(48_000, stbl));
+        BmffSampleIndex index = BmffSampleIndex.build(reader, reader.child(null, "trak"));
+
+        assertEquals(samples, index.sampleCount());
+        assertEquals(1_200_000_000L, index.totalSampleBytes());
+        int sample = index.sampleAtMillis(60_000);
+        assertEquals(60L * 48_000 / 1024, sample);
+        assertEquals(64L + sample * 400L, index.sampleOffset(sample));
+        assertEquals(2750, index.keyframeAtOrBefore(sample));
+        assertEquals(samples - 1, index.sampleAtTime(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldPlaceEverySampleOfFixtureInsideMdat() throws Exception {
+        Path fixture = Path.of(BmffSampleIndexTest.class.getResource("/mp4_test.mp4").toURI());
+        try (FileChannel channel = FileChannel.open(fixture, StandardOpenOption.READ)) {
+            BmffReader reader = new BmffReader(channel);
+            BmffBox mdat = reader.child(null, "mdat");
+            BmffBox moov = reader.child(null, "moov");
+            long total = 0;
+            for (BmffBox trak : reader.children(moov, "trak")) {
+                BmffSampleIndex index = BmffSampleIndex.build(reader, trak);
+                assertTrue(index.sampleCount() > 0);
+                for (int i = 0; i < index.sampleCount(); i++) {
+                    long offset = index.sampleOffset(i);
+                    assertTrue(offset >= mdat.payloadOffset() && offset + index.sampleSize(i) <= mdat.endOffset(),
+                            "sample " + i + " at " + offset);
+                }
+                assertEquals(0, index.keyframes()[0]);
+                total += index.totalSampleBytes();
+            }
+            assertTrue(total <= mdat.payloadSize());
+        }
+    }
+
+    private static byte[] trak(int timescale, byte[] stbl) {
+        byte[] mdhd = box("mdhd", ints(0, 0, 0, timescale, 0, 0));
+        return box("trak", box("mdia", mdhd, box("minf", stbl)));
+    }
+
+    private static byte[] box(String type, byte[]... payload) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] part : payload) {
+            body.writeBytes(part);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(ints(8 + body.size()));
+        out.writeBytes(type.getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] longs(long... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8);
+        for (long value : values) {
+            buffer.putLong(value);
+        }
+        return buffer.array();
+    }
+}
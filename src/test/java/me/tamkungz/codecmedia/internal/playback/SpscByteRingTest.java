@@ -0,0 +1,84 @@
+package me.tamkungz.codecmedia.internal.playback;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SpscByteRingTest {
+
+    @Test
+    void shouldRoundCapacityAndWrapAround() {
+        SpscByteRing ring = new SpscByteRing(6);
+        assertEquals(8, ring.capacity());
+
+        assertEquals(6, ring.offer(new byte[] {1, 2, 3, 4, 5, 6}, 0, 6));
+        assertEquals(6, ring.available());
+        byte[] out = new byte[6];
+        ring.poll(out, 0, 4);
+        assertEquals(6, ring.offer(new byte[] {7, 8, 9, 10, 11, 12}, 0, 6));
+        assertEquals(0, ring.offer(new byte[] {13}, 0, 1));
+
+        byte[] rest = new byte[8];
+        assertEquals(8, ring.available());
+        ring.poll(rest, 0, 8);
+        assertEquals(5, rest[0]);
+        assertEquals(12, rest[7]);
+        assertEquals(0, ring.available());
+    }
+
+    @Test
+    void shouldTransferEveryByteInOrderAcrossThreads() throws Exception {
+        int total = 256 * 1024;
+        SpscByteRing ring = new SpscByteRing(4096);
+        Thread producer = new Thread(() -> {
+            byte[] block = new byte[333];
+            int next = 0;
+            while (next < total) {
+                int length = Math.min(block.length, total - next);
+                for (int i = 0; i < length; i++) {
+                    block[i] = (byte) (next + i);
+                }
+                int offset = 0;
+                while (offset < length) {
+                    int offered = ring.offer(block, offset, length - offset);
+                    if (offered == 0) {
+                        Thread.yield();
+                    }
+                    offset += offered;
+                }
+                next += length;
+            }
+            ring.finish();
+        });
+        producer.start();
+
+        AtomicReference<String> mismatch = new AtomicReference<>();
+        byte[] chunk = new byte[500];
+        int received = 0;
+        while (true) {
+            int count = Math.min(ring.available(), chunk.length);
+            if (count == 0) {
+                if (ring.isFinished() && ring.available() == 0) {
+                    break;
+                }
+                Thread.yield();
+                continue;
+            }
+            ring.poll(chunk, 0, count);
+            for (int i = 0; i < count && mismatch.get() == null; i++) {
+                if (chunk[i] != (byte) (received + i)) {
+                    mismatch.set("byte " + (received + i));
+                }
+            }
+            received += count;
+        }
+        producer.join();
+
+        assertNull(mismatch.get());
+        assertEquals(total, received);
+        assertTrue(ring.isFinished());
+    }
+}
@@ -0,0 +1,205 @@
+package me.tamkungz.codecmedia.internal.playback;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class StreamingPlaybackTest {
+
+    @Test
+    void shouldStreamWholeFramesToTheSinkAndDrain() throws Exception {
+        byte[] pcm = new byte[200_003];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (byte) (i * 7);
+        }
+        RecordingSink sink = new RecordingSink();
+        StreamingPlayback playback = new StreamingPlayback(new ByteArrayInputStream(pcm), 4, 4096, sink, "test");
+
+        awaitEnd(playback);
+
+        assertNull(playback.failure());
+        assertEquals(4096, playback.bufferBytes());
+        byte[] played = sink.bytes();
+        assertEquals(200_000, played.length);
+        assertEquals(200_000, playback.bytesPlayed());
+        assertArrayEquals(java.util.Arrays.copyOf(pcm, 200_000), played);
+        assertTrue(sink.drained);
+        assertTrue(sink.closed);
+        assertTrue(sink.alignedWrites);
+    }
+
+    @Test
+    void shouldCountUnderrunsWhenTheReaderFallsBehind() throws Exception {
+        // Each read after the first waits until the line thread has starved once more
+        CountDownLatch[] gates = {new CountDownLatch(0), new CountDownLatch(1), new CountDownLatch(1), new CountDownLatch(1)};
+        InputStream gated = new InputStream() {
+            private int blocks;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                try {
+                    gates[blocks].await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (blocks++ == 3) {
+                    return -1;
+                }
+                int count = Math.min(len, 64);
+                java.util.Arrays.fill(b, off, off + count, (byte) blocks);
+                return count;
+            }
+        };
+        RecordingSink sink = new RecordingSink();
+        StreamingPlayback playback = new StreamingPlayback(gated, 2, 4096, sink, "test");
+
+        for (int gate = 1; gate < gates.length; gate++) {
+            awaitUnderruns(playback, gate);
+            gates[gate].countDown();
+        }
+        awaitEnd(playback);
+
+        assertEquals(192, playback.bytesPlayed());
+        assertEquals(3, playback.underruns());
+    }
+
+    @Test
+    void closeShouldReleaseAWriteBlockedOnTheSink() throws Exception {
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return len;
+            }
+        };
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicBoolean closed = new AtomicBoolean();
+        StreamingPlayback.Sink blocking = new StreamingPlayback.Sink() {
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                writing.countDown();
+                try {
+                    stopped.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void drain() {
+            }
+
+            @Override
+            public void stop() {
+                stopped.countDown();
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        StreamingPlayback playback = new StreamingPlayback(endless, 4, 4096, blocking, "test");
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        playback.close();
+        awaitEnd(playback);
+
+        assertTrue(closed.get());
+        assertNull(playback.failure());
+    }
+
+    @Test
+    void closeShouldStopWithoutDraining() throws Exception {
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return len;
+            }
+        };
+        RecordingSink sink = new RecordingSink();
+        StreamingPlayback playback = new StreamingPlayback(endless, 4, 4096, sink, "test");
+        playback.close();
+
+        awaitEnd(playback);
+
+        assertFalse(playback.isActive());
+        assertTrue(sink.stopped);
+        assertFalse(sink.drained);
+        assertTrue(sink.closed);
+    }
+
+    private static void awaitUnderruns(StreamingPlayback playback, long underruns) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (playback.underruns() < underruns && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(underruns, playback.underruns());
+    }
+
+    private static void awaitEnd(StreamingPlayback playback) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (playback.isActive() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(playback.isActive());
+    }
+
+    private static final class RecordingSink implements StreamingPlayback.Sink {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private volatile boolean drained;
+        private volatile boolean stopped;
+        private volatile boolean closed;
+        private volatile boolean alignedWrites = true;
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            alignedWrites &= length % 4 == 0;
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void drain() {
+            drained = true;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        synchronized byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+}
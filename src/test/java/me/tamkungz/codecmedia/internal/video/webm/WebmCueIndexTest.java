@@ -0,0 +1,86 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class WebmCueIndexTest {
+
+    @Test
+    void shouldLoadCuesAndAgreeWithClusterScan() throws Exception {
+        Path fixture = Path.of("src/test/resources/example/file_example_WEBM_480_900KB.webm");
+        try (FileChannel channel = FileChannel.open(fixture, StandardOpenOption.READ)) {
+            EbmlReader reader = new EbmlReader(channel);
+            WebmCueIndex cues = WebmCueIndex.build(reader);
+            WebmCueIndex clusters = WebmCueIndex.scanClusters(reader);
+
+            assertTrue(cues.fromCues());
+            assertFalse(clusters.fromCues());
+            assertTrue(cues.size() > 1);
+            assertTrue(clusters.size() >= cues.size());
+            for (int i = 0; i < cues.size(); i++) {
+                EbmlElement cluster = reader.readElement(cues.clusterPosition(i), reader.size());
+                assertEquals(EbmlIds.ID_CLUSTER, cluster.id(), "cue " + i);
+                int scanned = clusters.entryAtMillis(cues.millis(i));
+                assertTrue(clusters.clusterPosition(scanned) <= cues.clusterPosition(i), "cue " + i);
+            }
+
+            long last = cues.millis(cues.size() - 1);
+            int entry = cues.entryAtMillis(last + 1);
+            assertEquals(cues.size() - 1, entry);
+            assertEquals(0, cues.entryAtMillis(-5));
+        }
+    }
+
+    @Test
+    void shouldHopClusterHeadersWhenCuesAreMissing() throws Exception {
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        long[] positions = new long[3];
+        byte[] header = element(0x1A45DFA3, element(0x4282, "webm".getBytes(java.nio.charset.StandardCharsets.US_ASCII)));
+        long segmentPayload = header.length + 4 + 8;
+        segment.writeBytes(element(0x1549A966, element(0x2AD7B1, new byte[] {0x0F, 0x42, 0x40})));
+        for (int i = 0; i < 3; i++) {
+            positions[i] = segmentPayload + segment.size();
+            // Timecodes 0, 2048 and 4096 ms, then a block payload the scan must step over
+            segment.writeBytes(element(0x1F43B675, concat(element(0xE7, new byte[] {(byte) (i * 8), 0}), element(0xA3, new byte[20_000]))));
+        }
+        byte[] file = concat(header, element(0x18538067, segment.toByteArray()));
+
+        WebmCueIndex index = WebmCueIndex.build(EbmlReader.of(file));
+        assertFalse(index.fromCues());
+        assertEquals(3, index.size());
+        assertEquals(2048L, index.millis(1));
+        assertEquals(0, index.track(1));
+        assertEquals(positions[1], index.clusterPosition(index.entryAtMillis(3000)));
+        assertEquals(positions[2], index.clusterPosition(index.entryAtMillis(4096, 1)));
+    }
+
+    /** Element with a 4-byte ID field when needed and an 8-byte size field. */
+    private static byte[] element(int id, byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int idLength = id > 0xFFFFFF ? 4 : id > 0xFFFF ? 3 : id > 0xFF ? 2 : 1;
+        for (int i = idLength - 1; i >= 0; i--) {
+            out.write(id >>> (8 * i));
+        }
+        out.write(0x01);
+        for (int i = 6; i >= 0; i--) {
+            out.write((int) ((long) payload.length >>> (8 * i)));
+        }
+        out.writeBytes(payload);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,113 @@
+package me.tamkungz.codecmedia.internal.video.webm;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import me.tamkungz.codecmedia.CodecMediaException;
+
+class WebmParserTest {
+
+    @Test
+    void shouldFollowSeekHeadToInfoAndTracksStoredAfterClusters() throws Exception {
+        byte[] info = element(0x1549A966, concat(
+                element(0x2AD7B1, new byte[] {0x0F, 0x42, 0x40}),
+                element(0x4489, ByteBuffer.allocate(8).putDouble(2500.0d).array())));
+        byte[] tracks = element(0x1654AE6B, concat(
+                element(0xAE, concat(
+                        element(0xD7, new byte[] {1}),
+                        element(0x83, new byte[] {1}),
+                        element(0x86, "V_VP9".getBytes(StandardCharsets.US_ASCII)),
+                        element(0x23E383, new byte[] {0x01, (byte) 0xFC, (byte) 0xA0, 0x55}),
+                        element(0xE0, concat(element(0xB0, new byte[] {0x02, (byte) 0x80}), element(0xBA, new byte[] {0x01, (byte) 0xE0}))))),
+                element(0xAE, concat(
+                        element(0xD7, new byte[] {2}),
+                        element(0x83, new byte[] {2}),
+                        element(0x86, "A_OPUS".getBytes(StandardCharsets.US_ASCII)),
+                        element(0xE1, concat(
+                                element(0xB5, ByteBuffer.allocate(4).putFloat(48000f).array()),
+                                element(0x9F, new byte[] {2}),
+                                element(0x6264, new byte[] {16})))))));
+        // Cluster payload full of 0xAE bytes that a byte scanner would take for TrackEntry IDs
+        byte[] cluster = new byte[4096];
+        java.util.Arrays.fill(cluster, (byte) 0xAE);
+        byte[] clusterElement = element(0x1F43B675, concat(element(0xE7, new byte[] {0}), element(0xEC, cluster)));
+
+        int seekHeadSize = seekHead(0, 0).length;
+        long infoPosition = seekHeadSize + clusterElement.length;
+        long tracksPosition = infoPosition + info.length;
+        byte[] segmentPayload = concat(seekHead(infoPosition, tracksPosition), clusterElement, info, tracks);
+        byte[] file = concat(ebmlHeader("webm"), element(0x18538067, segmentPayload));
+
+        assertTrue(WebmParser.isLikelyWebm(file));
+        WebmProbeInfo probe = WebmParser.parse(file);
+        assertEquals(2500L, probe.durationMillis());
+        assertEquals(640, probe.width());
+        assertEquals(480, probe.height());
+        assertEquals("4:3", probe.displayAspectRatio());
+        assertEquals("V_VP9", probe.videoCodec());
+        assertEquals(30.0d, probe.frameRate(), 0.01d);
+        assertEquals("A_OPUS", probe.audioCodec());
+        assertEquals(48000, probe.sampleRate());
+        assertEquals(2, probe.channels());
+        assertEquals(16, probe.bitDepth());
+    }
+
+    @Test
+    void shouldStopAtFirstClusterWithoutSeekHead() throws Exception {
+        byte[] cluster = element(0x1F43B675, element(0xE7, new byte[] {0}));
+        byte[] tracks = element(0x1654AE6B, element(0xAE, element(0x83, new byte[] {2})));
+        byte[] file = concat(ebmlHeader("webm"), element(0x18538067, concat(cluster, tracks)));
+
+        WebmProbeInfo probe = WebmParser.parse(file);
+        assertNull(probe.durationMillis());
+        assertNull(probe.audioCodec());
+    }
+
+    @Test
+    void shouldRejectOtherDocTypes() {
+        byte[] file = concat(ebmlHeader("other"), element(0x18538067, new byte[8]));
+        assertFalse(WebmParser.isLikelyWebm(file));
+        assertThrows(CodecMediaException.class, () -> WebmParser.parse(file));
+    }
+
+    private static byte[] seekHead(long infoPosition, long tracksPosition) {
+        return element(0x114D9B74, concat(
+                element(0x4DBB, concat(element(0x53AB, new byte[] {0x15, 0x49, (byte) 0xA9, 0x66}), element(0x53AC, ByteBuffer.allocate(8).putLong(infoPosition).array()))),
+                element(0x4DBB, concat(element(0x53AB, new byte[] {0x16, 0x54, (byte) 0xAE, 0x6B}), element(0x53AC, ByteBuffer.allocate(8).putLong(tracksPosition).array())))));
+    }
+
+    private static byte[] ebmlHeader(String docType) {
+        return element(0x1A45DFA3, element(0x4282, docType.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /** Element with a minimal-length ID and an 8-byte size field. */
+    private static byte[] element(int id, byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int idLength = id > 0xFFFFFF ? 4 : id > 0xFFFF ? 3 : id > 0xFF ? 2 : 1;
+        for (int i = idLength - 1; i >= 0; i--) {
+            out.write(id >>> (8 * i));
+        }
+        out.write(0x01);
+        for (int i = 6; i >= 0; i--) {
+            out.write((int) ((long) payload.length >>> (8 * i)));
+        }
+        out.writeBytes(payload);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}